@@ -0,0 +1,35 @@
+package com.inditex.test.builder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of the comprehensive promotion data set at the sizes the seeders ask for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TestDataGeneratorBenchmark {
+
+    @Param({"200", "1000", "5000"})
+    private int records;
+
+    @Benchmark
+    public List<TestDataGenerator.PromotionTestData> generateComprehensiveTestData() {
+        return TestDataGenerator.generateComprehensiveTestData(records);
+    }
+}
@@ -0,0 +1,36 @@
+package com.inditex.test.pages;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShoppingCartPage#parsePrice(String)} on the price formats shown by the storefronts,
+ * including text that is not a price and takes the exception path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceParsingBenchmark {
+
+    @Param({"89.95 €", "1.234,56 €", "EUR 1234,56", "£ 19.99", "Free shipping"})
+    private String priceText;
+
+    @Benchmark
+    public BigDecimal parsePrice() {
+        return ShoppingCartPage.parsePrice(priceText);
+    }
+}
@@ -0,0 +1,87 @@
+package com.inditex.test.performance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of XML and CSV JTL files into metrics, on generated result files of a few run sizes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PerformanceMetricsParserBenchmark {
+    private static final String[] LABELS = {"GET /products", "GET /promotions", "POST /cart", "GET /checkout"};
+
+    @Param({"1000", "100000"})
+    private int samples;
+
+    private final PerformanceMetricsParser parser = new PerformanceMetricsParser();
+    private Path xmlFile;
+    private Path csvFile;
+
+    @Setup
+    public void writeResultFiles() throws IOException {
+        xmlFile = Files.createTempFile("benchmark", ".jtl");
+        csvFile = Files.createTempFile("benchmark", ".csv");
+        // Same seed for both files, so both formats describe the same run
+        Random random = new Random(42);
+        long timestamp = 1_700_000_000_000L;
+
+        try (BufferedWriter xml = Files.newBufferedWriter(xmlFile, StandardCharsets.UTF_8);
+             BufferedWriter csv = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+            xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testResults version=\"1.2\">\n");
+            csv.write("timeStamp,elapsed,label,responseCode,responseMessage,threadName,dataType,success,failureMessage,bytes\n");
+            for (int i = 0; i < samples; i++) {
+                timestamp += random.nextInt(20);
+                long elapsed = 20 + (long) Math.abs(random.nextGaussian() * 150);
+                boolean success = random.nextInt(100) != 0;
+                String code = success ? "200" : "500";
+                String label = LABELS[i % LABELS.length];
+                long bytes = 512 + random.nextInt(4096);
+
+                xml.write(String.format("<httpSample t=\"%d\" lt=\"%d\" ts=\"%d\" s=\"%s\" lb=\"%s\" rc=\"%s\" rm=\"OK\" tn=\"Users 1-%d\" dt=\"text\" by=\"%d\"/>%n",
+                        elapsed, elapsed / 2, timestamp, success, label, code, i % 50, bytes));
+                csv.write(String.format("%d,%d,%s,%s,OK,Users 1-%d,text,%s,,%d%n",
+                        timestamp, elapsed, label, code, i % 50, success, bytes));
+            }
+            xml.write("</testResults>\n");
+        }
+    }
+
+    @TearDown
+    public void deleteResultFiles() throws IOException {
+        Files.deleteIfExists(xmlFile);
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public PerformanceMetrics parseXmlJtl() throws Exception {
+        return parser.parseJTLFile(xmlFile.toString());
+    }
+
+    @Benchmark
+    public PerformanceMetrics parseCsvJtl() throws Exception {
+        return parser.parseCSVFile(csvFile.toString());
+    }
+}
@@ -0,0 +1,66 @@
+package com.inditex.test.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XSS and SQL injection detection on inputs of growing length. Clean text is the worst
+ * case as every pattern is tried; markup exercises the backtracking of the tag patterns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecurityUtilsBenchmark {
+    private static final String TEXT = "Classic black dress with long sleeves and a relaxed fit ";
+    private static final String MARKUP = "<p class=\"promo\">Summer sale <b>up to 50</b> off</p> ";
+    private static final String ATTACK = "<script>alert(1)</script> ' OR '1'='1' -- ";
+
+    @Param({"64", "1024", "16384"})
+    private int length;
+
+    @Param({"text", "markup", "attack"})
+    private String content;
+
+    private String input;
+
+    @Setup
+    public void createInput() {
+        boolean attack = "attack".equals(content);
+        String unit = "markup".equals(content) ? MARKUP : TEXT;
+        // The malicious part goes at the end, so detection has to scan the whole input first
+        int padding = attack ? Math.max(0, length - ATTACK.length()) : length;
+        StringBuilder builder = new StringBuilder(length + unit.length());
+        while (builder.length() < padding) {
+            builder.append(unit);
+        }
+        builder.setLength(padding);
+        if (attack) {
+            builder.append(ATTACK);
+        }
+        input = builder.toString();
+    }
+
+    @Benchmark
+    public boolean containsXss() {
+        return SecurityUtils.containsXss(input);
+    }
+
+    @Benchmark
+    public boolean containsSqlInjection() {
+        return SecurityUtils.containsSqlInjection(input);
+    }
+}
@@ -0,0 +1,63 @@
+package com.inditex.test.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and validation of promotion CSV test data, i.e. what every cache miss of
+ * {@link CsvDataReader} pays, without the classpath lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvDataReaderBenchmark {
+    private static final String HEADER = "brand,country,language,customer_type,sku,product_name,promotion_name,"
+            + "discount_type,discount_value,original_price,promotional_price_expected,campaign_type,start_date,end_date\n";
+    private static final String[] BRANDS = {"Zara", "Bershka", "Pull&Bear", "Massimo Dutti"};
+    private static final String[][] COUNTRIES = {{"ES", "es"}, {"FR", "fr"}, {"DE", "de"}, {"GB", "en"}};
+
+    @Param({"100", "1000", "10000"})
+    private int records;
+
+    private String csv;
+
+    @Setup
+    public void createCsv() {
+        StringBuilder builder = new StringBuilder(HEADER);
+        for (int i = 0; i < records; i++) {
+            String brand = BRANDS[i % BRANDS.length];
+            String[] country = COUNTRIES[i % COUNTRIES.length];
+            builder.append(brand).append(',').append(country[0]).append(',').append(country[1]).append(',')
+                    .append(i % 3 == 0 ? "member" : "guest").append(',')
+                    .append(String.format("%s%05d%s", brand.substring(0, 3).toUpperCase(), i, country[0])).append(',')
+                    .append("\"Product ").append(i).append(", limited edition\"").append(',')
+                    .append("Weekend Special 20% Off,PERCENTAGE,20,89.95,71.96,")
+                    .append(i % 5 == 0 ? "seasonal,2025-06-01,2025-06-30" : "regular,,")
+                    .append('\n');
+        }
+        csv = builder.toString();
+    }
+
+    @Benchmark
+    public List<Map<String, String>> parseTestData() throws IOException {
+        return CsvDataReader.parseTestData(new StringReader(csv), "benchmark.csv");
+    }
+}
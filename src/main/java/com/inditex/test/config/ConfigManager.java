@@ -6,6 +6,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Properties;
 
 public class ConfigManager {
@@ -110,6 +112,21 @@ public class ConfigManager {
         }
     }
     
+    public static <E extends Enum<E>> E getEnumProperty(String key, E defaultValue) {
+        String value = getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        Class<E> type = defaultValue.getDeclaringClass();
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid value {} for property {}, expected one of {}, using default: {}",
+                value, key, Arrays.toString(type.getEnumConstants()), defaultValue);
+            return defaultValue;
+        }
+    }
+    
     public static boolean getBooleanProperty(String key, boolean defaultValue) {
         String value = getProperty(key);
         return value != null ? Boolean.parseBoolean(value) : defaultValue;
@@ -0,0 +1,124 @@
+package com.inditex.test.api;
+
+import com.inditex.test.performance.LatencyHistogram;
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a concurrent burst of promotional price requests: the response or error of each
+ * request in submission order, the service times measured from each actual send and the
+ * latencies measured from each request's intended start, so time spent waiting for a free
+ * slot is not omitted.
+ */
+public class ConcurrentPriceResult {
+    private final Response[] responses;
+    private final RuntimeException[] errors;
+    private final int maxInFlight;
+    private final double targetRps;
+    private final LatencyHistogram serviceTimes = new LatencyHistogram();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private int completedCount;
+    private int errorCount;
+    private long elapsedMillis;
+
+    public ConcurrentPriceResult(int requestCount, int maxInFlight, double targetRps) {
+        this.responses = new Response[requestCount];
+        this.errors = new RuntimeException[requestCount];
+        this.maxInFlight = maxInFlight;
+        this.targetRps = targetRps;
+    }
+
+    synchronized void recordResponse(int index, Response response, long latencyMillis) {
+        responses[index] = response;
+        completedCount++;
+        serviceTimes.record(response.getTime());
+        latencies.record(latencyMillis);
+    }
+
+    synchronized void recordError(int index, RuntimeException error) {
+        errors[index] = error;
+        errorCount++;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getRequestCount() {
+        return responses.length;
+    }
+
+    public synchronized int getCompletedCount() {
+        return completedCount;
+    }
+
+    public synchronized int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Responses in submission order; null for requests that failed or never ran
+     */
+    public synchronized List<Response> getResponses() {
+        return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(responses)));
+    }
+
+    /**
+     * Error of the request at the given index, or null when it got a response
+     */
+    public synchronized RuntimeException getError(int index) {
+        return errors[index];
+    }
+
+    public synchronized int countWithStatus(int statusCode) {
+        int count = 0;
+        for (Response response : responses) {
+            if (response != null && response.getStatusCode() == statusCode) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Service times in ms, measured by RestAssured from each request's actual send
+     */
+    public synchronized LatencyHistogram getServiceTimes() {
+        return serviceTimes.copy();
+    }
+
+    /**
+     * Latencies in ms, measured from each request's intended start
+     */
+    public synchronized LatencyHistogram getLatencies() {
+        return latencies.copy();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Rate the requests were started at, 0 when all were due at the start of the burst
+     */
+    public double getTargetRps() {
+        return targetRps;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ConcurrentPriceResult{requests=%d, completed=%d, errors=%d, elapsed=%dms, "
+                        + "p50/p99 service time=%d/%dms, p50/p99 latency=%d/%dms}",
+                responses.length, completedCount, errorCount, elapsedMillis,
+                serviceTimes.getValueAtPercentile(50), serviceTimes.getValueAtPercentile(99),
+                latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(99));
+    }
+}
@@ -1,35 +1,108 @@
 package com.inditex.test.api;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.inditex.test.config.ConfigManager;
+import com.inditex.test.exceptions.TestFrameworkException;
 import com.inditex.test.model.PromotionalPriceRequest;
 import com.inditex.test.model.PromotionalPriceResponse;
-import io.restassured.RestAssured;
+import com.inditex.test.monitoring.ApiMetricsFilter;
+import com.inditex.test.monitoring.LoadTestMetrics;
+import com.inditex.test.parallel.VirtualThreadExecutors;
+import com.inditex.test.performance.ArrivalRateScheduler;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.LogConfig;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static io.restassured.RestAssured.given;
 
+/**
+ * Client of the promotional pricing API. Each instance carries its own base URL and RestAssured
+ * configuration, so clients of parallel threads share no static state. Besides the RestAssured
+ * calls it offers non-blocking ones over a pooled HTTP/2 client, which keeps its connections
+ * alive between calls instead of setting one up per request.
+ */
 public class PromotionalPricingApiClient {
     private static final Logger logger = LoggerFactory.getLogger(PromotionalPricingApiClient.class);
     
+    private static final String PRICING_PATH = "/v1/promotions/pricing";
+    // jackson-datatype-jsr310 is not on the classpath; the API sends ISO-8601 date times
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .registerModule(new SimpleModule().addDeserializer(LocalDateTime.class, new JsonDeserializer<LocalDateTime>() {
+                @Override
+                public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                    return LocalDateTime.from(DateTimeFormatter.ISO_DATE_TIME.parse(parser.getText()));
+                }
+            }));
+    
     private final String baseUrl;
     private final String apiKey;
     private final int timeout;
+    private final RequestSpecification requestSpec;
+    private final HttpClient httpClient;
+    private final ConnectionLimit connections;
+    private final boolean metricsEnabled;
+    private final int maxInFlight;
+    private final double targetRps;
     
     public PromotionalPricingApiClient() {
         this.baseUrl = ConfigManager.getProperty("api.base.url", "https://api.inditex.com");
         this.apiKey = ConfigManager.getEncryptedProperty("api.key");
         this.timeout = ConfigManager.getIntProperty("api.timeout.seconds", 30);
+        this.metricsEnabled = LoadTestMetrics.isEnabled();
+        
+        RequestSpecBuilder specBuilder = new RequestSpecBuilder()
+            .setBaseUri(baseUrl)
+            .setConfig(RestAssuredConfig.config()
+                .logConfig(LogConfig.logConfig().enableLoggingOfRequestAndResponseIfValidationFails()));
+        ApiMetricsFilter.addIfEnabled(specBuilder);
+        this.requestSpec = specBuilder.build();
         
-        RestAssured.baseURI = baseUrl;
-        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+        // The JDK client reads its keep-alive only from -Djdk.httpclient.keepalive.timeout,
+        // JVM-wide and before its first connection pool exists; surefire passes it
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(timeout))
+            .build();
+        this.connections = new ConnectionLimit(ConfigManager.getIntProperty("api.http.max.connections", 50));
+        this.maxInFlight = ConfigManager.getIntProperty("api.concurrent.max.in.flight", 100);
+        this.targetRps = Double.parseDouble(ConfigManager.getProperty("api.concurrent.rate.rps", "0"));
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("api.concurrent.max.in.flight must be at least 1");
+        }
         
         logger.info("Initialized API client with base URL: {}", baseUrl);
     }
@@ -41,7 +114,7 @@ public class PromotionalPricingApiClient {
     public Response getPromotionalPrice(String sku, String brand, String country, String customerType, String language) {
         logger.info("Requesting promotional price for SKU: {}, Brand: {}, Country: {}", sku, brand, country);
         
-        RequestSpecification request = given()
+        RequestSpecification request = given(requestSpec)
             .header("Authorization", "Bearer " + apiKey)
             .header("Content-Type", "application/json")
             .header("Accept", "application/json")
@@ -71,7 +144,7 @@ public class PromotionalPricingApiClient {
     public Response getPromotionalPriceWithAuth(String sku, String brand, String country, String authToken) {
         logger.info("Requesting promotional price with custom auth for SKU: {}", sku);
         
-        RequestSpecification request = given()
+        RequestSpecification request = given(requestSpec)
             .header("Content-Type", "application/json")
             .header("Accept", "application/json")
             .queryParam("sku", sku)
@@ -91,7 +164,7 @@ public class PromotionalPricingApiClient {
     public Response getBulkPromotionalPrices(List<PromotionalPriceRequest> requests) {
         logger.info("Requesting bulk promotional prices for {} products", requests.size());
         
-        return given()
+        return given(requestSpec)
             .header("Authorization", "Bearer " + apiKey)
             .contentType(ContentType.JSON)
             .body(Map.of("requests", requests))
@@ -103,7 +176,7 @@ public class PromotionalPricingApiClient {
     public Response getPromotionalPriceWithInventory(String sku, String brand, String country) {
         logger.info("Requesting promotional price with inventory for SKU: {}", sku);
         
-        return given()
+        return given(requestSpec)
             .header("Authorization", "Bearer " + apiKey)
             .header("Content-Type", "application/json")
             .queryParam("sku", sku)
@@ -115,41 +188,129 @@ public class PromotionalPricingApiClient {
             .get("/v1/promotions/pricing");
     }
     
-    public Response[] getConcurrentPromotionalPrices(String sku, String brand, String country, int numberOfRequests) {
-        logger.info("Making {} concurrent requests for SKU: {}", numberOfRequests, sku);
+    public CompletableFuture<PromotionalPriceResponse> getPromotionalPriceAsync(String sku, String brand, String country) {
+        return getPromotionalPriceAsync(sku, brand, country, null, null);
+    }
+    
+    /**
+     * Non-blocking promotional price request. At most api.http.max.connections requests are in
+     * flight per client, the rest wait for a free connection, so HTTP/1.1 servers never see more
+     * connections than that and HTTP/2 servers multiplex them. Completes exceptionally with a
+     * {@link TestFrameworkException} on any status other than 200.
+     */
+    public CompletableFuture<PromotionalPriceResponse> getPromotionalPriceAsync(String sku, String brand, String country,
+                                                                                String customerType, String language) {
+        logger.debug("Requesting promotional price asynchronously for SKU: {}, Brand: {}, Country: {}", sku, brand, country);
         
-        Response[] responses = new Response[numberOfRequests];
+        Map<String, String> query = new LinkedHashMap<>();
+        query.put("sku", sku);
+        query.put("brand", brand);
+        query.put("country", country);
+        if (customerType != null) {
+            query.put("customerType", customerType);
+        }
+        if (language != null) {
+            query.put("language", language);
+        }
         
-        // Create concurrent requests
-        Thread[] threads = new Thread[numberOfRequests];
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + PRICING_PATH + "?" + queryString(query)))
+            .timeout(Duration.ofSeconds(timeout))
+            .header("Authorization", "Bearer " + apiKey)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
         
-        for (int i = 0; i < numberOfRequests; i++) {
-            final int index = i;
-            threads[i] = new Thread(() -> {
-                responses[index] = getPromotionalPrice(sku, brand, country);
-            });
+        // Completion runs on the client's threads, which do not carry the caller's scenario
+        String scenario = LoadTestMetrics.currentScenario();
+        return connections.submit(() -> {
+            long start = System.nanoTime();
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    if (metricsEnabled) {
+                        String status = response != null ? String.valueOf(response.statusCode()) : rootCause(error).getClass().getSimpleName();
+                        LoadTestMetrics.recordApiCall(scenario, "GET " + PRICING_PATH, brand, country, status, System.nanoTime() - start);
+                    }
+                });
+        }).thenApply(response -> toPromotionalPrice(sku, response));
+    }
+    
+    private static PromotionalPriceResponse toPromotionalPrice(String sku, HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new TestFrameworkException("Promotional price request for SKU " + sku
+                + " failed with status " + response.statusCode() + ": " + response.body());
+        }
+        try {
+            return MAPPER.readValue(response.body(), PromotionalPriceResponse.class);
+        } catch (IOException e) {
+            throw new TestFrameworkException("Parsing promotional price response for SKU " + sku + " failed", e);
         }
+    }
+    
+    private static String queryString(Map<String, String> parameters) {
+        return parameters.entrySet().stream()
+            .map(entry -> entry.getKey() + "=" + URLEncoder.encode(String.valueOf(entry.getValue()), StandardCharsets.UTF_8))
+            .collect(Collectors.joining("&"));
+    }
+    
+    private static Throwable rootCause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    /**
+     * Sends a burst of concurrent requests on virtual threads, with at most
+     * api.concurrent.max.in.flight in flight and, when api.concurrent.rate.rps is set, started
+     * at that rate. Latencies are measured from each request's intended start (the start of the
+     * burst, or its slot of the rate schedule), so requests held back by the in-flight limit are
+     * not reported as fast (coordinated omission).
+     */
+    public ConcurrentPriceResult getConcurrentPromotionalPrices(String sku, String brand, String country, int numberOfRequests) {
+        logger.info("Making {} concurrent requests for SKU: {}, at most {} in flight{}", numberOfRequests, sku,
+            maxInFlight, targetRps > 0 ? " at " + targetRps + " req/s" : "");
         
-        // Start all threads
+        ConcurrentPriceResult result = new ConcurrentPriceResult(numberOfRequests, maxInFlight, targetRps);
+        ArrivalRateScheduler schedule = targetRps > 0 ? new ArrivalRateScheduler(targetRps) : null;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService executor = VirtualThreadExecutors.newThreadPerTaskExecutor("api-concurrent-");
         long startTime = System.currentTimeMillis();
-        for (Thread thread : threads) {
-            thread.start();
-        }
         
-        // Wait for all threads to complete
-        for (Thread thread : threads) {
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-                logger.error("Thread interrupted during concurrent API calls", e);
-                Thread.currentThread().interrupt();
+        try {
+            for (int i = 0; i < numberOfRequests; i++) {
+                long intendedStart = schedule != null ? schedule.nextIntendedStart() : startTime;
+                sleepUntil(intendedStart);
+                inFlight.acquire();
+                int index = i;
+                executor.execute(() -> {
+                    try {
+                        Response response = getPromotionalPrice(sku, brand, country);
+                        result.recordResponse(index, response, System.currentTimeMillis() - intendedStart);
+                    } catch (RuntimeException e) {
+                        logger.warn("Concurrent request {} for SKU {} failed", index, sku, e);
+                        result.recordError(index, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
             }
+            
+            // Let requests in flight complete
+            inFlight.acquire(maxInFlight);
+            executor.shutdown();
+        } catch (InterruptedException e) {
+            logger.error("Thread interrupted during concurrent API calls", e);
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
         }
         
-        long endTime = System.currentTimeMillis();
-        logger.info("Completed {} concurrent requests in {}ms", numberOfRequests, (endTime - startTime));
-        
-        return responses;
+        result.setElapsedMillis(System.currentTimeMillis() - startTime);
+        logger.info("Completed concurrent requests: {}", result);
+        return result;
+    }
+    
+    private static void sleepUntil(long time) throws InterruptedException {
+        long delay = time - System.currentTimeMillis();
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
     }
     
     public Response validateApiSchema(String sku, String brand, String country) {
@@ -172,7 +333,7 @@ public class PromotionalPricingApiClient {
     
     public boolean isApiHealthy() {
         try {
-            Response response = given()
+            Response response = given(requestSpec)
                 .when()
                 .timeout(5, TimeUnit.SECONDS)
                 .get("/health");
@@ -191,7 +352,7 @@ public class PromotionalPricingApiClient {
         logger.info("Clearing API cache");
         
         try {
-            given()
+            given(requestSpec)
                 .header("Authorization", "Bearer " + apiKey)
                 .when()
                 .delete("/v1/promotions/cache")
@@ -203,4 +364,63 @@ public class PromotionalPricingApiClient {
             logger.warn("Failed to clear API cache", e);
         }
     }
+    
+    /**
+     * Caps the requests in flight, queueing the others in arrival order until one completes
+     */
+    private static class ConnectionLimit {
+        private final int maxConnections;
+        private final Deque<Runnable> waiting = new ArrayDeque<>();
+        private int inFlight;
+        
+        ConnectionLimit(int maxConnections) {
+            if (maxConnections < 1) {
+                throw new IllegalArgumentException("api.http.max.connections must be at least 1");
+            }
+            this.maxConnections = maxConnections;
+        }
+        
+        <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Runnable send = () -> {
+                CompletableFuture<T> future;
+                try {
+                    future = call.get();
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                future.whenComplete((value, error) -> {
+                    // Free the connection before running the caller's continuations
+                    release();
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            };
+            synchronized (this) {
+                if (inFlight >= maxConnections) {
+                    waiting.add(send);
+                    return result;
+                }
+                inFlight++;
+            }
+            send.run();
+            return result;
+        }
+        
+        private void release() {
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    inFlight--;
+                }
+            }
+            if (next != null) {
+                next.run();
+            }
+        }
+    }
 }
\ No newline at end of file
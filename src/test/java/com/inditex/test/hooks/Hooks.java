@@ -1,5 +1,6 @@
 package com.inditex.test.hooks;
 
+import com.inditex.test.monitoring.LoadTestMetrics;
 import com.inditex.test.utils.WebDriverFactory;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
@@ -18,6 +19,7 @@ public class Hooks {
     @Before
     public void setUp(Scenario scenario) {
         System.out.println("Starting scenario: " + scenario.getName());
+        LoadTestMetrics.setScenario(scenario.getName());
         // driver = WebDriverFactory.getDriver(); // Driver is initialized when first called by a step or page object
         // No need to explicitly get driver here unless some pre-scenario setup requires it directly
     }
@@ -25,6 +27,7 @@ public class Hooks {
     @After
     public void tearDown(Scenario scenario) {
         System.out.println("Finished scenario: " + scenario.getName() + " with status: " + scenario.getStatus());
+        LoadTestMetrics.clearScenario();
         driver = WebDriverFactory.getDriver(); // Ensure driver is available for screenshot
         if (scenario.isFailed()) {
             if (driver instanceof TakesScreenshot) {
@@ -0,0 +1,65 @@
+package com.inditex.test.monitoring;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.Map;
+
+/**
+ * RestAssured filter timing every API call into {@link LoadTestMetrics}, tagged with the
+ * path template (not the expanded path, which would give a series per SKU), the brand and
+ * country query parameters and the status
+ */
+public class ApiMetricsFilter implements Filter {
+
+    /**
+     * Adds the filter to the RestAssured defaults and starts the scrape endpoint when metrics
+     * are enabled; safe to call from every client
+     */
+    public static synchronized void installIfEnabled() {
+        if (!LoadTestMetrics.isEnabled()) {
+            return;
+        }
+        if (RestAssured.filters().stream().noneMatch(filter -> filter instanceof ApiMetricsFilter)) {
+            RestAssured.filters(new ApiMetricsFilter());
+        }
+        LoadTestMetrics.startEndpoint();
+    }
+
+    /**
+     * Adds the filter to a client's own request specification instead of the RestAssured
+     * defaults, unless the defaults already time every call
+     */
+    public static void addIfEnabled(RequestSpecBuilder specBuilder) {
+        if (!LoadTestMetrics.isEnabled()) {
+            return;
+        }
+        if (RestAssured.filters().stream().noneMatch(filter -> filter instanceof ApiMetricsFilter)) {
+            specBuilder.addFilter(new ApiMetricsFilter());
+        }
+        LoadTestMetrics.startEndpoint();
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext context) {
+        Map<String, String> queryParams = requestSpec.getQueryParams();
+        String endpoint = requestSpec.getMethod() + " " + requestSpec.getUserDefinedPath();
+        long start = System.nanoTime();
+        try {
+            Response response = context.next(requestSpec, responseSpec);
+            LoadTestMetrics.recordApiCall(endpoint, queryParams.get("brand"), queryParams.get("country"),
+                    String.valueOf(response.getStatusCode()), System.nanoTime() - start);
+            return response;
+        } catch (RuntimeException e) {
+            LoadTestMetrics.recordApiCall(endpoint, queryParams.get("brand"), queryParams.get("country"),
+                    e.getClass().getSimpleName(), System.nanoTime() - start);
+            throw e;
+        }
+    }
+}
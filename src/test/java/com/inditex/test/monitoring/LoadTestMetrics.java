@@ -0,0 +1,190 @@
+package com.inditex.test.monitoring;
+
+import com.inditex.test.config.ConfigManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.HTTPServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer meters of load tests and API clients, published in the Prometheus format on an
+ * embedded scrape endpoint (monitoring.metrics.endpoint, started when
+ * monitoring.metrics.endpoint.enabled is set) so test traffic can be charted live next to the
+ * server-side metrics. Samples are timed per scenario, sampler, brand and country;
+ * the timers publish histogram buckets, so percentiles can be aggregated across generators
+ * with histogram_quantile.
+ */
+public final class LoadTestMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestMetrics.class);
+
+    public static final String SAMPLE_TIMER = "loadtest.sample.duration";
+    public static final String ACTIVE_THREADS_GAUGE = "loadtest.threads.active";
+    public static final String API_TIMER = "api.client.request.duration";
+    static final String NONE = "none";
+
+    private static final Duration MAX_EXPECTED_DURATION = Duration.ofSeconds(60);
+    private static final PrometheusMeterRegistry REGISTRY = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> ACTIVE_THREADS = new ConcurrentHashMap<>();
+    private static final InheritableThreadLocal<String> SCENARIO = new InheritableThreadLocal<>();
+
+    private static HTTPServer endpoint;
+
+    private LoadTestMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("monitoring.metrics.enabled", false);
+    }
+
+    public static MeterRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    /**
+     * Current exposition of all meters, as served by the scrape endpoint
+     */
+    public static String scrape() {
+        return REGISTRY.scrape();
+    }
+
+    public static boolean isEndpointEnabled() {
+        return ConfigManager.getBooleanProperty("monitoring.metrics.endpoint.enabled", false);
+    }
+
+    /**
+     * Starts the scrape endpoint at the address of monitoring.metrics.endpoint when it is
+     * enabled, once per JVM; it keeps serving after the run so the last values are scraped too.
+     * When the port is taken, by another JVM or fork on the host, the run goes on without it.
+     */
+    public static synchronized void startEndpoint() {
+        if (endpoint != null || !isEndpointEnabled()) {
+            return;
+        }
+        URI address = URI.create(ConfigManager.getProperty("monitoring.metrics.endpoint", "http://localhost:9464/metrics"));
+        int port = address.getPort() > 0 ? address.getPort() : 9464;
+        try {
+            endpoint = new HTTPServer(new InetSocketAddress(address.getHost(), port), REGISTRY.getPrometheusRegistry(), true);
+            logger.info("Metrics scrape endpoint listening on http://{}:{}/metrics", address.getHost(), endpoint.getPort());
+        } catch (IOException e) {
+            logger.warn("Starting metrics endpoint on {} failed, metrics are not served: {}", address, e.toString());
+        }
+    }
+
+    public static synchronized void stopEndpoint() {
+        if (endpoint != null) {
+            endpoint.close();
+            endpoint = null;
+        }
+    }
+
+    /**
+     * Scenario the API calls of this thread and the threads it starts are tagged with
+     */
+    public static void setScenario(String scenario) {
+        SCENARIO.set(scenario);
+    }
+
+    public static void clearScenario() {
+        SCENARIO.remove();
+    }
+
+    public static String currentScenario() {
+        return SCENARIO.get();
+    }
+
+    /**
+     * Records one completed load test sample
+     */
+    public static void recordSample(String scenario, String sampler, String brand, String country,
+                                    long responseTimeMillis, boolean success) {
+        timer(SAMPLE_TIMER, "scenario", scenario, "sampler", sampler, brand, country, success ? "success" : "failure")
+                .record(responseTimeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records one API client call; the status is the HTTP status, or the error class when the
+     * call failed without a response
+     */
+    public static void recordApiCall(String endpointName, String brand, String country, String status, long durationNanos) {
+        recordApiCall(SCENARIO.get(), endpointName, brand, country, status, durationNanos);
+    }
+
+    /**
+     * Records one API client call completed on another thread than the one that made it
+     */
+    public static void recordApiCall(String scenario, String endpointName, String brand, String country, String status,
+                                     long durationNanos) {
+        timer(API_TIMER, "scenario", scenario, "endpoint", endpointName, brand, country, status)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counter of the active load test threads of a scenario, published as a gauge; one per
+     * scenario name, so every run of the scenario counts into the same gauge
+     */
+    public static AtomicInteger activeThreads(String scenario) {
+        return ACTIVE_THREADS.computeIfAbsent(tagValue(scenario), tag -> {
+            AtomicInteger threads = new AtomicInteger();
+            Gauge.builder(ACTIVE_THREADS_GAUGE, threads, AtomicInteger::get)
+                    .description("Active load test threads")
+                    .tag("scenario", tag)
+                    .strongReference(true)
+                    .register(REGISTRY);
+            return threads;
+        });
+    }
+
+    /**
+     * Value of a query parameter, or null; used to tag samples with brand and country
+     */
+    public static String queryParameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && parameter.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Timers are looked up once per tag combination; the last tag is the outcome or status
+     */
+    private static Timer timer(String name, String firstKey, String first, String secondKey, String second,
+                               String brand, String country, String outcome) {
+        String key = String.join("\u0000", name, tagValue(first), tagValue(second), tagValue(brand),
+                tagValue(country), tagValue(outcome));
+        return TIMERS.computeIfAbsent(key, ignored -> Timer.builder(name)
+                .tag(firstKey, tagValue(first))
+                .tag(secondKey, tagValue(second))
+                .tag("brand", tagValue(brand))
+                .tag("country", tagValue(country))
+                .tag(SAMPLE_TIMER.equals(name) ? "outcome" : "status", tagValue(outcome))
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                .register(REGISTRY));
+    }
+
+    private static String tagValue(String value) {
+        return value == null || value.isEmpty() ? NONE : value;
+    }
+}
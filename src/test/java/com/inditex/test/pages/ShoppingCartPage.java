@@ -6,6 +6,8 @@ import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -13,6 +15,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class ShoppingCartPage extends BasePage {
+    // For the static helpers, the inherited logger belongs to an instance
+    private static final Logger staticLogger = LoggerFactory.getLogger(ShoppingCartPage.class);
 
     // Cart page elements
     @FindBy(css = "[data-testid='cart-items-container'], .cart-items, .shopping-cart-items")
@@ -124,9 +128,9 @@ public class ShoppingCartPage extends BasePage {
     }
 
     /**
-     * Parse price string to BigDecimal
+     * Parse price string to BigDecimal; depends on no page state
      */
-    public BigDecimal parsePrice(String priceText) {
+    public static BigDecimal parsePrice(String priceText) {
         if (priceText == null || priceText.trim().isEmpty()) {
             return BigDecimal.ZERO;
         }
@@ -146,7 +150,7 @@ public class ShoppingCartPage extends BasePage {
         try {
             return new BigDecimal(cleanPrice);
         } catch (NumberFormatException e) {
-            logger.warn("Failed to parse price: '{}', returning 0.00", priceText);
+            staticLogger.warn("Failed to parse price: '{}', returning 0.00", priceText);
             return BigDecimal.ZERO;
         }
     }
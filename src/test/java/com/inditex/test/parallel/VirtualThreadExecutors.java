@@ -0,0 +1,64 @@
+package com.inditex.test.parallel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates thread-per-task executors backed by virtual threads when the running JVM
+ * supports them (Java 21+). The project compiles for Java 11, so the virtual thread
+ * factory is looked up reflectively and older JVMs fall back to platform threads.
+ */
+public final class VirtualThreadExecutors {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadExecutors.class);
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadFactory();
+
+    private VirtualThreadExecutors() {
+    }
+
+    /**
+     * Whether the running JVM supports virtual threads
+     */
+    public static boolean isAvailable() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Executor starting one virtual thread per task, or one daemon platform thread per
+     * task (cached) with the given name prefix when virtual threads are not available
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+            } catch (Exception e) {
+                logger.warn("Failed to create virtual thread executor, using platform threads", e);
+            }
+        }
+        return Executors.newCachedThreadPool(daemonThreadFactory(namePrefix));
+    }
+
+    private static ThreadFactory daemonThreadFactory(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method findVirtualThreadFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            logger.debug("Virtual threads not available on Java {}", System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.inditex.test.performance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the requests of an access log, one line at a time, so logs of any size are read
+ * in constant memory; .gz logs are decompressed on the fly. Only requests whose path and
+ * query match the filter are returned, each with its offset from the first one.
+ * <p>
+ * Two formats are understood: the common/combined format of nginx and Apache, and JSON lines
+ * with timestamp, method, path and optional body fields. The combined format has second
+ * resolution, so the requests logged within one second are spread evenly over it; that is
+ * the only buffering, bounded by the peak traffic of a second. Servers log requests when
+ * they complete, slightly out of order, so offsets never go back in time.
+ */
+public class AccessLogReader implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogReader.class);
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MALFORMED_LINES_LOGGED = 5;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // host ident user [time] "METHOD target PROTOCOL" ...
+    private static final Pattern COMBINED_LINE =
+            Pattern.compile("^\\S+ \\S+ (?:\"[^\"]*\"|\\S+) \\[([^\\]]+)\\] \"([A-Z]+) (\\S+)(?: [^\"]*)?\"");
+    private static final Pattern ABSOLUTE_TARGET = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*://[^/?]*");
+    private static final DateTimeFormatter COMBINED_TIME = new DateTimeFormatterBuilder()
+            .appendPattern("dd/MMM/yyyy:HH:mm:ss")
+            .optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 1, 9, true).optionalEnd()
+            .appendPattern(" Z")
+            .toFormatter(Locale.ENGLISH);
+
+    public enum Format {
+        COMBINED,
+        JSON
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final Pattern pathFilter;
+    private final Deque<Entry> ready = new ArrayDeque<>();
+    private final List<LogLine> sameSecond = new ArrayList<>();
+
+    private long firstTimestamp = Long.MIN_VALUE;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private String lastTimeField;
+    private long lastTimeValue;
+    private boolean lastTimeWholeSecond;
+    private boolean wholeSecond;
+    private boolean endOfLog;
+    private long linesRead;
+    private long matchedLines;
+    private long malformedLines;
+
+    public AccessLogReader(Path file, Format format, Pattern pathFilter) throws IOException {
+        InputStream input = Files.newInputStream(file);
+        try {
+            if (file.getFileName().toString().endsWith(".gz")) {
+                input = new GZIPInputStream(input, READ_BUFFER_SIZE);
+            }
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        this.format = format;
+        this.pathFilter = pathFilter;
+    }
+
+    /**
+     * The next matching request, or null at the end of the log
+     */
+    public Entry next() throws IOException {
+        while (ready.isEmpty() && !endOfLog) {
+            String line = reader.readLine();
+            if (line == null) {
+                endOfLog = true;
+                releaseSameSecond();
+                break;
+            }
+            linesRead++;
+            LogLine parsed = parse(line);
+            if (parsed == null || !pathFilter.matcher(parsed.target).matches()) {
+                continue;
+            }
+            matchedLines++;
+            if (!wholeSecond) {
+                releaseSameSecond();
+                ready.add(toEntry(parsed, parsed.timestamp));
+            } else {
+                if (!sameSecond.isEmpty() && sameSecond.get(0).timestamp != parsed.timestamp) {
+                    releaseSameSecond();
+                }
+                sameSecond.add(parsed);
+            }
+        }
+        return ready.poll();
+    }
+
+    /**
+     * Spreads the requests buffered for one second evenly over it
+     */
+    private void releaseSameSecond() {
+        for (int i = 0; i < sameSecond.size(); i++) {
+            LogLine line = sameSecond.get(i);
+            ready.add(toEntry(line, line.timestamp + 1000L * i / sameSecond.size()));
+        }
+        sameSecond.clear();
+    }
+
+    private Entry toEntry(LogLine line, long timestamp) {
+        if (firstTimestamp == Long.MIN_VALUE) {
+            firstTimestamp = timestamp;
+        }
+        lastTimestamp = Math.max(lastTimestamp, timestamp);
+        return new Entry(lastTimestamp - firstTimestamp, lastTimestamp, line.method, line.target, line.body);
+    }
+
+    private LogLine parse(String line) {
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return format == Format.JSON ? parseJson(line) : parseCombined(line);
+        } catch (IOException | RuntimeException e) {
+            malformedLines++;
+            if (malformedLines <= MALFORMED_LINES_LOGGED) {
+                logger.warn("Skipping malformed access log line {}: {}", linesRead, e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private LogLine parseCombined(String line) {
+        Matcher matcher = COMBINED_LINE.matcher(line);
+        if (!matcher.lookingAt()) {
+            throw new IllegalArgumentException("not in common/combined log format");
+        }
+        // Consecutive lines mostly share their time, parse it once
+        String time = matcher.group(1);
+        if (!time.equals(lastTimeField)) {
+            OffsetDateTime parsed = OffsetDateTime.parse(time, COMBINED_TIME);
+            lastTimeValue = parsed.toInstant().toEpochMilli();
+            lastTimeWholeSecond = parsed.getNano() == 0 && time.indexOf('.') < 0;
+            lastTimeField = time;
+        }
+        wholeSecond = lastTimeWholeSecond;
+        return new LogLine(lastTimeValue, matcher.group(2), relativeTarget(matcher.group(3)), null);
+    }
+
+    private LogLine parseJson(String line) throws IOException {
+        JsonNode node = MAPPER.readTree(line);
+        JsonNode timestamp = node.path("timestamp");
+        JsonNode path = node.path("path");
+        if (timestamp.isMissingNode() || !path.isTextual()) {
+            throw new IllegalArgumentException("timestamp or path missing");
+        }
+        long time;
+        if (timestamp.isNumber()) {
+            time = timestamp.asLong();
+        } else {
+            try {
+                time = OffsetDateTime.parse(timestamp.asText()).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                time = Instant.parse(timestamp.asText()).toEpochMilli();
+            }
+        }
+        wholeSecond = false;
+        JsonNode body = node.path("body");
+        return new LogLine(time, node.path("method").asText("GET").toUpperCase(Locale.ROOT),
+                relativeTarget(path.asText()), body.isMissingNode() || body.isNull() ? null
+                        : body.isTextual() ? body.asText() : MAPPER.writeValueAsString(body));
+    }
+
+    /**
+     * Drops scheme and host from absolute targets, as logged by proxies
+     */
+    private static String relativeTarget(String target) {
+        String relative = ABSOLUTE_TARGET.matcher(target).replaceFirst("");
+        return relative.isEmpty() ? "/" : relative;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public long getMatchedLines() {
+        return matchedLines;
+    }
+
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * One logged request; the offset is the time since the first matching request
+     */
+    public static class Entry {
+        private final long offset;
+        private final long timestamp;
+        private final String method;
+        private final String target;
+        private final String body;
+
+        Entry(long offset, long timestamp, String method, String target, String body) {
+            this.offset = offset;
+            this.timestamp = timestamp;
+            this.method = method;
+            this.target = target;
+            this.body = body;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * Path and query string
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        /**
+         * Request body, only available from JSON logs that record it
+         */
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * Method and path without the query, the label samples are reported under
+         */
+        public String getLabel() {
+            int query = target.indexOf('?');
+            return method + " " + (query >= 0 ? target.substring(0, query) : target);
+        }
+    }
+
+    private static class LogLine {
+        final long timestamp;
+        final String method;
+        final String target;
+        final String body;
+
+        LogLine(long timestamp, String method, String target, String body) {
+            this.timestamp = timestamp;
+            this.method = method;
+            this.target = target;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.inditex.test.performance;
+
+import com.inditex.test.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Replay of the requests of a production access log at their original inter-arrival times,
+ * optionally sped up: with a speed-up of 2 an hour of traffic is replayed in half an hour.
+ * Each request has an intended start on the log's timeline and, as in the open model, a
+ * request delayed because all workers were busy is measured from that intended start.
+ * Distributed replays split the requests between generators round robin, keeping the
+ * common timeline.
+ */
+public class AccessLogReplay {
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogReplay.class);
+
+    static final String DEFAULT_PATH_FILTER = "/v1/promotions/pricing(/bulk)?(\\?.*)?";
+
+    private String logFile;
+    private AccessLogReader.Format format = AccessLogReader.Format.COMBINED;
+    private String pathFilter = DEFAULT_PATH_FILTER;
+    private double speedUp = 1.0;
+    private String baseUrl;
+    private int partition;
+    private int partitions = 1;
+
+    public AccessLogReplay() {
+    }
+
+    public AccessLogReplay(String logFile, AccessLogReader.Format format, double speedUp) {
+        this.logFile = logFile;
+        this.format = format;
+        this.speedUp = speedUp;
+    }
+
+    /**
+     * The replay of the log named by performance.replay.log, or null when none is configured
+     */
+    public static AccessLogReplay fromConfig() {
+        String logFile = ConfigManager.getProperty("performance.replay.log");
+        if (logFile == null || logFile.trim().isEmpty()) {
+            return null;
+        }
+        AccessLogReplay replay = new AccessLogReplay(logFile.trim(),
+                AccessLogReader.Format.valueOf(ConfigManager.getProperty("performance.replay.format", "combined")
+                        .trim().toUpperCase(Locale.ROOT)),
+                Double.parseDouble(ConfigManager.getProperty("performance.replay.speedup", "1.0")));
+        replay.setPathFilter(ConfigManager.getProperty("performance.replay.path.filter", DEFAULT_PATH_FILTER));
+        replay.setBaseUrl(ConfigManager.getProperty("performance.replay.base.url"));
+        return replay;
+    }
+
+    /**
+     * Opens the log for one run of the replay
+     */
+    public Schedule open() throws IOException {
+        if (speedUp <= 0) {
+            throw new IllegalArgumentException("Replay speed-up must be positive");
+        }
+        return new Schedule(new AccessLogReader(Paths.get(logFile), format, Pattern.compile(pathFilter)));
+    }
+
+    /**
+     * The requests one of several load generators replays: every workerCount-th request
+     */
+    public AccessLogReplay forWorker(int worker, int workerCount) {
+        AccessLogReplay share = new AccessLogReplay(logFile, format, speedUp);
+        share.setPathFilter(pathFilter);
+        share.setBaseUrl(baseUrl);
+        share.setPartition(partition * workerCount + worker);
+        share.setPartitions(partitions * workerCount);
+        return share;
+    }
+
+    public String getLogFile() {
+        return logFile;
+    }
+
+    public void setLogFile(String logFile) {
+        this.logFile = logFile;
+    }
+
+    public AccessLogReader.Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(AccessLogReader.Format format) {
+        this.format = format;
+    }
+
+    /**
+     * Regular expression the path and query of a request must match to be replayed
+     */
+    public String getPathFilter() {
+        return pathFilter;
+    }
+
+    public void setPathFilter(String pathFilter) {
+        this.pathFilter = pathFilter;
+    }
+
+    public double getSpeedUp() {
+        return speedUp;
+    }
+
+    public void setSpeedUp(double speedUp) {
+        this.speedUp = speedUp;
+    }
+
+    /**
+     * Target of the replayed requests; base.url when not set
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public void setPartition(int partition) {
+        this.partition = partition;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s at %.1fx", logFile, speedUp)
+                + (partitions > 1 ? String.format(" (part %d of %d)", partition + 1, partitions) : "");
+    }
+
+    /**
+     * Hands out the requests of the log in order with their intended start times; shared by
+     * all workers of a run. The timeline starts with the first claimed request, or earlier
+     * with {@link #start()}.
+     */
+    public class Schedule implements Closeable {
+        private final AccessLogReader reader;
+        private volatile long startTime = -1;
+        private long index;
+        private long scheduledRequests;
+
+        Schedule(AccessLogReader reader) {
+            this.reader = reader;
+        }
+
+        public synchronized void start() {
+            if (startTime < 0) {
+                startTime = System.currentTimeMillis();
+            }
+        }
+
+        /**
+         * The next request of this replay's partition, or null at the end of the log
+         */
+        public synchronized AccessLogReader.Entry next() throws IOException {
+            start();
+            AccessLogReader.Entry entry;
+            do {
+                entry = reader.next();
+            } while (entry != null && index++ % partitions != partition);
+            if (entry != null) {
+                scheduledRequests++;
+            }
+            return entry;
+        }
+
+        /**
+         * When the request should start, in epoch millis
+         */
+        public long intendedStart(AccessLogReader.Entry entry) {
+            return startTime + Math.round(entry.getOffset() / speedUp);
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public synchronized long getScheduledRequests() {
+            return scheduledRequests;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            logger.info("Replayed {} requests of {}: {} of {} log lines matched, {} malformed", scheduledRequests,
+                    AccessLogReplay.this, reader.getMatchedLines(), reader.getLinesRead(), reader.getMalformedLines());
+            reader.close();
+        }
+    }
+}
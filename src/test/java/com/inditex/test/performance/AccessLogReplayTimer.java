@@ -0,0 +1,96 @@
+package com.inditex.test.performance;
+
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jmeter.timers.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * JMeter timer feeding an access log replay to all threads of a plan. Before each sample
+ * the thread claims the next logged request, puts its method, target, body and label into
+ * the replay.* variables the sampler is parameterized with, and waits until its intended
+ * start, which is left for {@link LiveMetricsCollector} like the {@link ArrivalRateTimer}
+ * does. At the end of the log the thread stops before sampling.
+ */
+public class AccessLogReplayTimer extends AbstractTestElement implements Timer, TestStateListener, NoThreadClone {
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogReplayTimer.class);
+
+    static final String METHOD_VARIABLE = "replay.method";
+    static final String TARGET_VARIABLE = "replay.target";
+    static final String BODY_VARIABLE = "replay.body";
+    static final String LABEL_VARIABLE = "replay.label";
+
+    private final transient AccessLogReplay replay;
+    private transient volatile AccessLogReplay.Schedule schedule;
+
+    public AccessLogReplayTimer(AccessLogReplay replay) {
+        this.replay = replay;
+        setName("Access Log Replay Timer");
+    }
+
+    @Override
+    public void testStarted() {
+        try {
+            schedule = replay.open();
+        } catch (IOException e) {
+            throw new RuntimeException("Opening access log " + replay.getLogFile() + " failed", e);
+        }
+    }
+
+    @Override
+    public void testStarted(String host) {
+        testStarted();
+    }
+
+    @Override
+    public long delay() {
+        JMeterContext context = JMeterContextService.getContext();
+        AccessLogReader.Entry entry = null;
+        try {
+            entry = schedule.next();
+        } catch (IOException e) {
+            logger.error("Reading access log {} failed", replay.getLogFile(), e);
+        }
+        if (entry == null) {
+            context.getThread().stop();
+            return 0;
+        }
+
+        long intendedStart = schedule.intendedStart(entry);
+        JMeterVariables variables = context.getVariables();
+        variables.put(METHOD_VARIABLE, entry.getMethod());
+        variables.put(TARGET_VARIABLE, entry.getTarget());
+        variables.put(BODY_VARIABLE, entry.getBody() != null ? entry.getBody() : "");
+        variables.put(LABEL_VARIABLE, entry.getLabel());
+        variables.putObject(ArrivalRateTimer.INTENDED_START_VARIABLE, intendedStart);
+        return Math.max(0, intendedStart - System.currentTimeMillis());
+    }
+
+    @Override
+    public void testEnded() {
+        try {
+            if (schedule != null) {
+                schedule.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close access log {}", replay.getLogFile(), e);
+        }
+    }
+
+    @Override
+    public void testEnded(String host) {
+        testEnded();
+    }
+
+    public AccessLogReplay.Schedule getSchedule() {
+        return schedule;
+    }
+}
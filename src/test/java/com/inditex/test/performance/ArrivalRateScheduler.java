@@ -0,0 +1,57 @@
+package com.inditex.test.performance;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out evenly spaced intended start times for a constant arrival rate.
+ * Each request claims the next slot of a fixed schedule, so a request that is
+ * late because every worker was busy keeps its original start time and its
+ * queueing delay is counted in its latency instead of being omitted.
+ */
+public class ArrivalRateScheduler {
+    private final double targetRps;
+    private final AtomicLong nextSlot = new AtomicLong();
+    private volatile long startTime = -1;
+
+    public ArrivalRateScheduler(double targetRps) {
+        if (targetRps <= 0) {
+            throw new IllegalArgumentException("Target rate must be positive");
+        }
+        this.targetRps = targetRps;
+    }
+
+    /**
+     * Starts the schedule now; otherwise it starts with the first claimed slot
+     */
+    public synchronized void start() {
+        if (startTime < 0) {
+            startTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Claims the next slot and returns its intended start time in epoch millis
+     */
+    public long nextIntendedStart() {
+        if (startTime < 0) {
+            start();
+        }
+        long slot = nextSlot.getAndIncrement();
+        return startTime + (long) (slot * 1000.0 / targetRps);
+    }
+
+    public double getTargetRps() {
+        return targetRps;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Number of slots claimed so far, i.e. requests scheduled
+     */
+    public long getScheduledRequests() {
+        return nextSlot.get();
+    }
+}
@@ -0,0 +1,41 @@
+package com.inditex.test.performance;
+
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jmeter.timers.Timer;
+
+/**
+ * JMeter timer pacing all threads of a plan to a shared constant arrival rate.
+ * Before each sample the thread claims the next slot of the schedule and waits
+ * until its intended start; the intended start is left in the thread's variables
+ * so {@link LiveMetricsCollector} can measure latency from it. The thread count of
+ * the thread group caps the concurrency.
+ */
+public class ArrivalRateTimer extends AbstractTestElement implements Timer, NoThreadClone {
+    private static final long serialVersionUID = 1L;
+
+    static final String INTENDED_START_VARIABLE = "arrivalRate.intendedStart";
+
+    private final transient ArrivalRateScheduler scheduler;
+
+    public ArrivalRateTimer(double targetRps) {
+        this.scheduler = new ArrivalRateScheduler(targetRps);
+        setName("Arrival Rate Timer");
+    }
+
+    @Override
+    public long delay() {
+        long intendedStart = scheduler.nextIntendedStart();
+        JMeterVariables variables = JMeterContextService.getContext().getVariables();
+        if (variables != null) {
+            variables.putObject(INTENDED_START_VARIABLE, intendedStart);
+        }
+        return Math.max(0, intendedStart - System.currentTimeMillis());
+    }
+
+    public ArrivalRateScheduler getScheduler() {
+        return scheduler;
+    }
+}
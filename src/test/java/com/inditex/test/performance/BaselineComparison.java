@@ -0,0 +1,142 @@
+package com.inditex.test.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of comparing a run with the recorded baselines of its scenario, see
+ * {@link RegressionDetector}. A metric only counts as a regression when the change is
+ * statistically significant, larger than the minimum relevant change and, given several
+ * baselines, worse than every one of them.
+ */
+public class BaselineComparison {
+    private final String scenario;
+    private final List<String> baselineCommits;
+    private final List<MetricComparison> metrics;
+
+    public BaselineComparison(String scenario, List<String> baselineCommits, List<MetricComparison> metrics) {
+        this.scenario = scenario;
+        this.baselineCommits = new ArrayList<>(baselineCommits);
+        this.metrics = new ArrayList<>(metrics);
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public List<String> getBaselineCommits() {
+        return Collections.unmodifiableList(baselineCommits);
+    }
+
+    public List<MetricComparison> getMetrics() {
+        return Collections.unmodifiableList(metrics);
+    }
+
+    public List<MetricComparison> getRegressions() {
+        return metrics.stream().filter(MetricComparison::isRegression).collect(Collectors.toList());
+    }
+
+    public boolean isRegression() {
+        return metrics.stream().anyMatch(MetricComparison::isRegression);
+    }
+
+    /**
+     * One line naming the regressed metrics, or stating there are none
+     */
+    public String getSummary() {
+        List<MetricComparison> regressions = getRegressions();
+        if (regressions.isEmpty()) {
+            return String.format("no regression against %d baseline runs", baselineCommits.size());
+        }
+        return regressions.stream().map(MetricComparison::toString).collect(Collectors.joining("; "))
+                + String.format(" (against %d baseline runs)", baselineCommits.size());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format("Baseline comparison of %s against %d runs %s",
+                scenario, baselineCommits.size(), baselineCommits));
+        for (MetricComparison metric : metrics) {
+            report.append("\n  ").append(metric.isRegression() ? "REGRESSION " : "").append(metric);
+        }
+        return report.toString();
+    }
+
+    /**
+     * One metric of the run against the pooled baselines
+     */
+    public static class MetricComparison {
+        private final String name;
+        private final String unit;
+        private final boolean higherIsWorse;
+        private final double baselineValue;
+        private final double value;
+        private final boolean significant;
+        private final boolean beyondBaselineRange;
+        private final boolean relevant;
+        private final String evidence;
+
+        MetricComparison(String name, String unit, boolean higherIsWorse, double baselineValue, double value,
+                         boolean significant, boolean beyondBaselineRange, double minRelativeChange, String evidence) {
+            this.name = name;
+            this.unit = unit;
+            this.higherIsWorse = higherIsWorse;
+            this.baselineValue = baselineValue;
+            this.value = value;
+            this.significant = significant;
+            this.beyondBaselineRange = beyondBaselineRange;
+            this.relevant = getWorsening() > minRelativeChange;
+            this.evidence = evidence;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getBaselineValue() {
+            return baselineValue;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * Relative change of the value against the baseline, e.g. 0.25 for 25% higher
+         */
+        public double getRelativeChange() {
+            return baselineValue > 0 ? (value - baselineValue) / baselineValue : 0.0;
+        }
+
+        /**
+         * Relative change in the bad direction; negative when the metric improved
+         */
+        public double getWorsening() {
+            return higherIsWorse ? getRelativeChange() : -getRelativeChange();
+        }
+
+        public boolean isSignificant() {
+            return significant;
+        }
+
+        public boolean isBeyondBaselineRange() {
+            return beyondBaselineRange;
+        }
+
+        public boolean isRegression() {
+            return significant && relevant && beyondBaselineRange;
+        }
+
+        public String getEvidence() {
+            return evidence;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %+.1f%% (%.2f%s -> %.2f%s, %s%s)", name, getRelativeChange() * 100,
+                    baselineValue, unit, value, unit, evidence, beyondBaselineRange ? "" : ", within baseline range");
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.inditex.test.performance;
+
+/**
+ * One run of a scenario as kept in the {@link BaselineStore}: the headline numbers for
+ * reading the history, plus the compact response time histogram and the per-window
+ * throughput the statistical comparison of later runs works on.
+ */
+public class BaselineRecord {
+    private String scenario;
+    private String commit;
+    private long timestamp;
+    private boolean passed;
+    private long totalSamples;
+    private long failedSamples;
+    private double throughput;
+    private double p50ResponseTime;
+    private double p95ResponseTime;
+    private double p99ResponseTime;
+    private byte[] responseTimes; // LatencyHistogram#encode()
+    private double[] windowThroughput; // requests per second of each full time series window
+    private boolean concurrent; // other scenarios generated load during the run
+
+    public BaselineRecord() {
+    }
+
+    /**
+     * Captures a finished run; the result must have metrics
+     */
+    public static BaselineRecord of(PerformanceTestResult result, String commit) {
+        PerformanceMetrics metrics = result.getMetrics();
+        BaselineRecord record = new BaselineRecord();
+        record.scenario = result.getTestName();
+        record.commit = commit;
+        record.timestamp = result.getStartTime() > 0 ? result.getStartTime() : System.currentTimeMillis();
+        record.passed = result.isPassed();
+        record.totalSamples = metrics.getTotalSamples();
+        record.failedSamples = metrics.getFailedSamples();
+        record.throughput = metrics.getThroughput();
+        record.p50ResponseTime = metrics.getP50ResponseTime();
+        record.p95ResponseTime = metrics.getP95ResponseTime();
+        record.p99ResponseTime = metrics.getP99ResponseTime();
+        LatencyHistogram histogram = metrics.getResponseTimeHistogram();
+        record.responseTimes = histogram != null ? histogram.encode() : null;
+        record.windowThroughput = fullWindowThroughput(metrics.getTimeSeries());
+        return record;
+    }
+
+    /**
+     * Throughput of every window but the first and last, which the run only partly covers
+     */
+    private static double[] fullWindowThroughput(MetricsTimeSeries timeSeries) {
+        if (timeSeries == null || timeSeries.getWindowCount() < 3) {
+            return new double[0];
+        }
+        double[] throughput = new double[timeSeries.getWindowCount() - 2];
+        for (int i = 0; i < throughput.length; i++) {
+            throughput[i] = timeSeries.getRequestsPerSecond(i + 1);
+        }
+        return throughput;
+    }
+
+    /**
+     * Decodes the stored response time histogram, empty when the run had none
+     */
+    public LatencyHistogram toHistogram() {
+        return responseTimes != null ? LatencyHistogram.decode(responseTimes) : new LatencyHistogram();
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public void setScenario(String scenario) {
+        this.scenario = scenario;
+    }
+
+    public String getCommit() {
+        return commit;
+    }
+
+    public void setCommit(String commit) {
+        this.commit = commit;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    public void setPassed(boolean passed) {
+        this.passed = passed;
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    public void setTotalSamples(long totalSamples) {
+        this.totalSamples = totalSamples;
+    }
+
+    public long getFailedSamples() {
+        return failedSamples;
+    }
+
+    public void setFailedSamples(long failedSamples) {
+        this.failedSamples = failedSamples;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    public double getP50ResponseTime() {
+        return p50ResponseTime;
+    }
+
+    public void setP50ResponseTime(double p50ResponseTime) {
+        this.p50ResponseTime = p50ResponseTime;
+    }
+
+    public double getP95ResponseTime() {
+        return p95ResponseTime;
+    }
+
+    public void setP95ResponseTime(double p95ResponseTime) {
+        this.p95ResponseTime = p95ResponseTime;
+    }
+
+    public double getP99ResponseTime() {
+        return p99ResponseTime;
+    }
+
+    public void setP99ResponseTime(double p99ResponseTime) {
+        this.p99ResponseTime = p99ResponseTime;
+    }
+
+    public byte[] getResponseTimes() {
+        return responseTimes;
+    }
+
+    public void setResponseTimes(byte[] responseTimes) {
+        this.responseTimes = responseTimes;
+    }
+
+    public double[] getWindowThroughput() {
+        return windowThroughput;
+    }
+
+    public void setWindowThroughput(double[] windowThroughput) {
+        this.windowThroughput = windowThroughput;
+    }
+
+    /**
+     * Whether other scenarios generated load during the run, so it is no solo baseline
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    public void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BaselineRecord{scenario='%s', commit=%s, passed=%s, samples=%d, p95=%.0fms, throughput=%.2f req/s}",
+                scenario, commit, passed, totalSamples, p95ResponseTime, throughput);
+    }
+}
@@ -0,0 +1,210 @@
+package com.inditex.test.performance;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inditex.test.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local, append-only history of performance runs: one JSON line per run in a file per
+ * scenario, tagged with the git commit that was tested. Each finished run is compared
+ * with the last passing runs of its scenario before being appended, so a significant
+ * regression fails the run even when it still meets the static thresholds. Failed runs
+ * are kept in the history but never used as baselines.
+ */
+public class BaselineStore {
+    private static final Logger logger = LoggerFactory.getLogger(BaselineStore.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Path directory;
+    private final int baselineRuns;
+    private final RegressionDetector detector;
+    private final String commit;
+
+    public BaselineStore() {
+        this(Paths.get(ConfigManager.getProperty("performance.baseline.directory", "performance-baselines")),
+                ConfigManager.getIntProperty("performance.baseline.runs", 5),
+                new RegressionDetector(Double.parseDouble(ConfigManager.getProperty("performance.baseline.min.change", "0.10"))),
+                resolveCommit());
+    }
+
+    public BaselineStore(Path directory, int baselineRuns, RegressionDetector detector, String commit) {
+        this.directory = directory;
+        this.baselineRuns = baselineRuns;
+        this.detector = detector;
+        this.commit = commit;
+    }
+
+    /**
+     * The store to use when baselines are enabled in the configuration, otherwise null
+     */
+    public static BaselineStore fromConfig() {
+        return ConfigManager.getBooleanProperty("performance.baseline.enabled", false) ? new BaselineStore() : null;
+    }
+
+    /**
+     * Compares the result with the last passing runs of its scenario, attaches the comparison
+     * (failing the result on a significant regression) and appends the run to the history.
+     * Aborted runs and runs without samples are neither compared nor recorded.
+     */
+    public BaselineComparison evaluate(PerformanceTestResult result) {
+        return evaluate(result, false);
+    }
+
+    /**
+     * As {@link #evaluate(PerformanceTestResult)}, marking the record as concurrent when other
+     * scenarios generated load during the run
+     */
+    public BaselineComparison evaluate(PerformanceTestResult result, boolean concurrent) {
+        if (result.isAborted() || result.getMetrics() == null || result.getMetrics().getTotalSamples() == 0) {
+            logger.info("Skipping baseline comparison of {}: no complete metrics", result.getTestName());
+            return null;
+        }
+        if (result.isGeneratorSaturated()) {
+            logger.info("Skipping baseline comparison of {}: the load generator was saturated", result.getTestName());
+            return null;
+        }
+
+        BaselineRecord record = BaselineRecord.of(result, commit);
+        List<BaselineRecord> baselines = load(result.getTestName());
+        BaselineComparison comparison = null;
+        if (baselines.isEmpty()) {
+            logger.info("No baseline for {} yet, this run becomes the first", result.getTestName());
+        } else {
+            comparison = detector.compare(record, baselines);
+            result.setBaselineComparison(comparison);
+            if (comparison.isRegression()) {
+                logger.warn("{}", comparison);
+            } else {
+                logger.info("{}", comparison);
+            }
+        }
+
+        record.setPassed(result.isPassed());
+        record.setConcurrent(concurrent);
+        append(record);
+        return comparison;
+    }
+
+    /**
+     * The last passing runs of the scenario, oldest first
+     */
+    public List<BaselineRecord> load(String scenario) {
+        List<BaselineRecord> passed = new ArrayList<>();
+        for (BaselineRecord record : history(scenario)) {
+            if (record.isPassed()) {
+                passed.add(record);
+            }
+        }
+        return new ArrayList<>(passed.subList(Math.max(0, passed.size() - baselineRuns), passed.size()));
+    }
+
+    /**
+     * The last passing runs of the scenario without other scenarios generating load, oldest first
+     */
+    public List<BaselineRecord> loadSolo(String scenario) {
+        List<BaselineRecord> solo = new ArrayList<>();
+        for (BaselineRecord record : history(scenario)) {
+            if (record.isPassed() && !record.isConcurrent()) {
+                solo.add(record);
+            }
+        }
+        return new ArrayList<>(solo.subList(Math.max(0, solo.size() - baselineRuns), solo.size()));
+    }
+
+    /**
+     * Every recorded run of the scenario, oldest first
+     */
+    public List<BaselineRecord> history(String scenario) {
+        Path file = fileFor(scenario);
+        List<BaselineRecord> records = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return records;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    records.add(MAPPER.readValue(line, BaselineRecord.class));
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable baseline record at {}:{}", file, lineNumber, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read baselines from {}", file, e);
+        }
+        return records;
+    }
+
+    public synchronized void append(BaselineRecord record) {
+        Path file = fileFor(record.getScenario());
+        try {
+            Files.createDirectories(directory);
+            Files.write(file, (MAPPER.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.warn("Failed to record baseline of {} in {}", record.getScenario(), file, e);
+        }
+    }
+
+    private Path fileFor(String scenario) {
+        return directory.resolve(scenario.replaceAll("[^A-Za-z0-9._-]", "_") + ".jsonl");
+    }
+
+    public String getCommit() {
+        return commit;
+    }
+
+    /**
+     * The commit under test: configured explicitly, given by the CI environment or read from git
+     */
+    static String resolveCommit() {
+        String configured = ConfigManager.getProperty("performance.baseline.commit");
+        if (configured != null && !configured.isEmpty()) {
+            return configured;
+        }
+        for (String variable : new String[] {"GIT_COMMIT", "GITHUB_SHA", "CI_COMMIT_SHA"}) {
+            String value = System.getenv(variable);
+            if (value != null && !value.isEmpty()) {
+                return value;
+            }
+        }
+
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "HEAD").redirectErrorStream(true).start();
+            String head;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(git.getInputStream(), StandardCharsets.UTF_8))) {
+                head = reader.readLine();
+            }
+            if (git.waitFor(10, TimeUnit.SECONDS) && git.exitValue() == 0 && head != null) {
+                return head.trim();
+            }
+        } catch (IOException e) {
+            logger.debug("git not available to resolve the commit under test", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,44 @@
+package com.inditex.test.performance;
+
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.AbstractTestElement;
+
+/**
+ * JMeter listener writing every completed sample to a columnar results file, in place of
+ * the JTL written by a ResultCollector. Like the JTL it keeps the raw elapsed time of each
+ * sample. All JMeter threads share one instance (NoThreadClone); the writer serializes them.
+ */
+public class ColumnarResultCollector extends AbstractTestElement implements SampleListener, NoThreadClone {
+    private static final long serialVersionUID = 1L;
+
+    private final transient ColumnarResultWriter writer;
+
+    public ColumnarResultCollector(ColumnarResultWriter writer) {
+        this.writer = writer;
+        setName("Columnar Result Collector");
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+        SampleResult result = event.getResult();
+        writer.record(result.getTimeStamp(), result.getTime(), result.isSuccessful(), result.getResponseCode(),
+                result.getBytesAsLong(), result.getSampleLabel());
+    }
+
+    @Override
+    public void sampleStarted(SampleEvent event) {
+        // Only completed samples are written
+    }
+
+    @Override
+    public void sampleStopped(SampleEvent event) {
+        // Only completed samples are written
+    }
+
+    public ColumnarResultWriter getWriter() {
+        return writer;
+    }
+}
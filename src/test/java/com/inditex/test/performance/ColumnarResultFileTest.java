@@ -0,0 +1,166 @@
+package com.inditex.test.performance;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ColumnarResultFileTest {
+    private static final long START = 1_760_000_000_000L;
+
+    @Test(groups = "unit")
+    public void readsBackSamplesOfSeveralBlocks() throws Exception {
+        Path file = tempFile();
+        try (ColumnarResultWriter writer = new ColumnarResultWriter(file, 4)) {
+            for (int i = 0; i < 10; i++) {
+                writer.record(START + i * 100, 10 + i, i % 3 != 0, i % 3 != 0 ? "200" : "500", 1000 + i,
+                        i % 2 == 0 ? "Get Price" : "Apply Promotion");
+            }
+        }
+
+        ColumnarResultReader reader = new ColumnarResultReader(file);
+        List<Sample> samples = readAll(reader, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        Assert.assertEquals(reader.getBlockCount(), 3);
+        Assert.assertEquals(reader.getSampleCount(), 10);
+        Assert.assertEquals(reader.getFirstTimestamp(), START);
+        Assert.assertEquals(reader.getLastTimestamp(), START + 900);
+        Assert.assertEquals(samples.size(), 10);
+        for (int i = 0; i < 10; i++) {
+            Sample sample = samples.get(i);
+            Assert.assertEquals(sample.timestamp, START + i * 100);
+            Assert.assertEquals(sample.responseTime, 10.0 + i, 1e-9);
+            Assert.assertEquals(sample.success, i % 3 != 0);
+            Assert.assertEquals(sample.responseCode, i % 3 != 0 ? "200" : "500");
+            Assert.assertEquals(sample.bytes, 1000 + i);
+            Assert.assertEquals(sample.label, i % 2 == 0 ? "Get Price" : "Apply Promotion");
+        }
+    }
+
+    @Test(groups = "unit")
+    public void keepsMissingLabelsAndCodes() throws Exception {
+        Path file = tempFile();
+        try (ColumnarResultWriter writer = new ColumnarResultWriter(file)) {
+            writer.record(START, 5, true, null, 0, null);
+        }
+
+        List<Sample> samples = readAll(new ColumnarResultReader(file), Long.MIN_VALUE, Long.MAX_VALUE);
+
+        Assert.assertEquals(samples.size(), 1);
+        Assert.assertNull(samples.get(0).label);
+        Assert.assertNull(samples.get(0).responseCode);
+    }
+
+    @Test(groups = "unit")
+    public void scansTimeRangesAcrossBlockBoundaries() throws Exception {
+        Path file = tempFile();
+        try (ColumnarResultWriter writer = new ColumnarResultWriter(file, 4)) {
+            for (int i = 0; i < 12; i++) {
+                writer.record(START + i * 1000, 10, true, "200", 100, "Get Price");
+            }
+        }
+        ColumnarResultReader reader = new ColumnarResultReader(file);
+
+        // Blocks hold seconds 0-3, 4-7 and 8-11; the range ends inside the third block
+        List<Sample> samples = readAll(reader, START + 3000, START + 9000);
+
+        Assert.assertEquals(samples.size(), 6);
+        Assert.assertEquals(samples.get(0).timestamp, START + 3000);
+        Assert.assertEquals(samples.get(5).timestamp, START + 8000);
+        Assert.assertEquals(readAll(reader, START + 20_000, START + 30_000).size(), 0);
+        Assert.assertEquals(reader.toMetrics(START + 4000, START + 8000, 1000).getTotalSamples(), 4);
+    }
+
+    @Test(groups = "unit")
+    public void readsSamplesWrittenOutOfTimestampOrder() throws Exception {
+        Path file = tempFile();
+        long[] timestamps = {START + 5000, START + 1000, START + 3000, START, START + 4000};
+        try (ColumnarResultWriter writer = new ColumnarResultWriter(file, 2)) {
+            for (long timestamp : timestamps) {
+                writer.record(timestamp, 10, true, "200", 100, "Get Price");
+            }
+        }
+        ColumnarResultReader reader = new ColumnarResultReader(file);
+
+        List<Sample> samples = readAll(reader, Long.MIN_VALUE, Long.MAX_VALUE);
+        for (int i = 0; i < timestamps.length; i++) {
+            Assert.assertEquals(samples.get(i).timestamp, timestamps[i]);
+        }
+        Assert.assertEquals(reader.getFirstTimestamp(), START);
+        Assert.assertEquals(reader.getLastTimestamp(), START + 5000);
+        Assert.assertEquals(readAll(reader, START, START + 2000).size(), 2);
+    }
+
+    @Test(groups = "unit")
+    public void encodesSignedVarIntsOfAnySize() {
+        long[] values = {0, 1, -1, 63, -64, 64, -65, 300, -300, Long.MAX_VALUE, Long.MIN_VALUE};
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (long value : values) {
+            VarInts.writeSigned(output, value);
+        }
+        VarInts.writeUnsigned(output, Long.MAX_VALUE);
+
+        ByteBuffer input = ByteBuffer.wrap(output.toByteArray());
+        for (long value : values) {
+            Assert.assertEquals(VarInts.readSigned(input), value);
+        }
+        Assert.assertEquals(VarInts.readUnsigned(input), Long.MAX_VALUE);
+        Assert.assertFalse(input.hasRemaining());
+    }
+
+    @Test(groups = "unit")
+    public void rejectsFilesOver2GB() throws Exception {
+        Path file = tempFile();
+        // Sparse on the usual file systems, so no disk space is taken
+        try (RandomAccessFile sparse = new RandomAccessFile(file.toFile(), "rw")) {
+            sparse.setLength(Integer.MAX_VALUE + 1L);
+        }
+
+        try {
+            new ColumnarResultReader(file);
+            Assert.fail("A file over 2GB cannot be mapped and should be rejected");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("larger than 2GB"), e.getMessage());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("results", ".prfc");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private static List<Sample> readAll(ColumnarResultReader reader, long from, long to) throws IOException {
+        List<Sample> samples = new ArrayList<>();
+        reader.read(from, to, (timestamp, responseTime, success, responseCode, bytes, label) ->
+                samples.add(new Sample(timestamp, responseTime, success, responseCode, bytes, label)));
+        return samples;
+    }
+
+    private static class Sample {
+        final long timestamp;
+        final double responseTime;
+        final boolean success;
+        final String responseCode;
+        final long bytes;
+        final String label;
+
+        Sample(long timestamp, double responseTime, boolean success, String responseCode, long bytes, String label) {
+            this.timestamp = timestamp;
+            this.responseTime = responseTime;
+            this.success = success;
+            this.responseCode = responseCode;
+            this.bytes = bytes;
+            this.label = label;
+        }
+    }
+}
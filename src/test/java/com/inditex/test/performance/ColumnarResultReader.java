@@ -0,0 +1,244 @@
+package com.inditex.test.performance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a columnar results file written by {@link ColumnarResultWriter}. The file is
+ * memory-mapped and only the block index and dictionaries are decoded up front; blocks
+ * are decoded while scanning, and a time-range scan skips every block the index shows
+ * to lie outside the range.
+ */
+public class ColumnarResultReader {
+    private final Path file;
+    private final ByteBuffer data;
+    private final long indexOffset;
+
+    private final int[] blockOffsets;
+    private final int[] blockSampleCounts;
+    private final long[] blockMinTimestamps;
+    private final long[] blockMaxTimestamps;
+    private final String[] labels; // by id, 0 is none
+    private final String[] codes;
+    private final long sampleCount;
+    private final int maxBlockSampleCount;
+
+    public ColumnarResultReader(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < ColumnarResultWriter.MAGIC.length + 1 + ColumnarResultWriter.FOOTER_SIZE) {
+                throw new IOException("Not a columnar results file: " + file);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Columnar results file larger than 2GB: " + file);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int size = data.capacity();
+        if (!hasMagic(data, 0) || !hasMagic(data, size - ColumnarResultWriter.MAGIC.length)) {
+            throw new IOException("Not a columnar results file or not closed properly: " + file);
+        }
+        if (data.get(ColumnarResultWriter.MAGIC.length) != ColumnarResultWriter.VERSION) {
+            throw new IOException("Unsupported columnar results version " + data.get(ColumnarResultWriter.MAGIC.length) + ": " + file);
+        }
+        indexOffset = data.getLong(size - ColumnarResultWriter.FOOTER_SIZE);
+
+        try {
+            ByteBuffer input = data.duplicate();
+            input.position((int) indexOffset).limit(size - ColumnarResultWriter.FOOTER_SIZE);
+
+            int blockCount = (int) VarInts.readUnsigned(input);
+            blockOffsets = new int[blockCount];
+            blockSampleCounts = new int[blockCount];
+            blockMinTimestamps = new long[blockCount];
+            blockMaxTimestamps = new long[blockCount];
+            long samples = 0;
+            int maxBlock = 0;
+            for (int i = 0; i < blockCount; i++) {
+                blockOffsets[i] = (int) VarInts.readUnsigned(input);
+                blockSampleCounts[i] = (int) VarInts.readUnsigned(input);
+                blockMinTimestamps[i] = VarInts.readSigned(input);
+                blockMaxTimestamps[i] = VarInts.readSigned(input);
+                samples += blockSampleCounts[i];
+                maxBlock = Math.max(maxBlock, blockSampleCounts[i]);
+            }
+            sampleCount = samples;
+            maxBlockSampleCount = maxBlock;
+
+            labels = readDictionary(input);
+            codes = readDictionary(input);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt columnar results file: " + file, e);
+        }
+    }
+
+    /**
+     * Whether the file starts like a columnar results file
+     */
+    public static boolean isColumnarFile(Path file) throws IOException {
+        byte[] header = new byte[ColumnarResultWriter.MAGIC.length];
+        try (InputStream input = Files.newInputStream(file)) {
+            return input.readNBytes(header, 0, header.length) == header.length
+                    && Arrays.equals(header, ColumnarResultWriter.MAGIC);
+        }
+    }
+
+    private static boolean hasMagic(ByteBuffer buffer, int offset) {
+        for (int i = 0; i < ColumnarResultWriter.MAGIC.length; i++) {
+            if (buffer.get(offset + i) != ColumnarResultWriter.MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] readDictionary(ByteBuffer input) {
+        String[] values = new String[(int) VarInts.readUnsigned(input) + 1];
+        for (int id = 1; id < values.length; id++) {
+            byte[] encoded = new byte[(int) VarInts.readUnsigned(input)];
+            input.get(encoded);
+            values[id] = new String(encoded, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    /**
+     * Reads every sample into the given sink, in the order they were written
+     */
+    public void read(SampleSink sink) throws IOException {
+        read(Long.MIN_VALUE, Long.MAX_VALUE, sink);
+    }
+
+    /**
+     * Reads the samples with a timestamp in [fromTimestamp, toTimestamp) into the given sink.
+     * Safe to call concurrently; each call decodes into its own buffers.
+     */
+    public void read(long fromTimestamp, long toTimestamp, SampleSink sink) throws IOException {
+        long[] timestamps = new long[maxBlockSampleCount];
+        long[] elapsed = new long[maxBlockSampleCount];
+        int[] labelIds = new int[maxBlockSampleCount];
+        int[] codeIds = new int[maxBlockSampleCount];
+        byte[] successBits = new byte[(maxBlockSampleCount + 7) / 8];
+        long[] bytes = new long[maxBlockSampleCount];
+
+        ByteBuffer input = data.duplicate();
+        input.limit((int) indexOffset);
+        for (int block = 0; block < blockOffsets.length; block++) {
+            if (blockMaxTimestamps[block] < fromTimestamp || blockMinTimestamps[block] >= toTimestamp) {
+                continue;
+            }
+
+            int count;
+            try {
+                input.position(blockOffsets[block]);
+                count = (int) VarInts.readUnsigned(input);
+                if (count != blockSampleCounts[block]) {
+                    throw new IllegalArgumentException("Block " + block + " holds " + count + " samples, index says " + blockSampleCounts[block]);
+                }
+
+                int columnEnd = columnEnd(input);
+                long previous = 0;
+                for (int i = 0; i < count; i++) {
+                    previous += VarInts.readSigned(input);
+                    timestamps[i] = previous;
+                }
+                columnEnd = nextColumn(input, columnEnd);
+                for (int i = 0; i < count; i++) {
+                    elapsed[i] = VarInts.readUnsigned(input);
+                }
+                columnEnd = nextColumn(input, columnEnd);
+                for (int i = 0; i < count; i++) {
+                    labelIds[i] = (int) VarInts.readUnsigned(input);
+                }
+                columnEnd = nextColumn(input, columnEnd);
+                for (int i = 0; i < count; i++) {
+                    codeIds[i] = (int) VarInts.readUnsigned(input);
+                }
+                columnEnd = nextColumn(input, columnEnd);
+                input.get(successBits, 0, (count + 7) / 8);
+                columnEnd = nextColumn(input, columnEnd);
+                for (int i = 0; i < count; i++) {
+                    bytes[i] = VarInts.readUnsigned(input);
+                }
+                input.position(columnEnd);
+            } catch (BufferUnderflowException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Corrupt block " + block + " in columnar results file: " + file, e);
+            }
+
+            for (int i = 0; i < count; i++) {
+                if (timestamps[i] >= fromTimestamp && timestamps[i] < toTimestamp) {
+                    boolean success = (successBits[i >> 3] & (1 << (i & 7))) != 0;
+                    sink.record(timestamps[i], elapsed[i], success, codes[codeIds[i]], bytes[i], labels[labelIds[i]]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the length of the column starting at the current position and returns where it ends
+     */
+    private static int columnEnd(ByteBuffer input) {
+        int length = (int) VarInts.readUnsigned(input);
+        return input.position() + length;
+    }
+
+    /**
+     * Moves past the end of the current column, so columns added by later versions are skipped
+     */
+    private static int nextColumn(ByteBuffer input, int currentColumnEnd) {
+        input.position(currentColumnEnd);
+        return columnEnd(input);
+    }
+
+    /**
+     * Aggregates every sample of the file
+     */
+    public PerformanceMetrics toMetrics(long timeSeriesWindowMillis) throws IOException {
+        return toMetrics(Long.MIN_VALUE, Long.MAX_VALUE, timeSeriesWindowMillis);
+    }
+
+    /**
+     * Aggregates the samples with a timestamp in [fromTimestamp, toTimestamp), e.g. one stress step
+     */
+    public PerformanceMetrics toMetrics(long fromTimestamp, long toTimestamp, long timeSeriesWindowMillis) throws IOException {
+        SampleAggregator samples = new SampleAggregator(timeSeriesWindowMillis);
+        read(fromTimestamp, toTimestamp, samples);
+        return samples.getTotalSamples() > 0 ? samples.toMetrics() : new PerformanceMetrics();
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Timestamp of the earliest sample, Long.MAX_VALUE when the file is empty
+     */
+    public long getFirstTimestamp() {
+        return Arrays.stream(blockMinTimestamps).min().orElse(Long.MAX_VALUE);
+    }
+
+    /**
+     * Timestamp of the latest sample, Long.MIN_VALUE when the file is empty
+     */
+    public long getLastTimestamp() {
+        return Arrays.stream(blockMaxTimestamps).max().orElse(Long.MIN_VALUE);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
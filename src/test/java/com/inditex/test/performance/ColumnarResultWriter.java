@@ -0,0 +1,246 @@
+package com.inditex.test.performance;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes samples to a compact binary columnar results file (.prfc), read back by
+ * {@link ColumnarResultReader}. Samples are buffered into blocks and each block is stored
+ * column by column, so similar values sit next to each other and encode in a byte or two:
+ * timestamps as deltas, latencies and sizes as varints, labels and response codes as ids
+ * into dictionaries written once at the end. A block index at the end of the file lets
+ * readers jump straight to the blocks covering a time range.
+ *
+ * <pre>
+ * header   "PRFC" version
+ * block*   sample count, then each column as byte length + values:
+ *            timestamp  zigzag varint delta from the previous sample (the first from 0)
+ *            elapsed    varint milliseconds
+ *            label      varint dictionary id, 0 for none
+ *            code       varint dictionary id, 0 for none
+ *            success    bitset, one bit per sample
+ *            bytes      varint
+ * index    block count, then per block: offset, sample count, min and max timestamp
+ * labels   count, then each as UTF-8 length + bytes, in id order from 1
+ * codes    same as labels
+ * footer   index offset (8 bytes), "PRFC"
+ * </pre>
+ */
+public class ColumnarResultWriter implements SampleSink, Closeable {
+    static final byte[] MAGIC = "PRFC".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int FOOTER_SIZE = Long.BYTES + 4;
+    static final int DEFAULT_BLOCK_SIZE = 8192;
+
+    private final Path file;
+    private final OutputStream output;
+    private final int blockSize;
+
+    // Columns of the block being filled
+    private final long[] timestamps;
+    private final long[] elapsed;
+    private final int[] labelIds;
+    private final int[] codeIds;
+    private final boolean[] successes;
+    private final long[] bytes;
+    private int pending;
+
+    private final Map<String, Integer> labelDictionary = new LinkedHashMap<>();
+    private final Map<String, Integer> codeDictionary = new LinkedHashMap<>();
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream column = new ByteArrayOutputStream();
+    private long position;
+    private int blockCount;
+    private long sampleCount;
+    private boolean closed;
+
+    public ColumnarResultWriter(Path file) throws IOException {
+        this(file, DEFAULT_BLOCK_SIZE);
+    }
+
+    public ColumnarResultWriter(Path file, int blockSize) throws IOException {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.file = file;
+        this.blockSize = blockSize;
+        this.timestamps = new long[blockSize];
+        this.elapsed = new long[blockSize];
+        this.labelIds = new int[blockSize];
+        this.codeIds = new int[blockSize];
+        this.successes = new boolean[blockSize];
+        this.bytes = new long[blockSize];
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.output = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        output.write(MAGIC);
+        output.write(VERSION);
+        position = MAGIC.length + 1;
+    }
+
+    /**
+     * Appends one sample; safe to call from any number of threads
+     */
+    @Override
+    public synchronized void record(long timestamp, double responseTime, boolean success, String responseCode, long bytes, String label) {
+        if (closed) {
+            throw new IllegalStateException("Columnar results file already closed: " + file);
+        }
+
+        timestamps[pending] = timestamp;
+        elapsed[pending] = Math.max(0, Math.round(responseTime));
+        labelIds[pending] = dictionaryId(labelDictionary, label);
+        codeIds[pending] = dictionaryId(codeDictionary, responseCode);
+        successes[pending] = success;
+        this.bytes[pending] = Math.max(0, bytes);
+
+        if (++pending == blockSize) {
+            try {
+                writeBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write columnar results block to " + file, e);
+            }
+        }
+    }
+
+    private static int dictionaryId(Map<String, Integer> dictionary, String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer id = dictionary.get(value);
+        if (id == null) {
+            id = dictionary.size() + 1;
+            dictionary.put(value, id);
+        }
+        return id;
+    }
+
+    private void writeBlock() throws IOException {
+        block.reset();
+        VarInts.writeUnsigned(block, pending);
+
+        long previous = 0;
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        column.reset();
+        for (int i = 0; i < pending; i++) {
+            VarInts.writeSigned(column, timestamps[i] - previous);
+            previous = timestamps[i];
+            minTimestamp = Math.min(minTimestamp, timestamps[i]);
+            maxTimestamp = Math.max(maxTimestamp, timestamps[i]);
+        }
+        appendColumn();
+
+        column.reset();
+        for (int i = 0; i < pending; i++) {
+            VarInts.writeUnsigned(column, elapsed[i]);
+        }
+        appendColumn();
+
+        column.reset();
+        for (int i = 0; i < pending; i++) {
+            VarInts.writeUnsigned(column, labelIds[i]);
+        }
+        appendColumn();
+
+        column.reset();
+        for (int i = 0; i < pending; i++) {
+            VarInts.writeUnsigned(column, codeIds[i]);
+        }
+        appendColumn();
+
+        column.reset();
+        for (int i = 0; i < pending; i += 8) {
+            int bits = 0;
+            for (int bit = 0; bit < 8 && i + bit < pending; bit++) {
+                if (successes[i + bit]) {
+                    bits |= 1 << bit;
+                }
+            }
+            column.write(bits);
+        }
+        appendColumn();
+
+        column.reset();
+        for (int i = 0; i < pending; i++) {
+            VarInts.writeUnsigned(column, bytes[i]);
+        }
+        appendColumn();
+
+        VarInts.writeUnsigned(index, position);
+        VarInts.writeUnsigned(index, pending);
+        VarInts.writeSigned(index, minTimestamp);
+        VarInts.writeSigned(index, maxTimestamp);
+
+        block.writeTo(output);
+        position += block.size();
+        blockCount++;
+        sampleCount += pending;
+        pending = 0;
+    }
+
+    private void appendColumn() throws IOException {
+        VarInts.writeUnsigned(block, column.size());
+        column.writeTo(block);
+    }
+
+    private static void writeDictionary(ByteArrayOutputStream output, Map<String, Integer> dictionary) throws IOException {
+        VarInts.writeUnsigned(output, dictionary.size());
+        for (String value : dictionary.keySet()) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            VarInts.writeUnsigned(output, encoded.length);
+            output.write(encoded);
+        }
+    }
+
+    /**
+     * Flushes the last block and writes the index, dictionaries and footer; the file is
+     * only readable once closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (pending > 0) {
+                writeBlock();
+            }
+
+            ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+            VarInts.writeUnsigned(trailer, blockCount);
+            index.writeTo(trailer);
+            writeDictionary(trailer, labelDictionary);
+            writeDictionary(trailer, codeDictionary);
+            trailer.writeTo(output);
+
+            output.write(ByteBuffer.allocate(Long.BYTES).putLong(position).array());
+            output.write(MAGIC);
+        } finally {
+            output.close();
+        }
+    }
+
+    public synchronized long getSampleCount() {
+        return sampleCount + pending;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,42 @@
+package com.inditex.test.performance;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counterpart of {@link LatencyHistogram} for values recorded from many
+ * threads at once. Uses the same bucket layout with the counters in an atomic array;
+ * {@link #snapshot()} copies them into a plain histogram for reading percentiles.
+ * Exact sums and extremes are left to the caller, the snapshot only knows buckets.
+ */
+public class ConcurrentLatencyHistogram {
+    private final LatencyHistogram layout;
+    private final AtomicLongArray counts;
+
+    public ConcurrentLatencyHistogram() {
+        this(LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, LatencyHistogram.DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    public ConcurrentLatencyHistogram(long highestTrackableValue, int significantDigits) {
+        this.layout = new LatencyHistogram(highestTrackableValue, significantDigits);
+        this.counts = new AtomicLongArray(layout.countsArrayLength());
+    }
+
+    public void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), layout.getHighestTrackableValue());
+        counts.incrementAndGet(layout.countsIndexFor(clamped));
+    }
+
+    /**
+     * Copies the current counts into a new histogram; values recorded while copying may or may not be included
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram snapshot = new LatencyHistogram(layout.getHighestTrackableValue(), layout.getSignificantDigits());
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                snapshot.record(layout.valueFromIndex(i), count);
+            }
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,331 @@
+package com.inditex.test.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Zero-copy reader for CSV formatted JTL files (the JMeter default output).
+ * The file is memory-mapped in large regions and scanned byte by byte; numeric
+ * columns are parsed in place and response codes and labels are interned, so
+ * no String is created per line and tens of millions of rows can be aggregated
+ * in one pass.
+ */
+public class CsvJtlReader {
+    private static final Logger logger = LoggerFactory.getLogger(CsvJtlReader.class);
+
+    private static final long MAX_REGION_SIZE = 256L * 1024 * 1024;
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+
+    // JMeter default column order, used when the file was written without a header
+    private static final List<String> DEFAULT_COLUMNS = Arrays.asList(
+        "timeStamp", "elapsed", "label", "responseCode", "responseMessage", "threadName",
+        "dataType", "success", "failureMessage", "bytes", "sentBytes", "grpThreads",
+        "allThreads", "URL", "Latency", "IdleTime", "Connect");
+
+    private int timestampColumn;
+    private int elapsedColumn;
+    private int successColumn;
+    private int responseCodeColumn;
+    private int bytesColumn;
+    private int labelColumn;
+    private int lastRequiredColumn;
+
+    private final ByteStringCache responseCodes = new ByteStringCache();
+    private final ByteStringCache labels = new ByteStringCache();
+    private long skippedLines;
+
+    /**
+     * Reads every record of the file into the given sink
+     */
+    public void read(Path file, SampleSink sink) throws IOException {
+        read(file, 0, Long.MAX_VALUE, sink);
+    }
+
+    /**
+     * Reads the records between the start and end byte offsets into the given sink.
+     * Both offsets must fall on record boundaries; the header line is always skipped.
+     */
+    public void read(Path file, long start, long end, SampleSink sink) throws IOException {
+        skippedLines = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+
+            long position = Math.max(start, readHeader(channel));
+            long limit = Math.min(end, size);
+
+            while (position < limit) {
+                long regionSize = Math.min(MAX_REGION_SIZE, limit - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+
+                boolean lastRegion = position + regionSize >= limit;
+                int consumed = scanRegion(region, (int) regionSize, lastRegion, sink);
+                if (consumed <= 0) {
+                    throw new IOException("CSV record larger than " + MAX_REGION_SIZE + " bytes at offset " + position);
+                }
+                position += consumed;
+            }
+        }
+
+        if (skippedLines > 0) {
+            logger.warn("Skipped {} malformed lines in CSV JTL file: {}", skippedLines, file);
+        }
+    }
+
+    /**
+     * Returns the offset of the first data record, after the header line when there is one
+     */
+    public long dataOffset(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.size() == 0 ? 0 : readHeader(channel);
+        }
+    }
+
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+
+    /**
+     * Resolves the column layout and returns the offset of the first data record
+     */
+    private long readHeader(FileChannel channel) throws IOException {
+        int headerRegion = (int) Math.min(MAX_HEADER_SIZE, channel.size());
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerRegion);
+
+        int lineEnd = 0;
+        while (lineEnd < headerRegion && buffer.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+
+        byte[] firstLine = new byte[lineEnd];
+        buffer.get(firstLine);
+        String header = new String(firstLine, StandardCharsets.UTF_8).trim();
+
+        if (!header.isEmpty() && Character.isDigit(header.charAt(0))) {
+            // No header line, the first line is already data
+            resolveColumns(DEFAULT_COLUMNS);
+            return 0;
+        }
+
+        resolveColumns(Arrays.asList(header.split(",")));
+        return Math.min(lineEnd + 1L, channel.size());
+    }
+
+    private void resolveColumns(List<String> columns) {
+        timestampColumn = columns.indexOf("timeStamp");
+        elapsedColumn = columns.indexOf("elapsed");
+        successColumn = columns.indexOf("success");
+        responseCodeColumn = columns.indexOf("responseCode");
+        bytesColumn = columns.indexOf("bytes");
+        labelColumn = columns.indexOf("label");
+
+        if (timestampColumn < 0 || elapsedColumn < 0 || successColumn < 0) {
+            throw new IllegalArgumentException("CSV JTL header must contain timeStamp, elapsed and success columns: " + columns);
+        }
+
+        lastRequiredColumn = Math.max(Math.max(timestampColumn, elapsedColumn),
+                Math.max(successColumn, Math.max(responseCodeColumn, Math.max(bytesColumn, labelColumn))));
+    }
+
+    /**
+     * Records every complete line of the region and returns the offset just after the last one.
+     * Unless this is the last region, a trailing partial record is left for the next region, which
+     * then starts on a record boundary, outside any quoted field.
+     */
+    private int scanRegion(MappedByteBuffer region, int end, boolean lastRegion, SampleSink sink) {
+        int recordEnd = 0;
+        int column = 0;
+        int fieldStart = 0;
+        boolean inQuotes = false;
+        boolean malformed = false;
+
+        long timestamp = -1;
+        long elapsed = -1;
+        boolean success = false;
+        String responseCode = null;
+        String label = null;
+        long bytes = 0;
+
+        for (int i = 0; i <= end; i++) {
+            if (i == end && !lastRegion) {
+                break;
+            }
+            byte b = i < end ? region.get(i) : (byte) '\n';
+
+            if (inQuotes) {
+                if (b == '"') {
+                    inQuotes = false;
+                }
+                if (i < end) {
+                    continue;
+                }
+            } else if (b == '"') {
+                inQuotes = true;
+                continue;
+            }
+
+            if (b != ',' && b != '\n') {
+                continue;
+            }
+
+            // End of field [fieldStart, i)
+            int fieldEnd = i > fieldStart && region.get(i - 1) == '\r' ? i - 1 : i;
+            if (column == timestampColumn) {
+                timestamp = parseLong(region, fieldStart, fieldEnd);
+                malformed |= timestamp < 0;
+            } else if (column == elapsedColumn) {
+                elapsed = parseLong(region, fieldStart, fieldEnd);
+                malformed |= elapsed < 0;
+            } else if (column == successColumn) {
+                int first = fieldEnd > fieldStart && region.get(fieldStart) == '"' ? fieldStart + 1 : fieldStart;
+                success = fieldEnd > first && (region.get(first) == 't' || region.get(first) == 'T');
+            } else if (column == responseCodeColumn) {
+                responseCode = responseCodes.intern(region, fieldStart, fieldEnd);
+            } else if (column == bytesColumn) {
+                bytes = Math.max(parseLong(region, fieldStart, fieldEnd), 0);
+            } else if (column == labelColumn) {
+                label = labels.intern(region, fieldStart, fieldEnd);
+            }
+
+            boolean blankLine = column == 0 && fieldEnd <= fieldStart;
+            column++;
+            fieldStart = i + 1;
+
+            if (b == '\n') {
+                if (column > lastRequiredColumn && !malformed) {
+                    sink.record(timestamp, elapsed, success, responseCode, bytes, label);
+                } else if (!blankLine) {
+                    skippedLines++;
+                }
+
+                recordEnd = i + 1;
+                column = 0;
+                malformed = false;
+                timestamp = -1;
+                elapsed = -1;
+                success = false;
+                responseCode = null;
+                label = null;
+                bytes = 0;
+            }
+        }
+        return lastRegion ? end : recordEnd;
+    }
+
+    /**
+     * Parses an unsigned decimal in place, returning -1 when the field is not a number
+     */
+    private static long parseLong(MappedByteBuffer buffer, int start, int end) {
+        if (start < end && buffer.get(start) == '"' && buffer.get(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        if (start >= end) {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Open-addressing table that maps raw field bytes to a shared String, so each
+     * distinct value is decoded once no matter how many lines repeat it.
+     */
+    static class ByteStringCache {
+        private long[] hashes = new long[64];
+        private byte[][] keys = new byte[64][];
+        private String[] values = new String[64];
+        private int size;
+
+        String intern(MappedByteBuffer buffer, int start, int end) {
+            if (start < end && buffer.get(start) == '"' && end - start >= 2 && buffer.get(end - 1) == '"') {
+                start++;
+                end--;
+            }
+
+            long hash = 0xcbf29ce484222325L;
+            for (int i = start; i < end; i++) {
+                hash = (hash ^ buffer.get(i)) * 0x100000001b3L;
+            }
+
+            int mask = hashes.length - 1;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (keys[slot] != null) {
+                if (hashes[slot] == hash && sameBytes(keys[slot], buffer, start, end)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            byte[] key = new byte[end - start];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = buffer.get(start + i);
+            }
+            String value = new String(key, StandardCharsets.UTF_8).replace("\"\"", "\"");
+
+            hashes[slot] = hash;
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > hashes.length) {
+                resize();
+            }
+            return value;
+        }
+
+        private static boolean sameBytes(byte[] key, MappedByteBuffer buffer, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void resize() {
+            long[] oldHashes = hashes;
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+
+            hashes = new long[oldHashes.length * 2];
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldValues.length * 2];
+
+            int mask = hashes.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null) {
+                    continue;
+                }
+                int slot = (int) (oldHashes[i] ^ (oldHashes[i] >>> 32)) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.inditex.test.performance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.inditex.test.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a load test split across several load generator JVMs running {@link LoadWorker}.
+ * Workers connect over a plain socket, each gets an equal share of the users (or arrival
+ * rate), all start together after a short countdown and stream cumulative metrics
+ * snapshots back. Their histograms merge exactly, so the final result reads as if one
+ * generator had produced all the load. A worker silent for longer than the worker timeout,
+ * or not finished that long after the test should have ended, is dropped from the result.
+ */
+public class DistributedLoadCoordinator implements LoadEngine {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedLoadCoordinator.class);
+
+    private static final long START_DELAY_MS = 2000; // time for every worker to set up its share before the common start
+
+    private final int port;
+    private final int workerCount;
+    private final int workerTimeoutSeconds;
+    private final String resultsDirectory;
+    private final long expectedIntervalMillis;
+    private final BaselineStore baselineStore;
+    private final Map<String, MetricsSnapshot> latestSnapshots = new ConcurrentHashMap<>();
+    private final Map<String, String> saturatedWorkers = new ConcurrentHashMap<>();
+    private final List<DistributedLoadProtocol.Connection> workers = new ArrayList<>();
+
+    public DistributedLoadCoordinator() {
+        this(ConfigManager.getIntProperty("performance.distributed.port", 4445),
+                ConfigManager.getIntProperty("performance.distributed.workers", 2));
+    }
+
+    public DistributedLoadCoordinator(int port, int workerCount) {
+        this(port, workerCount, ConfigManager.getIntProperty("performance.distributed.worker.timeout.seconds", 60));
+    }
+
+    public DistributedLoadCoordinator(int port, int workerCount, int workerTimeoutSeconds) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        if (workerTimeoutSeconds < 1) {
+            throw new IllegalArgumentException("Worker timeout must be at least one second");
+        }
+        this.port = port;
+        this.workerCount = workerCount;
+        this.workerTimeoutSeconds = workerTimeoutSeconds;
+        this.resultsDirectory = ConfigManager.getProperty("performance.results.directory", "target/jmeter-results");
+        this.expectedIntervalMillis = ConfigManager.getIntProperty("performance.latency.expected.interval.ms", 0);
+        this.baselineStore = BaselineStore.fromConfig();
+    }
+
+    @Override
+    public PerformanceTestResult runLoadTest(LoadTestConfig config, StressTestConfig.PerformanceThresholds thresholds) {
+        latestSnapshots.clear();
+        saturatedWorkers.clear();
+        ExecutorService readers = Executors.newFixedThreadPool(workerCount);
+        SlaWatchdog watchdog = null;
+        try {
+            logger.info("Starting distributed load test: {} on {} workers", config.getTestName(), workerCount);
+            List<String> workerIds = acceptWorkers();
+
+            // Every worker starts its share at the same moment
+            long startAt = System.currentTimeMillis() + START_DELAY_MS;
+            for (int i = 0; i < workerCount; i++) {
+                DistributedLoadProtocol.Connection worker = workers.get(i);
+                worker.send(DistributedLoadProtocol.message(DistributedLoadProtocol.START)
+                        .put("startIn", startAt - System.currentTimeMillis())
+                        .set("config", DistributedLoadProtocol.encodeConfig(config.forWorker(i, workerCount))));
+            }
+
+            List<Future<MetricsSnapshot>> outcomes = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                String workerId = workerIds.get(i);
+                DistributedLoadProtocol.Connection worker = workers.get(i);
+                outcomes.add(readers.submit(() -> collect(workerId, worker)));
+            }
+
+            // Watch the merged live metrics against the SLA while the test runs
+            if (thresholds != null) {
+                watchdog = new SlaWatchdog(this::getLiveMetrics, thresholds,
+                        (int) (START_DELAY_MS / 1000) + config.getRampUpTime(), this::stopWorkers);
+                watchdog.start();
+            }
+
+            long deadline = startAt + (config.getRampUpTime() + config.getDuration() + workerTimeoutSeconds) * 1000L;
+            MetricsSnapshot merged = null;
+            List<String> failures = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                try {
+                    MetricsSnapshot snapshot = outcomes.get(i).get(
+                            Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    merged = merged == null ? snapshot : merged.merge(snapshot);
+                } catch (ExecutionException e) {
+                    logger.error("Worker {} failed", workerIds.get(i), e.getCause());
+                    failures.add(workerIds.get(i) + ": " + e.getCause().getMessage());
+                } catch (TimeoutException e) {
+                    logger.error("Worker {} did not finish within {}s of the planned end", workerIds.get(i), workerTimeoutSeconds);
+                    failures.add(workerIds.get(i) + ": no result within " + workerTimeoutSeconds + "s of the planned end");
+                    outcomes.get(i).cancel(true);
+                    closeWorker(workers.get(i));
+                }
+            }
+            long endTime = System.currentTimeMillis();
+
+            PerformanceTestResult result = processResults(config, startAt, endTime, merged);
+            if (!failures.isEmpty()) {
+                result.setFailureReason("Workers failed, results are partial: " + String.join("; ", failures));
+            }
+            if (watchdog != null && watchdog.isAborted()) {
+                result.setAbortReason(watchdog.getAbortReason());
+                logger.warn("Test aborted: {} - {}", config.getTestName(), watchdog.getAbortReason());
+            }
+            if (!saturatedWorkers.isEmpty()) {
+                result.setGeneratorSaturation(saturatedWorkers.entrySet().stream()
+                        .map(worker -> worker.getKey() + ": " + worker.getValue())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            }
+            if (baselineStore != null && config.isCompareWithBaseline() && failures.isEmpty()) {
+                baselineStore.evaluate(result);
+            }
+
+            logger.info("Distributed load test completed: {} in {}ms", config.getTestName(), result.getDuration());
+            return result;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopWorkers();
+            throw new RuntimeException("Distributed load test interrupted", e);
+        } catch (Exception e) {
+            logger.error("Distributed load test execution failed: {}", config.getTestName(), e);
+            throw new RuntimeException("Distributed load test failed", e);
+        } finally {
+            if (watchdog != null) {
+                watchdog.stop();
+            }
+            readers.shutdownNow();
+            closeWorkers();
+        }
+    }
+
+    /**
+     * Waits for the expected number of workers to connect and announce themselves
+     */
+    private List<String> acceptWorkers() throws IOException {
+        List<String> workerIds = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(port)) {
+            server.setSoTimeout(workerTimeoutSeconds * 1000);
+            logger.info("Waiting for {} workers on port {}", workerCount, port);
+            while (workerIds.size() < workerCount) {
+                DistributedLoadProtocol.Connection worker = new DistributedLoadProtocol.Connection(server.accept());
+                // Workers report every snapshot interval once started, so longer silence means a hung worker
+                worker.setReadTimeout((int) (START_DELAY_MS + workerTimeoutSeconds * 1000L));
+                synchronized (workers) {
+                    workers.add(worker);
+                }
+                String workerId = worker.receive(DistributedLoadProtocol.READY).path("worker").asText(worker.getRemoteAddress());
+                workerIds.add(workerId);
+                logger.info("Worker {} connected from {} ({}/{})", workerId, worker.getRemoteAddress(), workerIds.size(), workerCount);
+            }
+        } catch (SocketTimeoutException e) {
+            throw new IOException(String.format("Only %d of %d workers connected within %ds",
+                    workerIds.size(), workerCount, workerTimeoutSeconds), e);
+        }
+        return workerIds;
+    }
+
+    /**
+     * Reads a worker's messages until it reports its final metrics
+     */
+    private MetricsSnapshot collect(String workerId, DistributedLoadProtocol.Connection worker) throws IOException {
+        while (true) {
+            JsonNode message = worker.receive();
+            String type = message.path("type").asText();
+            switch (type) {
+                case DistributedLoadProtocol.SNAPSHOT:
+                    latestSnapshots.put(workerId, DistributedLoadProtocol.decodeSnapshot(message.get("snapshot")));
+                    break;
+                case DistributedLoadProtocol.FINISHED:
+                    MetricsSnapshot snapshot = DistributedLoadProtocol.decodeSnapshot(message.get("snapshot"));
+                    latestSnapshots.put(workerId, snapshot);
+                    if (message.hasNonNull("abortReason")) {
+                        logger.warn("Worker {} aborted: {}", workerId, message.get("abortReason").asText());
+                    }
+                    if (message.hasNonNull("generatorSaturation")) {
+                        saturatedWorkers.put(workerId, message.get("generatorSaturation").asText());
+                        logger.warn("Worker {} was saturated: {}", workerId, saturatedWorkers.get(workerId));
+                    }
+                    logger.info("Worker {} finished: {}", workerId, snapshot);
+                    return snapshot;
+                case DistributedLoadProtocol.FAILED:
+                    throw new IOException(message.path("error").asText("unknown error"));
+                default:
+                    logger.warn("Ignoring unexpected {} message from worker {}", type, workerId);
+            }
+        }
+    }
+
+    private PerformanceTestResult processResults(LoadTestConfig config, long startTime, long endTime, MetricsSnapshot merged) {
+        PerformanceTestResult result = new PerformanceTestResult();
+        result.setTestName(config.getTestName());
+        result.setStartTime(startTime);
+        result.setEndTime(endTime);
+        result.setDuration(endTime - startTime);
+
+        if (merged != null && merged.getTotalSamples() > 0) {
+            result.setMetrics(merged.toMetrics());
+            result.getMetrics().applyCoordinatedOmissionCorrection(config.latencyCorrectionInterval(expectedIntervalMillis));
+        }
+
+        // Per-window series of the whole cluster for trend and spike analysis
+        if (result.getMetrics() != null && result.getMetrics().getTimeSeries() != null) {
+            String seriesPrefix = resultsDirectory + "/" + config.getTestName() + "_timeseries";
+            try {
+                Files.createDirectories(Paths.get(resultsDirectory));
+                result.getMetrics().getTimeSeries().writeCsv(Paths.get(seriesPrefix + ".csv"));
+                result.getMetrics().getTimeSeries().writeJson(Paths.get(seriesPrefix + ".json"));
+            } catch (Exception e) {
+                logger.warn("Failed to write performance time series", e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Merged metrics of the latest snapshot from every worker; null until the first arrives
+     */
+    @Override
+    public MetricsSnapshot getLiveMetrics() {
+        MetricsSnapshot merged = null;
+        for (MetricsSnapshot snapshot : latestSnapshots.values()) {
+            merged = merged == null ? snapshot : merged.merge(snapshot);
+        }
+        return merged;
+    }
+
+    /**
+     * Asks all workers to stop; each still reports the metrics collected so far
+     */
+    @Override
+    public void shutdown() {
+        stopWorkers();
+    }
+
+    private void stopWorkers() {
+        synchronized (workers) {
+            for (DistributedLoadProtocol.Connection worker : workers) {
+                try {
+                    worker.send(DistributedLoadProtocol.message(DistributedLoadProtocol.STOP));
+                } catch (IOException e) {
+                    logger.warn("Failed to stop worker at {}", worker.getRemoteAddress(), e);
+                }
+            }
+        }
+    }
+
+    private void closeWorkers() {
+        synchronized (workers) {
+            workers.forEach(DistributedLoadCoordinator::closeWorker);
+            workers.clear();
+        }
+    }
+
+    private static void closeWorker(DistributedLoadProtocol.Connection worker) {
+        try {
+            worker.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close worker connection", e);
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+}
@@ -0,0 +1,120 @@
+package com.inditex.test.performance;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Runs distributed tests with several {@link LoadWorker}s on localhost against a WireMock stub.
+ * Test methods may run in parallel, so each one requests its own path of the shared stub.
+ */
+public class DistributedLoadCoordinatorTest {
+    private static final String PRICING_PATH = "/v1/promotions/pricing";
+
+    private WireMockServer wireMockServer;
+
+    @BeforeClass(alwaysRun = true)
+    public void startStub() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+        wireMockServer.stubFor(get(urlPathMatching(PRICING_PATH + "/.*")).willReturn(ok("{}")));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        wireMockServer.stop();
+    }
+
+    @Test(groups = "unit", timeOut = 60000)
+    public void mergesTheSamplesOfAllWorkers() throws Exception {
+        int port = freePort();
+        ExecutorService threads = Executors.newCachedThreadPool();
+        try {
+            for (int i = 0; i < 3; i++) {
+                threads.execute(new LoadWorker("localhost", port)::run);
+            }
+
+            PerformanceTestResult result = new DistributedLoadCoordinator(port, 3, 10).runLoadTest(pricingTest("distributed-merge", 5, 4));
+
+            Assert.assertNull(result.getFailureReason(), "No worker should fail");
+            Assert.assertEquals(result.getMetrics().getTotalSamples(), 20);
+            wireMockServer.verify(20, getRequestedFor(urlPathEqualTo(PRICING_PATH + "/distributed-merge")));
+        } finally {
+            threads.shutdownNow();
+            threads.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test(groups = "unit", timeOut = 60000)
+    public void dropsWorkersThatGoSilent() throws Exception {
+        int port = freePort();
+        ExecutorService threads = Executors.newCachedThreadPool();
+        try {
+            threads.execute(new LoadWorker("localhost", port)::run);
+            Future<?> silentWorker = threads.submit(() -> connectAndHang(port));
+
+            PerformanceTestResult result = new DistributedLoadCoordinator(port, 2, 2).runLoadTest(pricingTest("distributed-silent", 4, 4));
+
+            Assert.assertNotNull(result.getFailureReason(), "The silent worker should be reported");
+            Assert.assertTrue(result.getFailureReason().contains("silent"), result.getFailureReason());
+            Assert.assertEquals(result.getMetrics().getTotalSamples(), 8, "Only the share of the live worker is merged");
+            silentWorker.cancel(true);
+        } finally {
+            threads.shutdownNow();
+            threads.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private LoadTestConfig pricingTest(String name, int users, int loops) {
+        LoadTestConfig config = new LoadTestConfig(name, users, 0, loops);
+        config.setEngineType(LoadEngineType.HTTP_CLIENT);
+        config.setCompareWithBaseline(false);
+        HTTPRequestConfig request = new HTTPRequestConfig();
+        request.setName("pricing");
+        request.setMethod("GET");
+        request.setDomain("localhost");
+        request.setPort(wireMockServer.port());
+        request.setPath(PRICING_PATH + "/" + name);
+        config.addHttpRequest(request);
+        return config;
+    }
+
+    /**
+     * Announces itself as a worker, then never reports
+     */
+    private static Void connectAndHang(int port) throws Exception {
+        while (true) {
+            try (DistributedLoadProtocol.Connection coordinator =
+                         new DistributedLoadProtocol.Connection(new Socket("localhost", port))) {
+                coordinator.send(DistributedLoadProtocol.message(DistributedLoadProtocol.READY).put("worker", "silent"));
+                coordinator.receive(DistributedLoadProtocol.START);
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.inditex.test.performance;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Wire format between {@link DistributedLoadCoordinator} and {@link LoadWorker}: one JSON
+ * object per line, with a "type" field. Histograms travel in their compact binary form
+ * (base64), so snapshots stay small and merge exactly on the coordinator.
+ *
+ * <pre>
+ * worker      -> coordinator  ready    {worker}
+ * coordinator -> worker       start    {config, startIn}   config is the worker's share
+ * worker      -> coordinator  snapshot {snapshot}          cumulative, while running
+ * coordinator -> worker       stop     {}                  e.g. SLA breach
+ * worker      -> coordinator  finished {snapshot, abortReason} | failed {error}
+ * </pre>
+ */
+final class DistributedLoadProtocol {
+    static final String READY = "ready";
+    static final String START = "start";
+    static final String SNAPSHOT = "snapshot";
+    static final String STOP = "stop";
+    static final String FINISHED = "finished";
+    static final String FAILED = "failed";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private DistributedLoadProtocol() {
+    }
+
+    static ObjectNode message(String type) {
+        ObjectNode message = MAPPER.createObjectNode();
+        message.put("type", type);
+        return message;
+    }
+
+    static JsonNode encodeConfig(LoadTestConfig config) {
+        return MAPPER.valueToTree(config);
+    }
+
+    static LoadTestConfig decodeConfig(JsonNode node) throws IOException {
+        return MAPPER.treeToValue(node, LoadTestConfig.class);
+    }
+
+    static ObjectNode encodeSnapshot(MetricsSnapshot snapshot, boolean includeTimeSeries) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("intervalStart", snapshot.getIntervalStart());
+        node.put("capturedAt", snapshot.getCapturedAt());
+        node.put("totalSamples", snapshot.getTotalSamples());
+        node.put("failedSamples", snapshot.getFailedSamples());
+        node.put("totalBytes", snapshot.getTotalBytes());
+        node.put("totalResponseTime", snapshot.getTotalResponseTime());
+        node.put("minResponseTime", snapshot.getMinResponseTime());
+        node.put("maxResponseTime", snapshot.getMaxResponseTime());
+        node.put("firstSampleTimestamp", snapshot.getFirstSampleTimestamp());
+        node.put("lastSampleTimestamp", snapshot.getLastSampleTimestamp());
+        node.put("responseTimes", snapshot.getResponseTimeHistogram().encode());
+
+        ObjectNode codes = node.putObject("responseCodes");
+        snapshot.getResponseCodes().forEach(codes::put);
+
+        ArrayNode samplers = node.putArray("samplers");
+        snapshot.getSamplerStatistics().values().forEach(statistics -> samplers.addObject()
+                .put("label", statistics.getLabel())
+                .put("count", statistics.getCount())
+                .put("errorCount", statistics.getErrorCount())
+                .put("totalResponseTime", statistics.getTotalResponseTime())
+                .put("minResponseTime", statistics.getMinResponseTime())
+                .put("maxResponseTime", statistics.getMaxResponseTime())
+                .put("firstTimestamp", statistics.getFirstTimestamp())
+                .put("lastTimestamp", statistics.getLastTimestamp())
+                .put("responseTimes", statistics.getResponseTimeHistogram().encode()));
+
+        MetricsTimeSeries timeSeries = snapshot.getTimeSeries();
+        if (includeTimeSeries && timeSeries != null) {
+            ObjectNode series = node.putObject("timeSeries");
+            series.put("windowMillis", timeSeries.getWindowMillis());
+            ArrayNode windows = series.putArray("windows");
+            for (int i = 0; i < timeSeries.getWindowCount(); i++) {
+                if (timeSeries.getRequests(i) == 0) {
+                    continue;
+                }
+                ObjectNode window = windows.addObject()
+                        .put("start", timeSeries.getWindowStart(i))
+                        .put("requests", timeSeries.getRequests(i))
+                        .put("errors", timeSeries.getErrors(i));
+                // Sparse (slot, count) pairs
+                ArrayNode latency = window.putArray("latency");
+                for (int slot = 0; slot < MetricsTimeSeries.LATENCY_SLOTS; slot++) {
+                    int count = timeSeries.getLatencyCount(i, slot);
+                    if (count > 0) {
+                        latency.add(slot).add(count);
+                    }
+                }
+            }
+        }
+        return node;
+    }
+
+    static MetricsSnapshot decodeSnapshot(JsonNode node) throws IOException {
+        Map<String, Long> codes = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> codeFields = node.path("responseCodes").fields();
+        while (codeFields.hasNext()) {
+            Map.Entry<String, JsonNode> code = codeFields.next();
+            codes.put(code.getKey(), code.getValue().asLong());
+        }
+
+        Map<String, SamplerStatistics> statistics = new TreeMap<>();
+        for (JsonNode sampler : node.path("samplers")) {
+            long count = sampler.get("count").asLong();
+            String label = sampler.get("label").asText();
+            statistics.put(label, new SamplerStatistics(label, count, sampler.get("errorCount").asLong(),
+                    sampler.get("totalResponseTime").asDouble(),
+                    count > 0 ? sampler.get("minResponseTime").asDouble() : Double.MAX_VALUE,
+                    sampler.get("maxResponseTime").asDouble(), sampler.get("firstTimestamp").asLong(),
+                    sampler.get("lastTimestamp").asLong(),
+                    LatencyHistogram.decode(sampler.get("responseTimes").binaryValue())));
+        }
+
+        MetricsTimeSeries timeSeries = null;
+        JsonNode series = node.get("timeSeries");
+        if (series != null) {
+            timeSeries = new MetricsTimeSeries(series.get("windowMillis").asLong());
+            for (JsonNode window : series.get("windows")) {
+                int[] latencyCounts = new int[MetricsTimeSeries.LATENCY_SLOTS];
+                JsonNode latency = window.get("latency");
+                for (int i = 0; i + 1 < latency.size(); i += 2) {
+                    latencyCounts[latency.get(i).asInt()] = latency.get(i + 1).asInt();
+                }
+                timeSeries.addWindow(window.get("start").asLong(), window.get("requests").asLong(),
+                        window.get("errors").asLong(), latencyCounts);
+            }
+        }
+
+        return new MetricsSnapshot(node.get("intervalStart").asLong(), node.get("capturedAt").asLong(),
+                node.get("totalSamples").asLong(), node.get("failedSamples").asLong(),
+                node.get("totalBytes").asLong(), node.get("totalResponseTime").asLong(),
+                node.get("minResponseTime").asLong(), node.get("maxResponseTime").asLong(),
+                node.get("firstSampleTimestamp").asLong(), node.get("lastSampleTimestamp").asLong(),
+                LatencyHistogram.decode(node.get("responseTimes").binaryValue()), codes, statistics, timeSeries);
+    }
+
+    /**
+     * A socket carrying protocol messages; sending is thread-safe, receiving is meant for one reader thread
+     */
+    static class Connection implements Closeable {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final BufferedWriter writer;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        synchronized void send(ObjectNode message) throws IOException {
+            writer.write(MAPPER.writeValueAsString(message));
+            writer.write('\n');
+            writer.flush();
+        }
+
+        JsonNode receive() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                throw new EOFException("Connection closed by " + socket.getRemoteSocketAddress());
+            }
+            return MAPPER.readTree(line);
+        }
+
+        /**
+         * Receives the next message and checks it has the expected type
+         */
+        JsonNode receive(String expectedType) throws IOException {
+            JsonNode message = receive();
+            if (!expectedType.equals(message.path("type").asText())) {
+                throw new IOException("Expected " + expectedType + " message but got: " + message);
+            }
+            return message;
+        }
+
+        /**
+         * Makes a receive fail with a SocketTimeoutException after the given silence
+         */
+        void setReadTimeout(int millis) throws IOException {
+            socket.setSoTimeout(millis);
+        }
+
+        String getRemoteAddress() {
+            return String.valueOf(socket.getRemoteSocketAddress());
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
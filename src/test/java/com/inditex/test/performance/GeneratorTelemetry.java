@@ -0,0 +1,625 @@
+package com.inditex.test.performance;
+
+import com.inditex.test.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Samples the resources of the load generator itself while a test runs: CPU, heap, GC pause
+ * time, threads and open sockets, once per interval. A generator short of CPU, heap or file
+ * descriptors delays its own requests and the latencies it reports are partly its own
+ * queueing, so a breach of the saturation thresholds lasting the sustained time marks the
+ * run as saturated.
+ * <p>
+ * The generator is either this JVM, read through the platform MXBeans, or a JMeter process,
+ * read from /proc and from the GC log it was started with (see {@link #gcLogOption(Path)}).
+ * File descriptors and sockets are only available on Linux.
+ */
+public class GeneratorTelemetry {
+    private static final Logger logger = LoggerFactory.getLogger(GeneratorTelemetry.class);
+
+    // [1.234s][info][gc] GC(12) Pause Young (Normal) (G1 Evacuation Pause) 24M->3M(256M) 2.345ms
+    private static final Pattern GC_PAUSE =
+            Pattern.compile("\\bPause\\b.* (\\d+)([KMG])->(\\d+)([KMG])\\((\\d+)([KMG])\\) (\\d+(?:\\.\\d+)?)ms");
+    private static final Pattern GC_HEAP_MAX = Pattern.compile("Heap Max Capacity: (\\d+)([KMG])");
+
+    private final Source source;
+    private final long intervalMillis;
+    private final double cpuThreshold;
+    private final double hostCpuWarning;
+    private final double gcThreshold;
+    private final double heapThreshold;
+    private final double fileDescriptorThreshold;
+    private final int sustainedSamples;
+    private final List<Sample> samples = Collections.synchronizedList(new ArrayList<>());
+
+    private ScheduledExecutorService scheduler;
+    private long lastSampleNanos;
+    private int breachedSamples;
+    private int hostBusySamples;
+    private boolean hostCpuWarned;
+    private volatile String saturationReason;
+
+    private GeneratorTelemetry(Source source) {
+        this.source = source;
+        this.intervalMillis = ConfigManager.getIntProperty("performance.telemetry.interval.ms", 1000);
+        this.cpuThreshold = Double.parseDouble(ConfigManager.getProperty("performance.telemetry.saturation.cpu", "0.90"));
+        this.hostCpuWarning = Double.parseDouble(ConfigManager.getProperty("performance.telemetry.warning.host.cpu", "-1"));
+        this.gcThreshold = Double.parseDouble(ConfigManager.getProperty("performance.telemetry.saturation.gc", "0.10"));
+        this.heapThreshold = Double.parseDouble(ConfigManager.getProperty("performance.telemetry.saturation.heap", "0.90"));
+        this.fileDescriptorThreshold = Double.parseDouble(
+                ConfigManager.getProperty("performance.telemetry.saturation.file.descriptors", "0.90"));
+        this.sustainedSamples = (int) Math.max(1, ConfigManager.getIntProperty(
+                "performance.telemetry.saturation.sustained.seconds", 5) * 1000L / intervalMillis);
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("performance.telemetry.enabled", true);
+    }
+
+    /**
+     * Telemetry of this JVM, for the engines generating the load in process
+     */
+    public static GeneratorTelemetry forCurrentJvm() {
+        return new GeneratorTelemetry(new JvmSource());
+    }
+
+    /**
+     * Telemetry of a JMeter process. The launcher script may run java as a child, so the
+     * first java process of the tree is sampled; heap and GC come from its GC log.
+     */
+    public static GeneratorTelemetry forProcess(Process process, Path gcLog) {
+        return new GeneratorTelemetry(new ProcessSource(process.toHandle(), gcLog));
+    }
+
+    /**
+     * JVM option making a generator JVM write the GC log {@link #forProcess} reads
+     */
+    public static String gcLogOption(Path gcLog) {
+        return "-Xlog:gc*:file=" + gcLog.toAbsolutePath();
+    }
+
+    public synchronized void start() {
+        lastSampleNanos = System.nanoTime();
+        source.start();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "generator-telemetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::sampleSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sampling, taking a last sample of the time since the previous one
+     */
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running == null) {
+            return;
+        }
+        running.shutdownNow();
+        try {
+            running.awaitTermination(intervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sampleSafely();
+        logger.info("{}", this);
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (Exception e) {
+            logger.warn("Generator telemetry sampling failed", e);
+        }
+    }
+
+    private synchronized void sample() {
+        long now = System.nanoTime();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(now - lastSampleNanos);
+        lastSampleNanos = now;
+        if (elapsedMillis <= 0) {
+            return;
+        }
+        Sample sample = new Sample(System.currentTimeMillis(), elapsedMillis);
+        source.read(sample);
+        samples.add(sample);
+        evaluate(sample);
+    }
+
+    /**
+     * Checks a sample against the saturation thresholds; the first breach lasting the
+     * sustained time becomes the saturation reason
+     */
+    private void evaluate(Sample sample) {
+        String breach = findBreach(sample);
+        breachedSamples = breach != null ? breachedSamples + 1 : 0;
+        if (breach != null && breachedSamples >= sustainedSamples && saturationReason == null) {
+            saturationReason = String.format(Locale.ROOT, "%s for %ds", breach, breachedSamples * intervalMillis / 1000);
+            logger.warn("Load generator saturated: {}", saturationReason);
+        }
+        checkHostCpu(sample);
+    }
+
+    /**
+     * Host-wide CPU also counts the SUT, WireMock or other jobs sharing the machine, so it
+     * never saturates the run; when a warning threshold is configured it is only logged
+     */
+    private void checkHostCpu(Sample sample) {
+        if (hostCpuWarning <= 0) {
+            return;
+        }
+        hostBusySamples = sample.getSystemCpuLoad() >= hostCpuWarning ? hostBusySamples + 1 : 0;
+        if (hostBusySamples >= sustainedSamples && !hostCpuWarned) {
+            hostCpuWarned = true;
+            logger.warn("{}", String.format(Locale.ROOT, "Host CPU at %.0f%% for %ds while generating load; "
+                    + "other processes on the host may skew the results",
+                    sample.getSystemCpuLoad() * 100, hostBusySamples * intervalMillis / 1000));
+        }
+    }
+
+    private String findBreach(Sample sample) {
+        double cpu = sample.getProcessCpuLoad();
+        if (cpu >= cpuThreshold) {
+            return String.format(Locale.ROOT, "CPU at %.0f%%", cpu * 100);
+        }
+        double gcShare = (double) sample.getGcPauseMillis() / sample.getElapsedMillis();
+        if (gcShare >= gcThreshold) {
+            return String.format(Locale.ROOT, "GC pauses took %.0f%% of the time", gcShare * 100);
+        }
+        if (sample.getHeapMax() > 0 && sample.getHeapAfterGc() >= 0
+                && (double) sample.getHeapAfterGc() / sample.getHeapMax() >= heapThreshold) {
+            return String.format(Locale.ROOT, "heap %.0f%% full after GC", 100.0 * sample.getHeapAfterGc() / sample.getHeapMax());
+        }
+        if (sample.getMaxOpenFiles() > 0 && (double) sample.getOpenFiles() / sample.getMaxOpenFiles() >= fileDescriptorThreshold) {
+            return String.format(Locale.ROOT, "%d of %d file descriptors open", sample.getOpenFiles(), sample.getMaxOpenFiles());
+        }
+        return null;
+    }
+
+    public boolean isSaturated() {
+        return saturationReason != null;
+    }
+
+    /**
+     * What saturated the generator, or null when it kept up
+     */
+    public String getSaturationReason() {
+        return saturationReason;
+    }
+
+    public List<Sample> getSamples() {
+        synchronized (samples) {
+            return new ArrayList<>(samples);
+        }
+    }
+
+    /**
+     * Stores the samples next to the run and flags the result when the generator was saturated
+     */
+    public void attachTo(PerformanceTestResult result, Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            writeCsv(file);
+        } catch (IOException e) {
+            logger.warn("Failed to write generator telemetry to {}", file, e);
+        }
+        if (saturationReason != null) {
+            result.setGeneratorSaturation(saturationReason);
+        }
+    }
+
+    public void writeCsv(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("timestamp,processCpu,systemCpu,heapUsed,heapAfterGc,heapMax,gcPauseMillis,gcCount,threads,openFiles,sockets\n");
+            for (Sample sample : getSamples()) {
+                writer.write(String.format(Locale.ROOT, "%d,%.3f,%.3f,%d,%d,%d,%d,%d,%d,%d,%d\n",
+                        sample.getTimestamp(), sample.getProcessCpuLoad(), sample.getSystemCpuLoad(),
+                        sample.getHeapUsed(), sample.getHeapAfterGc(), sample.getHeapMax(), sample.getGcPauseMillis(),
+                        sample.getGcCount(), sample.getThreads(), sample.getOpenFiles(), sample.getSockets()));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        List<Sample> all = getSamples();
+        double peakCpu = 0;
+        long gcPause = 0;
+        long peakHeap = 0;
+        int peakThreads = 0;
+        int peakSockets = 0;
+        for (Sample sample : all) {
+            peakCpu = Math.max(peakCpu, Math.max(sample.getProcessCpuLoad(), sample.getSystemCpuLoad()));
+            gcPause += sample.getGcPauseMillis();
+            peakHeap = Math.max(peakHeap, sample.getHeapUsed());
+            peakThreads = Math.max(peakThreads, sample.getThreads());
+            peakSockets = Math.max(peakSockets, sample.getSockets());
+        }
+        return String.format(Locale.ROOT, "Generator telemetry: %d samples, peak CPU %.0f%%, GC pauses %dms, peak heap %dMB, "
+                        + "peak threads %d, peak sockets %d%s", all.size(), peakCpu * 100, gcPause, peakHeap >> 20,
+                peakThreads, peakSockets, saturationReason != null ? ", saturated: " + saturationReason : "");
+    }
+
+    /**
+     * Resources of the generator over one interval; -1 where a value is not available
+     */
+    public static class Sample {
+        private final long timestamp;
+        private final long elapsedMillis;
+        private double processCpuLoad = -1;
+        private double systemCpuLoad = -1;
+        private long heapUsed = -1;
+        private long heapAfterGc = -1;
+        private long heapMax = -1;
+        private long gcPauseMillis;
+        private long gcCount;
+        private int threads = -1;
+        private int openFiles = -1;
+        private int sockets = -1;
+        private int maxOpenFiles = -1;
+
+        Sample(long timestamp, long elapsedMillis) {
+            this.timestamp = timestamp;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * CPU used by the generator over the interval, as a share of all cores
+         */
+        public double getProcessCpuLoad() {
+            return processCpuLoad;
+        }
+
+        /**
+         * CPU used by the whole host over the interval, as a share of all cores
+         */
+        public double getSystemCpuLoad() {
+            return systemCpuLoad;
+        }
+
+        public long getHeapUsed() {
+            return heapUsed;
+        }
+
+        /**
+         * Heap still used after the last collection, the live data of the generator
+         */
+        public long getHeapAfterGc() {
+            return heapAfterGc;
+        }
+
+        public long getHeapMax() {
+            return heapMax;
+        }
+
+        /**
+         * Time spent in GC pauses during the interval
+         */
+        public long getGcPauseMillis() {
+            return gcPauseMillis;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getOpenFiles() {
+            return openFiles;
+        }
+
+        public int getSockets() {
+            return sockets;
+        }
+
+        public int getMaxOpenFiles() {
+            return maxOpenFiles;
+        }
+    }
+
+    private interface Source {
+        void start();
+
+        void read(Sample sample);
+    }
+
+    private static double systemCpuLoad(OperatingSystemMXBean os) {
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            @SuppressWarnings("deprecation")
+            double load = ((com.sun.management.OperatingSystemMXBean) os).getSystemCpuLoad();
+            return load;
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the open file descriptors and sockets of a process from /proc
+     */
+    private static void readFileDescriptors(String pid, Sample sample) {
+        Path fdDirectory = Paths.get("/proc", pid, "fd");
+        if (!Files.isDirectory(fdDirectory)) {
+            return;
+        }
+        int openFiles = 0;
+        int sockets = 0;
+        try (DirectoryStream<Path> descriptors = Files.newDirectoryStream(fdDirectory)) {
+            for (Path descriptor : descriptors) {
+                openFiles++;
+                try {
+                    if (Files.readSymbolicLink(descriptor).toString().startsWith("socket:")) {
+                        sockets++;
+                    }
+                } catch (IOException e) {
+                    // Closed while listing
+                }
+            }
+        } catch (IOException e) {
+            return;
+        }
+        sample.openFiles = openFiles;
+        sample.sockets = sockets;
+    }
+
+    /**
+     * Soft limit of open files of a process from /proc, -1 when unknown or unlimited
+     */
+    private static int readMaxOpenFiles(String pid) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", pid, "limits"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("Max open files")) {
+                    String soft = line.substring("Max open files".length()).trim().split("\\s+")[0];
+                    return "unlimited".equals(soft) ? -1 : Integer.parseInt(soft);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not on Linux
+        }
+        return -1;
+    }
+
+    private static class JvmSource implements Source {
+        private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final List<GarbageCollectorMXBean> pauseCollectors = new ArrayList<>();
+        private final String pid = String.valueOf(ProcessHandle.current().pid());
+        private int maxOpenFiles;
+        private long lastGcTime;
+        private long lastGcCount;
+
+        @Override
+        public void start() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                // Concurrent cycles run beside the application and do not stop it
+                if (!collector.getName().contains("Concurrent") && !collector.getName().contains("Cycles")) {
+                    pauseCollectors.add(collector);
+                }
+            }
+            maxOpenFiles = readMaxOpenFiles(pid);
+            lastGcTime = gcTime();
+            lastGcCount = gcCount();
+        }
+
+        @Override
+        public void read(Sample sample) {
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                sample.processCpuLoad = ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad();
+            }
+            sample.systemCpuLoad = systemCpuLoad(os);
+
+            MemoryUsage heap = memory.getHeapMemoryUsage();
+            sample.heapUsed = heap.getUsed();
+            sample.heapMax = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+            long afterGc = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                MemoryUsage collectionUsage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+                if (collectionUsage != null) {
+                    afterGc += collectionUsage.getUsed();
+                }
+            }
+            sample.heapAfterGc = afterGc;
+
+            long gcTime = gcTime();
+            long gcCount = gcCount();
+            sample.gcPauseMillis = gcTime - lastGcTime;
+            sample.gcCount = gcCount - lastGcCount;
+            lastGcTime = gcTime;
+            lastGcCount = gcCount;
+
+            sample.threads = threads.getThreadCount();
+            sample.maxOpenFiles = maxOpenFiles;
+            readFileDescriptors(pid, sample);
+        }
+
+        private long gcTime() {
+            return pauseCollectors.stream().mapToLong(collector -> Math.max(0, collector.getCollectionTime())).sum();
+        }
+
+        private long gcCount() {
+            return pauseCollectors.stream().mapToLong(collector -> Math.max(0, collector.getCollectionCount())).sum();
+        }
+    }
+
+    private static class ProcessSource implements Source {
+        private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        private final ProcessHandle root;
+        private final Path gcLog;
+        private ProcessHandle target;
+        private int maxOpenFiles = -1;
+        private long lastCpuNanos = -1;
+        private long gcLogPosition;
+        private long heapAfterGc = -1;
+        private long heapMax = -1;
+        private long heapMaxCapacity = -1;
+
+        ProcessSource(ProcessHandle root, Path gcLog) {
+            this.root = root;
+            this.gcLog = gcLog;
+        }
+
+        @Override
+        public void start() {
+            target = root;
+        }
+
+        @Override
+        public void read(Sample sample) {
+            resolveTarget();
+            String pid = String.valueOf(target.pid());
+
+            long cpuNanos = target.info().totalCpuDuration().map(Duration::toNanos).orElse(-1L);
+            if (cpuNanos >= 0 && lastCpuNanos >= 0) {
+                sample.processCpuLoad = Math.min(1.0, (cpuNanos - lastCpuNanos)
+                        / (sample.getElapsedMillis() * 1_000_000.0 * Runtime.getRuntime().availableProcessors()));
+            }
+            lastCpuNanos = cpuNanos;
+            sample.systemCpuLoad = systemCpuLoad(os);
+
+            readGcLog(sample);
+            sample.heapUsed = heapAfterGc;
+            sample.heapAfterGc = heapAfterGc;
+            // Older JVMs do not log the capacity; the JMeter launcher sets -Xms to -Xmx anyway
+            sample.heapMax = heapMaxCapacity > 0 ? heapMaxCapacity : heapMax;
+
+            sample.threads = readThreads(pid);
+            sample.maxOpenFiles = maxOpenFiles;
+            readFileDescriptors(pid, sample);
+        }
+
+        /**
+         * Moves from the launcher to the java process once it has been started
+         */
+        private void resolveTarget() {
+            if (target != root || isJava(root)) {
+                return;
+            }
+            root.descendants().filter(ProcessSource::isJava).findFirst().ifPresent(java -> {
+                target = java;
+                lastCpuNanos = -1;
+                maxOpenFiles = readMaxOpenFiles(String.valueOf(java.pid()));
+            });
+        }
+
+        private static boolean isJava(ProcessHandle process) {
+            return process.info().command().map(command -> Paths.get(command).getFileName().toString().startsWith("java"))
+                    .orElse(false);
+        }
+
+        private static int readThreads(String pid) {
+            try {
+                for (String line : Files.readAllLines(Paths.get("/proc", pid, "status"), StandardCharsets.UTF_8)) {
+                    if (line.startsWith("Threads:")) {
+                        return Integer.parseInt(line.substring("Threads:".length()).trim());
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // Not on Linux or the process is gone
+            }
+            return -1;
+        }
+
+        /**
+         * Reads the GC log lines completed since the last sample
+         */
+        private void readGcLog(Sample sample) {
+            if (gcLog == null || !Files.exists(gcLog)) {
+                return;
+            }
+            try (SeekableByteChannel channel = Files.newByteChannel(gcLog)) {
+                long size = channel.size();
+                if (size < gcLogPosition) {
+                    gcLogPosition = 0; // Rotated
+                }
+                if (size == gcLogPosition) {
+                    return;
+                }
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size - gcLogPosition, 4 * 1024 * 1024));
+                channel.position(gcLogPosition);
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    // Fill the buffer
+                }
+                String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+                int complete = text.lastIndexOf('\n') + 1;
+                gcLogPosition += text.substring(0, complete).getBytes(StandardCharsets.UTF_8).length;
+                for (String line : text.substring(0, complete).split("\n")) {
+                    parseGcLine(line, sample);
+                }
+            } catch (IOException e) {
+                logger.debug("Failed to read GC log {}", gcLog, e);
+            }
+        }
+
+        private void parseGcLine(String line, Sample sample) {
+            Matcher pause = GC_PAUSE.matcher(line);
+            if (pause.find()) {
+                sample.gcCount++;
+                sample.gcPauseMillis += Math.round(Double.parseDouble(pause.group(7)));
+                heapAfterGc = bytes(pause.group(3), pause.group(4));
+                heapMax = bytes(pause.group(5), pause.group(6));
+                return;
+            }
+            Matcher capacity = GC_HEAP_MAX.matcher(line);
+            if (capacity.find()) {
+                heapMaxCapacity = bytes(capacity.group(1), capacity.group(2));
+            }
+        }
+
+        private static long bytes(String value, String unit) {
+            long amount = Long.parseLong(value);
+            switch (unit) {
+                case "G":
+                    return amount << 30;
+                case "M":
+                    return amount << 20;
+                default:
+                    return amount << 10;
+            }
+        }
+    }
+}
@@ -0,0 +1,558 @@
+package com.inditex.test.performance;
+
+import com.inditex.test.config.ConfigManager;
+import com.inditex.test.monitoring.LoadTestMetrics;
+import com.inditex.test.parallel.VirtualThreadExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Native load generator for API-only tests. Every virtual user runs on its own virtual
+ * thread (platform threads before Java 21) and sends the configured requests with a shared
+ * {@link HttpClient}, so tens of thousands of users fit in one JVM without JMeter's
+ * per-thread cost. Samples are recorded into a {@link LiveMetricsCollector} and reported
+ * exactly like {@link JMeterTestEngine} results. Besides the configured requests, it runs
+ * the sessions of a {@link WorkloadMix} or replays an {@link AccessLogReplay access log}.
+ */
+public class HttpClientLoadEngine implements LoadEngine {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientLoadEngine.class);
+
+    // Managed by HttpClient itself, setting them throws IllegalArgumentException
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    static {
+        RESTRICTED_HEADERS.addAll(List.of("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+    }
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final String resultsDirectory;
+    private final long timeSeriesWindowMillis;
+    private final long expectedIntervalMillis;
+    private final BaselineStore baselineStore;
+    private volatile LiveMetricsCollector liveMetrics;
+    private volatile String publishedScenario; // test name samples are published under, null when not publishing
+    private volatile boolean stopRequested;
+
+    public HttpClientLoadEngine() {
+        this.resultsDirectory = ConfigManager.getProperty("performance.results.directory", "target/jmeter-results");
+        this.timeSeriesWindowMillis = ConfigManager.getIntProperty("performance.timeseries.window.ms", 1000);
+        this.expectedIntervalMillis = ConfigManager.getIntProperty("performance.latency.expected.interval.ms", 0);
+        this.requestTimeout = Duration.ofMillis(ConfigManager.getIntProperty("performance.httpclient.request.timeout.ms", 30000));
+        this.baselineStore = BaselineStore.fromConfig();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(ConfigManager.getIntProperty("performance.httpclient.connect.timeout.ms", 10000)))
+                .build();
+
+        if (!VirtualThreadExecutors.isAvailable()) {
+            logger.warn("Virtual threads not available on Java {}, virtual users run on platform threads",
+                    System.getProperty("java.version"));
+        }
+    }
+
+    @Override
+    public PerformanceTestResult runLoadTest(LoadTestConfig config, StressTestConfig.PerformanceThresholds thresholds) {
+        WorkloadMix mix = config.getWorkloadMix();
+        AccessLogReplay replay = config.getAccessLogReplay();
+        if (config.getHttpRequests().isEmpty() && mix == null && replay == null) {
+            throw new IllegalArgumentException("Load test " + config.getTestName() + " has no HTTP requests");
+        }
+
+        try {
+            logger.info("Starting load test: {} on HttpClient engine", config.getTestName());
+
+            List<PreparedRequest> requests = config.getHttpRequests().stream()
+                    .map(this::prepareRequest)
+                    .collect(Collectors.toList());
+            Map<WorkloadMix.Persona, Map<String, PreparedRequest>> personaRequests =
+                    mix != null ? preparePersonas(mix, config.getWorkloadBaseUrl()) : null;
+            liveMetrics = new LiveMetricsCollector(timeSeriesWindowMillis);
+            stopRequested = false;
+            publishedScenario = null;
+            if (LoadTestMetrics.isEnabled()) {
+                LoadTestMetrics.startEndpoint();
+                publishedScenario = config.getTestName();
+            }
+
+            // Watch live metrics against the SLA while the test runs
+            SlaWatchdog watchdog = null;
+            if (thresholds != null) {
+                watchdog = new SlaWatchdog(() -> liveMetrics.snapshot(false), thresholds, config.getRampUpTime(), () -> stopRequested = true);
+                watchdog.start();
+            }
+            GeneratorTelemetry telemetry = GeneratorTelemetry.isEnabled() ? GeneratorTelemetry.forCurrentJvm() : null;
+            if (telemetry != null) {
+                telemetry.start();
+            }
+
+            long startTime = System.currentTimeMillis();
+            ExecutorService users = VirtualThreadExecutors.newThreadPerTaskExecutor("load-user");
+            try {
+                if (replay != null) {
+                    runReplay(config, users, replay);
+                } else if (mix != null && config.getLoadModel() == LoadModel.OPEN) {
+                    // Every arrival starts a session of a persona drawn by weight
+                    runArrivalRate(config, users, (arrival, intendedStart, deadline) -> {
+                        WorkloadMix.Persona persona = mix.choosePersona(ThreadLocalRandom.current());
+                        runSession(persona, personaRequests.get(persona), intendedStart, deadline);
+                    });
+                } else if (mix != null) {
+                    // Users split between personas by weight, one session per loop
+                    WorkloadMix.Persona[] userPersonas = assignPersonas(mix, config.getNumThreads());
+                    runVirtualUsers(config, users, user -> deadline -> {
+                        WorkloadMix.Persona persona = userPersonas[user];
+                        return runSession(persona, personaRequests.get(persona), System.currentTimeMillis(), deadline);
+                    });
+                } else if (config.getLoadModel() == LoadModel.OPEN) {
+                    runArrivalRate(config, users, (arrival, intendedStart, deadline) ->
+                            send(requests.get((int) (arrival % requests.size())), intendedStart));
+                } else {
+                    runVirtualUsers(config, users, user -> deadline -> {
+                        for (PreparedRequest request : requests) {
+                            if (stopRequested || System.currentTimeMillis() >= deadline) {
+                                return false;
+                            }
+                            send(request, System.currentTimeMillis());
+                        }
+                        return true;
+                    });
+                }
+            } finally {
+                users.shutdownNow();
+                users.awaitTermination(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                if (watchdog != null) {
+                    watchdog.stop();
+                }
+                if (telemetry != null) {
+                    telemetry.stop();
+                }
+            }
+            long endTime = System.currentTimeMillis();
+
+            PerformanceTestResult result = processResults(config, startTime, endTime);
+            if (watchdog != null && watchdog.isAborted()) {
+                result.setAbortReason(watchdog.getAbortReason());
+                logger.warn("Test aborted: {} - {}", config.getTestName(), watchdog.getAbortReason());
+            }
+            if (telemetry != null) {
+                telemetry.attachTo(result, Paths.get(resultsDirectory, config.getTestName() + "_telemetry.csv"));
+            }
+            if (baselineStore != null && config.isCompareWithBaseline()) {
+                baselineStore.evaluate(result);
+            }
+
+            logger.info("Load test completed: {} in {}ms", config.getTestName(), result.getDuration());
+            return result;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Load test interrupted", e);
+        } catch (Exception e) {
+            logger.error("Load test execution failed: {}", config.getTestName(), e);
+            throw new RuntimeException("Load test failed", e);
+        }
+    }
+
+    /**
+     * Closed model: each user starts after its share of the ramp-up and runs its iteration
+     * for the loop count, or until the duration has passed when looping forever
+     */
+    private void runVirtualUsers(LoadTestConfig config, ExecutorService users, IntFunction<Iteration> iterationOfUser)
+            throws InterruptedException {
+        int userCount = config.getNumThreads();
+        long loops = config.getLoopCount() > 0 ? config.getLoopCount() : Long.MAX_VALUE;
+        if (loops == Long.MAX_VALUE && config.getDuration() <= 0) {
+            throw new IllegalArgumentException("Load test " + config.getTestName() + " loops forever without a duration");
+        }
+        long startTime = System.currentTimeMillis();
+        long deadline = config.getDuration() > 0 ? startTime + config.getDuration() * 1000L : Long.MAX_VALUE;
+        long rampUpMillis = config.getRampUpTime() * 1000L;
+
+        CountDownLatch finished = new CountDownLatch(userCount);
+        for (int user = 0; user < userCount; user++) {
+            long userStart = startTime + rampUpMillis * user / userCount;
+            Iteration iteration = iterationOfUser.apply(user);
+            users.execute(() -> {
+                try {
+                    sleepUntil(userStart);
+                    for (long loop = 0; loop < loops && !stopRequested; loop++) {
+                        if (!iteration.run(deadline)) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        logger.info("Started {} virtual users", userCount);
+        finished.await();
+    }
+
+    /**
+     * Open model: arrivals start on the arrival rate schedule, with at most max concurrency in
+     * flight. An arrival waiting for a free slot keeps its intended start, so the wait counts
+     * as latency.
+     */
+    private void runArrivalRate(LoadTestConfig config, ExecutorService users, Arrival arrivalTask)
+            throws InterruptedException {
+        ArrivalRateScheduler schedule = new ArrivalRateScheduler(config.getTargetRps());
+        Semaphore inFlight = new Semaphore(config.getMaxConcurrency());
+        schedule.start();
+        long deadline = schedule.getStartTime() + config.getDuration() * 1000L;
+
+        for (long arrival = 0; !stopRequested; arrival++) {
+            long intendedStart = schedule.nextIntendedStart();
+            if (intendedStart >= deadline) {
+                break;
+            }
+            sleepUntil(intendedStart);
+            inFlight.acquire();
+            long number = arrival;
+            users.execute(() -> {
+                try {
+                    arrivalTask.start(number, intendedStart, deadline);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        // Let requests in flight complete
+        inFlight.acquire(config.getMaxConcurrency());
+        logger.info("Scheduled {} requests at {} req/s", schedule.getScheduledRequests(), schedule.getTargetRps());
+    }
+
+    /**
+     * Replays an access log: each logged request is started at its intended start on the
+     * log's timeline, with at most max concurrency in flight, until the log or the duration
+     * ends. Requests are read as they are due, so memory does not grow with the log.
+     */
+    private void runReplay(LoadTestConfig config, ExecutorService users, AccessLogReplay replay)
+            throws IOException, InterruptedException {
+        URI base = URI.create(replay.getBaseUrl() != null
+                ? replay.getBaseUrl() : ConfigManager.getProperty("base.url", "http://localhost:8080"));
+        Semaphore inFlight = new Semaphore(config.getMaxConcurrency());
+        try (AccessLogReplay.Schedule schedule = replay.open()) {
+            schedule.start();
+            long deadline = config.getDuration() > 0 ? schedule.getStartTime() + config.getDuration() * 1000L : Long.MAX_VALUE;
+
+            AccessLogReader.Entry entry;
+            while (!stopRequested && (entry = schedule.next()) != null) {
+                long intendedStart = schedule.intendedStart(entry);
+                if (intendedStart >= deadline) {
+                    break;
+                }
+                PreparedRequest request;
+                try {
+                    request = prepareReplayRequest(base, entry);
+                } catch (IllegalArgumentException e) {
+                    logger.debug("Skipping logged request {} {} that cannot be sent: {}",
+                            entry.getMethod(), entry.getTarget(), e.getMessage());
+                    continue;
+                }
+                sleepUntil(intendedStart);
+                inFlight.acquire();
+                users.execute(() -> {
+                    try {
+                        send(request, intendedStart);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            // Let requests in flight complete
+            inFlight.acquire(config.getMaxConcurrency());
+        }
+    }
+
+    private PreparedRequest prepareReplayRequest(URI base, AccessLogReader.Entry entry) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(entry.getTarget())).timeout(requestTimeout);
+        if (entry.getBody() != null) {
+            builder.header("Content-Type", "application/json");
+            builder.method(entry.getMethod(), HttpRequest.BodyPublishers.ofString(entry.getBody(), StandardCharsets.UTF_8));
+        } else {
+            builder.method(entry.getMethod(), HttpRequest.BodyPublishers.noBody());
+        }
+        return new PreparedRequest(entry.getLabel(), builder.build());
+    }
+
+    /**
+     * Runs one session of a persona: from the entry action through the Markov chain of its
+     * actions, with the persona's think time after each. Returns false when the test stopped
+     * or reached the deadline during the session.
+     */
+    private boolean runSession(WorkloadMix.Persona persona, Map<String, PreparedRequest> requests,
+                               long intendedStart, long deadline) throws InterruptedException {
+        Random random = ThreadLocalRandom.current();
+        WorkloadMix.Action action = persona.getAction(persona.getEntry());
+        long start = intendedStart;
+        while (action != null) {
+            if (stopRequested || System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            send(requests.get(action.getName()), start);
+            sleepUntil(Math.min(deadline, System.currentTimeMillis() + persona.thinkTimeAfter(action).sample(random)));
+            start = System.currentTimeMillis();
+            action = persona.next(action.getName(), random);
+        }
+        return true;
+    }
+
+    private Map<WorkloadMix.Persona, Map<String, PreparedRequest>> preparePersonas(WorkloadMix mix, String baseUrl) {
+        URI base = URI.create(baseUrl != null ? baseUrl : ConfigManager.getProperty("base.url", "http://localhost:8080"));
+        Map<WorkloadMix.Persona, Map<String, PreparedRequest>> prepared = new HashMap<>();
+        for (WorkloadMix.Persona persona : mix.getPersonas()) {
+            Map<String, PreparedRequest> requests = new HashMap<>();
+            persona.getActions().forEach(action -> requests.put(action.getName(), prepareRequest(action.toRequest(base))));
+            prepared.put(persona, requests);
+        }
+        return prepared;
+    }
+
+    /**
+     * The persona of every closed model user, in blocks sized by weight
+     */
+    private static WorkloadMix.Persona[] assignPersonas(WorkloadMix mix, int userCount) {
+        int[] personaUsers = mix.allocateUsers(userCount);
+        WorkloadMix.Persona[] userPersonas = new WorkloadMix.Persona[userCount];
+        int user = 0;
+        for (int i = 0; i < personaUsers.length; i++) {
+            for (int j = 0; j < personaUsers[i]; j++) {
+                userPersonas[user++] = mix.getPersonas().get(i);
+            }
+        }
+        return userPersonas;
+    }
+
+    /**
+     * Sends one request and records it; latency counts from the intended start
+     */
+    private void send(PreparedRequest request, long intendedStart) {
+        long startTime = System.currentTimeMillis();
+        boolean success;
+        String responseCode;
+        long bytes = 0;
+        try {
+            HttpResponse<Long> response = httpClient.send(request.httpRequest,
+                    HttpResponse.BodyHandlers.fromSubscriber(new ByteCounter(), ByteCounter::getBytes));
+            responseCode = String.valueOf(response.statusCode());
+            success = response.statusCode() < 400;
+            bytes = response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return; // Test stopped
+        } catch (IOException e) {
+            responseCode = e.getClass().getName();
+            success = false;
+        }
+        long responseTime = System.currentTimeMillis() - Math.min(intendedStart, startTime);
+        liveMetrics.record(startTime, responseTime, success, responseCode, bytes, request.label);
+        String scenario = publishedScenario;
+        if (scenario != null) {
+            LoadTestMetrics.recordSample(scenario, request.label, request.brand, request.country, responseTime, success);
+        }
+    }
+
+    private PreparedRequest prepareRequest(HTTPRequestConfig requestConfig) {
+        String method = requestConfig.getMethod().toUpperCase();
+        String scheme = requestConfig.getPort() == 443 ? "https" : "http";
+        String query = encodeParameters(requestConfig.getParameters());
+        boolean hasBody = requestConfig.getBodyData() != null && !requestConfig.getBodyData().isEmpty();
+
+        // Parameters go in the query string, unless they are the form body of a POST/PUT
+        String body = hasBody ? requestConfig.getBodyData() : null;
+        String uri = scheme + "://" + requestConfig.getDomain() + ":" + requestConfig.getPort() + requestConfig.getPath();
+        if (!query.isEmpty()) {
+            if (body == null && ("POST".equals(method) || "PUT".equals(method))) {
+                body = query;
+            } else {
+                uri += (uri.contains("?") ? "&" : "?") + query;
+            }
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri)).timeout(requestTimeout);
+        requestConfig.getHeaders().forEach((name, value) -> {
+            if (RESTRICTED_HEADERS.contains(name)) {
+                logger.debug("Skipping header {} managed by HttpClient", name);
+            } else {
+                builder.header(name, value);
+            }
+        });
+        if (body != null && !hasBody && !requestConfig.getHeaders().containsKey("Content-Type")) {
+            builder.header("Content-Type", "application/x-www-form-urlencoded");
+        }
+        builder.method(method, body != null
+                ? HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8)
+                : HttpRequest.BodyPublishers.noBody());
+
+        return new PreparedRequest(requestConfig.getName(), builder.build());
+    }
+
+    private static String encodeParameters(Map<String, String> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return "";
+        }
+        List<String> pairs = new ArrayList<>();
+        parameters.forEach((name, value) -> pairs.add(URLEncoder.encode(name, StandardCharsets.UTF_8) + "="
+                + URLEncoder.encode(value != null ? value : "", StandardCharsets.UTF_8)));
+        return String.join("&", pairs);
+    }
+
+    private static void sleepUntil(long time) throws InterruptedException {
+        long delay = time - System.currentTimeMillis();
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    private PerformanceTestResult processResults(LoadTestConfig config, long startTime, long endTime) {
+        PerformanceTestResult result = new PerformanceTestResult();
+        result.setTestName(config.getTestName());
+        result.setStartTime(startTime);
+        result.setEndTime(endTime);
+        result.setDuration(endTime - startTime);
+
+        if (liveMetrics.getTotalSamples() > 0) {
+            result.setMetrics(liveMetrics.snapshot().toMetrics());
+            result.getMetrics().applyCoordinatedOmissionCorrection(config.latencyCorrectionInterval(expectedIntervalMillis));
+        }
+
+        // Per-window series next to the run for trend and spike analysis
+        if (result.getMetrics() != null && result.getMetrics().getTimeSeries() != null) {
+            String seriesPrefix = resultsDirectory + "/" + config.getTestName() + "_timeseries";
+            try {
+                Files.createDirectories(Paths.get(resultsDirectory));
+                result.getMetrics().getTimeSeries().writeCsv(Paths.get(seriesPrefix + ".csv"));
+                result.getMetrics().getTimeSeries().writeJson(Paths.get(seriesPrefix + ".json"));
+            } catch (Exception e) {
+                logger.warn("Failed to write performance time series", e);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public MetricsSnapshot getLiveMetrics() {
+        LiveMetricsCollector collector = liveMetrics;
+        return collector != null ? collector.snapshot() : null;
+    }
+
+    /**
+     * Stops a running test; users finish their current request
+     */
+    @Override
+    public void shutdown() {
+        stopRequested = true;
+    }
+
+    /**
+     * Closes the HTTP client's connections and selector thread on Java 21+, where HttpClient
+     * is AutoCloseable; older JVMs release them once the engine is unreachable
+     */
+    @Override
+    public void close() {
+        if (httpClient instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) httpClient).close();
+            } catch (Exception e) {
+                logger.debug("Failed to close HTTP client", e);
+            }
+        }
+    }
+
+    /**
+     * One loop of a closed model user; false when the user should stop
+     */
+    private interface Iteration {
+        boolean run(long deadline) throws InterruptedException;
+    }
+
+    /**
+     * The work started by one arrival of the open model
+     */
+    private interface Arrival {
+        void start(long arrival, long intendedStart, long deadline) throws InterruptedException;
+    }
+
+    private static class PreparedRequest {
+        final String label;
+        final HttpRequest httpRequest;
+        final String brand;
+        final String country;
+
+        PreparedRequest(String label, HttpRequest httpRequest) {
+            this.label = label;
+            this.httpRequest = httpRequest;
+            this.brand = LoadTestMetrics.queryParameter(httpRequest.uri().getRawQuery(), "brand");
+            this.country = LoadTestMetrics.queryParameter(httpRequest.uri().getRawQuery(), "country");
+        }
+    }
+
+    /**
+     * Counts response body bytes without buffering them
+     */
+    private static class ByteCounter implements Flow.Subscriber<List<ByteBuffer>> {
+        private long bytes;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                bytes += buffer.remaining();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // Surfaces as the IOException of HttpClient.send
+        }
+
+        @Override
+        public void onComplete() {
+            // Nothing buffered
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.inditex.test.performance;
 
 import com.inditex.test.config.ConfigManager;
+import com.inditex.test.monitoring.LoadTestMetrics;
 import org.apache.jmeter.control.LoopController;
 import org.apache.jmeter.control.gui.LoopControlPanel;
 import org.apache.jmeter.control.gui.TestPlanGui;
 import org.apache.jmeter.engine.StandardJMeterEngine;
+import org.apache.jmeter.protocol.http.control.Header;
+import org.apache.jmeter.protocol.http.control.HeaderManager;
 import org.apache.jmeter.protocol.http.control.gui.HttpTestSampleGui;
+import org.apache.jmeter.protocol.http.gui.HeaderPanel;
 import org.apache.jmeter.protocol.http.sampler.HTTPSampler;
 import org.apache.jmeter.reporters.ResultCollector;
 import org.apache.jmeter.reporters.Summariser;
@@ -14,30 +18,52 @@ import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.testelement.TestPlan;
 import org.apache.jmeter.threads.ThreadGroup;
 import org.apache.jmeter.threads.gui.ThreadGroupGui;
+import org.apache.jmeter.timers.ConstantTimer;
+import org.apache.jmeter.timers.gui.ConstantTimerGui;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class JMeterTestEngine {
+public class JMeterTestEngine implements LoadEngine {
     private static final Logger logger = LoggerFactory.getLogger(JMeterTestEngine.class);
     
     private StandardJMeterEngine jmeterEngine;
     private HashTree testPlanTree;
     private String jmeterHome;
     private String resultsDirectory;
+    private long timeSeriesWindowMillis;
+    private long expectedIntervalMillis;
+    private boolean metricsEnabled;
+    private volatile LiveMetricsCollector liveMetrics;
+    private boolean columnarResults;
+    private ColumnarResultWriter columnarWriter;
+    private BaselineStore baselineStore;
     private boolean initialized = false;
 
     public JMeterTestEngine() {
         this.jmeterHome = System.getProperty("jmeter.home", "src/test/resources/jmeter");
         this.resultsDirectory = ConfigManager.getProperty("performance.results.directory", "target/jmeter-results");
+        this.timeSeriesWindowMillis = ConfigManager.getIntProperty("performance.timeseries.window.ms", 1000);
+        this.expectedIntervalMillis = ConfigManager.getIntProperty("performance.latency.expected.interval.ms", 0);
+        this.metricsEnabled = LoadTestMetrics.isEnabled();
+        this.columnarResults = ConfigManager.getBooleanProperty("performance.results.columnar", false);
+        this.baselineStore = BaselineStore.fromConfig();
         
         try {
             initializeJMeter();
@@ -100,29 +126,26 @@ public class JMeterTestEngine {
         return propertiesPath;
     }
 
-    public PerformanceTestResult runLoadTest(LoadTestConfig config) {
+    @Override
+    public PerformanceTestResult runLoadTest(LoadTestConfig config, StressTestConfig.PerformanceThresholds thresholds) {
         if (!initialized) {
             throw new IllegalStateException("JMeter engine not initialized");
         }
+        if (config.getWorkloadMix() != null) {
+            throw new IllegalArgumentException("Load test " + config.getTestName()
+                    + " uses a workload mix, run it on the HttpClient engine or through the generated plans");
+        }
         
         try {
             logger.info("Starting load test: {}", config.getTestName());
             
             // Create test plan
+            liveMetrics = new LiveMetricsCollector(timeSeriesWindowMillis);
             testPlanTree = createTestPlan(config);
             
-            // Configure engine
-            jmeterEngine.configure(testPlanTree);
-            
-            // Run test
-            long startTime = System.currentTimeMillis();
-            jmeterEngine.run();
-            long endTime = System.currentTimeMillis();
+            PerformanceTestResult result = executeTestPlan(config, thresholds);
             
-            // Process results
-            PerformanceTestResult result = processResults(config, startTime, endTime);
-            
-            logger.info("Load test completed: {} in {}ms", config.getTestName(), (endTime - startTime));
+            logger.info("Load test completed: {} in {}ms", config.getTestName(), result.getDuration());
             return result;
             
         } catch (Exception e) {
@@ -131,41 +154,227 @@ public class JMeterTestEngine {
         }
     }
 
+    /**
+     * Runs the current test plan on a fresh engine, guarded by the SLA watchdog when thresholds are given
+     */
+    private PerformanceTestResult executeTestPlan(LoadTestConfig config, StressTestConfig.PerformanceThresholds thresholds) {
+        // Configure engine; a StandardJMeterEngine cannot be reused once it has run
+        StandardJMeterEngine engine = new StandardJMeterEngine();
+        jmeterEngine = engine;
+        engine.configure(testPlanTree);
+        
+        // Watch live metrics against the SLA while the test runs
+        SlaWatchdog watchdog = null;
+        if (thresholds != null) {
+            watchdog = new SlaWatchdog(() -> liveMetrics.snapshot(false), thresholds, config.getRampUpTime(), () -> engine.stopTest(true));
+            watchdog.start();
+        }
+        GeneratorTelemetry telemetry = GeneratorTelemetry.isEnabled() ? GeneratorTelemetry.forCurrentJvm() : null;
+        if (telemetry != null) {
+            telemetry.start();
+        }
+        if (metricsEnabled) {
+            LoadTestMetrics.startEndpoint();
+        }
+        
+        // Run test
+        long startTime = System.currentTimeMillis();
+        try {
+            engine.run();
+        } finally {
+            if (watchdog != null) {
+                watchdog.stop();
+            }
+            if (telemetry != null) {
+                telemetry.stop();
+            }
+            closeColumnarWriter();
+        }
+        long endTime = System.currentTimeMillis();
+        
+        // Process results
+        PerformanceTestResult result = processResults(config, startTime, endTime);
+        if (watchdog != null && watchdog.isAborted()) {
+            result.setAbortReason(watchdog.getAbortReason());
+            logger.warn("Test aborted: {} - {}", config.getTestName(), watchdog.getAbortReason());
+        }
+        if (telemetry != null) {
+            telemetry.attachTo(result, Paths.get(resultsDirectory, config.getTestName() + "_telemetry.csv"));
+        }
+        if (baselineStore != null && config.isCompareWithBaseline()) {
+            baselineStore.evaluate(result);
+        }
+        return result;
+    }
+
     private HashTree createTestPlan(LoadTestConfig config) {
-        // Create Test Plan
+        if (config.getAccessLogReplay() != null) {
+            return createReplayTestPlan(config);
+        }
+        if (config.getLoadModel() == LoadModel.OPEN) {
+            return createArrivalRateTestPlan(config);
+        }
+
+        // Create Thread Group
+        ThreadGroup threadGroup = createThreadGroup("Thread Group", config.getNumThreads(), config.getRampUpTime(),
+                createLoopController(config.getLoopCount()));
+
+        // Build test plan tree
+        HashTree testPlanTree = new ListedHashTree();
+        HashTree threadGroupTree = testPlanTree.add(createTestPlanElement(config)).add(threadGroup);
+        addHttpSamplers(threadGroupTree, config);
+        addListeners(threadGroupTree, config);
+
+        return testPlanTree;
+    }
+
+    /**
+     * Open model: a pool of max concurrency threads paced by a shared arrival rate timer, so requests
+     * keep being started at the target rate when responses slow down, for the configured duration
+     */
+    private HashTree createArrivalRateTestPlan(LoadTestConfig config) {
+        if (config.getTargetRps() <= 0 || config.getDuration() <= 0) {
+            throw new IllegalArgumentException("Open model load tests need a target rate and a duration");
+        }
+
+        ThreadGroup threadGroup = createThreadGroup("Arrival Rate Workers", config.getMaxConcurrency(), 0,
+                createLoopController(LoopController.INFINITE_LOOP_COUNT));
+        threadGroup.setScheduler(true);
+        threadGroup.setDuration(config.getDuration());
+
+        HashTree testPlanTree = new ListedHashTree();
+        HashTree threadGroupTree = testPlanTree.add(createTestPlanElement(config)).add(threadGroup);
+        threadGroupTree.add(new ArrivalRateTimer(config.getTargetRps()));
+        addHttpSamplers(threadGroupTree, config);
+        addListeners(threadGroupTree, config);
+
+        return testPlanTree;
+    }
+
+    /**
+     * Access log replay: a pool of max concurrency threads, each claiming the next logged request
+     * from the shared replay timer and sending it with one parameterized sampler, until the log
+     * ends or, when set, the duration has passed
+     */
+    private HashTree createReplayTestPlan(LoadTestConfig config) {
+        AccessLogReplay replay = config.getAccessLogReplay();
+        URI base = URI.create(replay.getBaseUrl() != null
+                ? replay.getBaseUrl() : ConfigManager.getProperty("base.url", "http://localhost:8080"));
+
+        ThreadGroup threadGroup = createThreadGroup("Access Log Replay", config.getMaxConcurrency(), 0,
+                createLoopController(LoopController.INFINITE_LOOP_COUNT));
+        if (config.getDuration() > 0) {
+            threadGroup.setScheduler(true);
+            threadGroup.setDuration(config.getDuration());
+        }
+
+        HTTPRequestConfig requestConfig = new HTTPRequestConfig("${" + AccessLogReplayTimer.LABEL_VARIABLE + "}",
+                base.getHost(), "${" + AccessLogReplayTimer.TARGET_VARIABLE + "}",
+                "${" + AccessLogReplayTimer.METHOD_VARIABLE + "}");
+        requestConfig.setPort(base.getPort() > 0 ? base.getPort() : "https".equals(base.getScheme()) ? 443 : 80);
+        requestConfig.setBodyData("${" + AccessLogReplayTimer.BODY_VARIABLE + "}");
+        HTTPSampler sampler = createHttpSampler(requestConfig);
+        sampler.setProtocol(base.getScheme());
+
+        HeaderManager headers = new HeaderManager();
+        headers.setName("Replay Headers");
+        headers.add(new Header("Content-Type", "application/json"));
+        headers.setProperty(TestElement.TEST_CLASS, HeaderManager.class.getName());
+        headers.setProperty(TestElement.GUI_CLASS, HeaderPanel.class.getName());
+
+        HashTree testPlanTree = new ListedHashTree();
+        HashTree threadGroupTree = testPlanTree.add(createTestPlanElement(config)).add(threadGroup);
+        threadGroupTree.add(new AccessLogReplayTimer(replay));
+        threadGroupTree.add(sampler).add(headers);
+        addListeners(threadGroupTree, config);
+
+        return testPlanTree;
+    }
+
+    /**
+     * One thread group per step, each starting its users after the previous steps' hold times and
+     * all ending together, so the number of active users climbs in steps from initial to max users
+     */
+    private HashTree createSteppedTestPlan(LoadTestConfig config, StressTestConfig stressConfig) {
+        List<Integer> steps = stressConfig.getStepUserCounts();
+        int holdTime = stressConfig.getEffectiveStepHoldTime();
+        int totalTime = holdTime * steps.size();
+        int stepRampUp = Math.min(stressConfig.getRampUpTime(), holdTime / 2);
+
+        HashTree testPlanTree = new ListedHashTree();
+        HashTree planTree = testPlanTree.add(createTestPlanElement(config));
+
+        int activeUsers = 0;
+        for (int i = 0; i < steps.size(); i++) {
+            int delay = i * holdTime;
+            ThreadGroup threadGroup = createThreadGroup("Step " + (i + 1), steps.get(i) - activeUsers, stepRampUp,
+                    createLoopController(LoopController.INFINITE_LOOP_COUNT));
+            threadGroup.setScheduler(true);
+            threadGroup.setDelay(delay);
+            threadGroup.setDuration(totalTime - delay);
+            activeUsers = steps.get(i);
+
+            HashTree threadGroupTree = planTree.add(threadGroup);
+            if (stressConfig.getThinkTime() > 0) {
+                threadGroupTree.add(createThinkTimer(stressConfig.getThinkTime()));
+            }
+            addHttpSamplers(threadGroupTree, config);
+        }
+
+        // Plan-level listeners see the samples of every step
+        addListeners(planTree, config);
+
+        return testPlanTree;
+    }
+
+    private TestPlan createTestPlanElement(LoadTestConfig config) {
         TestPlan testPlan = new TestPlan(config.getTestName());
         testPlan.setProperty(TestElement.TEST_CLASS, TestPlan.class.getName());
         testPlan.setProperty(TestElement.GUI_CLASS, TestPlanGui.class.getName());
         testPlan.setEnabled(true);
         testPlan.setUserDefinedVariables(config.getUserVariables());
+        return testPlan;
+    }
 
-        // Create Thread Group
+    private ThreadGroup createThreadGroup(String name, int numThreads, int rampUpTime, LoopController loopController) {
         ThreadGroup threadGroup = new ThreadGroup();
-        threadGroup.setName("Thread Group");
-        threadGroup.setNumThreads(config.getNumThreads());
-        threadGroup.setRampUp(config.getRampUpTime());
-        threadGroup.setSamplerController(createLoopController(config.getLoopCount()));
+        threadGroup.setName(name);
+        threadGroup.setNumThreads(numThreads);
+        threadGroup.setRampUp(rampUpTime);
+        threadGroup.setSamplerController(loopController);
         threadGroup.setProperty(TestElement.TEST_CLASS, ThreadGroup.class.getName());
         threadGroup.setProperty(TestElement.GUI_CLASS, ThreadGroupGui.class.getName());
         threadGroup.setEnabled(true);
+        return threadGroup;
+    }
 
-        // Create HTTP Samplers
-        HashTree threadGroupTree = new HashTree();
+    private void addHttpSamplers(HashTree threadGroupTree, LoadTestConfig config) {
         for (HTTPRequestConfig requestConfig : config.getHttpRequests()) {
-            HTTPSampler httpSampler = createHttpSampler(requestConfig);
-            threadGroupTree.add(httpSampler);
+            threadGroupTree.add(createHttpSampler(requestConfig));
         }
+    }
 
-        // Add Result Collector
-        ResultCollector resultCollector = createResultCollector(config);
-        threadGroupTree.add(resultCollector);
-
-        // Build test plan tree
-        HashTree testPlanTree = new HashTree();
-        testPlanTree.add(testPlan);
-        testPlanTree.add(threadGroup, threadGroupTree);
+    private void addListeners(HashTree tree, LoadTestConfig config) {
+        // Add Result Collector, or the compact columnar file in place of the JTL
+        tree.add(columnarResults ? createColumnarResultCollector(config) : createResultCollector(config));
+        
+        // Aggregate samples in-process as they complete
+        tree.add(liveMetrics);
+        
+        // Publish them on the scrape endpoint for live dashboards
+        if (metricsEnabled) {
+            tree.add(new MicrometerSampleListener(config.getTestName()));
+        }
+    }
 
-        return testPlanTree;
+    private ConstantTimer createThinkTimer(int thinkTime) {
+        ConstantTimer timer = new ConstantTimer();
+        timer.setName("Think Time");
+        timer.setDelay(String.valueOf(thinkTime));
+        timer.setProperty(TestElement.TEST_CLASS, ConstantTimer.class.getName());
+        timer.setProperty(TestElement.GUI_CLASS, ConstantTimerGui.class.getName());
+        timer.setEnabled(true);
+        return timer;
     }
 
     private LoopController createLoopController(int loopCount) {
@@ -218,7 +427,7 @@ public class JMeterTestEngine {
     }
 
     private ResultCollector createResultCollector(LoadTestConfig config) {
-        String resultsFile = resultsDirectory + "/" + config.getTestName() + "_results.jtl";
+        String resultsFile = getResultsFile(config);
         
         Summariser summer = new Summariser("summary");
         ResultCollector logger = new ResultCollector(summer);
@@ -228,8 +437,38 @@ public class JMeterTestEngine {
         return logger;
     }
 
+    private ColumnarResultCollector createColumnarResultCollector(LoadTestConfig config) {
+        closeColumnarWriter();
+        try {
+            columnarWriter = new ColumnarResultWriter(Paths.get(getResultsFile(config)));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create columnar results file", e);
+        }
+        return new ColumnarResultCollector(columnarWriter);
+    }
+
+    /**
+     * Writes the index of the columnar results file once the run is over, making it readable
+     */
+    private void closeColumnarWriter() {
+        if (columnarWriter == null) {
+            return;
+        }
+        try {
+            columnarWriter.close();
+            logger.info("Wrote {} samples to {}", columnarWriter.getSampleCount(), columnarWriter.getFile());
+        } catch (IOException e) {
+            logger.warn("Failed to close columnar results file {}", columnarWriter.getFile(), e);
+        }
+        columnarWriter = null;
+    }
+
+    private String getResultsFile(LoadTestConfig config) {
+        return resultsDirectory + "/" + config.getTestName() + (columnarResults ? "_results.prfc" : "_results.jtl");
+    }
+
     private PerformanceTestResult processResults(LoadTestConfig config, long startTime, long endTime) {
-        String resultsFile = resultsDirectory + "/" + config.getTestName() + "_results.jtl";
+        String resultsFile = getResultsFile(config);
         
         PerformanceTestResult result = new PerformanceTestResult();
         result.setTestName(config.getTestName());
@@ -238,36 +477,118 @@ public class JMeterTestEngine {
         result.setDuration(endTime - startTime);
         result.setResultsFile(resultsFile);
         
-        // Parse JTL file for detailed metrics
+        // Metrics aggregated during the run; the results file is only parsed when nothing was collected live
+        if (liveMetrics != null && liveMetrics.getTotalSamples() > 0) {
+            result.setMetrics(liveMetrics.snapshot().toMetrics());
+        }
+        
         try {
-            if (Files.exists(Paths.get(resultsFile))) {
-                PerformanceMetricsParser parser = new PerformanceMetricsParser();
-                PerformanceMetrics metrics = parser.parseJTLFile(resultsFile);
+            if (result.getMetrics() == null && Files.exists(Paths.get(resultsFile))) {
+                PerformanceMetricsParser parser = new PerformanceMetricsParser(timeSeriesWindowMillis);
+                PerformanceMetrics metrics = parser.parse(resultsFile);
                 result.setMetrics(metrics);
             }
         } catch (Exception e) {
             logger.warn("Failed to parse performance results", e);
         }
+        if (result.getMetrics() != null) {
+            result.getMetrics().applyCoordinatedOmissionCorrection(config.latencyCorrectionInterval(expectedIntervalMillis));
+        }
+        
+        // Per-window series next to the run for trend and spike analysis
+        if (result.getMetrics() != null && result.getMetrics().getTimeSeries() != null) {
+            String seriesPrefix = resultsDirectory + "/" + config.getTestName() + "_timeseries";
+            try {
+                result.getMetrics().getTimeSeries().writeCsv(Paths.get(seriesPrefix + ".csv"));
+                result.getMetrics().getTimeSeries().writeJson(Paths.get(seriesPrefix + ".json"));
+            } catch (Exception e) {
+                logger.warn("Failed to write performance time series", e);
+            }
+        }
         
         return result;
     }
 
+    /**
+     * Runs a stepped stress test: the user count climbs from the initial to the max users in steps,
+     * each held for the step hold time and measured separately once its users have ramped up.
+     * The first step breaking the p95 or error rate threshold is the knee point and the step
+     * before it gives the max sustainable concurrency.
+     */
     public PerformanceTestResult runStressTest(StressTestConfig config) {
         if (!initialized) {
             throw new IllegalStateException("JMeter engine not initialized");
         }
         
+        ScheduledExecutorService stepClock = Executors.newSingleThreadScheduledExecutor();
         try {
-            logger.info("Starting stress test: {}", config.getTestName());
+            List<Integer> steps = config.getStepUserCounts();
+            int holdTime = config.getEffectiveStepHoldTime();
+            int stepRampUp = Math.min(config.getRampUpTime(), holdTime / 2);
+            logger.info("Starting stress test: {} with steps {} held for {}s each", config.getTestName(), steps, holdTime);
             
-            // Convert stress test config to load test config
             LoadTestConfig loadConfig = convertStressToLoadConfig(config);
+            liveMetrics = new LiveMetricsCollector(timeSeriesWindowMillis);
+            LiveMetricsCollector collector = liveMetrics;
+            testPlanTree = createSteppedTestPlan(loadConfig, config);
+            
+            // Snapshot each step once its users are up and again when the next step starts
+            MetricsSnapshot[][] stepSnapshots = new MetricsSnapshot[steps.size()][2];
+            for (int i = 0; i < steps.size(); i++) {
+                int step = i;
+                stepClock.schedule(() -> stepSnapshots[step][0] = collector.snapshot(false),
+                        (long) i * holdTime + stepRampUp, TimeUnit.SECONDS);
+                stepClock.schedule(() -> stepSnapshots[step][1] = collector.snapshot(false),
+                        (long) (i + 1) * holdTime, TimeUnit.SECONDS);
+            }
             
-            return runLoadTest(loadConfig);
+            PerformanceTestResult result = executeTestPlan(loadConfig, config.getThresholds());
+            stepClock.shutdownNow();
+            stepClock.awaitTermination(1, TimeUnit.SECONDS);
+            
+            analyzeSteps(result, steps, stepSnapshots, collector.snapshot(false), config.getThresholds());
+            
+            logger.info("Stress test completed: {} in {}ms", config.getTestName(), result.getDuration());
+            return result;
             
         } catch (Exception e) {
             logger.error("Stress test execution failed: {}", config.getTestName(), e);
             throw new RuntimeException("Stress test failed", e);
+        } finally {
+            stepClock.shutdownNow();
+        }
+    }
+
+    private void analyzeSteps(PerformanceTestResult result, List<Integer> steps, MetricsSnapshot[][] stepSnapshots,
+                              MetricsSnapshot finalSnapshot, StressTestConfig.PerformanceThresholds thresholds) {
+        List<StressStepResult> stepResults = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            MetricsSnapshot stepStart = stepSnapshots[i][0];
+            if (stepStart == null) {
+                break; // Test ended before this step was measured
+            }
+            // A step cut short by an abort is measured up to the end of the run
+            MetricsSnapshot stepEnd = stepSnapshots[i][1] != null ? stepSnapshots[i][1] : finalSnapshot;
+            
+            StressStepResult stepResult = new StressStepResult(i + 1, steps.get(i), stepEnd.since(stepStart));
+            boolean withinThresholds = stepResult.evaluate(thresholds);
+            stepResults.add(stepResult);
+            logger.info("{}", stepResult);
+            
+            if (!withinThresholds && !result.hasKneePoint()) {
+                result.setKneePointUsers(stepResult.getUsers());
+            }
+            if (withinThresholds && !result.hasKneePoint()) {
+                result.setMaxSustainableUsers(stepResult.getUsers());
+            }
+        }
+        result.setStepResults(stepResults);
+        
+        if (result.hasKneePoint()) {
+            logger.info("Knee point reached at {} users, max sustainable concurrency is {} users",
+                    result.getKneePointUsers(), result.getMaxSustainableUsers());
+        } else {
+            logger.info("No knee point up to {} users", result.getMaxSustainableUsers());
         }
     }
 
@@ -276,13 +597,14 @@ public class JMeterTestEngine {
         loadConfig.setTestName(stressConfig.getTestName());
         loadConfig.setNumThreads(stressConfig.getMaxUsers());
         loadConfig.setRampUpTime(stressConfig.getRampUpTime());
-        loadConfig.setLoopCount(stressConfig.getDuration() / stressConfig.getThinkTime());
+        loadConfig.setLoopCount(LoopController.INFINITE_LOOP_COUNT);
         loadConfig.setHttpRequests(stressConfig.getHttpRequests());
         loadConfig.setUserVariables(stressConfig.getUserVariables());
         
         return loadConfig;
     }
 
+    @Override
     public void shutdown() {
         if (jmeterEngine != null) {
             try {
@@ -295,6 +617,12 @@ public class JMeterTestEngine {
         }
     }
 
+    @Override
+    public MetricsSnapshot getLiveMetrics() {
+        LiveMetricsCollector collector = liveMetrics;
+        return collector != null ? collector.snapshot() : null;
+    }
+
     public boolean isInitialized() {
         return initialized;
     }
@@ -5,11 +5,22 @@ import com.inditex.test.utils.TestDataManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * JMeter test plan generator for comprehensive performance testing
@@ -20,6 +31,13 @@ import java.util.Map;
  * - Stress testing to failure points
  * - Endurance testing for extended periods
  * - Spike testing for traffic bursts
+ * - Constant arrival rate (open model) load testing
+ * - Replay of a production access log, when performance.replay.log is set
+ * 
+ * Plans are data-driven: each thread group runs parameterized samplers fed by a CSV Data
+ * Set Config over the full performance test data, so plan size stays constant however many
+ * SKU/brand/country combinations are driven. Plans are streamed to disk with a
+ * {@link JmxPlanWriter} and the independent plans are generated in parallel.
  */
 public class JMeterTestPlanGenerator {
     
@@ -27,6 +45,12 @@ public class JMeterTestPlanGenerator {
     
     private static final String JMETER_PLANS_DIR = "src/test/resources/jmeter";
     private static final String PERFORMANCE_DATA_DIR = "src/test/resources/testdata/performance";
+    private static final String PERFORMANCE_DATA_FILE = "jmeter_test_data.csv";
+    private static final String WORKLOAD_ACTION_VARIABLE = "workload_action";
+    private static final String THINK_TIME_VARIABLE = "think_ms";
+    private static final String PERFORMANCE_DATA_COLUMNS = "sku,brand,country,language,customer_type,promotion_code";
+    private static final String REPLAY_DATA_FILE = "access_log_replay.csv";
+    private static final String REPLAY_DATA_COLUMNS = "replay_offset,replay_method,replay_target,replay_body,replay_label";
     
     /**
      * Generates comprehensive JMeter test plans for all performance scenarios
@@ -37,16 +61,22 @@ public class JMeterTestPlanGenerator {
         try {
             createDirectories();
             
-            // Generate different types of performance test plans
-            generateLoadTestPlan();
-            generateStressTestPlan();
-            generateEnduranceTestPlan();
-            generateSpikeTestPlan();
-            generatePromotionalApiTestPlan();
-            generateConcurrentUserTestPlan();
-            
-            // Generate supporting data files
-            generatePerformanceTestData();
+            // Every plan, and the supporting data file, goes to its own file
+            List<Callable<Void>> generators = new ArrayList<>(Arrays.asList(
+                generation(JMeterTestPlanGenerator::generateLoadTestPlan),
+                generation(JMeterTestPlanGenerator::generateStressTestPlan),
+                generation(JMeterTestPlanGenerator::generateEnduranceTestPlan),
+                generation(JMeterTestPlanGenerator::generateSpikeTestPlan),
+                generation(JMeterTestPlanGenerator::generateArrivalRateTestPlan),
+                generation(JMeterTestPlanGenerator::generatePromotionalApiTestPlan),
+                generation(JMeterTestPlanGenerator::generateConcurrentUserTestPlan),
+                generation(JMeterTestPlanGenerator::generatePerformanceTestData)
+            ));
+            AccessLogReplay replay = AccessLogReplay.fromConfig();
+            if (replay != null) {
+                generators.add(generation(() -> generateAccessLogReplayTestPlan(replay)));
+            }
+            runAll(generators);
             
             logger.info("Successfully generated all JMeter test plans");
             
@@ -56,22 +86,56 @@ public class JMeterTestPlanGenerator {
         }
     }
     
+    private static void runAll(List<Callable<Void>> generators) throws Exception {
+        int threads = Math.min(generators.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Exception failure = null;
+            for (Future<Void> generated : executor.invokeAll(generators)) {
+                try {
+                    generated.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static Callable<Void> generation(FileGeneration generation) {
+        return () -> {
+            generation.generate();
+            return null;
+        };
+    }
+    
     /**
      * Generates load test plan for 1000+ concurrent users
      */
     private static void generateLoadTestPlan() throws IOException {
         logger.info("Generating load test plan for 1000+ concurrent users");
         
-        String testPlan = generateJMeterXML(
+        writeTestPlan("promotional_load_test.jmx",
             "Promotional_Load_Test",
             "Load testing promotional pricing with 1000+ concurrent users",
-            1000, // thread count
-            300,  // ramp-up period (seconds)
-            600,  // test duration (seconds)
-            createPromotionalTestScenarios()
-        );
-        
-        writeTestPlan("promotional_load_test.jmx", testPlan);
+            plan -> {
+                writeThreadGroup(plan, "Promotional Users",
+                    1000, // thread count
+                    300,  // ramp-up period (seconds)
+                    600); // test duration (seconds)
+                writePromotionData(plan, ShareMode.ALL);
+                writeTestScenario(plan, createPromotionalTestScenario());
+                plan.end();
+                writeListeners(plan);
+            });
     }
     
     /**
@@ -80,16 +144,19 @@ public class JMeterTestPlanGenerator {
     private static void generateStressTestPlan() throws IOException {
         logger.info("Generating stress test plan to failure points");
         
-        String testPlan = generateJMeterXML(
+        writeTestPlan("promotional_stress_test.jmx",
             "Promotional_Stress_Test",
             "Stress testing promotional pricing to find failure points",
-            2000, // thread count
-            180,  // ramp-up period (seconds)
-            900,  // test duration (seconds)
-            createStressTestScenarios()
-        );
-        
-        writeTestPlan("promotional_stress_test.jmx", testPlan);
+            plan -> {
+                writeThreadGroup(plan, "Promotional Users",
+                    2000, // thread count
+                    180,  // ramp-up period (seconds)
+                    900); // test duration (seconds)
+                writePromotionData(plan, ShareMode.ALL);
+                writeTestScenario(plan, createStressTestScenario());
+                plan.end();
+                writeListeners(plan);
+            });
     }
     
     /**
@@ -98,34 +165,71 @@ public class JMeterTestPlanGenerator {
     private static void generateEnduranceTestPlan() throws IOException {
         logger.info("Generating endurance test plan");
         
-        String testPlan = generateJMeterXML(
+        writeTestPlan("promotional_endurance_test.jmx",
             "Promotional_Endurance_Test",
             "Endurance testing promotional pricing over extended periods",
-            500,  // thread count
-            600,  // ramp-up period (seconds)
-            3600, // test duration (1 hour)
-            createEnduranceTestScenarios()
-        );
-        
-        writeTestPlan("promotional_endurance_test.jmx", testPlan);
+            plan -> {
+                writeThreadGroup(plan, "Promotional Users",
+                    500,   // thread count
+                    600,   // ramp-up period (seconds)
+                    3600); // test duration (1 hour)
+                writePromotionData(plan, ShareMode.ALL);
+                writeTestScenario(plan, createEnduranceTestScenario());
+                plan.end();
+                writeListeners(plan);
+            });
     }
     
     /**
-     * Generates spike test plan for traffic bursts
+     * Generates spike test plan for traffic bursts: a baseline load with a spike load
+     * starting on top of it, both running the same scenario over their own pass of the data
      */
     private static void generateSpikeTestPlan() throws IOException {
         logger.info("Generating spike test plan");
         
-        String testPlan = generateSpikeJMeterXML(
+        writeTestPlan("promotional_spike_test.jmx",
             "Promotional_Spike_Test",
             "Spike testing promotional pricing with sudden traffic bursts",
-            100,  // baseline users
-            1500, // spike users
-            60,   // spike duration
-            createSpikeTestScenarios()
-        );
-        
-        writeTestPlan("promotional_spike_test.jmx", testPlan);
+            plan -> {
+                writeSpikeBaselineThreadGroup(plan, 100); // baseline users
+                writePromotionData(plan, ShareMode.GROUP);
+                writeTestScenario(plan, createSpikeTestScenario());
+                plan.end();
+                
+                writeSpikeLoadThreadGroup(plan,
+                    1500, // spike users
+                    60);  // spike duration
+                writePromotionData(plan, ShareMode.GROUP);
+                writeTestScenario(plan, createSpikeTestScenario());
+                plan.end();
+                
+                writeListeners(plan);
+            });
+    }
+    
+    /**
+     * Generates open model load test plan paced to a constant arrival rate: a thread pool paced
+     * by a Precise Throughput Timer, which keeps starting requests at the target rate while
+     * threads are available
+     */
+    private static void generateArrivalRateTestPlan() throws IOException {
+        double targetRps = Double.parseDouble(ConfigManager.getProperty("performance.arrival.rate.target.rps", "500"));
+        int maxConcurrency = ConfigManager.getIntProperty("performance.arrival.rate.max.concurrency", 1000);
+        int duration = 600; // test duration (seconds)
+        logger.info("Generating arrival rate test plan at {} req/s", targetRps);
+        
+        writeTestPlan("promotional_arrival_rate_test.jmx",
+            "Promotional_Arrival_Rate_Test",
+            "Open model load testing of promotional pricing at a constant arrival rate",
+            plan -> {
+                // Thread pool sized for the max concurrency, all started at once and paced by the timer
+                writeThreadGroup(plan, "Promotional Users", maxConcurrency, 0, duration);
+                writeArrivalRateTimer(plan, targetRps, duration);
+                writePromotionData(plan, ShareMode.ALL);
+                writeTestScenario(plan, createPromotionalTestScenario());
+                plan.end();
+                writeListeners(plan);
+            });
     }
     
     /**
@@ -134,515 +238,569 @@ public class JMeterTestPlanGenerator {
     private static void generatePromotionalApiTestPlan() throws IOException {
         logger.info("Generating promotional API performance test plan");
         
-        String testPlan = generateApiJMeterXML(
+        writeTestPlan("promotional_api_performance.jmx",
             "Promotional_API_Performance_Test",
             "API performance testing for promotional pricing endpoints",
-            500,  // thread count
-            120,  // ramp-up period
-            300,  // test duration
-            createApiTestScenarios()
-        );
-        
-        writeTestPlan("promotional_api_performance.jmx", testPlan);
+            plan -> {
+                writeThreadGroup(plan, "Promotional Users",
+                    500,  // thread count
+                    120,  // ramp-up period
+                    300); // test duration
+                
+                // API-specific scenarios, with assertions applying to all of them
+                for (ApiTestScenario scenario : createApiTestScenarios()) {
+                    writeApiTestScenario(plan, scenario);
+                }
+                writeApiAssertions(plan);
+                plan.end();
+                
+                writeApiListeners(plan);
+            });
     }
     
     /**
-     * Generates concurrent user simulation test plan
+     * Generates concurrent user simulation test plan from the workload mix: one thread group
+     * per persona, sized by its weight, walking the persona's actions as a Markov chain
      */
     private static void generateConcurrentUserTestPlan() throws IOException {
-        logger.info("Generating concurrent user simulation test plan");
-        
-        String testPlan = generateConcurrentUserJMeterXML(
+        WorkloadMix mix = WorkloadMix.fromConfig();
+        int users = ConfigManager.getIntProperty("performance.workload.users", 300);
+        int rampUp = ConfigManager.getIntProperty("performance.workload.ramp.up", 60);
+        int duration = ConfigManager.getIntProperty("performance.workload.duration", 600);
+        logger.info("Generating concurrent user simulation test plan for workload mix {}", mix.getName());
+        
+        int[] personaUsers = mix.allocateUsers(users);
+        writeTestPlan("promotional_concurrent_users.jmx",
             "Promotional_Concurrent_Users_Test",
-            "Simulating realistic concurrent user behavior patterns",
-            createConcurrentUserScenarios()
-        );
-        
-        writeTestPlan("promotional_concurrent_users.jmx", testPlan);
+            "Simulating realistic concurrent user behavior patterns of workload mix " + mix.getName(),
+            plan -> {
+                for (int i = 0; i < personaUsers.length; i++) {
+                    if (personaUsers[i] > 0) {
+                        writePersona(plan, mix.getPersonas().get(i), personaUsers[i], rampUp, duration);
+                    }
+                }
+                writeListeners(plan);
+            });
     }
     
     /**
-     * Generates comprehensive JMeter XML test plan
+     * Generates the replay of a production access log: its requests, with their offsets on the
+     * log's timeline, are streamed into a CSV file that a pool of threads shares, each thread
+     * waiting until the next request is due. The speed-up can be changed per run with
+     * -Jreplay.speedup.
      */
-    private static String generateJMeterXML(String testName, String description, 
-                                          int threadCount, int rampUp, int duration,
-                                          List<TestScenario> scenarios) {
-        StringBuilder xml = new StringBuilder();
-        
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xml.append("<jmeterTestPlan version=\"1.2\" properties=\"5.0\" jmeter=\"5.6.3\">\n");
-        xml.append("  <hashTree>\n");
-        xml.append("    <TestPlan guiclass=\"TestPlanGui\" testclass=\"TestPlan\" testname=\"").append(testName).append("\">\n");
-        xml.append("      <stringProp name=\"TestPlan.comments\">").append(description).append("</stringProp>\n");
-        xml.append("      <boolProp name=\"TestPlan.functional_mode\">false</boolProp>\n");
-        xml.append("      <boolProp name=\"TestPlan.serialize_threadgroups\">false</boolProp>\n");
-        xml.append("      <elementProp name=\"TestPlan.arguments\" elementType=\"Arguments\" guiclass=\"ArgumentsPanel\">\n");
-        xml.append("        <collectionProp name=\"Arguments.arguments\">\n");
-        
-        // Add test plan variables
-        addTestPlanVariables(xml);
-        
-        xml.append("        </collectionProp>\n");
-        xml.append("      </elementProp>\n");
-        xml.append("    </TestPlan>\n");
-        xml.append("    <hashTree>\n");
-        
-        // Add thread group
-        addThreadGroup(xml, threadCount, rampUp, duration);
-        
-        // Add test scenarios
-        for (TestScenario scenario : scenarios) {
-            addTestScenario(xml, scenario);
+    private static void generateAccessLogReplayTestPlan(AccessLogReplay replay) throws IOException {
+        int maxConcurrency = ConfigManager.getIntProperty("performance.replay.max.concurrency", 200);
+        logger.info("Generating access log replay test plan from {}", replay);
+        
+        Path dataFile = Paths.get(PERFORMANCE_DATA_DIR, REPLAY_DATA_FILE);
+        long lastOffset = 0;
+        long requests = 0;
+        try (AccessLogReplay.Schedule schedule = replay.open();
+             BufferedWriter csv = Files.newBufferedWriter(dataFile, StandardCharsets.UTF_8)) {
+            csv.write(REPLAY_DATA_COLUMNS);
+            csv.write('\n');
+            AccessLogReader.Entry entry;
+            while ((entry = schedule.next()) != null) {
+                csv.write(entry.getOffset() + ",");
+                csv.write(csvValue(entry.getMethod()) + ",");
+                csv.write(csvValue(entry.getTarget()) + ",");
+                csv.write(csvValue(entry.getBody()) + ",");
+                csv.write(csvValue(entry.getLabel()) + "\n");
+                lastOffset = entry.getOffset();
+                requests++;
+            }
         }
-        
-        // Add listeners and reporting
-        addListeners(xml);
-        
-        xml.append("    </hashTree>\n");
-        xml.append("  </hashTree>\n");
-        xml.append("</jmeterTestPlan>\n");
-        
-        return xml.toString();
+        logger.info("Generated replay data file with {} requests: {}", requests, dataFile.toAbsolutePath());
+        
+        // Threads stop at the end of the data file; the duration is only a safety net
+        int duration = ConfigManager.getIntProperty("performance.replay.duration",
+            (int) Math.ceil(lastOffset / replay.getSpeedUp() / 1000) + 60);
+        String replayFile = Paths.get(JMETER_PLANS_DIR).toAbsolutePath()
+            .relativize(dataFile.toAbsolutePath()).toString().replace('\\', '/');
+        writeTestPlan("promotional_access_log_replay.jmx",
+            "Promotional_Access_Log_Replay",
+            "Replay of " + requests + " logged promotional pricing requests at their original inter-arrival times",
+            plan -> {
+                writeThreadGroup(plan, "Replay Workers", maxConcurrency, 0, duration);
+                
+                plan.startElement("CSVDataSet", "TestBeanGUI", "Replayed Requests");
+                plan.stringProp("filename", "${__P(replay.file," + replayFile + ")}");
+                plan.stringProp("fileEncoding", "UTF-8");
+                plan.stringProp("variableNames", REPLAY_DATA_COLUMNS);
+                plan.boolProp("ignoreFirstLine", true);
+                plan.stringProp("delimiter", ",");
+                plan.boolProp("quotedData", true);
+                plan.boolProp("recycle", false);
+                plan.boolProp("stopThread", true);
+                plan.stringProp("shareMode", ShareMode.ALL.jmeterValue);
+                plan.end();
+                plan.emptyHashTree();
+                
+                plan.startElement("JSR223Timer", "TestBeanGUI", "Replay Timing");
+                plan.stringProp("scriptLanguage", "groovy");
+                plan.stringProp("parameters", "");
+                plan.stringProp("filename", "");
+                plan.stringProp("cacheKey", "true");
+                plan.stringProp("script", replayTimingScript(replay.getSpeedUp()));
+                plan.end();
+                plan.emptyHashTree();
+                
+                plan.startElement("HTTPSamplerProxy", "HttpTestSampleGui", "${replay_label}");
+                writeRawBody(plan, "${replay_body}");
+                plan.stringProp("HTTPSampler.domain", "${BASE_URL}");
+                plan.stringProp("HTTPSampler.path", "${replay_target}");
+                plan.stringProp("HTTPSampler.method", "${replay_method}");
+                plan.stringProp("HTTPSampler.connect_timeout", "${RESPONSE_TIMEOUT}");
+                plan.stringProp("HTTPSampler.response_timeout", "${RESPONSE_TIMEOUT}");
+                plan.end();
+                plan.startHashTree();
+                writeJsonContentType(plan);
+                plan.end();
+                
+                plan.end();
+                writeListeners(plan);
+            });
     }
     
     /**
-     * Generates spike testing specific JMeter XML
+     * Groovy returning the wait until the current row is due. The timeline starts with the
+     * run: JMeter sets TESTSTART.MS on every test start, where a property of our own would
+     * outlive the run and leave a second run in the same JVM without pacing.
      */
-    private static String generateSpikeJMeterXML(String testName, String description,
-                                                int baselineUsers, int spikeUsers, int spikeDuration,
-                                                List<TestScenario> scenarios) {
-        StringBuilder xml = new StringBuilder();
-        
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xml.append("<jmeterTestPlan version=\"1.2\" properties=\"5.0\" jmeter=\"5.6.3\">\n");
-        xml.append("  <hashTree>\n");
-        xml.append("    <TestPlan guiclass=\"TestPlanGui\" testclass=\"TestPlan\" testname=\"").append(testName).append("\">\n");
-        xml.append("      <stringProp name=\"TestPlan.comments\">").append(description).append("</stringProp>\n");
-        xml.append("    </TestPlan>\n");
-        xml.append("    <hashTree>\n");
-        
-        // Add baseline load thread group
-        addSpikeBaselineThreadGroup(xml, baselineUsers);
-        
-        // Add spike load thread group
-        addSpikeLoadThreadGroup(xml, spikeUsers, spikeDuration);
-        
-        // Add test scenarios for both groups
-        for (TestScenario scenario : scenarios) {
-            addTestScenario(xml, scenario);
-        }
-        
-        addListeners(xml);
-        
-        xml.append("    </hashTree>\n");
-        xml.append("  </hashTree>\n");
-        xml.append("</jmeterTestPlan>\n");
-        
-        return xml.toString();
+    private static String replayTimingScript(double speedUp) {
+        return "long start = Long.parseLong(props.getProperty('TESTSTART.MS', String.valueOf(System.currentTimeMillis())))\n"
+            + "double speedUp = Double.parseDouble(props.getProperty('replay.speedup', '" + speedUp + "'))\n"
+            + "long due = start + Math.round((vars.get('replay_offset') as long) / speedUp)\n"
+            + "Math.max(0L, due - System.currentTimeMillis())\n";
     }
     
     /**
-     * Generates API-specific JMeter XML test plan
+     * Streams a test plan to the plans directory. The content written by the given callback
+     * goes into the hashTree of the TestPlan element. The plan is written next to its final
+     * name and moved in place once complete, so a failed generation never leaves a truncated
+     * plan behind.
      */
-    private static String generateApiJMeterXML(String testName, String description,
-                                             int threadCount, int rampUp, int duration,
-                                             List<ApiTestScenario> scenarios) {
-        StringBuilder xml = new StringBuilder();
-        
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xml.append("<jmeterTestPlan version=\"1.2\" properties=\"5.0\" jmeter=\"5.6.3\">\n");
-        xml.append("  <hashTree>\n");
-        xml.append("    <TestPlan guiclass=\"TestPlanGui\" testclass=\"TestPlan\" testname=\"").append(testName).append("\">\n");
-        xml.append("      <stringProp name=\"TestPlan.comments\">").append(description).append("</stringProp>\n");
-        xml.append("    </TestPlan>\n");
-        xml.append("    <hashTree>\n");
-        
-        addThreadGroup(xml, threadCount, rampUp, duration);
-        
-        // Add API-specific scenarios
-        for (ApiTestScenario scenario : scenarios) {
-            addApiTestScenario(xml, scenario);
-        }
-        
-        // Add API-specific assertions and monitoring
-        addApiAssertions(xml);
-        addApiListeners(xml);
+    private static void writeTestPlan(String filename, String testName, String description,
+                                      PlanContent content) throws IOException {
+        Path file = Paths.get(JMETER_PLANS_DIR, filename);
+        Path partial = file.resolveSibling(filename + ".part");
         
-        xml.append("    </hashTree>\n");
-        xml.append("  </hashTree>\n");
-        xml.append("</jmeterTestPlan>\n");
-        
-        return xml.toString();
-    }
-    
-    /**
-     * Generates concurrent user simulation JMeter XML
-     */
-    private static String generateConcurrentUserJMeterXML(String testName, String description,
-                                                         List<ConcurrentUserScenario> scenarios) {
-        StringBuilder xml = new StringBuilder();
-        
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xml.append("<jmeterTestPlan version=\"1.2\" properties=\"5.0\" jmeter=\"5.6.3\">\n");
-        xml.append("  <hashTree>\n");
-        xml.append("    <TestPlan guiclass=\"TestPlanGui\" testclass=\"TestPlan\" testname=\"").append(testName).append("\">\n");
-        xml.append("      <stringProp name=\"TestPlan.comments\">").append(description).append("</stringProp>\n");
-        xml.append("    </TestPlan>\n");
-        xml.append("    <hashTree>\n");
-        
-        // Add multiple thread groups for different user behaviors
-        for (ConcurrentUserScenario scenario : scenarios) {
-            addConcurrentUserThreadGroup(xml, scenario);
-            addConcurrentUserScenario(xml, scenario);
+        try {
+            try (JmxPlanWriter plan = new JmxPlanWriter(partial)) {
+                plan.startElement("TestPlan", "TestPlanGui", testName);
+                plan.stringProp("TestPlan.comments", description);
+                plan.boolProp("TestPlan.functional_mode", false);
+                plan.boolProp("TestPlan.serialize_threadgroups", false);
+                plan.start("elementProp", "name", "TestPlan.arguments", "elementType", "Arguments", "guiclass", "ArgumentsPanel");
+                plan.start("collectionProp", "name", "Arguments.arguments");
+                writeTestPlanVariables(plan);
+                plan.end();
+                plan.end();
+                plan.end();
+                
+                plan.startHashTree();
+                content.write(plan);
+                plan.end();
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
         }
-        
-        addListeners(xml);
-        
-        xml.append("    </hashTree>\n");
-        xml.append("  </hashTree>\n");
-        xml.append("</jmeterTestPlan>\n");
-        
-        return xml.toString();
+        logger.info("Generated JMeter test plan: {}", file.toAbsolutePath());
     }
     
     // Helper methods for XML generation
     
-    private static void addTestPlanVariables(StringBuilder xml) {
+    private static void writeTestPlanVariables(JmxPlanWriter plan) throws IOException {
         String baseUrl = ConfigManager.getProperty("base.url", "http://localhost:8080");
         String apiVersion = ConfigManager.getProperty("api.version", "v1");
         
-        xml.append("          <elementProp name=\"BASE_URL\" elementType=\"Argument\">\n");
-        xml.append("            <stringProp name=\"Argument.name\">BASE_URL</stringProp>\n");
-        xml.append("            <stringProp name=\"Argument.value\">").append(baseUrl).append("</stringProp>\n");
-        xml.append("          </elementProp>\n");
-        
-        xml.append("          <elementProp name=\"API_VERSION\" elementType=\"Argument\">\n");
-        xml.append("            <stringProp name=\"Argument.name\">API_VERSION</stringProp>\n");
-        xml.append("            <stringProp name=\"Argument.value\">").append(apiVersion).append("</stringProp>\n");
-        xml.append("          </elementProp>\n");
-        
-        xml.append("          <elementProp name=\"RESPONSE_TIMEOUT\" elementType=\"Argument\">\n");
-        xml.append("            <stringProp name=\"Argument.name\">RESPONSE_TIMEOUT</stringProp>\n");
-        xml.append("            <stringProp name=\"Argument.value\">5000</stringProp>\n");
-        xml.append("          </elementProp>\n");
-    }
-    
-    private static void addThreadGroup(StringBuilder xml, int threadCount, int rampUp, int duration) {
-        xml.append("      <ThreadGroup guiclass=\"ThreadGroupGui\" testclass=\"ThreadGroup\" testname=\"Promotional Users\">\n");
-        xml.append("        <stringProp name=\"ThreadGroup.on_sample_error\">continue</stringProp>\n");
-        xml.append("        <elementProp name=\"ThreadGroup.main_controller\" elementType=\"LoopController\">\n");
-        xml.append("          <boolProp name=\"LoopController.continue_forever\">false</boolProp>\n");
-        xml.append("          <intProp name=\"LoopController.loops\">-1</intProp>\n");
-        xml.append("        </elementProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.num_threads\">").append(threadCount).append("</stringProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.ramp_time\">").append(rampUp).append("</stringProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.duration\">").append(duration).append("</stringProp>\n");
-        xml.append("        <boolProp name=\"ThreadGroup.scheduler\">true</boolProp>\n");
-        xml.append("      </ThreadGroup>\n");
-        xml.append("      <hashTree>\n");
-    }
-    
-    private static void addSpikeBaselineThreadGroup(StringBuilder xml, int baselineUsers) {
-        xml.append("      <ThreadGroup guiclass=\"ThreadGroupGui\" testclass=\"ThreadGroup\" testname=\"Baseline Load\">\n");
-        xml.append("        <elementProp name=\"ThreadGroup.main_controller\" elementType=\"LoopController\">\n");
-        xml.append("          <boolProp name=\"LoopController.continue_forever\">false</boolProp>\n");
-        xml.append("          <intProp name=\"LoopController.loops\">-1</intProp>\n");
-        xml.append("        </elementProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.num_threads\">").append(baselineUsers).append("</stringProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.ramp_time\">60</stringProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.duration\">600</stringProp>\n");
-        xml.append("        <boolProp name=\"ThreadGroup.scheduler\">true</boolProp>\n");
-        xml.append("      </ThreadGroup>\n");
-        xml.append("      <hashTree>\n");
-    }
-    
-    private static void addSpikeLoadThreadGroup(StringBuilder xml, int spikeUsers, int spikeDuration) {
-        xml.append("      <ThreadGroup guiclass=\"ThreadGroupGui\" testclass=\"ThreadGroup\" testname=\"Spike Load\">\n");
-        xml.append("        <elementProp name=\"ThreadGroup.main_controller\" elementType=\"LoopController\">\n");
-        xml.append("          <boolProp name=\"LoopController.continue_forever\">false</boolProp>\n");
-        xml.append("          <intProp name=\"LoopController.loops\">-1</intProp>\n");
-        xml.append("        </elementProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.num_threads\">").append(spikeUsers).append("</stringProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.ramp_time\">10</stringProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.duration\">").append(spikeDuration).append("</stringProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.delay\">300</stringProp>\n");
-        xml.append("        <boolProp name=\"ThreadGroup.scheduler\">true</boolProp>\n");
-        xml.append("      </ThreadGroup>\n");
-        xml.append("      <hashTree>\n");
-    }
-    
-    private static void addConcurrentUserThreadGroup(StringBuilder xml, ConcurrentUserScenario scenario) {
-        xml.append("      <ThreadGroup guiclass=\"ThreadGroupGui\" testclass=\"ThreadGroup\" testname=\"").append(scenario.name).append("\">\n");
-        xml.append("        <elementProp name=\"ThreadGroup.main_controller\" elementType=\"LoopController\">\n");
-        xml.append("          <boolProp name=\"LoopController.continue_forever\">false</boolProp>\n");
-        xml.append("          <intProp name=\"LoopController.loops\">").append(scenario.loops).append("</intProp>\n");
-        xml.append("        </elementProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.num_threads\">").append(scenario.users).append("</stringProp>\n");
-        xml.append("        <stringProp name=\"ThreadGroup.ramp_time\">").append(scenario.rampUp).append("</stringProp>\n");
-        xml.append("      </ThreadGroup>\n");
-        xml.append("      <hashTree>\n");
-    }
-    
-    private static void addTestScenario(StringBuilder xml, TestScenario scenario) {
-        xml.append("        <HTTPSamplerProxy guiclass=\"HttpTestSampleGui\" testclass=\"HTTPSamplerProxy\" testname=\"").append(scenario.name).append("\">\n");
-        xml.append("          <elementProp name=\"HTTPsampler.Arguments\" elementType=\"Arguments\">\n");
-        xml.append("            <collectionProp name=\"Arguments.arguments\">\n");
+        // Overridable per run with -Jbase.url, e.g. to point parallel scenarios at separate partitions
+        writeArgument(plan, "BASE_URL", "${__P(base.url," + baseUrl + ")}");
+        writeArgument(plan, "API_VERSION", apiVersion);
+        writeArgument(plan, "RESPONSE_TIMEOUT", "5000");
+    }
+    
+    private static void writeArgument(JmxPlanWriter plan, String name, String value) throws IOException {
+        plan.start("elementProp", "name", name, "elementType", "Argument");
+        plan.stringProp("Argument.name", name);
+        plan.stringProp("Argument.value", value);
+        plan.end();
+    }
+    
+    /**
+     * Writes a looping, scheduled thread group and opens its hashTree; the caller closes it
+     * with {@link JmxPlanWriter#end()} after writing its children
+     */
+    private static void writeThreadGroup(JmxPlanWriter plan, String name, int threadCount, int rampUp, int duration) throws IOException {
+        plan.startElement("ThreadGroup", "ThreadGroupGui", name);
+        plan.stringProp("ThreadGroup.on_sample_error", "continue");
+        writeLoopController(plan, -1);
+        plan.stringProp("ThreadGroup.num_threads", threadCount);
+        plan.stringProp("ThreadGroup.ramp_time", rampUp);
+        plan.stringProp("ThreadGroup.duration", duration);
+        plan.boolProp("ThreadGroup.scheduler", true);
+        plan.end();
+        plan.startHashTree();
+    }
+    
+    private static void writeLoopController(JmxPlanWriter plan, int loops) throws IOException {
+        plan.start("elementProp", "name", "ThreadGroup.main_controller", "elementType", "LoopController");
+        plan.boolProp("LoopController.continue_forever", false);
+        plan.intProp("LoopController.loops", loops);
+        plan.end();
+    }
+    
+    private static void writeArrivalRateTimer(JmxPlanWriter plan, double targetRps, int duration) throws IOException {
+        plan.startElement("PreciseThroughputTimer", "TestBeanGUI", "Arrival Rate");
+        plan.start("doubleProp");
+        plan.text("name", "throughput");
+        plan.text("value", targetRps);
+        plan.text("savedValue", "0.0");
+        plan.end();
+        plan.intProp("throughputPeriod", 1);
+        plan.longProp("duration", duration);
+        plan.intProp("batchSize", 1);
+        plan.intProp("batchThreadDelay", 0);
+        plan.longProp("randomSeed", 0);
+        plan.end();
+        plan.emptyHashTree();
+    }
+    
+    private static void writeSpikeBaselineThreadGroup(JmxPlanWriter plan, int baselineUsers) throws IOException {
+        plan.startElement("ThreadGroup", "ThreadGroupGui", "Baseline Load");
+        writeLoopController(plan, -1);
+        plan.stringProp("ThreadGroup.num_threads", baselineUsers);
+        plan.stringProp("ThreadGroup.ramp_time", 60);
+        plan.stringProp("ThreadGroup.duration", 600);
+        plan.boolProp("ThreadGroup.scheduler", true);
+        plan.end();
+        plan.startHashTree();
+    }
+    
+    private static void writeSpikeLoadThreadGroup(JmxPlanWriter plan, int spikeUsers, int spikeDuration) throws IOException {
+        plan.startElement("ThreadGroup", "ThreadGroupGui", "Spike Load");
+        writeLoopController(plan, -1);
+        plan.stringProp("ThreadGroup.num_threads", spikeUsers);
+        plan.stringProp("ThreadGroup.ramp_time", 10);
+        plan.stringProp("ThreadGroup.duration", spikeDuration);
+        plan.stringProp("ThreadGroup.delay", 300);
+        plan.boolProp("ThreadGroup.scheduler", true);
+        plan.end();
+        plan.startHashTree();
+    }
+    
+    /**
+     * Writes a CSV Data Set Config feeding the promotion data file to the enclosing thread group:
+     * each iteration reads the next row into the ${sku}, ${brand}, ${country}, ${language},
+     * ${customer_type} and ${promotion_code} variables, starting over at the end of the file.
+     * The file can be replaced per run with -Jperformance.data.file.
+     */
+    private static void writePromotionData(JmxPlanWriter plan, ShareMode defaultShareMode) throws IOException {
+        ShareMode shareMode = ShareMode.configured(defaultShareMode);
+        String dataFile = Paths.get(JMETER_PLANS_DIR).toAbsolutePath()
+            .relativize(Paths.get(PERFORMANCE_DATA_DIR, PERFORMANCE_DATA_FILE).toAbsolutePath())
+            .toString().replace('\\', '/');
+        
+        plan.startElement("CSVDataSet", "TestBeanGUI", "Promotion Data");
+        plan.stringProp("filename", "${__P(performance.data.file," + dataFile + ")}");
+        plan.stringProp("fileEncoding", "UTF-8");
+        plan.stringProp("variableNames", PERFORMANCE_DATA_COLUMNS);
+        plan.boolProp("ignoreFirstLine", true);
+        plan.stringProp("delimiter", ",");
+        plan.boolProp("quotedData", true);
+        plan.boolProp("recycle", true);
+        plan.boolProp("stopThread", false);
+        plan.stringProp("shareMode", shareMode.jmeterValue);
+        plan.end();
+        plan.emptyHashTree();
+    }
+    
+    private static void writeTestScenario(JmxPlanWriter plan, TestScenario scenario) throws IOException {
+        plan.startElement("HTTPSamplerProxy", "HttpTestSampleGui", scenario.name);
+        plan.start("elementProp", "name", "HTTPsampler.Arguments", "elementType", "Arguments");
+        plan.start("collectionProp", "name", "Arguments.arguments");
         
         for (Map.Entry<String, String> param : scenario.parameters.entrySet()) {
-            xml.append("              <elementProp name=\"").append(param.getKey()).append("\" elementType=\"HTTPArgument\">\n");
-            xml.append("                <boolProp name=\"HTTPArgument.always_encode\">false</boolProp>\n");
-            xml.append("                <stringProp name=\"Argument.value\">").append(param.getValue()).append("</stringProp>\n");
-            xml.append("                <stringProp name=\"Argument.name\">").append(param.getKey()).append("</stringProp>\n");
-            xml.append("              </elementProp>\n");
+            plan.start("elementProp", "name", param.getKey(), "elementType", "HTTPArgument");
+            plan.boolProp("HTTPArgument.always_encode", false);
+            plan.stringProp("Argument.value", param.getValue());
+            plan.stringProp("Argument.name", param.getKey());
+            plan.end();
         }
         
-        xml.append("            </collectionProp>\n");
-        xml.append("          </elementProp>\n");
-        xml.append("          <stringProp name=\"HTTPSampler.domain\">${BASE_URL}</stringProp>\n");
-        xml.append("          <stringProp name=\"HTTPSampler.path\">").append(scenario.path).append("</stringProp>\n");
-        xml.append("          <stringProp name=\"HTTPSampler.method\">").append(scenario.method).append("</stringProp>\n");
-        xml.append("          <boolProp name=\"HTTPSampler.follow_redirects\">true</boolProp>\n");
-        xml.append("          <stringProp name=\"HTTPSampler.connect_timeout\">${RESPONSE_TIMEOUT}</stringProp>\n");
-        xml.append("          <stringProp name=\"HTTPSampler.response_timeout\">${RESPONSE_TIMEOUT}</stringProp>\n");
-        xml.append("        </HTTPSamplerProxy>\n");
-        xml.append("        <hashTree>\n");
+        plan.end();
+        plan.end();
+        plan.stringProp("HTTPSampler.domain", "${BASE_URL}");
+        plan.stringProp("HTTPSampler.path", scenario.path);
+        plan.stringProp("HTTPSampler.method", scenario.method);
+        plan.boolProp("HTTPSampler.follow_redirects", true);
+        plan.stringProp("HTTPSampler.connect_timeout", "${RESPONSE_TIMEOUT}");
+        plan.stringProp("HTTPSampler.response_timeout", "${RESPONSE_TIMEOUT}");
+        plan.end();
+        plan.startHashTree();
         
         // Add assertions
-        addResponseTimeAssertion(xml, scenario.maxResponseTime);
-        addStatusCodeAssertion(xml, scenario.expectedStatusCode);
-        
-        xml.append("        </hashTree>\n");
-    }
-    
-    private static void addApiTestScenario(StringBuilder xml, ApiTestScenario scenario) {
-        xml.append("        <HTTPSamplerProxy guiclass=\"HttpTestSampleGui\" testclass=\"HTTPSamplerProxy\" testname=\"").append(scenario.name).append("\">\n");
-        xml.append("          <stringProp name=\"HTTPSampler.domain\">${BASE_URL}</stringProp>\n");
-        xml.append("          <stringProp name=\"HTTPSampler.path\">/api/${API_VERSION}").append(scenario.endpoint).append("</stringProp>\n");
-        xml.append("          <stringProp name=\"HTTPSampler.method\">").append(scenario.method).append("</stringProp>\n");
-        xml.append("          <stringProp name=\"HTTPSampler.postBodyRaw\">").append(scenario.requestBody).append("</stringProp>\n");
-        xml.append("          <elementProp name=\"HTTPsampler.Header_manager\" elementType=\"HeaderManager\">\n");
-        xml.append("            <collectionProp name=\"HeaderManager.headers\">\n");
-        xml.append("              <elementProp name=\"Content-Type\" elementType=\"Header\">\n");
-        xml.append("                <stringProp name=\"Header.name\">Content-Type</stringProp>\n");
-        xml.append("                <stringProp name=\"Header.value\">application/json</stringProp>\n");
-        xml.append("              </elementProp>\n");
-        xml.append("            </collectionProp>\n");
-        xml.append("          </elementProp>\n");
-        xml.append("        </HTTPSamplerProxy>\n");
-        xml.append("        <hashTree>\n");
-        
-        addApiAssertions(xml, scenario);
-        
-        xml.append("        </hashTree>\n");
-    }
-    
-    private static void addConcurrentUserScenario(StringBuilder xml, ConcurrentUserScenario scenario) {
-        for (UserAction action : scenario.actions) {
-            xml.append("        <HTTPSamplerProxy guiclass=\"HttpTestSampleGui\" testclass=\"HTTPSamplerProxy\" testname=\"").append(action.name).append("\">\n");
-            xml.append("          <stringProp name=\"HTTPSampler.domain\">${BASE_URL}</stringProp>\n");
-            xml.append("          <stringProp name=\"HTTPSampler.path\">").append(action.path).append("</stringProp>\n");
-            xml.append("          <stringProp name=\"HTTPSampler.method\">").append(action.method).append("</stringProp>\n");
-            xml.append("        </HTTPSamplerProxy>\n");
-            xml.append("        <hashTree>\n");
-            
-            // Add think time between actions
-            xml.append("          <ConstantTimer guiclass=\"ConstantTimerGui\" testclass=\"ConstantTimer\" testname=\"Think Time\">\n");
-            xml.append("            <stringProp name=\"ConstantTimer.delay\">").append(action.thinkTime).append("</stringProp>\n");
-            xml.append("          </ConstantTimer>\n");
-            
-            xml.append("        </hashTree>\n");
-        }
+        writeResponseTimeAssertion(plan, scenario.maxResponseTime);
+        writeStatusCodeAssertion(plan, scenario.expectedStatusCode);
+        
+        plan.end();
     }
     
-    private static void addResponseTimeAssertion(StringBuilder xml, int maxResponseTime) {
-        xml.append("          <DurationAssertion guiclass=\"DurationAssertionGui\" testclass=\"DurationAssertion\" testname=\"Response Time Assertion\">\n");
-        xml.append("            <stringProp name=\"DurationAssertion.duration\">").append(maxResponseTime).append("</stringProp>\n");
-        xml.append("          </DurationAssertion>\n");
-    }
-    
-    private static void addStatusCodeAssertion(StringBuilder xml, int expectedStatusCode) {
-        xml.append("          <ResponseAssertion guiclass=\"AssertionGui\" testclass=\"ResponseAssertion\" testname=\"Status Code Assertion\">\n");
-        xml.append("            <collectionProp name=\"Asserion.test_strings\">\n");
-        xml.append("              <stringProp name=\"response_code\">").append(expectedStatusCode).append("</stringProp>\n");
-        xml.append("            </collectionProp>\n");
-        xml.append("            <stringProp name=\"Assertion.test_field\">Assertion.response_code</stringProp>\n");
-        xml.append("            <intProp name=\"Assertion.test_type\">1</intProp>\n");
-        xml.append("          </ResponseAssertion>\n");
-    }
-    
-    private static void addApiAssertions(StringBuilder xml) {
-        xml.append("          <ResponseAssertion guiclass=\"AssertionGui\" testclass=\"ResponseAssertion\" testname=\"API Response Assertion\">\n");
-        xml.append("            <collectionProp name=\"Asserion.test_strings\">\n");
-        xml.append("              <stringProp name=\"json_response\">\"status\":\"success\"</stringProp>\n");
-        xml.append("            </collectionProp>\n");
-        xml.append("            <stringProp name=\"Assertion.test_field\">Assertion.response_data</stringProp>\n");
-        xml.append("            <intProp name=\"Assertion.test_type\">2</intProp>\n");
-        xml.append("          </ResponseAssertion>\n");
-    }
-    
-    private static void addApiAssertions(StringBuilder xml, ApiTestScenario scenario) {
-        xml.append("          <JSONPathAssertion guiclass=\"JSONPathAssertionGui\" testclass=\"JSONPathAssertion\" testname=\"JSON Path Assertion\">\n");
-        xml.append("            <stringProp name=\"JSON_PATH\">").append(scenario.jsonPath).append("</stringProp>\n");
-        xml.append("            <stringProp name=\"EXPECTED_VALUE\">").append(scenario.expectedValue).append("</stringProp>\n");
-        xml.append("          </JSONPathAssertion>\n");
-    }
-    
-    private static void addApiListeners(StringBuilder xml) {
-        xml.append("        <ResultCollector guiclass=\"ViewResultsFullVisualizer\" testclass=\"ResultCollector\" testname=\"API Results Tree\">\n");
-        xml.append("          <boolProp name=\"ResultCollector.error_logging\">false</boolProp>\n");
-        xml.append("          <objProp>\n");
-        xml.append("            <name>saveConfig</name>\n");
-        xml.append("            <value class=\"SampleSaveConfiguration\">\n");
-        xml.append("              <time>true</time>\n");
-        xml.append("              <latency>true</latency>\n");
-        xml.append("              <timestamp>true</timestamp>\n");
-        xml.append("              <success>true</success>\n");
-        xml.append("              <label>true</label>\n");
-        xml.append("              <code>true</code>\n");
-        xml.append("              <message>true</message>\n");
-        xml.append("              <threadName>true</threadName>\n");
-        xml.append("              <dataType>true</dataType>\n");
-        xml.append("              <encoding>false</encoding>\n");
-        xml.append("              <assertions>true</assertions>\n");
-        xml.append("              <subresults>true</subresults>\n");
-        xml.append("              <responseData>false</responseData>\n");
-        xml.append("              <samplerData>false</samplerData>\n");
-        xml.append("              <xml>false</xml>\n");
-        xml.append("              <fieldNames>true</fieldNames>\n");
-        xml.append("              <responseHeaders>false</responseHeaders>\n");
-        xml.append("              <requestHeaders>false</requestHeaders>\n");
-        xml.append("              <responseDataOnError>false</responseDataOnError>\n");
-        xml.append("              <saveAssertionResultsFailureMessage>true</saveAssertionResultsFailureMessage>\n");
-        xml.append("              <assertionsResultsToSave>0</assertionsResultsToSave>\n");
-        xml.append("              <bytes>true</bytes>\n");
-        xml.append("              <sentBytes>true</sentBytes>\n");
-        xml.append("              <url>true</url>\n");
-        xml.append("              <threadCounts>true</threadCounts>\n");
-        xml.append("              <idleTime>true</idleTime>\n");
-        xml.append("              <connectTime>true</connectTime>\n");
-        xml.append("            </value>\n");
-        xml.append("          </objProp>\n");
-        xml.append("          <stringProp name=\"filename\">api_results.jtl</stringProp>\n");
-        xml.append("        </ResultCollector>\n");
-        xml.append("        <hashTree/>\n");
-    }
-    
-    private static void addListeners(StringBuilder xml) {
-        // Aggregate Report
-        xml.append("        <ResultCollector guiclass=\"StatVisualizer\" testclass=\"ResultCollector\" testname=\"Aggregate Report\">\n");
-        xml.append("          <boolProp name=\"ResultCollector.error_logging\">false</boolProp>\n");
-        xml.append("          <objProp>\n");
-        xml.append("            <name>saveConfig</name>\n");
-        xml.append("            <value class=\"SampleSaveConfiguration\">\n");
-        xml.append("              <time>true</time>\n");
-        xml.append("              <latency>true</latency>\n");
-        xml.append("              <timestamp>true</timestamp>\n");
-        xml.append("              <success>true</success>\n");
-        xml.append("              <label>true</label>\n");
-        xml.append("              <code>true</code>\n");
-        xml.append("              <message>true</message>\n");
-        xml.append("              <threadName>true</threadName>\n");
-        xml.append("              <dataType>true</dataType>\n");
-        xml.append("              <encoding>false</encoding>\n");
-        xml.append("              <assertions>true</assertions>\n");
-        xml.append("              <subresults>true</subresults>\n");
-        xml.append("              <responseData>false</responseData>\n");
-        xml.append("              <samplerData>false</samplerData>\n");
-        xml.append("              <xml>false</xml>\n");
-        xml.append("              <fieldNames>true</fieldNames>\n");
-        xml.append("              <responseHeaders>false</responseHeaders>\n");
-        xml.append("              <requestHeaders>false</requestHeaders>\n");
-        xml.append("              <responseDataOnError>false</responseDataOnError>\n");
-        xml.append("              <saveAssertionResultsFailureMessage>true</saveAssertionResultsFailureMessage>\n");
-        xml.append("              <assertionsResultsToSave>0</assertionsResultsToSave>\n");
-        xml.append("              <bytes>true</bytes>\n");
-        xml.append("              <sentBytes>true</sentBytes>\n");
-        xml.append("              <url>true</url>\n");
-        xml.append("              <threadCounts>true</threadCounts>\n");
-        xml.append("              <idleTime>true</idleTime>\n");
-        xml.append("              <connectTime>true</connectTime>\n");
-        xml.append("            </value>\n");
-        xml.append("          </objProp>\n");
-        xml.append("          <stringProp name=\"filename\">results.jtl</stringProp>\n");
-        xml.append("        </ResultCollector>\n");
-        xml.append("        <hashTree/>\n");
+    private static void writeApiTestScenario(JmxPlanWriter plan, ApiTestScenario scenario) throws IOException {
+        plan.startElement("HTTPSamplerProxy", "HttpTestSampleGui", scenario.name);
+        plan.stringProp("HTTPSampler.domain", "${BASE_URL}");
+        plan.stringProp("HTTPSampler.path", "/api/${API_VERSION}" + scenario.endpoint);
+        plan.stringProp("HTTPSampler.method", scenario.method);
+        plan.stringProp("HTTPSampler.postBodyRaw", scenario.requestBody);
+        plan.start("elementProp", "name", "HTTPsampler.Header_manager", "elementType", "HeaderManager");
+        plan.start("collectionProp", "name", "HeaderManager.headers");
+        plan.start("elementProp", "name", "Content-Type", "elementType", "Header");
+        plan.stringProp("Header.name", "Content-Type");
+        plan.stringProp("Header.value", "application/json");
+        plan.end();
+        plan.end();
+        plan.end();
+        plan.end();
+        plan.startHashTree();
         
-        // Response Times Over Time
-        xml.append("        <kg.apc.jmeter.vizualizers.CorrectedResultCollector guiclass=\"kg.apc.jmeter.vizualizers.ResponseTimesOverTimeGui\" testclass=\"kg.apc.jmeter.vizualizers.CorrectedResultCollector\" testname=\"Response Times Over Time\">\n");
-        xml.append("          <boolProp name=\"ResultCollector.error_logging\">false</boolProp>\n");
-        xml.append("          <stringProp name=\"filename\">response_times.jtl</stringProp>\n");
-        xml.append("        </kg.apc.jmeter.vizualizers.CorrectedResultCollector>\n");
-        xml.append("        <hashTree/>\n");
+        writeApiAssertions(plan, scenario);
         
-        // Transactions per Second
-        xml.append("        <kg.apc.jmeter.vizualizers.CorrectedResultCollector guiclass=\"kg.apc.jmeter.vizualizers.TransactionsPerSecondGui\" testclass=\"kg.apc.jmeter.vizualizers.CorrectedResultCollector\" testname=\"Transactions per Second\">\n");
-        xml.append("          <boolProp name=\"ResultCollector.error_logging\">false</boolProp>\n");
-        xml.append("          <stringProp name=\"filename\">tps.jtl</stringProp>\n");
-        xml.append("        </kg.apc.jmeter.vizualizers.CorrectedResultCollector>\n");
-        xml.append("        <hashTree/>\n");
+        plan.end();
     }
     
-    private static void createDirectories() throws IOException {
-        File jmeterDir = new File(JMETER_PLANS_DIR);
-        File performanceDir = new File(PERFORMANCE_DATA_DIR);
-        
-        if (!jmeterDir.exists()) {
-            jmeterDir.mkdirs();
+    /**
+     * Writes a persona's thread group. Every iteration runs the action named by the
+     * workload_action variable through a Switch Controller, starting at the entry action;
+     * after each action a post-processor draws the next one from the transition probabilities,
+     * or the entry action again when the session ends, and the think time following it.
+     * JMeter runs timers before their sampler, so the think time goes into the think_ms
+     * variable and a thread-group timer waits for it before the next action, as
+     * {@link HttpClientLoadEngine} sleeps after each action.
+     */
+    private static void writePersona(JmxPlanWriter plan, WorkloadMix.Persona persona,
+                                     int users, int rampUp, int duration) throws IOException {
+        writeThreadGroup(plan, persona.getName(), users, rampUp, duration);
+        
+        plan.startElement("ConstantTimer", "ConstantTimerGui", "Think Time");
+        plan.stringProp("ConstantTimer.delay", groovyFunction("vars.get('" + THINK_TIME_VARIABLE + "') ?: '0'"));
+        plan.end();
+        plan.emptyHashTree();
+        
+        plan.startElement("SwitchController", "SwitchControllerGui", "Next Action");
+        plan.stringProp("SwitchController.value", groovyFunction(
+            "vars.get('" + WORKLOAD_ACTION_VARIABLE + "') ?: " + groovyString(persona.getEntry())));
+        plan.end();
+        plan.startHashTree();
+        for (WorkloadMix.Action action : persona.getActions()) {
+            writePersonaAction(plan, persona, action);
         }
+        plan.end();
         
-        if (!performanceDir.exists()) {
-            performanceDir.mkdirs();
+        plan.end();
+    }
+    
+    private static void writePersonaAction(JmxPlanWriter plan, WorkloadMix.Persona persona,
+                                           WorkloadMix.Action action) throws IOException {
+        // Switch Controller picks its child by this name
+        plan.startElement("HTTPSamplerProxy", "HttpTestSampleGui", action.getName());
+        if (action.getBody() != null) {
+            writeRawBody(plan, action.getBody());
+        }
+        plan.stringProp("HTTPSampler.domain", "${BASE_URL}");
+        plan.stringProp("HTTPSampler.path", action.getPath());
+        plan.stringProp("HTTPSampler.method", action.getMethod());
+        plan.stringProp("HTTPSampler.connect_timeout", "${RESPONSE_TIMEOUT}");
+        plan.stringProp("HTTPSampler.response_timeout", "${RESPONSE_TIMEOUT}");
+        plan.end();
+        plan.startHashTree();
+        
+        if (action.getBody() != null) {
+            writeJsonContentType(plan);
         }
+        
+        plan.startElement("JSR223PostProcessor", "TestBeanGUI", "Markov Transition");
+        plan.stringProp("scriptLanguage", "groovy");
+        plan.stringProp("parameters", "");
+        plan.stringProp("filename", "");
+        plan.stringProp("cacheKey", "true");
+        plan.stringProp("script", transitionScript(persona, action));
+        plan.end();
+        plan.emptyHashTree();
+        
+        plan.end();
+    }
+    
+    private static void writeRawBody(JmxPlanWriter plan, String body) throws IOException {
+        plan.boolProp("HTTPSampler.postBodyRaw", true);
+        plan.start("elementProp", "name", "HTTPsampler.Arguments", "elementType", "Arguments");
+        plan.start("collectionProp", "name", "Arguments.arguments");
+        plan.start("elementProp", "name", "", "elementType", "HTTPArgument");
+        plan.boolProp("HTTPArgument.always_encode", false);
+        plan.stringProp("Argument.value", body);
+        plan.stringProp("Argument.metadata", "=");
+        plan.end();
+        plan.end();
+        plan.end();
+    }
+    
+    private static void writeJsonContentType(JmxPlanWriter plan) throws IOException {
+        plan.startElement("HeaderManager", "HeaderPanel", "HTTP Header Manager");
+        plan.start("collectionProp", "name", "HeaderManager.headers");
+        plan.start("elementProp", "name", "", "elementType", "Header");
+        plan.stringProp("Header.name", "Content-Type");
+        plan.stringProp("Header.value", "application/json");
+        plan.end();
+        plan.end();
+        plan.end();
+        plan.emptyHashTree();
     }
     
-    private static void writeTestPlan(String filename, String content) throws IOException {
-        File file = new File(JMETER_PLANS_DIR, filename);
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(content);
+    /**
+     * Groovy choosing the next action by cumulative probability, the entry action once the
+     * probabilities are used up, and drawing the think time after this action
+     */
+    private static String transitionScript(WorkloadMix.Persona persona, WorkloadMix.Action action) {
+        StringBuilder choice = new StringBuilder();
+        double cumulative = 0;
+        Map<String, Double> targets = persona.getTransitions().getOrDefault(action.getName(), Map.of());
+        for (Map.Entry<String, Double> target : targets.entrySet()) {
+            cumulative += target.getValue();
+            choice.append("r < ").append(cumulative).append(" ? ").append(groovyString(target.getKey())).append(" : ");
         }
-        logger.info("Generated JMeter test plan: {}", file.getAbsolutePath());
+        choice.append(groovyString(persona.getEntry()));
+        return "double r = Math.random()\n"
+            + "vars.put('" + WORKLOAD_ACTION_VARIABLE + "', " + choice + ")\n"
+            + "vars.put('" + THINK_TIME_VARIABLE + "', String.valueOf(" + thinkTime(persona.thinkTimeAfter(action)) + "))\n";
+    }
+    
+    private static String thinkTime(WorkloadMix.ThinkTime thinkTime) {
+        String sample;
+        switch (thinkTime.getDistribution()) {
+            case EXPONENTIAL:
+                sample = "-" + thinkTime.getMean() + " * Math.log(1 - Math.random())";
+                break;
+            case LOGNORMAL:
+                sample = "Math.exp(" + thinkTime.lognormalMu() + " + " + thinkTime.lognormalSigma()
+                    + " * java.util.concurrent.ThreadLocalRandom.current().nextGaussian())";
+                break;
+            default:
+                return String.valueOf(Math.max(thinkTime.getMin(), Math.min(thinkTime.getMax(), Math.round(thinkTime.getMean()))));
+        }
+        return "Math.max(" + thinkTime.getMin() + "L, Math.min(" + thinkTime.getMax() + "L, Math.round(" + sample + ")))";
     }
     
-    // Test scenario creation methods
+    /**
+     * A __groovy function call; commas separate function arguments in JMeter, so they are escaped
+     */
+    private static String groovyFunction(String expression) {
+        return "${__groovy(" + expression.replace(",", "\\,") + ")}";
+    }
     
-    private static List<TestScenario> createPromotionalTestScenarios() {
-        // Load comprehensive test data and create scenarios
-        List<Map<String, String>> testData = TestDataManager.getComprehensivePromotionData();
-        return testData.stream()
-                .limit(50) // Limit for load testing
-                .map(JMeterTestPlanGenerator::createTestScenarioFromData)
-                .collect(java.util.stream.Collectors.toList());
+    private static String groovyString(String value) {
+        return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
     }
     
-    private static List<TestScenario> createStressTestScenarios() {
-        // Similar to load test but with more aggressive scenarios
-        List<Map<String, String>> testData = TestDataManager.getComprehensivePromotionData();
-        return testData.stream()
-                .limit(100) // More scenarios for stress testing
-                .map(JMeterTestPlanGenerator::createStressTestScenarioFromData)
-                .collect(java.util.stream.Collectors.toList());
+    private static void writeResponseTimeAssertion(JmxPlanWriter plan, int maxResponseTime) throws IOException {
+        plan.startElement("DurationAssertion", "DurationAssertionGui", "Response Time Assertion");
+        plan.stringProp("DurationAssertion.duration", maxResponseTime);
+        plan.end();
+        plan.emptyHashTree();
     }
     
-    private static List<TestScenario> createEnduranceTestScenarios() {
-        // Optimized scenarios for long-running tests
-        List<Map<String, String>> testData = TestDataManager.getComprehensivePromotionData();
-        return testData.stream()
-                .limit(25) // Fewer scenarios for endurance
-                .map(JMeterTestPlanGenerator::createEnduranceTestScenarioFromData)
-                .collect(java.util.stream.Collectors.toList());
+    private static void writeStatusCodeAssertion(JmxPlanWriter plan, int expectedStatusCode) throws IOException {
+        plan.startElement("ResponseAssertion", "AssertionGui", "Status Code Assertion");
+        plan.start("collectionProp", "name", "Asserion.test_strings");
+        plan.stringProp("response_code", expectedStatusCode);
+        plan.end();
+        plan.stringProp("Assertion.test_field", "Assertion.response_code");
+        plan.intProp("Assertion.test_type", 1);
+        plan.end();
+        plan.emptyHashTree();
     }
     
-    private static List<TestScenario> createSpikeTestScenarios() {
-        // Quick, intensive scenarios for spike testing
-        List<Map<String, String>> testData = TestDataManager.getComprehensivePromotionData();
-        return testData.stream()
-                .limit(20) // Quick scenarios
-                .map(JMeterTestPlanGenerator::createSpikeTestScenarioFromData)
-                .collect(java.util.stream.Collectors.toList());
+    private static void writeApiAssertions(JmxPlanWriter plan) throws IOException {
+        plan.startElement("ResponseAssertion", "AssertionGui", "API Response Assertion");
+        plan.start("collectionProp", "name", "Asserion.test_strings");
+        plan.stringProp("json_response", "\"status\":\"success\"");
+        plan.end();
+        plan.stringProp("Assertion.test_field", "Assertion.response_data");
+        plan.intProp("Assertion.test_type", 2);
+        plan.end();
+        plan.emptyHashTree();
     }
     
+    private static void writeApiAssertions(JmxPlanWriter plan, ApiTestScenario scenario) throws IOException {
+        plan.startElement("JSONPathAssertion", "JSONPathAssertionGui", "JSON Path Assertion");
+        plan.stringProp("JSON_PATH", scenario.jsonPath);
+        plan.stringProp("EXPECTED_VALUE", scenario.expectedValue);
+        plan.end();
+        plan.emptyHashTree();
+    }
+    
+    private static void writeApiListeners(JmxPlanWriter plan) throws IOException {
+        writeResultCollector(plan, "ViewResultsFullVisualizer", "API Results Tree", "api_results.jtl");
+    }
+    
+    private static void writeListeners(JmxPlanWriter plan) throws IOException {
+        // Aggregate Report
+        writeResultCollector(plan, "StatVisualizer", "Aggregate Report", "results.jtl");
+        
+        // Response Times Over Time
+        writeCorrectedResultCollector(plan, "kg.apc.jmeter.vizualizers.ResponseTimesOverTimeGui",
+            "Response Times Over Time", "response_times.jtl");
+        
+        // Transactions per Second
+        writeCorrectedResultCollector(plan, "kg.apc.jmeter.vizualizers.TransactionsPerSecondGui",
+            "Transactions per Second", "tps.jtl");
+    }
+    
+    private static void writeResultCollector(JmxPlanWriter plan, String guiClass, String name, String filename) throws IOException {
+        plan.startElement("ResultCollector", guiClass, name);
+        plan.boolProp("ResultCollector.error_logging", false);
+        plan.start("objProp");
+        plan.text("name", "saveConfig");
+        plan.start("value", "class", "SampleSaveConfiguration");
+        for (String[] field : SAVE_CONFIG) {
+            plan.text(field[0], field[1]);
+        }
+        plan.end();
+        plan.end();
+        plan.stringProp("filename", filename);
+        plan.end();
+        plan.emptyHashTree();
+    }
+    
+    // Sample fields written to the results file, in the order JMeter saves them
+    private static final String[][] SAVE_CONFIG = {
+        {"time", "true"}, {"latency", "true"}, {"timestamp", "true"}, {"success", "true"},
+        {"label", "true"}, {"code", "true"}, {"message", "true"}, {"threadName", "true"},
+        {"dataType", "true"}, {"encoding", "false"}, {"assertions", "true"}, {"subresults", "true"},
+        {"responseData", "false"}, {"samplerData", "false"}, {"xml", "false"}, {"fieldNames", "true"},
+        {"responseHeaders", "false"}, {"requestHeaders", "false"}, {"responseDataOnError", "false"},
+        {"saveAssertionResultsFailureMessage", "true"}, {"assertionsResultsToSave", "0"},
+        {"bytes", "true"}, {"sentBytes", "true"}, {"url", "true"}, {"threadCounts", "true"},
+        {"idleTime", "true"}, {"connectTime", "true"}
+    };
+    
+    private static void writeCorrectedResultCollector(JmxPlanWriter plan, String guiClass, String name, String filename) throws IOException {
+        plan.startElement("kg.apc.jmeter.vizualizers.CorrectedResultCollector", guiClass, name);
+        plan.boolProp("ResultCollector.error_logging", false);
+        plan.stringProp("filename", filename);
+        plan.end();
+        plan.emptyHashTree();
+    }
+    
+    private static void createDirectories() throws IOException {
+        Files.createDirectories(Paths.get(JMETER_PLANS_DIR));
+        Files.createDirectories(Paths.get(PERFORMANCE_DATA_DIR));
+    }
+    
+    // Test scenario creation methods
+    
     private static List<ApiTestScenario> createApiTestScenarios() {
-        return java.util.Arrays.asList(
+        return Arrays.asList(
             new ApiTestScenario("Get Promotion", "/promotions", "GET", "", "$.status", "success"),
             new ApiTestScenario("Apply Discount", "/promotions/apply", "POST", 
                 "{\"sku\":\"ZARA001ES\",\"customerId\":\"12345\"}", "$.discount", "20"),
@@ -651,32 +809,18 @@ public class JMeterTestPlanGenerator {
         );
     }
     
-    private static List<ConcurrentUserScenario> createConcurrentUserScenarios() {
-        return java.util.Arrays.asList(
-            new ConcurrentUserScenario("Casual Browser", 100, 30, 5, java.util.Arrays.asList(
-                new UserAction("Home Page", "/", "GET", 2000),
-                new UserAction("Browse Products", "/products", "GET", 3000),
-                new UserAction("View Product", "/products/ZARA001ES", "GET", 4000)
-            )),
-            new ConcurrentUserScenario("Active Shopper", 200, 60, 10, java.util.Arrays.asList(
-                new UserAction("Home Page", "/", "GET", 1000),
-                new UserAction("Search Products", "/search?q=dress", "GET", 2000),
-                new UserAction("View Product", "/products/ZARA001ES", "GET", 3000),
-                new UserAction("Add to Cart", "/cart/add", "POST", 1000),
-                new UserAction("View Cart", "/cart", "GET", 2000)
-            ))
-        );
-    }
+    // Data-driven scenarios: one sampler per plan, parameterized with the variables of the
+    // promotion data set, so plan size does not depend on the amount of test data
     
-    private static TestScenario createTestScenarioFromData(Map<String, String> data) {
-        Map<String, String> params = new java.util.HashMap<>();
-        params.put("sku", data.get("sku"));
-        params.put("brand", data.get("brand"));
-        params.put("country", data.get("country"));
-        params.put("customerType", data.get("customer_type"));
+    private static TestScenario createPromotionalTestScenario() {
+        Map<String, String> params = new java.util.LinkedHashMap<>();
+        params.put("sku", "${sku}");
+        params.put("brand", "${brand}");
+        params.put("country", "${country}");
+        params.put("customerType", "${customer_type}");
         
         return new TestScenario(
-            "Promotional Test - " + data.get("sku"),
+            "Promotional Test",
             "/promotions/calculate",
             "POST",
             params,
@@ -685,15 +829,15 @@ public class JMeterTestPlanGenerator {
         );
     }
     
-    private static TestScenario createStressTestScenarioFromData(Map<String, String> data) {
-        Map<String, String> params = new java.util.HashMap<>();
-        params.put("sku", data.get("sku"));
-        params.put("brand", data.get("brand"));
-        params.put("country", data.get("country"));
-        params.put("customerType", data.get("customer_type"));
+    private static TestScenario createStressTestScenario() {
+        Map<String, String> params = new java.util.LinkedHashMap<>();
+        params.put("sku", "${sku}");
+        params.put("brand", "${brand}");
+        params.put("country", "${country}");
+        params.put("customerType", "${customer_type}");
         
         return new TestScenario(
-            "Stress Test - " + data.get("sku"),
+            "Stress Test",
             "/promotions/calculate",
             "POST",
             params,
@@ -702,13 +846,13 @@ public class JMeterTestPlanGenerator {
         );
     }
     
-    private static TestScenario createEnduranceTestScenarioFromData(Map<String, String> data) {
-        Map<String, String> params = new java.util.HashMap<>();
-        params.put("sku", data.get("sku"));
-        params.put("brand", data.get("brand"));
+    private static TestScenario createEnduranceTestScenario() {
+        Map<String, String> params = new java.util.LinkedHashMap<>();
+        params.put("sku", "${sku}");
+        params.put("brand", "${brand}");
         
         return new TestScenario(
-            "Endurance Test - " + data.get("sku"),
+            "Endurance Test",
             "/promotions/calculate",
             "POST",
             params,
@@ -717,12 +861,12 @@ public class JMeterTestPlanGenerator {
         );
     }
     
-    private static TestScenario createSpikeTestScenarioFromData(Map<String, String> data) {
-        Map<String, String> params = new java.util.HashMap<>();
-        params.put("sku", data.get("sku"));
+    private static TestScenario createSpikeTestScenario() {
+        Map<String, String> params = new java.util.LinkedHashMap<>();
+        params.put("sku", "${sku}");
         
         return new TestScenario(
-            "Spike Test - " + data.get("sku"),
+            "Spike Test",
             "/promotions/calculate",
             "POST",
             params,
@@ -731,28 +875,77 @@ public class JMeterTestPlanGenerator {
         );
     }
     
+    /**
+     * Writes the full performance test data as the CSV file the plans' CSV Data Set Configs read
+     */
     private static void generatePerformanceTestData() throws IOException {
-        // Generate CSV files for JMeter to use
         List<Map<String, String>> performanceData = TestDataManager.getPerformanceTestData();
         
-        StringBuilder csv = new StringBuilder();
-        csv.append("sku,brand,country,language,customer_type,promotion_code\n");
+        Path dataFile = Paths.get(PERFORMANCE_DATA_DIR, PERFORMANCE_DATA_FILE);
+        try (BufferedWriter csv = Files.newBufferedWriter(dataFile, StandardCharsets.UTF_8)) {
+            csv.write(PERFORMANCE_DATA_COLUMNS);
+            csv.write('\n');
+            
+            for (Map<String, String> record : performanceData) {
+                csv.write(csvValue(record.get("sku")) + ",");
+                csv.write(csvValue(record.get("brand")) + ",");
+                csv.write(csvValue(record.get("country")) + ",");
+                csv.write(csvValue(record.get("language")) + ",");
+                csv.write(csvValue(record.get("customer_type")) + ",");
+                csv.write(csvValue("PERF" + record.get("sku")) + "\n");
+            }
+        }
         
-        for (Map<String, String> record : performanceData) {
-            csv.append(record.get("sku")).append(",");
-            csv.append(record.get("brand")).append(",");
-            csv.append(record.get("country")).append(",");
-            csv.append(record.get("language")).append(",");
-            csv.append(record.get("customer_type")).append(",");
-            csv.append("PERF").append(record.get("sku")).append("\n");
+        logger.info("Generated performance test data file with {} records: {}", performanceData.size(), dataFile.toAbsolutePath());
+    }
+    
+    /**
+     * Quotes a value for the CSV Data Set Config when it contains a delimiter, quote or line break
+     */
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
         }
+        return value;
+    }
+    
+    /**
+     * Writes the content of a test plan, see {@link #writeTestPlan}
+     */
+    private interface PlanContent {
+        void write(JmxPlanWriter plan) throws IOException;
+    }
+    
+    /**
+     * Generation of one plan or data file, independent of all others
+     */
+    private interface FileGeneration {
+        void generate() throws IOException;
+    }
+    
+    /**
+     * How the threads of a plan share the rows of the promotion data file. The default of each
+     * thread group can be overridden for all of them with performance.data.share.mode.
+     */
+    enum ShareMode {
+        ALL("shareMode.all"),       // one pass over the file shared by all threads of the plan
+        GROUP("shareMode.group"),   // one pass per thread group
+        THREAD("shareMode.thread"); // one pass per thread
         
-        File dataFile = new File(PERFORMANCE_DATA_DIR, "jmeter_test_data.csv");
-        try (FileWriter writer = new FileWriter(dataFile)) {
-            writer.write(csv.toString());
+        final String jmeterValue;
+        
+        ShareMode(String jmeterValue) {
+            this.jmeterValue = jmeterValue;
         }
         
-        logger.info("Generated performance test data file: {}", dataFile.getAbsolutePath());
+        static ShareMode configured(ShareMode defaultMode) {
+            String configured = ConfigManager.getProperty("performance.data.share.mode");
+            return configured == null || configured.trim().isEmpty()
+                ? defaultMode : valueOf(configured.trim().toUpperCase(java.util.Locale.ROOT));
+        }
     }
     
     // Data classes for test scenarios
@@ -795,36 +988,6 @@ public class JMeterTestPlanGenerator {
         }
     }
     
-    private static class ConcurrentUserScenario {
-        final String name;
-        final int users;
-        final int rampUp;
-        final int loops;
-        final List<UserAction> actions;
-        
-        ConcurrentUserScenario(String name, int users, int rampUp, int loops, List<UserAction> actions) {
-            this.name = name;
-            this.users = users;
-            this.rampUp = rampUp;
-            this.loops = loops;
-            this.actions = actions;
-        }
-    }
-    
-    private static class UserAction {
-        final String name;
-        final String path;
-        final String method;
-        final int thinkTime;
-        
-        UserAction(String name, String path, String method, int thinkTime) {
-            this.name = name;
-            this.path = path;
-            this.method = method;
-            this.thinkTime = thinkTime;
-        }
-    }
-    
     /**
      * Main method for standalone execution
      */
@@ -0,0 +1,196 @@
+package com.inditex.test.performance;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * Streams a JMeter .jmx document to a file as it is generated, so plans with thousands of
+ * data-driven samplers never exist as one string in memory. Names and values go through
+ * the XML writer and are escaped; characters XML cannot represent at all are dropped.
+ * The output is indented like plans saved by JMeter itself.
+ */
+public class JmxPlanWriter implements Closeable {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final String INDENT = "  ";
+    private static final Pattern INVALID_XML_CHARS =
+            Pattern.compile("[^\\u0009\\u000A\\u000D\\u0020-\\uD7FF\\uE000-\\uFFFD\\x{10000}-\\x{10FFFF}]");
+
+    private final Writer output;
+    private final XMLStreamWriter xml;
+    private int depth;
+    private boolean childless;
+
+    /**
+     * Creates or truncates the file and opens the jmeterTestPlan root with its top-level hashTree
+     */
+    public JmxPlanWriter(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        output = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1), WRITE_BUFFER_SIZE);
+        try {
+            xml = XMLOutputFactory.newInstance().createXMLStreamWriter(output);
+            xml.writeStartDocument("UTF-8", "1.0");
+        } catch (XMLStreamException e) {
+            output.close();
+            throw new IOException("Failed to start test plan " + file, e);
+        }
+        start("jmeterTestPlan", "version", "1.2", "properties", "5.0", "jmeter", "5.6.3");
+        startHashTree();
+    }
+
+    /**
+     * Opens an element with the given attribute name/value pairs; close it with {@link #end()}
+     */
+    public JmxPlanWriter start(String element, String... attributes) throws IOException {
+        try {
+            newLine();
+            xml.writeStartElement(element);
+            writeAttributes(attributes);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write " + element, e);
+        }
+        depth++;
+        childless = true;
+        return this;
+    }
+
+    /**
+     * Closes the innermost open element
+     */
+    public JmxPlanWriter end() throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("No open element to end");
+        }
+        depth--;
+        try {
+            if (!childless) {
+                newLine();
+            }
+            xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to end element", e);
+        }
+        childless = false;
+        return this;
+    }
+
+    /**
+     * Writes an element without content
+     */
+    public JmxPlanWriter empty(String element, String... attributes) throws IOException {
+        try {
+            newLine();
+            xml.writeEmptyElement(element);
+            writeAttributes(attributes);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write " + element, e);
+        }
+        childless = false;
+        return this;
+    }
+
+    /**
+     * Writes an element holding only text, e.g. {@code <name>throughput</name>}
+     */
+    public JmxPlanWriter text(String element, Object value, String... attributes) throws IOException {
+        try {
+            newLine();
+            xml.writeStartElement(element);
+            writeAttributes(attributes);
+            xml.writeCharacters(clean(value));
+            xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write " + element, e);
+        }
+        childless = false;
+        return this;
+    }
+
+    public JmxPlanWriter startHashTree() throws IOException {
+        return start("hashTree");
+    }
+
+    /**
+     * The hashTree of an element without children
+     */
+    public JmxPlanWriter emptyHashTree() throws IOException {
+        return empty("hashTree");
+    }
+
+    public JmxPlanWriter stringProp(String name, Object value) throws IOException {
+        return text("stringProp", value, "name", name);
+    }
+
+    public JmxPlanWriter boolProp(String name, boolean value) throws IOException {
+        return text("boolProp", value, "name", name);
+    }
+
+    public JmxPlanWriter intProp(String name, int value) throws IOException {
+        return text("intProp", value, "name", name);
+    }
+
+    public JmxPlanWriter longProp(String name, long value) throws IOException {
+        return text("longProp", value, "name", name);
+    }
+
+    /**
+     * Opens a test element the way JMeter saves them: element name, GUI class, test class and name
+     */
+    public JmxPlanWriter startElement(String testClass, String guiClass, String testName) throws IOException {
+        return start(testClass, "guiclass", guiClass, "testclass", testClass, "testname", testName);
+    }
+
+    /**
+     * Closes every open element, including the document root, and the file
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            while (depth > 0) {
+                end();
+            }
+            xml.writeEndDocument();
+            output.write('\n');
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to complete test plan", e);
+        } finally {
+            output.close();
+        }
+    }
+
+    private void writeAttributes(String[] attributes) throws XMLStreamException {
+        if (attributes.length % 2 != 0) {
+            throw new IllegalArgumentException("Attributes must be name/value pairs");
+        }
+        for (int i = 0; i < attributes.length; i += 2) {
+            xml.writeAttribute(attributes[i], clean(attributes[i + 1]));
+        }
+    }
+
+    private void newLine() throws XMLStreamException {
+        StringBuilder indentation = new StringBuilder("\n");
+        for (int i = 0; i < depth; i++) {
+            indentation.append(INDENT);
+        }
+        xml.writeCharacters(indentation.toString());
+    }
+
+    private static String clean(Object value) {
+        if (value == null) {
+            return "";
+        }
+        return INVALID_XML_CHARS.matcher(value.toString()).replaceAll("");
+    }
+}
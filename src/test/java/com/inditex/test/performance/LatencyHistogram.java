@@ -0,0 +1,344 @@
+package com.inditex.test.performance;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed-memory, high-dynamic-range histogram of response times.
+ * Values are grouped into power-of-two buckets, each split into linear
+ * sub-buckets sized to keep the requested number of significant digits, so
+ * recording is O(1) with no allocation and any percentile (p99.9, p99.99...)
+ * can be read back with bounded relative error. Histograms with the same
+ * layout merge by adding their counters, which makes them safe to combine
+ * across chunks, files and runs.
+ */
+public class LatencyHistogram {
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = 60L * 60 * 1000; // 1 hour in ms
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 3;
+
+    private final long highestTrackableValue;
+    private final int significantDigits;
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final long[] counts;
+
+    private long totalCount;
+    private long totalValue;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+
+    public LatencyHistogram() {
+        this(DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    public LatencyHistogram(long highestTrackableValue, int significantDigits) {
+        if (significantDigits < 1 || significantDigits > 5) {
+            throw new IllegalArgumentException("Significant digits must be between 1 and 5");
+        }
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException("Highest trackable value must be at least 2");
+        }
+        // The bucket sizing below doubles past it, which must not overflow
+        if (highestTrackableValue > Long.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Highest trackable value must be at most " + Long.MAX_VALUE / 2);
+        }
+
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+
+        long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = (int) Math.ceil(Math.log(largestValueWithSingleUnitResolution) / Math.log(2));
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        int subBucketCount = 1 << subBucketCountMagnitude;
+        this.subBucketHalfCount = subBucketCount / 2;
+        this.subBucketMask = subBucketCount - 1;
+
+        int bucketCount = 1;
+        long smallestUntrackableValue = subBucketCount;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        this.counts = new long[(bucketCount + 1) * subBucketHalfCount];
+    }
+
+    /**
+     * Records a single value. Negative values count as zero and values above the
+     * trackable range count as the highest trackable value.
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    public void record(long value, long count) {
+        long clamped = Math.min(Math.max(value, 0), highestTrackableValue);
+        counts[countsIndexFor(clamped)] += count;
+        totalCount += count;
+        totalValue += clamped * count;
+        if (clamped < minValue) {
+            minValue = clamped;
+        }
+        if (clamped > maxValue) {
+            maxValue = clamped;
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMinValue() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0.0 : (double) totalValue / totalCount;
+    }
+
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    /**
+     * Returns the value at the given percentile (0-100) using the nearest-rank method
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        if (percentile == 0) {
+            return getMinValue();
+        }
+
+        long countAtPercentile = Math.max(1, (long) Math.ceil((percentile / 100.0) * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= countAtPercentile) {
+                long value = highestEquivalentValue(valueFromIndex(i));
+                return Math.max(Math.min(value, maxValue), getMinValue());
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Adds all counts of another histogram into this one
+     */
+    public void merge(LatencyHistogram other) {
+        if (other.totalCount == 0) {
+            return;
+        }
+
+        if (hasSameLayout(other)) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            totalCount += other.totalCount;
+            totalValue += other.totalValue;
+            minValue = Math.min(minValue, other.minValue);
+            maxValue = Math.max(maxValue, other.maxValue);
+        } else {
+            long recordedValue = 0;
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] > 0) {
+                    long value = other.valueFromIndex(i);
+                    record(value, other.counts[i]);
+                    recordedValue += Math.min(value, highestTrackableValue) * other.counts[i];
+                }
+            }
+            // Keep the exact sum and extremes rather than the bucket approximations
+            totalValue += other.totalValue - recordedValue;
+            minValue = Math.min(minValue, other.minValue);
+            maxValue = Math.max(maxValue, Math.min(other.maxValue, highestTrackableValue));
+        }
+    }
+
+    /**
+     * Removes the counts of an earlier snapshot of this histogram, leaving only the values
+     * recorded since. Min and max fall back to bucket boundaries as the exact values are lost.
+     */
+    public void subtract(LatencyHistogram earlier) {
+        if (!hasSameLayout(earlier)) {
+            throw new IllegalArgumentException("Cannot subtract histograms with different layouts");
+        }
+
+        minValue = Long.MAX_VALUE;
+        maxValue = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] -= earlier.counts[i];
+            if (counts[i] < 0) {
+                throw new IllegalArgumentException("Subtracted histogram is not an earlier snapshot of this one");
+            }
+            if (counts[i] > 0) {
+                long value = valueFromIndex(i);
+                minValue = Math.min(minValue, value);
+                maxValue = Math.max(maxValue, Math.min(highestEquivalentValue(value), highestTrackableValue));
+            }
+        }
+        totalCount -= earlier.totalCount;
+        totalValue -= earlier.totalValue;
+    }
+
+    /**
+     * Records a value taken by a generator that sends one request per expected interval and
+     * waits for each response before the next. A response slower than the interval held back
+     * the requests that should have been sent meanwhile, so those are back-filled with the
+     * latencies they would have seen: value - interval, value - 2 * interval... down to the
+     * interval. A non-positive interval records the value alone.
+     */
+    public void recordCorrected(long value, long expectedInterval) {
+        recordCorrected(value, 1, expectedInterval);
+    }
+
+    public void recordCorrected(long value, long count, long expectedInterval) {
+        record(value, count);
+        if (expectedInterval <= 0) {
+            return;
+        }
+        for (long missing = value - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+            record(missing, count);
+        }
+    }
+
+    /**
+     * Copy of this histogram corrected for coordinated omission after the fact, as if every
+     * value had been recorded with {@link #recordCorrected(long, long)}. Values are taken at
+     * the top of their buckets, so the back-filled samples err on the slow side.
+     */
+    public LatencyHistogram copyCorrected(long expectedInterval) {
+        LatencyHistogram corrected = new LatencyHistogram(highestTrackableValue, significantDigits);
+        if (expectedInterval <= 0) {
+            corrected.merge(this);
+            return corrected;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                long value = Math.max(Math.min(highestEquivalentValue(valueFromIndex(i)), maxValue), minValue);
+                corrected.recordCorrected(value, counts[i], expectedInterval);
+            }
+        }
+        return corrected;
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram(highestTrackableValue, significantDigits);
+        copy.merge(this);
+        return copy;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalValue = 0;
+        minValue = Long.MAX_VALUE;
+        maxValue = 0;
+    }
+
+    /**
+     * Compact binary form for sending the histogram to another process: the layout, the exact
+     * sum and extremes, then the non-zero counters as (index gap, count) varint pairs
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        VarInts.writeUnsigned(output, highestTrackableValue);
+        VarInts.writeUnsigned(output, significantDigits);
+        VarInts.writeUnsigned(output, totalValue);
+        VarInts.writeUnsigned(output, getMinValue());
+        VarInts.writeUnsigned(output, maxValue);
+        int previousIndex = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                VarInts.writeUnsigned(output, i - previousIndex);
+                VarInts.writeUnsigned(output, counts[i]);
+                previousIndex = i;
+            }
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Rebuilds a histogram from its {@link #encode()} form
+     */
+    public static LatencyHistogram decode(byte[] encoded) {
+        try {
+            ByteBuffer input = ByteBuffer.wrap(encoded);
+            LatencyHistogram histogram = new LatencyHistogram(VarInts.readUnsigned(input), (int) VarInts.readUnsigned(input));
+            long totalValue = VarInts.readUnsigned(input);
+            long minValue = VarInts.readUnsigned(input);
+            long maxValue = VarInts.readUnsigned(input);
+
+            int index = -1;
+            while (input.hasRemaining()) {
+                index += (int) VarInts.readUnsigned(input);
+                if (index < 0 || index >= histogram.counts.length) {
+                    throw new IllegalArgumentException("Encoded histogram counter " + index + " is outside its layout");
+                }
+                long count = VarInts.readUnsigned(input);
+                histogram.counts[index] += count;
+                histogram.totalCount += count;
+            }
+            histogram.totalValue = totalValue;
+            histogram.minValue = histogram.totalCount > 0 ? minValue : Long.MAX_VALUE;
+            histogram.maxValue = maxValue;
+            return histogram;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Encoded histogram is truncated", e);
+        }
+    }
+
+    boolean hasSameLayout(LatencyHistogram other) {
+        return highestTrackableValue == other.highestTrackableValue
+                && significantDigits == other.significantDigits;
+    }
+
+    int countsArrayLength() {
+        return counts.length;
+    }
+
+    long countAtIndex(int index) {
+        return counts[index];
+    }
+
+    int countsIndexFor(long value) {
+        int bucketIndex = 64 - Long.numberOfLeadingZeros(value | subBucketMask) - (subBucketHalfCountMagnitude + 1);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    long valueFromIndex(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return ((long) subBucketIndex) << bucketIndex;
+    }
+
+    long highestEquivalentValue(long value) {
+        int bucketIndex = 64 - Long.numberOfLeadingZeros(value | subBucketMask) - (subBucketHalfCountMagnitude + 1);
+        long lowestEquivalentValue = (value >>> bucketIndex) << bucketIndex;
+        return lowestEquivalentValue + (1L << bucketIndex) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram{count=%d, min=%d, max=%d, p50=%d, p99=%d}",
+                totalCount, getMinValue(), maxValue, getValueAtPercentile(50), getValueAtPercentile(99));
+    }
+}
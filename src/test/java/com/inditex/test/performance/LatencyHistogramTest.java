@@ -0,0 +1,49 @@
+package com.inditex.test.performance;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+
+public class LatencyHistogramTest {
+
+    @Test(groups = "unit")
+    public void decodesWhatItEncodes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5);
+        histogram.record(120, 3);
+        histogram.record(2500);
+
+        LatencyHistogram decoded = LatencyHistogram.decode(histogram.encode());
+
+        Assert.assertEquals(decoded.getTotalCount(), 5);
+        Assert.assertEquals(decoded.getMinValue(), 5);
+        Assert.assertEquals(decoded.getMaxValue(), 2500);
+        Assert.assertEquals(decoded.getValueAtPercentile(50), histogram.getValueAtPercentile(50));
+    }
+
+    @Test(groups = "unit")
+    public void acceptsTheLargestTrackableValue() {
+        LatencyHistogram histogram = new LatencyHistogram(Long.MAX_VALUE / 2, 3);
+        histogram.record(Long.MAX_VALUE / 4);
+
+        Assert.assertEquals(histogram.getTotalCount(), 1);
+    }
+
+    @Test(groups = "unit", expectedExceptions = IllegalArgumentException.class)
+    public void rejectsTrackableValuesTheBucketsCannotDouble() {
+        new LatencyHistogram(1L << 62, 3);
+    }
+
+    @Test(groups = "unit", expectedExceptions = IllegalArgumentException.class)
+    public void rejectsEncodedHeaderOutOfRange() {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        VarInts.writeUnsigned(encoded, Long.MAX_VALUE);
+        VarInts.writeUnsigned(encoded, 3);
+        VarInts.writeUnsigned(encoded, 0);
+        VarInts.writeUnsigned(encoded, 0);
+        VarInts.writeUnsigned(encoded, 0);
+
+        LatencyHistogram.decode(encoded.toByteArray());
+    }
+}
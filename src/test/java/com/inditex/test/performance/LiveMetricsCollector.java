@@ -0,0 +1,210 @@
+package com.inditex.test.performance;
+
+import org.apache.jmeter.engine.event.LoopIterationEvent;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestIterationListener;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process JMeter listener that aggregates samples as they complete.
+ * All JMeter threads share one instance (NoThreadClone) and record into striped
+ * adders and atomic histogram counters, so sampling threads never block on each
+ * other. {@link #snapshot()} can be polled at any time during the run and the
+ * final metrics are available without re-reading the JTL file.
+ */
+public class LiveMetricsCollector extends AbstractTestElement
+        implements SampleListener, TestIterationListener, NoThreadClone {
+    private static final long serialVersionUID = 1L;
+
+    private final transient long startedAt = System.currentTimeMillis();
+    private final transient long timeSeriesWindowMillis;
+    private final transient LiveAggregate overall = new LiveAggregate(new ConcurrentLatencyHistogram());
+    private final transient Map<String, LiveAggregate> samplers = new ConcurrentHashMap<>();
+    private final transient Map<String, LongAdder> responseCodes = new ConcurrentHashMap<>();
+    private final transient Map<Long, LiveWindow> windows = new ConcurrentHashMap<>();
+
+    public LiveMetricsCollector() {
+        this(MetricsTimeSeries.DEFAULT_WINDOW_MILLIS);
+    }
+
+    public LiveMetricsCollector(long timeSeriesWindowMillis) {
+        this.timeSeriesWindowMillis = timeSeriesWindowMillis;
+        setName("Live Metrics Collector");
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+        SampleResult result = event.getResult();
+        record(result.getTimeStamp(), responseTimeOf(result), result.isSuccessful(), result.getResponseCode(),
+                result.getBytesAsLong(), result.getSampleLabel());
+    }
+
+    /**
+     * Elapsed time of the sample, or for paced (open model) samples the time since their
+     * intended start so that waiting for a free thread counts as latency. The intended start
+     * stays in the variables for the other listeners and is cleared when the thread starts
+     * its next iteration.
+     */
+    static long responseTimeOf(SampleResult result) {
+        JMeterVariables variables = JMeterContextService.getContext().getVariables();
+        Object intendedStart = variables != null ? variables.getObject(ArrivalRateTimer.INTENDED_START_VARIABLE) : null;
+        if (intendedStart instanceof Long && result.getEndTime() > 0) {
+            return Math.max(result.getTime(), result.getEndTime() - (Long) intendedStart);
+        }
+        return result.getTime();
+    }
+
+    /**
+     * Called on the iterating thread, so an unpaced sample of the new iteration never picks
+     * up the intended start of the previous one
+     */
+    @Override
+    public void testIterationStart(LoopIterationEvent event) {
+        JMeterVariables variables = JMeterContextService.getContext().getVariables();
+        if (variables != null) {
+            variables.remove(ArrivalRateTimer.INTENDED_START_VARIABLE);
+        }
+    }
+
+    @Override
+    public void sampleStarted(SampleEvent event) {
+        // Only completed samples are aggregated
+    }
+
+    @Override
+    public void sampleStopped(SampleEvent event) {
+        // Only completed samples are aggregated
+    }
+
+    /**
+     * Records one completed sample; safe to call from any number of threads
+     */
+    public void record(long timestamp, long responseTime, boolean success, String responseCode, long bytes, String label) {
+        overall.record(timestamp, responseTime, success, bytes);
+
+        if (label != null) {
+            samplers.computeIfAbsent(label, key -> new LiveAggregate(
+                    new ConcurrentLatencyHistogram(LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE,
+                            SamplerStatistics.HISTOGRAM_SIGNIFICANT_DIGITS)))
+                    .record(timestamp, responseTime, success, bytes);
+        }
+
+        if (responseCode != null && !responseCode.isEmpty()) {
+            responseCodes.computeIfAbsent(responseCode, key -> new LongAdder()).increment();
+        }
+
+        windows.computeIfAbsent(timestamp / timeSeriesWindowMillis, key -> new LiveWindow())
+                .record(responseTime, success);
+    }
+
+    public long getTotalSamples() {
+        return overall.count.sum();
+    }
+
+    /**
+     * Metrics of everything recorded so far. Samples completing while the snapshot is taken
+     * may be partially reflected (e.g. counted but not yet in the histogram).
+     */
+    public MetricsSnapshot snapshot() {
+        return snapshot(true);
+    }
+
+    /**
+     * Same as {@link #snapshot()}, optionally leaving out the time series, which frequent
+     * pollers looking at rolling windows do not need and which grows with the run duration
+     */
+    public MetricsSnapshot snapshot(boolean includeTimeSeries) {
+        long capturedAt = System.currentTimeMillis();
+
+        Map<String, Long> codes = new HashMap<>();
+        responseCodes.forEach((code, count) -> codes.put(code, count.sum()));
+
+        Map<String, SamplerStatistics> statistics = new TreeMap<>();
+        samplers.forEach((label, aggregate) -> statistics.put(label, aggregate.toStatistics(label)));
+
+        MetricsTimeSeries timeSeries = null;
+        if (includeTimeSeries) {
+            MetricsTimeSeries series = new MetricsTimeSeries(timeSeriesWindowMillis);
+            windows.forEach((window, counters) -> counters.addTo(series, window * timeSeriesWindowMillis));
+            timeSeries = series;
+        }
+
+        long count = overall.count.sum();
+        return new MetricsSnapshot(startedAt, capturedAt, count, overall.errors.sum(), overall.bytes.sum(),
+                overall.totalResponseTime.sum(), count > 0 ? overall.minResponseTime.get() : 0,
+                overall.maxResponseTime.get(), count > 0 ? overall.firstTimestamp.get() : 0,
+                overall.lastTimestamp.get(), overall.responseTimes.snapshot(), codes, statistics, timeSeries);
+    }
+
+    private static class LiveAggregate {
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder totalResponseTime = new LongAdder();
+        final LongAccumulator minResponseTime = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        final LongAccumulator maxResponseTime = new LongAccumulator(Math::max, 0);
+        final LongAccumulator firstTimestamp = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        final LongAccumulator lastTimestamp = new LongAccumulator(Math::max, 0);
+        final ConcurrentLatencyHistogram responseTimes;
+
+        LiveAggregate(ConcurrentLatencyHistogram responseTimes) {
+            this.responseTimes = responseTimes;
+        }
+
+        void record(long timestamp, long responseTime, boolean success, long sampleBytes) {
+            count.increment();
+            if (!success) {
+                errors.increment();
+            }
+            bytes.add(sampleBytes);
+            totalResponseTime.add(responseTime);
+            minResponseTime.accumulate(responseTime);
+            maxResponseTime.accumulate(responseTime);
+            firstTimestamp.accumulate(timestamp);
+            lastTimestamp.accumulate(timestamp);
+            responseTimes.record(responseTime);
+        }
+
+        SamplerStatistics toStatistics(String label) {
+            long samples = count.sum();
+            return new SamplerStatistics(label, samples, errors.sum(), totalResponseTime.sum(),
+                    samples > 0 ? minResponseTime.get() : Double.MAX_VALUE, maxResponseTime.get(),
+                    firstTimestamp.get(), lastTimestamp.get(), responseTimes.snapshot());
+        }
+    }
+
+    private static class LiveWindow {
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final AtomicIntegerArray latencyCounts = new AtomicIntegerArray(MetricsTimeSeries.LATENCY_SLOTS);
+
+        void record(long responseTime, boolean success) {
+            requests.increment();
+            if (!success) {
+                errors.increment();
+            }
+            latencyCounts.incrementAndGet(MetricsTimeSeries.latencySlot(responseTime));
+        }
+
+        void addTo(MetricsTimeSeries timeSeries, long windowStart) {
+            int[] counts = new int[latencyCounts.length()];
+            for (int slot = 0; slot < counts.length; slot++) {
+                counts[slot] = latencyCounts.get(slot);
+            }
+            timeSeries.addWindow(windowStart, requests.sum(), errors.sum(), counts);
+        }
+    }
+}
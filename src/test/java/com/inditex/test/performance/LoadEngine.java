@@ -0,0 +1,32 @@
+package com.inditex.test.performance;
+
+/**
+ * Runs the scenarios of a {@link LoadTestConfig} and reports them as a {@link PerformanceTestResult}.
+ */
+public interface LoadEngine extends AutoCloseable {
+
+    default PerformanceTestResult runLoadTest(LoadTestConfig config) {
+        return runLoadTest(config, null);
+    }
+
+    /**
+     * Runs a load test and aborts it early when the given thresholds are breached for longer
+     * than their sustained breach time. Without thresholds the test always runs to completion.
+     */
+    PerformanceTestResult runLoadTest(LoadTestConfig config, StressTestConfig.PerformanceThresholds thresholds);
+
+    /**
+     * Metrics of the current (or last) run so far; safe to poll from another thread while a test runs.
+     * Returns null before the first run.
+     */
+    MetricsSnapshot getLiveMetrics();
+
+    void shutdown();
+
+    /**
+     * Releases the resources kept between runs, such as pooled connections
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,25 @@
+package com.inditex.test.performance;
+
+/**
+ * Creates the load engine a test is configured to run with.
+ */
+public final class LoadEngineFactory {
+
+    private LoadEngineFactory() {
+    }
+
+    public static LoadEngine create(LoadTestConfig config) {
+        return create(config.getEngineType());
+    }
+
+    public static LoadEngine create(LoadEngineType type) {
+        switch (type) {
+            case HTTP_CLIENT:
+                return new HttpClientLoadEngine();
+            case JMETER:
+                return new JMeterTestEngine();
+            default:
+                throw new IllegalArgumentException("Unsupported load engine: " + type);
+        }
+    }
+}
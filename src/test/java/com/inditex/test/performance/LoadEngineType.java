@@ -0,0 +1,18 @@
+package com.inditex.test.performance;
+
+/**
+ * Load generators a {@link LoadTestConfig} can be run with.
+ */
+public enum LoadEngineType {
+    /**
+     * In-process JMeter engine; supports the full JMeter test element model
+     */
+    JMETER,
+
+    /**
+     * Native {@code java.net.http.HttpClient} generator running each virtual user on a
+     * virtual thread; lightweight enough for tens of thousands of users per JVM, but only
+     * sends the configured HTTP requests
+     */
+    HTTP_CLIENT
+}
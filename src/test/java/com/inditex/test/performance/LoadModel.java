@@ -0,0 +1,18 @@
+package com.inditex.test.performance;
+
+/**
+ * How load is generated during a test.
+ */
+public enum LoadModel {
+    /**
+     * A fixed number of threads loop over the samplers. The request rate falls when the
+     * server slows down, so slow responses hide the requests that were never sent.
+     */
+    CLOSED,
+
+    /**
+     * Requests are started at a constant target rate regardless of how fast the server
+     * responds, up to a maximum concurrency, and latency counts from the intended start.
+     */
+    OPEN
+}
@@ -15,6 +15,16 @@ public class LoadTestConfig {
     private int loopCount;
     private List<HTTPRequestConfig> httpRequests;
     private Map<String, String> userVariables;
+    private LoadModel loadModel = LoadModel.CLOSED;
+    private double targetRps; // open model only
+    private int duration; // in seconds, open model or closed model looping forever on the HttpClient engine
+    private int maxConcurrency = 200; // open model only, threads available to keep up with the rate
+    private LoadEngineType engineType = LoadEngineType.JMETER;
+    private boolean compareWithBaseline = true; // off for the shares of a distributed test, compared once merged
+    private WorkloadMix workloadMix; // HttpClient engine only, in place of the HTTP requests
+    private String workloadBaseUrl;
+    private AccessLogReplay accessLogReplay; // in place of the HTTP requests, paced by the log
+    private long expectedInterval; // ms between requests of a closed model user, 0 for the configured default
 
     public LoadTestConfig() {
         this.httpRequests = new ArrayList<>();
@@ -86,9 +96,174 @@ public class LoadTestConfig {
         this.userVariables.put(name, value);
     }
 
+    public LoadModel getLoadModel() {
+        return loadModel;
+    }
+
+    public void setLoadModel(LoadModel loadModel) {
+        this.loadModel = loadModel;
+    }
+
+    public double getTargetRps() {
+        return targetRps;
+    }
+
+    public void setTargetRps(double targetRps) {
+        this.targetRps = targetRps;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public LoadEngineType getEngineType() {
+        return engineType;
+    }
+
+    public void setEngineType(LoadEngineType engineType) {
+        this.engineType = engineType;
+    }
+
+    public boolean isCompareWithBaseline() {
+        return compareWithBaseline;
+    }
+
+    public void setCompareWithBaseline(boolean compareWithBaseline) {
+        this.compareWithBaseline = compareWithBaseline;
+    }
+
+    public WorkloadMix getWorkloadMix() {
+        return workloadMix;
+    }
+
+    public void setWorkloadMix(WorkloadMix workloadMix) {
+        this.workloadMix = workloadMix;
+    }
+
+    public String getWorkloadBaseUrl() {
+        return workloadBaseUrl;
+    }
+
+    public void setWorkloadBaseUrl(String workloadBaseUrl) {
+        this.workloadBaseUrl = workloadBaseUrl;
+    }
+
+    public AccessLogReplay getAccessLogReplay() {
+        return accessLogReplay;
+    }
+
+    public void setAccessLogReplay(AccessLogReplay accessLogReplay) {
+        this.accessLogReplay = accessLogReplay;
+    }
+
+    /**
+     * Replays the requests of an access log at their logged times instead of sending the HTTP
+     * requests, with at most max concurrency in flight. The replay ends with the log or, when
+     * a duration is set, after the duration.
+     */
+    public void useAccessLogReplay(AccessLogReplay replay, int maxConcurrency) {
+        this.accessLogReplay = replay;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Interval each closed model user is expected to send a request at, used to correct the
+     * latencies for coordinated omission; 0 for performance.latency.expected.interval.ms
+     */
+    public long getExpectedInterval() {
+        return expectedInterval;
+    }
+
+    public void setExpectedInterval(long expectedInterval) {
+        this.expectedInterval = expectedInterval;
+    }
+
+    /**
+     * Interval to correct the latencies of this test for coordinated omission with, 0 for no
+     * correction. Open model and replay tests measure from each request's intended start and
+     * are never corrected.
+     */
+    public long latencyCorrectionInterval(long defaultInterval) {
+        if (loadModel == LoadModel.OPEN || accessLogReplay != null) {
+            return 0;
+        }
+        return expectedInterval > 0 ? expectedInterval : Math.max(defaultInterval, 0);
+    }
+
+    /**
+     * Runs the personas of a workload mix against the base URL instead of the HTTP requests.
+     * Closed model users are split between personas by weight and each loop is one session;
+     * in the open model every arrival starts a session of a persona drawn by weight.
+     */
+    public void useWorkloadMix(WorkloadMix workloadMix, String baseUrl) {
+        this.workloadMix = workloadMix;
+        this.workloadBaseUrl = baseUrl;
+    }
+
+    /**
+     * Configures a constant-arrival-rate (open model) test
+     */
+    public void useArrivalRate(double targetRps, int duration, int maxConcurrency) {
+        this.loadModel = LoadModel.OPEN;
+        this.targetRps = targetRps;
+        this.duration = duration;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * The share of this test one of several load generators runs: users, arrival rate,
+     * concurrency and replayed requests are split evenly (the first generators take the
+     * remainder), timing is kept and the test name is suffixed so result files of generators
+     * on one host do not collide.
+     * Shares are not compared with baselines; the coordinator compares the merged result.
+     */
+    public LoadTestConfig forWorker(int worker, int workerCount) {
+        if (worker < 0 || worker >= workerCount) {
+            throw new IllegalArgumentException("Worker " + worker + " out of range for " + workerCount + " workers");
+        }
+        LoadTestConfig share = new LoadTestConfig(testName + "-worker-" + (worker + 1),
+                numThreads / workerCount + (worker < numThreads % workerCount ? 1 : 0), rampUpTime, loopCount);
+        share.setHttpRequests(new ArrayList<>(httpRequests));
+        share.setUserVariables(new HashMap<>(userVariables));
+        share.setLoadModel(loadModel);
+        share.setTargetRps(targetRps / workerCount);
+        share.setDuration(duration);
+        share.setMaxConcurrency((maxConcurrency + workerCount - 1) / workerCount);
+        share.setEngineType(engineType);
+        share.setCompareWithBaseline(false);
+        share.useWorkloadMix(workloadMix, workloadBaseUrl);
+        share.setAccessLogReplay(accessLogReplay != null ? accessLogReplay.forWorker(worker, workerCount) : null);
+        share.setExpectedInterval(expectedInterval);
+        return share;
+    }
+
     @Override
     public String toString() {
-        return String.format("LoadTestConfig{testName='%s', numThreads=%d, rampUpTime=%d, loopCount=%d, requests=%d}",
-                testName, numThreads, rampUpTime, loopCount, httpRequests.size());
+        if (accessLogReplay != null) {
+            return String.format("LoadTestConfig{testName='%s', engine=%s, accessLogReplay=%s, duration=%d, maxConcurrency=%d}",
+                    testName, engineType, accessLogReplay, duration, maxConcurrency);
+        }
+        if (workloadMix != null) {
+            return String.format("LoadTestConfig{testName='%s', engine=%s, loadModel=%s, workloadMix=%s, numThreads=%d, targetRps=%.2f, duration=%d}",
+                    testName, engineType, loadModel, workloadMix.getName(), numThreads, targetRps, duration);
+        }
+        if (loadModel == LoadModel.OPEN) {
+            return String.format("LoadTestConfig{testName='%s', engine=%s, loadModel=OPEN, targetRps=%.2f, duration=%d, maxConcurrency=%d, requests=%d}",
+                    testName, engineType, targetRps, duration, maxConcurrency, httpRequests.size());
+        }
+        return String.format("LoadTestConfig{testName='%s', engine=%s, numThreads=%d, rampUpTime=%d, loopCount=%d, requests=%d}",
+                testName, engineType, numThreads, rampUpTime, loopCount, httpRequests.size());
     }
 }
@@ -0,0 +1,151 @@
+package com.inditex.test.performance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.inditex.test.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator process of a distributed test. Connects to a {@link DistributedLoadCoordinator},
+ * runs the share of the test it is given on the configured engine and streams its metrics back.
+ * Start one per JVM, e.g. {@code LoadWorker <coordinator-host> <port>}; several may run on one host.
+ */
+public class LoadWorker {
+    private static final Logger logger = LoggerFactory.getLogger(LoadWorker.class);
+
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final String coordinatorHost;
+    private final int coordinatorPort;
+    private final String workerId;
+    private final long snapshotIntervalMillis;
+
+    public LoadWorker(String coordinatorHost, int coordinatorPort) {
+        this.coordinatorHost = coordinatorHost;
+        this.coordinatorPort = coordinatorPort;
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName() + "-" + Integer.toHexString(System.identityHashCode(this));
+        this.snapshotIntervalMillis = ConfigManager.getIntProperty("performance.distributed.snapshot.interval.ms", 1000);
+    }
+
+    public static void main(String[] args) {
+        String host = args.length > 0 ? args[0] : ConfigManager.getProperty("performance.distributed.coordinator.host", "localhost");
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : ConfigManager.getIntProperty("performance.distributed.port", 4445);
+        new LoadWorker(host, port).run();
+    }
+
+    /**
+     * Serves test runs until the thread is interrupted, reconnecting to the coordinator after each
+     */
+    public void run() {
+        logger.info("Load worker {} serving coordinator {}:{}", workerId, coordinatorHost, coordinatorPort);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                runSession();
+            } catch (ConnectException e) {
+                logger.debug("Coordinator not listening yet, retrying");
+            } catch (IOException e) {
+                logger.warn("Session with coordinator failed", e);
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Connects to the coordinator, runs one test share and reports its metrics
+     */
+    public void runSession() throws IOException {
+        try (DistributedLoadProtocol.Connection coordinator =
+                     new DistributedLoadProtocol.Connection(new Socket(coordinatorHost, coordinatorPort))) {
+            coordinator.send(DistributedLoadProtocol.message(DistributedLoadProtocol.READY).put("worker", workerId));
+
+            JsonNode start = coordinator.receive(DistributedLoadProtocol.START);
+            LoadTestConfig config = DistributedLoadProtocol.decodeConfig(start.get("config"));
+            long startAt = System.currentTimeMillis() + start.path("startIn").asLong();
+            logger.info("Worker {} received {}", workerId, config);
+            try (LoadEngine engine = LoadEngineFactory.create(config)) {
+                runShare(coordinator, config, engine, startAt);
+            }
+        }
+    }
+
+    /**
+     * Runs the test share on the engine, streaming snapshots until the final metrics are sent
+     */
+    private void runShare(DistributedLoadProtocol.Connection coordinator, LoadTestConfig config, LoadEngine engine,
+                          long startAt) throws IOException {
+        // The coordinator only sends a stop while the test runs; the read ends when the session closes
+        Thread stopListener = new Thread(() -> {
+            try {
+                if (DistributedLoadProtocol.STOP.equals(coordinator.receive().path("type").asText())) {
+                    logger.warn("Worker {} stopped by coordinator", workerId);
+                    engine.shutdown();
+                }
+            } catch (IOException e) {
+                logger.debug("Coordinator connection closed", e);
+            }
+        }, "load-worker-stop-listener");
+        stopListener.setDaemon(true);
+        stopListener.start();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-worker-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            sleepUntil(startAt);
+            reporter.scheduleAtFixedRate(() -> sendSnapshot(coordinator, engine),
+                    snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+
+            PerformanceTestResult result = engine.runLoadTest(config);
+            reporter.shutdownNow();
+            MetricsSnapshot metrics = engine.getLiveMetrics();
+            coordinator.send(DistributedLoadProtocol.message(DistributedLoadProtocol.FINISHED)
+                    .put("abortReason", result.getAbortReason())
+                    .put("generatorSaturation", result.getGeneratorSaturation())
+                    .set("snapshot", DistributedLoadProtocol.encodeSnapshot(metrics, true)));
+            logger.info("Worker {} finished: {}", workerId, metrics);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            coordinator.send(DistributedLoadProtocol.message(DistributedLoadProtocol.FAILED).put("error", "Worker interrupted"));
+        } catch (RuntimeException e) {
+            logger.error("Worker {} failed to run {}", workerId, config.getTestName(), e);
+            coordinator.send(DistributedLoadProtocol.message(DistributedLoadProtocol.FAILED).put("error", String.valueOf(e.getMessage())));
+        } finally {
+            reporter.shutdownNow();
+        }
+    }
+
+    private void sendSnapshot(DistributedLoadProtocol.Connection coordinator, LoadEngine engine) {
+        MetricsSnapshot snapshot = engine.getLiveMetrics();
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            // Progress only; the time series is sent once with the final snapshot
+            coordinator.send(DistributedLoadProtocol.message(DistributedLoadProtocol.SNAPSHOT)
+                    .set("snapshot", DistributedLoadProtocol.encodeSnapshot(snapshot, false)));
+        } catch (IOException e) {
+            logger.warn("Failed to send metrics snapshot to coordinator", e);
+        }
+    }
+
+    private static void sleepUntil(long time) throws InterruptedException {
+        long delay = time - System.currentTimeMillis();
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+}
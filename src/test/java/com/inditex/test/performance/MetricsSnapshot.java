@@ -0,0 +1,240 @@
+package com.inditex.test.performance;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable point-in-time view of the metrics collected by a {@link LiveMetricsCollector}.
+ * Covers either the whole run so far or, via {@link #since(MetricsSnapshot)}, the interval
+ * between two snapshots, which is what rolling checks during a run need.
+ */
+public class MetricsSnapshot {
+    private final long intervalStart;
+    private final long capturedAt;
+    private final long totalSamples;
+    private final long failedSamples;
+    private final long totalBytes;
+    private final long totalResponseTime;
+    private final long minResponseTime;
+    private final long maxResponseTime;
+    private final long firstSampleTimestamp;
+    private final long lastSampleTimestamp;
+    private final LatencyHistogram responseTimes;
+    private final Map<String, Long> responseCodes;
+    private final Map<String, SamplerStatistics> samplerStatistics;
+    private final MetricsTimeSeries timeSeries;
+
+    MetricsSnapshot(long intervalStart, long capturedAt, long totalSamples, long failedSamples, long totalBytes,
+                    long totalResponseTime, long minResponseTime, long maxResponseTime,
+                    long firstSampleTimestamp, long lastSampleTimestamp, LatencyHistogram responseTimes,
+                    Map<String, Long> responseCodes, Map<String, SamplerStatistics> samplerStatistics,
+                    MetricsTimeSeries timeSeries) {
+        this.intervalStart = intervalStart;
+        this.capturedAt = capturedAt;
+        this.totalSamples = totalSamples;
+        this.failedSamples = failedSamples;
+        this.totalBytes = totalBytes;
+        this.totalResponseTime = totalResponseTime;
+        this.minResponseTime = minResponseTime;
+        this.maxResponseTime = maxResponseTime;
+        this.firstSampleTimestamp = firstSampleTimestamp;
+        this.lastSampleTimestamp = lastSampleTimestamp;
+        this.responseTimes = responseTimes;
+        this.responseCodes = Collections.unmodifiableMap(responseCodes);
+        this.samplerStatistics = Collections.unmodifiableMap(samplerStatistics);
+        this.timeSeries = timeSeries;
+    }
+
+    /**
+     * Metrics of the samples recorded between an earlier snapshot of the same collector and this one.
+     * The interval has no time series and its min/max come from histogram buckets.
+     */
+    public MetricsSnapshot since(MetricsSnapshot earlier) {
+        LatencyHistogram interval = responseTimes.copy();
+        interval.subtract(earlier.responseTimes);
+
+        Map<String, Long> intervalCodes = new HashMap<>();
+        responseCodes.forEach((code, count) -> {
+            long delta = count - earlier.responseCodes.getOrDefault(code, 0L);
+            if (delta > 0) {
+                intervalCodes.put(code, delta);
+            }
+        });
+
+        Map<String, SamplerStatistics> intervalStatistics = new TreeMap<>();
+        samplerStatistics.forEach((label, statistics) -> {
+            SamplerStatistics before = earlier.samplerStatistics.get(label);
+            SamplerStatistics delta = before == null ? statistics.copy() : statistics.since(before);
+            if (delta.getCount() > 0) {
+                intervalStatistics.put(label, delta);
+            }
+        });
+
+        return new MetricsSnapshot(earlier.capturedAt, capturedAt,
+                totalSamples - earlier.totalSamples, failedSamples - earlier.failedSamples,
+                totalBytes - earlier.totalBytes, totalResponseTime - earlier.totalResponseTime,
+                interval.getMinValue(), interval.getMaxValue(), earlier.capturedAt, capturedAt,
+                interval, intervalCodes, intervalStatistics, null);
+    }
+
+    /**
+     * Combines the snapshots of collectors that ran side by side, e.g. on separate load generators,
+     * into one covering all their samples. The time series is kept only when both sides have
+     * compatible series (or one side has no samples at all).
+     */
+    public MetricsSnapshot merge(MetricsSnapshot other) {
+        LatencyHistogram mergedResponseTimes = responseTimes.copy();
+        mergedResponseTimes.merge(other.responseTimes);
+
+        Map<String, Long> mergedCodes = new HashMap<>(responseCodes);
+        other.responseCodes.forEach((code, count) -> mergedCodes.merge(code, count, Long::sum));
+
+        Map<String, SamplerStatistics> mergedStatistics = new TreeMap<>();
+        samplerStatistics.forEach((label, statistics) -> mergedStatistics.put(label, statistics.copy()));
+        other.samplerStatistics.forEach((label, statistics) ->
+                mergedStatistics.computeIfAbsent(label, SamplerStatistics::new).merge(statistics));
+
+        MetricsTimeSeries mergedSeries = null;
+        if (timeSeries != null && other.timeSeries != null
+                && timeSeries.getWindowMillis() == other.timeSeries.getWindowMillis()) {
+            mergedSeries = timeSeries.copy();
+            mergedSeries.merge(other.timeSeries);
+        } else if (other.totalSamples == 0 && timeSeries != null) {
+            mergedSeries = timeSeries.copy();
+        } else if (totalSamples == 0 && other.timeSeries != null) {
+            mergedSeries = other.timeSeries.copy();
+        }
+
+        boolean bothSampled = totalSamples > 0 && other.totalSamples > 0;
+        MetricsSnapshot sampled = totalSamples > 0 ? this : other;
+        return new MetricsSnapshot(Math.min(intervalStart, other.intervalStart), Math.max(capturedAt, other.capturedAt),
+                totalSamples + other.totalSamples, failedSamples + other.failedSamples,
+                totalBytes + other.totalBytes, totalResponseTime + other.totalResponseTime,
+                bothSampled ? Math.min(minResponseTime, other.minResponseTime) : sampled.minResponseTime,
+                Math.max(maxResponseTime, other.maxResponseTime),
+                bothSampled ? Math.min(firstSampleTimestamp, other.firstSampleTimestamp) : sampled.firstSampleTimestamp,
+                Math.max(lastSampleTimestamp, other.lastSampleTimestamp),
+                mergedResponseTimes, mergedCodes, mergedStatistics, mergedSeries);
+    }
+
+    public long getIntervalStart() {
+        return intervalStart;
+    }
+
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    public long getFailedSamples() {
+        return failedSamples;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getTotalResponseTime() {
+        return totalResponseTime;
+    }
+
+    public long getMinResponseTime() {
+        return minResponseTime;
+    }
+
+    public long getMaxResponseTime() {
+        return maxResponseTime;
+    }
+
+    public long getFirstSampleTimestamp() {
+        return firstSampleTimestamp;
+    }
+
+    public long getLastSampleTimestamp() {
+        return lastSampleTimestamp;
+    }
+
+    // Not a copy, so only for reading within the package
+    LatencyHistogram getResponseTimeHistogram() {
+        return responseTimes;
+    }
+
+    public Map<String, Long> getResponseCodes() {
+        return responseCodes;
+    }
+
+    public double getErrorRate() {
+        return totalSamples > 0 ? (double) failedSamples / totalSamples : 0.0;
+    }
+
+    public double getAverageResponseTime() {
+        return totalSamples > 0 ? (double) totalResponseTime / totalSamples : 0.0;
+    }
+
+    public long getPercentile(double percentile) {
+        return responseTimes.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Requests per second over the wall-clock span this snapshot covers
+     */
+    public double getThroughput() {
+        long duration = capturedAt - intervalStart;
+        return duration > 0 ? totalSamples / (duration / 1000.0) : 0.0;
+    }
+
+    public Map<String, SamplerStatistics> getSamplerStatistics() {
+        return samplerStatistics;
+    }
+
+    public MetricsTimeSeries getTimeSeries() {
+        return timeSeries;
+    }
+
+    public PerformanceMetrics toMetrics() {
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        if (totalSamples == 0) {
+            return metrics;
+        }
+
+        metrics.setTotalSamples(totalSamples);
+        metrics.setSuccessfulSamples(totalSamples - failedSamples);
+        metrics.setFailedSamples(failedSamples);
+        metrics.calculateErrorRate();
+
+        metrics.setAverageResponseTime(getAverageResponseTime());
+        metrics.setMinResponseTime(minResponseTime);
+        metrics.setMaxResponseTime(maxResponseTime);
+        metrics.setResponseTimeHistogram(responseTimes.copy());
+
+        metrics.setFirstSampleTimestamp(firstSampleTimestamp);
+        metrics.setLastSampleTimestamp(lastSampleTimestamp);
+        metrics.calculateThroughput();
+
+        metrics.setTotalBytes(totalBytes);
+        metrics.calculateAverageBytes();
+        Map<String, Integer> codes = new HashMap<>();
+        responseCodes.forEach((code, count) -> codes.put(code, (int) Math.min(count, Integer.MAX_VALUE)));
+        metrics.setHttpResponseCodes(codes);
+
+        Map<String, SamplerStatistics> statisticsCopy = new TreeMap<>();
+        samplerStatistics.forEach((label, statistics) -> statisticsCopy.put(label, statistics.copy()));
+        metrics.setSamplerStatistics(statisticsCopy);
+        if (timeSeries != null) {
+            metrics.setTimeSeries(timeSeries.copy());
+        }
+
+        return metrics;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MetricsSnapshot{samples=%d, errorRate=%.2f%%, avg=%.2fms, p95=%dms, p99=%dms, throughput=%.2f req/s}",
+                totalSamples, getErrorRate() * 100, getAverageResponseTime(), getPercentile(95), getPercentile(99), getThroughput());
+    }
+}
@@ -0,0 +1,337 @@
+package com.inditex.test.performance;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-window series of request rate, error rate and latency percentiles.
+ * Windows are stored in flat primitive arrays indexed by window number; each
+ * window keeps a coarse log-bucketed latency histogram (1 significant digit,
+ * a few hundred int counters) so p95/p99 can be read per window while a
+ * one-hour run at one-second windows stays within a few MB.
+ * Samples must carry epoch millisecond timestamps: timestamps before 2000, such
+ * as zero or epoch seconds, and timestamps more than a week away from the rest of
+ * the series are skipped as malformed instead of growing the arrays without bound.
+ */
+public class MetricsTimeSeries {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsTimeSeries.class);
+
+    public static final long DEFAULT_WINDOW_MILLIS = 1000;
+    static final long MIN_TIMESTAMP = 946684800000L; // 2000-01-01T00:00:00Z
+    static final long MAX_SPAN_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private static final int SERIES_SIGNIFICANT_DIGITS = 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Only used for bucket index arithmetic, which does not touch its counters
+    private static final LatencyHistogram LAYOUT =
+            new LatencyHistogram(LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, SERIES_SIGNIFICANT_DIGITS);
+    static final int LATENCY_SLOTS = LAYOUT.countsArrayLength();
+
+    private final long windowMillis;
+    private final long maxSpanWindows;
+
+    private long skippedSamples;
+    private long firstWindow;
+    private int windowCount;
+    private long[] requests;
+    private long[] errors;
+    private int[] latencyCounts;
+
+    public MetricsTimeSeries() {
+        this(DEFAULT_WINDOW_MILLIS);
+    }
+
+    public MetricsTimeSeries(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Time series window must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.maxSpanWindows = Math.max(1, MAX_SPAN_MILLIS / windowMillis);
+        this.requests = new long[INITIAL_CAPACITY];
+        this.errors = new long[INITIAL_CAPACITY];
+        this.latencyCounts = new int[INITIAL_CAPACITY * LATENCY_SLOTS];
+    }
+
+    public void record(long timestamp, long responseTime, boolean success) {
+        int window = windowForTimestamp(timestamp, 1);
+        if (window < 0) {
+            return;
+        }
+        requests[window]++;
+        if (!success) {
+            errors[window]++;
+        }
+        latencyCounts[window * LATENCY_SLOTS + latencySlot(responseTime)]++;
+    }
+
+    /**
+     * Adds pre-aggregated counts for the window containing the given timestamp
+     */
+    void addWindow(long timestamp, long windowRequests, long windowErrors, int[] windowLatencyCounts) {
+        int window = windowForTimestamp(timestamp, windowRequests);
+        if (window < 0) {
+            return;
+        }
+        requests[window] += windowRequests;
+        errors[window] += windowErrors;
+        int offset = window * LATENCY_SLOTS;
+        for (int slot = 0; slot < LATENCY_SLOTS; slot++) {
+            latencyCounts[offset + slot] += windowLatencyCounts[slot];
+        }
+    }
+
+    /**
+     * Index of the per-window latency counter a response time falls into
+     */
+    static int latencySlot(long responseTime) {
+        return LAYOUT.countsIndexFor(Math.min(Math.max(responseTime, 0), LAYOUT.getHighestTrackableValue()));
+    }
+
+    /**
+     * Adds the windows of another series recorded with the same window size
+     */
+    public void merge(MetricsTimeSeries other) {
+        if (other.windowMillis != windowMillis) {
+            throw new IllegalArgumentException("Cannot merge time series with windows of "
+                    + other.windowMillis + "ms and " + windowMillis + "ms");
+        }
+        for (int i = 0; i < other.windowCount; i++) {
+            if (other.requests[i] == 0) {
+                continue;
+            }
+            int window = windowFor(other.firstWindow + i);
+            if (window < 0) {
+                skip((other.firstWindow + i) * windowMillis, other.requests[i]);
+                continue;
+            }
+            requests[window] += other.requests[i];
+            errors[window] += other.errors[i];
+            int source = i * LATENCY_SLOTS;
+            int target = window * LATENCY_SLOTS;
+            for (int slot = 0; slot < LATENCY_SLOTS; slot++) {
+                latencyCounts[target + slot] += other.latencyCounts[source + slot];
+            }
+        }
+    }
+
+    public MetricsTimeSeries copy() {
+        MetricsTimeSeries copy = new MetricsTimeSeries(windowMillis);
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public int getWindowCount() {
+        return windowCount;
+    }
+
+    /**
+     * Samples left out because of a malformed timestamp
+     */
+    public long getSkippedSamples() {
+        return skippedSamples;
+    }
+
+    /**
+     * Epoch millis at which the given window starts
+     */
+    public long getWindowStart(int window) {
+        return (firstWindow + window) * windowMillis;
+    }
+
+    public long getRequests(int window) {
+        return requests[window];
+    }
+
+    public long getErrors(int window) {
+        return errors[window];
+    }
+
+    public double getRequestsPerSecond(int window) {
+        return requests[window] / (windowMillis / 1000.0);
+    }
+
+    public double getErrorRate(int window) {
+        return requests[window] > 0 ? (double) errors[window] / requests[window] : 0.0;
+    }
+
+    /**
+     * Raw count of the window's latency counter at the given slot, see {@link #latencySlot(long)}
+     */
+    int getLatencyCount(int window, int slot) {
+        return latencyCounts[window * LATENCY_SLOTS + slot];
+    }
+
+    public long getPercentile(int window, double percentile) {
+        long total = requests[window];
+        if (total == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil((percentile / 100.0) * total));
+        long seen = 0;
+        int offset = window * LATENCY_SLOTS;
+        for (int slot = 0; slot < LATENCY_SLOTS; slot++) {
+            seen += latencyCounts[offset + slot];
+            if (seen >= countAtPercentile) {
+                return LAYOUT.highestEquivalentValue(LAYOUT.valueFromIndex(slot));
+            }
+        }
+        return LAYOUT.getHighestTrackableValue();
+    }
+
+    /**
+     * Time from the window with the worst latency percentile until the percentile is back
+     * within the given tolerance of the median of the preceding windows. Returns -1 when
+     * there is no baseline to compare against or the series never recovers.
+     */
+    public long getRecoveryTimeMillis(double percentile, double tolerance) {
+        int peak = -1;
+        long peakValue = -1;
+        for (int i = 0; i < windowCount; i++) {
+            long value = getPercentile(i, percentile);
+            if (requests[i] > 0 && value > peakValue) {
+                peak = i;
+                peakValue = value;
+            }
+        }
+        if (peak <= 0) {
+            return -1;
+        }
+
+        long[] before = new long[peak];
+        int samples = 0;
+        for (int i = 0; i < peak; i++) {
+            if (requests[i] > 0) {
+                before[samples++] = getPercentile(i, percentile);
+            }
+        }
+        if (samples == 0) {
+            return -1;
+        }
+        Arrays.sort(before, 0, samples);
+        long baseline = before[samples / 2];
+
+        for (int i = peak + 1; i < windowCount; i++) {
+            if (requests[i] > 0 && getPercentile(i, percentile) <= baseline * tolerance) {
+                return (i - peak) * windowMillis;
+            }
+        }
+        return -1;
+    }
+
+    public void writeCsv(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("windowStart,requests,requestsPerSecond,errors,errorRate,p95,p99\n");
+            for (int i = 0; i < windowCount; i++) {
+                writer.write(String.format(Locale.ROOT, "%d,%d,%.2f,%d,%.4f,%d,%d\n",
+                        getWindowStart(i), requests[i], getRequestsPerSecond(i), errors[i],
+                        getErrorRate(i), getPercentile(i, 95), getPercentile(i, 99)));
+            }
+        }
+    }
+
+    public void writeJson(Path file) throws IOException {
+        try (OutputStream output = Files.newOutputStream(file);
+             JsonGenerator json = new JsonFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeNumberField("windowMillis", windowMillis);
+            json.writeArrayFieldStart("windows");
+            for (int i = 0; i < windowCount; i++) {
+                json.writeStartObject();
+                json.writeNumberField("windowStart", getWindowStart(i));
+                json.writeNumberField("requests", requests[i]);
+                json.writeNumberField("requestsPerSecond", getRequestsPerSecond(i));
+                json.writeNumberField("errors", errors[i]);
+                json.writeNumberField("errorRate", getErrorRate(i));
+                json.writeNumberField("p95", getPercentile(i, 95));
+                json.writeNumberField("p99", getPercentile(i, 99));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private int windowForTimestamp(long timestamp, long samples) {
+        int window = timestamp >= MIN_TIMESTAMP ? windowFor(timestamp / windowMillis) : -1;
+        if (window < 0) {
+            skip(timestamp, samples);
+        }
+        return window;
+    }
+
+    private void skip(long timestamp, long samples) {
+        if (skippedSamples == 0) {
+            logger.warn("Skipping samples with malformed timestamp {}: expected epoch milliseconds within {} days of the series",
+                    timestamp, TimeUnit.MILLISECONDS.toDays(MAX_SPAN_MILLIS));
+        } else {
+            logger.debug("Skipping samples with malformed timestamp {}", timestamp);
+        }
+        skippedSamples += samples;
+    }
+
+    /**
+     * Returns the array slot for an absolute window number, growing the arrays as needed,
+     * or -1 when the window would stretch the series beyond the maximum span
+     */
+    private int windowFor(long absoluteWindow) {
+        if (windowCount == 0) {
+            firstWindow = absoluteWindow;
+            windowCount = 1;
+            return 0;
+        }
+
+        long lastWindow = firstWindow + windowCount - 1;
+        if (Math.max(lastWindow, absoluteWindow) - Math.min(firstWindow, absoluteWindow) >= maxSpanWindows) {
+            return -1;
+        }
+
+        if (absoluteWindow < firstWindow) {
+            int shift = (int) (firstWindow - absoluteWindow);
+            ensureCapacity(windowCount + shift);
+            System.arraycopy(requests, 0, requests, shift, windowCount);
+            System.arraycopy(errors, 0, errors, shift, windowCount);
+            System.arraycopy(latencyCounts, 0, latencyCounts, shift * LATENCY_SLOTS, windowCount * LATENCY_SLOTS);
+            Arrays.fill(requests, 0, shift, 0);
+            Arrays.fill(errors, 0, shift, 0);
+            Arrays.fill(latencyCounts, 0, shift * LATENCY_SLOTS, 0);
+            firstWindow = absoluteWindow;
+            windowCount += shift;
+            return 0;
+        }
+
+        int window = (int) (absoluteWindow - firstWindow);
+        if (window >= windowCount) {
+            ensureCapacity(window + 1);
+            windowCount = window + 1;
+        }
+        return window;
+    }
+
+    private void ensureCapacity(int windows) {
+        if (windows <= requests.length) {
+            return;
+        }
+        int capacity = Math.max(windows, requests.length * 2);
+        requests = Arrays.copyOf(requests, capacity);
+        errors = Arrays.copyOf(errors, capacity);
+        latencyCounts = Arrays.copyOf(latencyCounts, capacity * LATENCY_SLOTS);
+    }
+}
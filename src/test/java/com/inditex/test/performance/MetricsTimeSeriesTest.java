@@ -0,0 +1,79 @@
+package com.inditex.test.performance;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MetricsTimeSeriesTest {
+    private static final long START = 1_760_000_000_000L;
+
+    @Test(groups = "unit")
+    public void recordsSamplesIntoWindows() {
+        MetricsTimeSeries series = new MetricsTimeSeries(1000);
+        series.record(START + 100, 10, true);
+        series.record(START + 900, 30, false);
+        series.record(START + 2500, 20, true);
+
+        Assert.assertEquals(series.getWindowCount(), 3);
+        Assert.assertEquals(series.getWindowStart(0), START);
+        Assert.assertEquals(series.getRequests(0), 2);
+        Assert.assertEquals(series.getErrors(0), 1);
+        Assert.assertEquals(series.getRequests(1), 0);
+        Assert.assertEquals(series.getRequests(2), 1);
+        Assert.assertEquals(series.getErrorRate(0), 0.5, 1e-9);
+    }
+
+    @Test(groups = "unit")
+    public void growsBackwardsForEarlierSamples() {
+        MetricsTimeSeries series = new MetricsTimeSeries(1000);
+        series.record(START + 5000, 10, true);
+        series.record(START, 10, true);
+
+        Assert.assertEquals(series.getWindowCount(), 6);
+        Assert.assertEquals(series.getWindowStart(0), START);
+        Assert.assertEquals(series.getRequests(0), 1);
+        Assert.assertEquals(series.getRequests(5), 1);
+    }
+
+    @Test(groups = "unit")
+    public void skipsZeroAndEpochSecondTimestamps() {
+        MetricsTimeSeries series = new MetricsTimeSeries(1000);
+        series.record(START, 10, true);
+        series.record(0, 10, true);
+        series.record(-5, 10, true);
+        series.record(START / 1000, 10, true);
+
+        Assert.assertEquals(series.getWindowCount(), 1);
+        Assert.assertEquals(series.getRequests(0), 1);
+        Assert.assertEquals(series.getSkippedSamples(), 3);
+    }
+
+    @Test(groups = "unit")
+    public void skipsTimestampsFarFromTheSeries() {
+        MetricsTimeSeries series = new MetricsTimeSeries(1000);
+        series.record(START, 10, true);
+        series.record(START + MetricsTimeSeries.MAX_SPAN_MILLIS + 1000, 10, true);
+        series.record(START - MetricsTimeSeries.MAX_SPAN_MILLIS - 1000, 10, true);
+
+        Assert.assertEquals(series.getWindowCount(), 1);
+        Assert.assertEquals(series.getSkippedSamples(), 2);
+    }
+
+    @Test(groups = "unit")
+    public void mergesSeriesWithTheSameWindow() {
+        MetricsTimeSeries first = new MetricsTimeSeries(1000);
+        first.record(START, 10, true);
+        MetricsTimeSeries second = new MetricsTimeSeries(1000);
+        second.record(START + 1000, 20, false);
+
+        first.merge(second);
+
+        Assert.assertEquals(first.getWindowCount(), 2);
+        Assert.assertEquals(first.getRequests(1), 1);
+        Assert.assertEquals(first.getErrors(1), 1);
+    }
+
+    @Test(groups = "unit", expectedExceptions = IllegalArgumentException.class)
+    public void rejectsMergingDifferentWindows() {
+        new MetricsTimeSeries(1000).merge(new MetricsTimeSeries(500));
+    }
+}
@@ -0,0 +1,73 @@
+package com.inditex.test.performance;
+
+import com.inditex.test.monitoring.LoadTestMetrics;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.ThreadListener;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JMeter listener publishing every completed sample to {@link LoadTestMetrics}, tagged with
+ * the scenario, the sampler label and the brand and country of the request: its query
+ * parameters, or the brand and country variables of data driven plans. Response times are
+ * measured like the {@link LiveMetricsCollector} does, from the intended start of paced samples.
+ * Shared by all threads of the plan, which it counts as the scenario's active threads; the
+ * JMeter-wide thread count would mix in the threads of scenarios running in parallel.
+ */
+public class MicrometerSampleListener extends AbstractTestElement implements SampleListener, ThreadListener, NoThreadClone {
+    private static final long serialVersionUID = 1L;
+
+    private final String scenario;
+    private final transient AtomicInteger activeThreads;
+
+    public MicrometerSampleListener(String scenario) {
+        this.scenario = scenario;
+        this.activeThreads = LoadTestMetrics.activeThreads(scenario);
+        setName("Micrometer Sample Listener");
+    }
+
+    @Override
+    public void threadStarted() {
+        activeThreads.incrementAndGet();
+    }
+
+    @Override
+    public void threadFinished() {
+        activeThreads.decrementAndGet();
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+        SampleResult result = event.getResult();
+        URL url = result.getURL();
+        String query = url != null ? url.getQuery() : null;
+        LoadTestMetrics.recordSample(scenario, result.getSampleLabel(),
+                parameter(query, "brand"), parameter(query, "country"), LiveMetricsCollector.responseTimeOf(result), result.isSuccessful());
+    }
+
+    private static String parameter(String query, String name) {
+        String value = LoadTestMetrics.queryParameter(query, name);
+        if (value == null) {
+            JMeterVariables variables = JMeterContextService.getContext().getVariables();
+            value = variables != null ? variables.get(name) : null;
+        }
+        return value;
+    }
+
+    @Override
+    public void sampleStarted(SampleEvent event) {
+        // Only completed samples are published
+    }
+
+    @Override
+    public void sampleStopped(SampleEvent event) {
+        // Only completed samples are published
+    }
+}
@@ -0,0 +1,425 @@
+package com.inditex.test.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Fork/join aggregation of JTL result files.
+ * Each file is split into byte-range chunks aligned on record boundaries, the
+ * chunks are parsed on all cores and the partial aggregates are merged, so
+ * post-run analysis scales with the number of cores of the CI agent.
+ *
+ * CSV chunks are aligned on line breaks outside quoted fields, found with one
+ * sequential pass over the bytes. XML chunks are aligned on top-level sample
+ * elements, which JMeter writes at the start of a line; a file written without
+ * them, such as a minified one, is parsed sequentially as a single chunk.
+ */
+public class ParallelJtlAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelJtlAggregator.class);
+
+    private static final long MIN_CHUNK_SIZE = 8L * 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = 256L * 1024 * 1024;
+    private static final int SEARCH_WINDOW_SIZE = 64 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte[] HTTP_SAMPLE_TAG = "<httpSample".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SAMPLE_TAG = "<sample".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHUNK_START = "<testResults>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHUNK_END = "</testResults>".getBytes(StandardCharsets.US_ASCII);
+
+    private final ForkJoinPool pool;
+    private final long timeSeriesWindowMillis;
+    private final long minChunkSize;
+
+    public ParallelJtlAggregator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelJtlAggregator(ForkJoinPool pool) {
+        this(pool, MetricsTimeSeries.DEFAULT_WINDOW_MILLIS);
+    }
+
+    public ParallelJtlAggregator(ForkJoinPool pool, long timeSeriesWindowMillis) {
+        this(pool, timeSeriesWindowMillis, MIN_CHUNK_SIZE);
+    }
+
+    ParallelJtlAggregator(ForkJoinPool pool, long timeSeriesWindowMillis, long minChunkSize) {
+        this.pool = pool;
+        this.timeSeriesWindowMillis = timeSeriesWindowMillis;
+        this.minChunkSize = minChunkSize;
+    }
+
+    /**
+     * Aggregates a single JTL file (XML or CSV) using all cores of the pool
+     */
+    public PerformanceMetrics aggregateFile(Path file) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        List<Chunk> chunks = splitFile(file);
+        ChunkResult result = pool.invoke(new ChunkTask(chunks, 0, chunks.size(), timeSeriesWindowMillis));
+        PerformanceMetrics metrics = result.selectSamples().toMetrics();
+
+        logger.info("Aggregated {} samples from {} in {} chunks in {}ms",
+                metrics.getTotalSamples(), file, chunks.size(), System.currentTimeMillis() - startTime);
+        return metrics;
+    }
+
+    /**
+     * Aggregates several JTL files concurrently, keyed by their path in the given order; files
+     * of the same name in different directories stay apart
+     */
+    public Map<Path, PerformanceMetrics> aggregateFiles(List<Path> files) throws IOException {
+        List<List<Chunk>> chunksPerFile = new ArrayList<>();
+        for (Path file : files) {
+            chunksPerFile.add(splitFile(file));
+        }
+
+        List<ChunkTask> tasks = chunksPerFile.stream()
+                .map(chunks -> new ChunkTask(chunks, 0, chunks.size(), timeSeriesWindowMillis))
+                .collect(Collectors.toList());
+        tasks.forEach(pool::execute);
+
+        Map<Path, PerformanceMetrics> results = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            results.put(files.get(i), tasks.get(i).join().selectSamples().toMetrics());
+        }
+        return results;
+    }
+
+    /**
+     * Aggregates every .jtl file of a directory into one merged set of metrics, plus the
+     * columnar .prfc files whose JTL was not kept
+     */
+    public PerformanceMetrics aggregateDirectory(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        List<Path> jtlFiles = files.stream()
+                .filter(path -> path.toString().endsWith(".jtl"))
+                .collect(Collectors.toList());
+
+        PerformanceMetrics merged = new PerformanceMetrics();
+        for (PerformanceMetrics metrics : aggregateFiles(jtlFiles).values()) {
+            merged.merge(metrics);
+        }
+        for (Path file : files) {
+            String name = file.toString();
+            if (name.endsWith(".prfc") && !jtlFiles.contains(Paths.get(name.substring(0, name.length() - 5) + ".jtl"))) {
+                merged.merge(new ColumnarResultReader(file).toMetrics(timeSeriesWindowMillis));
+            }
+        }
+        return merged;
+    }
+
+    private List<Chunk> splitFile(Path file) throws IOException {
+        File jtlFile = file.toFile();
+        if (!jtlFile.exists()) {
+            throw new RuntimeException("JTL file not found: " + file);
+        }
+
+        long size = jtlFile.length();
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            boolean xml = firstNonWhitespaceByte(channel) == '<';
+            long dataStart;
+            long dataEnd;
+            if (xml) {
+                dataStart = findSample(channel, 0, size, true);
+                dataEnd = Math.max(dataStart, findLast(channel, CHUNK_END, size));
+                if (dataStart >= dataEnd || findSample(channel, 0, dataStart, false) < dataStart) {
+                    // Samples that do not start a line leave no safe split point
+                    logger.info("No line-initial samples in {}, parsing it as a single chunk", file);
+                    return Collections.singletonList(new Chunk(file, true, 0, size, timeSeriesWindowMillis));
+                }
+            } else {
+                dataStart = new CsvJtlReader().dataOffset(file);
+                dataEnd = size;
+            }
+
+            long dataSize = dataEnd - dataStart;
+            int parallelism = Math.max(1, pool.getParallelism());
+            long chunkCount = Math.max(1, Math.min(parallelism * 4L, dataSize / minChunkSize));
+            chunkCount = Math.max(chunkCount, (dataSize + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+
+            long[] boundaries = new long[(int) chunkCount - 1];
+            for (int i = 0; i < boundaries.length; i++) {
+                boundaries[i] = dataStart + (dataSize * (i + 1)) / chunkCount;
+            }
+            if (xml) {
+                for (int i = 0; i < boundaries.length; i++) {
+                    boundaries[i] = findSample(channel, boundaries[i], dataEnd, true);
+                }
+            } else {
+                alignOnRecords(channel, dataStart, dataEnd, boundaries);
+            }
+
+            List<Chunk> chunks = new ArrayList<>();
+            long chunkStart = dataStart;
+            for (long chunkEnd : boundaries) {
+                if (chunkEnd > chunkStart) {
+                    chunks.add(new Chunk(file, xml, chunkStart, chunkEnd, timeSeriesWindowMillis));
+                    chunkStart = chunkEnd;
+                }
+            }
+            if (dataEnd > chunkStart) {
+                chunks.add(new Chunk(file, xml, chunkStart, dataEnd, timeSeriesWindowMillis));
+            }
+            return chunks;
+        }
+    }
+
+    private static int firstNonWhitespaceByte(FileChannel channel) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(SEARCH_WINDOW_SIZE);
+        channel.read(window, 0);
+        window.flip();
+        while (window.hasRemaining()) {
+            int b = window.get() & 0xFF;
+            if (!Character.isWhitespace(b) && b != 0xEF && b != 0xBB && b != 0xBF) {
+                return b;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves each boundary to just after the next line break outside a quoted field, so no chunk
+     * starts inside a multi-line value. Quote parity is only known from the start of the data,
+     * hence the sequential pass; it scans bytes without parsing them, far cheaper than the chunks.
+     */
+    private static void alignOnRecords(FileChannel channel, long from, long limit, long[] boundaries) throws IOException {
+        ByteBuffer window = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        boolean inQuotes = false;
+        int next = 0;
+        long position = from;
+        while (next < boundaries.length && position < limit) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read && next < boundaries.length; i++) {
+                byte b = window.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    long lineStart = position + i + 1;
+                    while (next < boundaries.length && boundaries[next] < lineStart) {
+                        boundaries[next++] = Math.min(lineStart, limit);
+                    }
+                }
+            }
+            position += read;
+        }
+        while (next < boundaries.length) {
+            boundaries[next++] = limit;
+        }
+    }
+
+    /**
+     * Returns the offset of the next sample element at or after the given position; with
+     * lineStart set only elements that start a line count, i.e. top-level samples
+     */
+    private static long findSample(FileChannel channel, long from, long limit, boolean lineStart) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(SEARCH_WINDOW_SIZE);
+        // Start one byte early so the line break before a sample at the given position is seen
+        long position = Math.max(0, from - 1);
+        while (position < limit) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = position < from ? 1 : 0; i < read; i++) {
+                if ((!lineStart || (i > 0 && window.get(i - 1) == '\n'))
+                        && (isTagAt(window, i, read, HTTP_SAMPLE_TAG) || isTagAt(window, i, read, SAMPLE_TAG))) {
+                    return Math.min(position + i, limit);
+                }
+            }
+            // Overlap windows so a tag straddling the boundary is still found
+            position += Math.max(1, read - HTTP_SAMPLE_TAG.length - 2);
+        }
+        return limit;
+    }
+
+    private static boolean isTagAt(ByteBuffer window, int offset, int length, byte[] tag) {
+        if (offset + tag.length >= length) {
+            return false;
+        }
+        for (int i = 0; i < tag.length; i++) {
+            if (window.get(offset + i) != tag[i]) {
+                return false;
+            }
+        }
+        byte next = window.get(offset + tag.length);
+        return next == ' ' || next == '>' || next == '/' || next == '\t' || next == '\r' || next == '\n';
+    }
+
+    private static long findLast(FileChannel channel, byte[] pattern, long size) throws IOException {
+        long windowStart = Math.max(0, size - SEARCH_WINDOW_SIZE);
+        ByteBuffer window = ByteBuffer.allocate((int) (size - windowStart));
+        channel.read(window, windowStart);
+        for (int i = window.position() - pattern.length; i >= 0; i--) {
+            boolean match = true;
+            for (int j = 0; j < pattern.length && match; j++) {
+                match = window.get(i + j) == pattern[j];
+            }
+            if (match) {
+                return windowStart + i;
+            }
+        }
+        return size;
+    }
+
+    private static class Chunk {
+        final Path file;
+        final boolean xml;
+        final long start;
+        final long end;
+        final long timeSeriesWindowMillis;
+
+        Chunk(Path file, boolean xml, long start, long end, long timeSeriesWindowMillis) {
+            this.file = file;
+            this.xml = xml;
+            this.start = start;
+            this.end = end;
+            this.timeSeriesWindowMillis = timeSeriesWindowMillis;
+        }
+
+        ChunkResult parse() throws Exception {
+            ChunkResult result = new ChunkResult(timeSeriesWindowMillis);
+            if (!xml) {
+                new CsvJtlReader().read(file, start, end, result.httpSamples);
+                return result;
+            }
+
+            if (start == 0) {
+                // The whole document, prologue included
+                try (InputStream input = new BufferedInputStream(Files.newInputStream(file), READ_BUFFER_SIZE)) {
+                    PerformanceMetricsParser.scanXml(input, result.httpSamples, result.genericSamples);
+                }
+                return result;
+            }
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                InputStream input = new SequenceInputStream(Collections.enumeration(List.of(
+                        new ByteArrayInputStream(CHUNK_START),
+                        new ByteBufferInputStream(region),
+                        new ByteArrayInputStream(CHUNK_END))));
+                PerformanceMetricsParser.scanXml(input, result.httpSamples, result.genericSamples);
+            }
+            return result;
+        }
+    }
+
+    private static class ChunkResult {
+        final SampleAggregator httpSamples;
+        final SampleAggregator genericSamples;
+
+        ChunkResult(long timeSeriesWindowMillis) {
+            httpSamples = new SampleAggregator(timeSeriesWindowMillis);
+            genericSamples = new SampleAggregator(timeSeriesWindowMillis);
+        }
+
+        ChunkResult merge(ChunkResult other) {
+            httpSamples.merge(other.httpSamples);
+            genericSamples.merge(other.genericSamples);
+            return this;
+        }
+
+        SampleAggregator selectSamples() {
+            // Same rule as the sequential parser: generic samples only count when there are no httpSamples
+            return httpSamples.getTotalSamples() > 0 ? httpSamples : genericSamples;
+        }
+    }
+
+    private static class ChunkTask extends RecursiveTask<ChunkResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+        private final long timeSeriesWindowMillis;
+
+        ChunkTask(List<Chunk> chunks, int from, int to, long timeSeriesWindowMillis) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.timeSeriesWindowMillis = timeSeriesWindowMillis;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            if (to - from == 0) {
+                return new ChunkResult(timeSeriesWindowMillis);
+            }
+            if (to - from == 1) {
+                Chunk chunk = chunks.get(from);
+                try {
+                    return chunk.parse();
+                } catch (Exception e) {
+                    throw new RuntimeException("JTL chunk parsing failed: " + chunk.file + " [" + chunk.start + ", " + chunk.end + ")", e);
+                }
+            }
+
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(chunks, from, middle, timeSeriesWindowMillis);
+            ChunkTask right = new ChunkTask(chunks, middle, to, timeSeriesWindowMillis);
+            left.fork();
+            ChunkResult rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.inditex.test.performance;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelJtlAggregatorTest {
+    private static final long START = 1_760_000_000_000L;
+    private static final int SAMPLES = 2000;
+    private static final long CHUNK_SIZE = 1024;
+
+    @Test(groups = "unit")
+    public void matchesTheSequentialParserOnCsvWithMultiLineFields() throws Exception {
+        StringBuilder csv = new StringBuilder("timeStamp,elapsed,label,responseCode,responseMessage,threadName,success,bytes\n");
+        for (int i = 0; i < SAMPLES; i++) {
+            // Every third message spans lines, one of which reads like a record of its own
+            String message = i % 3 == 0
+                    ? "\"upstream said \"\"no\"\"\n" + (START + i) + ",1,Fake,200,OK,t,true,1\nend\""
+                    : "OK";
+            csv.append(START + i * 10).append(',').append(10 + i % 90).append(',')
+                    .append(i % 2 == 0 ? "Get Price" : "Apply Promotion").append(',')
+                    .append(i % 7 == 0 ? "500" : "200").append(',').append(message).append(",Users 1-1,")
+                    .append(i % 7 != 0).append(',').append(1000 + i).append('\n');
+        }
+        Path file = tempFile(".csv", csv.toString());
+
+        PerformanceMetrics parallel = aggregate(file);
+
+        Assert.assertEquals(parallel.getTotalSamples(), SAMPLES);
+        assertSameMetrics(parallel, new PerformanceMetricsParser().parseCSVFile(file.toString()));
+    }
+
+    @Test(groups = "unit")
+    public void matchesTheSequentialParserOnXml() throws Exception {
+        Path file = tempFile(".jtl", xml("\n"));
+
+        PerformanceMetrics parallel = aggregate(file);
+
+        Assert.assertEquals(parallel.getTotalSamples(), SAMPLES * 2L);
+        assertSameMetrics(parallel, new PerformanceMetricsParser().parseJTLFile(file.toString()));
+    }
+
+    @Test(groups = "unit")
+    public void parsesMinifiedXmlAsOneChunk() throws Exception {
+        Path file = tempFile(".jtl", xml(""));
+
+        PerformanceMetrics parallel = aggregate(file);
+
+        Assert.assertEquals(parallel.getTotalSamples(), SAMPLES * 2L);
+        assertSameMetrics(parallel, new PerformanceMetricsParser().parseJTLFile(file.toString()));
+    }
+
+    /**
+     * A transaction sample per iteration, each holding two httpSamples
+     */
+    private static String xml(String lineBreak) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").append(lineBreak)
+                .append("<testResults version=\"1.2\">").append(lineBreak);
+        for (int i = 0; i < SAMPLES / 2; i++) {
+            xml.append("<sample t=\"").append(40 + i % 50).append("\" ts=\"").append(START + i * 20)
+                    .append("\" s=\"true\" lb=\"Checkout\" rc=\"200\" by=\"0\">").append(lineBreak);
+            for (int j = 0; j < 2; j++) {
+                long sample = i * 2L + j;
+                xml.append(lineBreak.isEmpty() ? "" : "  ").append("<httpSample t=\"").append(10 + sample % 90)
+                        .append("\" ts=\"").append(START + sample * 10).append("\" s=\"").append(sample % 7 != 0)
+                        .append("\" lb=\"").append(j == 0 ? "Get Price" : "Apply Promotion")
+                        .append("\" rc=\"").append(sample % 7 == 0 ? "500" : "200").append("\" by=\"").append(1000 + sample)
+                        .append("\"/>").append(lineBreak);
+            }
+            xml.append("</sample>").append(lineBreak);
+        }
+        // Top-level httpSamples too, so the file holds more than the nested ones
+        for (int i = 0; i < SAMPLES; i++) {
+            xml.append("<httpSample t=\"").append(5 + i % 40).append("\" ts=\"").append(START + 50_000 + i * 10)
+                    .append("\" s=\"true\" lb=\"Get Price\" rc=\"200\" by=\"500\"/>").append(lineBreak);
+        }
+        return xml.append("</testResults>").append(lineBreak).toString();
+    }
+
+    private static PerformanceMetrics aggregate(Path file) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            return new ParallelJtlAggregator(pool, MetricsTimeSeries.DEFAULT_WINDOW_MILLIS, CHUNK_SIZE).aggregateFile(file);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameMetrics(PerformanceMetrics actual, PerformanceMetrics expected) {
+        Assert.assertEquals(actual.getTotalSamples(), expected.getTotalSamples());
+        Assert.assertEquals(actual.getFailedSamples(), expected.getFailedSamples());
+        Assert.assertEquals(actual.getTotalBytes(), expected.getTotalBytes());
+        Assert.assertEquals(actual.getFirstSampleTimestamp(), expected.getFirstSampleTimestamp());
+        Assert.assertEquals(actual.getLastSampleTimestamp(), expected.getLastSampleTimestamp());
+        Assert.assertEquals(actual.getP50ResponseTime(), expected.getP50ResponseTime());
+        Assert.assertEquals(actual.getP99ResponseTime(), expected.getP99ResponseTime());
+        Assert.assertEquals(actual.getHttpResponseCodes(), expected.getHttpResponseCodes());
+        Assert.assertEquals(actual.getRequestMetrics().keySet(), expected.getRequestMetrics().keySet());
+    }
+
+    private static Path tempFile(String suffix, String content) throws IOException {
+        Path file = Files.createTempFile("results", suffix);
+        file.toFile().deleteOnExit();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -2,6 +2,9 @@ package com.inditex.test.performance;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
 
 public class PerformanceMetrics {
     private long totalSamples;
@@ -19,11 +22,21 @@ public class PerformanceMetrics {
     private long totalBytes;
     private double averageBytes;
     private Map<String, Integer> httpResponseCodes;
-    private Map<String, Double> requestMetrics; // per request type metrics
+    private Map<String, SamplerStatistics> samplerStatistics; // per sampler label metrics
+    private LatencyHistogram responseTimeHistogram;
+    private LatencyHistogram correctedResponseTimeHistogram; // coordinated omission corrected, null when not applied
+    private long expectedInterval;
+    private double correctedP50ResponseTime;
+    private double correctedP90ResponseTime;
+    private double correctedP95ResponseTime;
+    private double correctedP99ResponseTime;
+    private long firstSampleTimestamp;
+    private long lastSampleTimestamp;
+    private MetricsTimeSeries timeSeries; // per-window throughput, error rate and latency
 
     public PerformanceMetrics() {
         this.httpResponseCodes = new HashMap<>();
-        this.requestMetrics = new HashMap<>();
+        this.samplerStatistics = new TreeMap<>();
         this.minResponseTime = Double.MAX_VALUE;
         this.maxResponseTime = 0.0;
     }
@@ -125,6 +138,110 @@ public class PerformanceMetrics {
         this.p99ResponseTime = p99ResponseTime;
     }
 
+    public LatencyHistogram getResponseTimeHistogram() {
+        return responseTimeHistogram;
+    }
+
+    /**
+     * Sets the response time histogram and derives the standard percentiles from it
+     */
+    public void setResponseTimeHistogram(LatencyHistogram responseTimeHistogram) {
+        this.responseTimeHistogram = responseTimeHistogram;
+        if (responseTimeHistogram != null && responseTimeHistogram.getTotalCount() > 0) {
+            this.p50ResponseTime = responseTimeHistogram.getValueAtPercentile(50);
+            this.p90ResponseTime = responseTimeHistogram.getValueAtPercentile(90);
+            this.p95ResponseTime = responseTimeHistogram.getValueAtPercentile(95);
+            this.p99ResponseTime = responseTimeHistogram.getValueAtPercentile(99);
+        }
+    }
+
+    /**
+     * Returns any response time percentile (e.g. 99.9 or 99.99) from the histogram.
+     * Without a histogram only the stored p50/p90/p95/p99 values can be answered.
+     */
+    public double getResponseTimePercentile(double percentile) {
+        if (responseTimeHistogram != null) {
+            return responseTimeHistogram.getValueAtPercentile(percentile);
+        }
+        if (percentile == 50) return p50ResponseTime;
+        if (percentile == 90) return p90ResponseTime;
+        if (percentile == 95) return p95ResponseTime;
+        if (percentile == 99) return p99ResponseTime;
+        throw new IllegalStateException("No response time histogram available for percentile " + percentile);
+    }
+
+    /**
+     * Corrects the response times for coordinated omission: a closed model user waits for each
+     * response before sending its next request, so a stall hides the requests that would have
+     * been sent meanwhile and the raw percentiles only see the one slow sample. The corrected
+     * histogram back-fills a sample per expected interval missed, as if the users had kept
+     * sending one request per interval. The raw percentiles are left as measured.
+     */
+    public void applyCoordinatedOmissionCorrection(long expectedInterval) {
+        if (responseTimeHistogram == null || expectedInterval <= 0) {
+            return;
+        }
+        this.expectedInterval = expectedInterval;
+        setCorrectedResponseTimeHistogram(responseTimeHistogram.copyCorrected(expectedInterval));
+    }
+
+    public boolean isCoordinatedOmissionCorrected() {
+        return correctedResponseTimeHistogram != null;
+    }
+
+    /**
+     * Expected interval between requests the correction was applied with, 0 when not corrected
+     */
+    public long getExpectedInterval() {
+        return expectedInterval;
+    }
+
+    public LatencyHistogram getCorrectedResponseTimeHistogram() {
+        return correctedResponseTimeHistogram;
+    }
+
+    private void setCorrectedResponseTimeHistogram(LatencyHistogram correctedResponseTimeHistogram) {
+        this.correctedResponseTimeHistogram = correctedResponseTimeHistogram;
+        if (correctedResponseTimeHistogram != null && correctedResponseTimeHistogram.getTotalCount() > 0) {
+            this.correctedP50ResponseTime = correctedResponseTimeHistogram.getValueAtPercentile(50);
+            this.correctedP90ResponseTime = correctedResponseTimeHistogram.getValueAtPercentile(90);
+            this.correctedP95ResponseTime = correctedResponseTimeHistogram.getValueAtPercentile(95);
+            this.correctedP99ResponseTime = correctedResponseTimeHistogram.getValueAtPercentile(99);
+        } else {
+            this.expectedInterval = 0;
+            this.correctedP50ResponseTime = 0;
+            this.correctedP90ResponseTime = 0;
+            this.correctedP95ResponseTime = 0;
+            this.correctedP99ResponseTime = 0;
+        }
+    }
+
+    public double getCorrectedP50ResponseTime() {
+        return correctedP50ResponseTime;
+    }
+
+    public double getCorrectedP90ResponseTime() {
+        return correctedP90ResponseTime;
+    }
+
+    public double getCorrectedP95ResponseTime() {
+        return correctedP95ResponseTime;
+    }
+
+    public double getCorrectedP99ResponseTime() {
+        return correctedP99ResponseTime;
+    }
+
+    /**
+     * Returns any coordinated omission corrected percentile; the raw one when not corrected
+     */
+    public double getCorrectedResponseTimePercentile(double percentile) {
+        if (correctedResponseTimeHistogram != null) {
+            return correctedResponseTimeHistogram.getValueAtPercentile(percentile);
+        }
+        return getResponseTimePercentile(percentile);
+    }
+
     public double getThroughput() {
         return throughput;
     }
@@ -133,6 +250,32 @@ public class PerformanceMetrics {
         this.throughput = throughput;
     }
 
+    /**
+     * Derives throughput from the span between the first and last sample timestamps
+     */
+    public void calculateThroughput() {
+        long testDuration = lastSampleTimestamp - firstSampleTimestamp;
+        if (testDuration > 0) {
+            this.throughput = (double) totalSamples / (testDuration / 1000.0);
+        }
+    }
+
+    public long getFirstSampleTimestamp() {
+        return firstSampleTimestamp;
+    }
+
+    public void setFirstSampleTimestamp(long firstSampleTimestamp) {
+        this.firstSampleTimestamp = firstSampleTimestamp;
+    }
+
+    public long getLastSampleTimestamp() {
+        return lastSampleTimestamp;
+    }
+
+    public void setLastSampleTimestamp(long lastSampleTimestamp) {
+        this.lastSampleTimestamp = lastSampleTimestamp;
+    }
+
     public long getTotalBytes() {
         return totalBytes;
     }
@@ -169,16 +312,121 @@ public class PerformanceMetrics {
         httpResponseCodes.merge(code, 1, Integer::sum);
     }
 
+    /**
+     * Mean response time per sampler label, derived from {@link #getSamplerStatistics()}; read
+     * only, record samples with {@link #addRequestMetric}
+     */
     public Map<String, Double> getRequestMetrics() {
-        return requestMetrics;
+        Map<String, Double> means = new LinkedHashMap<>();
+        samplerStatistics.forEach((label, statistics) -> means.put(label, statistics.getMeanResponseTime()));
+        return Collections.unmodifiableMap(means);
+    }
+
+    public Map<String, SamplerStatistics> getSamplerStatistics() {
+        return samplerStatistics;
     }
 
-    public void setRequestMetrics(Map<String, Double> requestMetrics) {
-        this.requestMetrics = requestMetrics;
+    public void setSamplerStatistics(Map<String, SamplerStatistics> samplerStatistics) {
+        this.samplerStatistics = new TreeMap<>(samplerStatistics);
     }
 
     public void addRequestMetric(String requestName, double responseTime) {
-        requestMetrics.put(requestName, responseTime);
+        addRequestMetric(requestName, 0, responseTime, true);
+    }
+
+    public void addRequestMetric(String requestName, long timestamp, double responseTime, boolean success) {
+        samplerStatistics.computeIfAbsent(requestName, SamplerStatistics::new).record(timestamp, responseTime, success);
+    }
+
+    public MetricsTimeSeries getTimeSeries() {
+        return timeSeries;
+    }
+
+    public void setTimeSeries(MetricsTimeSeries timeSeries) {
+        this.timeSeries = timeSeries;
+    }
+
+    /**
+     * Merges partial metrics (from another chunk, file or run) into this instance.
+     * Percentiles stay exact to the histogram precision when both sides carry a
+     * response time histogram; otherwise the more pessimistic value is kept.
+     */
+    public void merge(PerformanceMetrics other) {
+        if (other.totalSamples == 0) {
+            return;
+        }
+        if (totalSamples == 0) {
+            firstSampleTimestamp = other.firstSampleTimestamp;
+            lastSampleTimestamp = other.lastSampleTimestamp;
+        } else {
+            firstSampleTimestamp = Math.min(firstSampleTimestamp, other.firstSampleTimestamp);
+            lastSampleTimestamp = Math.max(lastSampleTimestamp, other.lastSampleTimestamp);
+        }
+
+        long mergedSamples = totalSamples + other.totalSamples;
+        averageResponseTime = (averageResponseTime * totalSamples + other.averageResponseTime * other.totalSamples) / mergedSamples;
+        minResponseTime = Math.min(minResponseTime, other.minResponseTime);
+        maxResponseTime = Math.max(maxResponseTime, other.maxResponseTime);
+
+        boolean hadSamples = totalSamples > 0;
+        totalSamples = mergedSamples;
+        successfulSamples += other.successfulSamples;
+        failedSamples += other.failedSamples;
+        totalBytes += other.totalBytes;
+        other.httpResponseCodes.forEach((code, count) -> httpResponseCodes.merge(code, count, Integer::sum));
+        other.samplerStatistics.forEach((label, statistics) -> {
+            SamplerStatistics existing = samplerStatistics.get(label);
+            if (existing == null) {
+                samplerStatistics.put(label, statistics.copy());
+            } else {
+                existing.merge(statistics);
+            }
+        });
+
+        if (other.timeSeries != null && (timeSeries != null || !hadSamples)
+                && (timeSeries == null || timeSeries.getWindowMillis() == other.timeSeries.getWindowMillis())) {
+            if (timeSeries == null) {
+                timeSeries = other.timeSeries.copy();
+            } else {
+                timeSeries.merge(other.timeSeries);
+            }
+        } else {
+            // A series covering only part of the samples would be misleading
+            timeSeries = null;
+        }
+
+        if (other.responseTimeHistogram != null && (responseTimeHistogram != null || !hadSamples)) {
+            if (responseTimeHistogram == null) {
+                responseTimeHistogram = other.responseTimeHistogram.copy();
+            } else {
+                responseTimeHistogram.merge(other.responseTimeHistogram);
+            }
+            setResponseTimeHistogram(responseTimeHistogram);
+        } else {
+            responseTimeHistogram = null;
+            p50ResponseTime = Math.max(p50ResponseTime, other.p50ResponseTime);
+            p90ResponseTime = Math.max(p90ResponseTime, other.p90ResponseTime);
+            p95ResponseTime = Math.max(p95ResponseTime, other.p95ResponseTime);
+            p99ResponseTime = Math.max(p99ResponseTime, other.p99ResponseTime);
+        }
+
+        // Corrected histograms only add up when every part was corrected with the same interval
+        if (other.correctedResponseTimeHistogram != null && (!hadSamples
+                || correctedResponseTimeHistogram != null && expectedInterval == other.expectedInterval)) {
+            if (correctedResponseTimeHistogram == null) {
+                correctedResponseTimeHistogram = other.correctedResponseTimeHistogram.copy();
+            } else {
+                correctedResponseTimeHistogram.merge(other.correctedResponseTimeHistogram);
+            }
+            expectedInterval = other.expectedInterval;
+            setCorrectedResponseTimeHistogram(correctedResponseTimeHistogram);
+        } else {
+            setCorrectedResponseTimeHistogram(null);
+        }
+
+        calculateErrorRate();
+        calculateAverageBytes();
+        calculateThroughput();
     }
 
     // Helper methods for common calculations
@@ -232,6 +480,18 @@ public class PerformanceMetrics {
         report.append(String.format("90th Percentile: %.2fms\n", p90ResponseTime));
         report.append(String.format("95th Percentile: %.2fms\n", p95ResponseTime));
         report.append(String.format("99th Percentile: %.2fms\n", p99ResponseTime));
+        if (responseTimeHistogram != null && responseTimeHistogram.getTotalCount() > 0) {
+            report.append(String.format("99.9th Percentile: %.2fms\n", getResponseTimePercentile(99.9)));
+            report.append(String.format("99.99th Percentile: %.2fms\n", getResponseTimePercentile(99.99)));
+        }
+        if (correctedResponseTimeHistogram != null) {
+            report.append(String.format("\n--- Corrected Response Times (expected interval %dms) ---\n", expectedInterval));
+            report.append(String.format("50th Percentile: %.2fms\n", correctedP50ResponseTime));
+            report.append(String.format("90th Percentile: %.2fms\n", correctedP90ResponseTime));
+            report.append(String.format("95th Percentile: %.2fms\n", correctedP95ResponseTime));
+            report.append(String.format("99th Percentile: %.2fms\n", correctedP99ResponseTime));
+            report.append(String.format("99.9th Percentile: %.2fms\n", getCorrectedResponseTimePercentile(99.9)));
+        }
         
         if (!httpResponseCodes.isEmpty()) {
             report.append("\n--- HTTP Response Codes ---\n");
@@ -239,6 +499,17 @@ public class PerformanceMetrics {
                 report.append(String.format("%s: %d\n", code, count)));
         }
         
+        if (!samplerStatistics.isEmpty()) {
+            report.append("\n--- Per-Sampler Statistics ---\n");
+            report.append(String.format("%-40s %10s %8s %10s %10s %10s %10s %10s %10s\n",
+                    "Label", "Count", "Errors", "Mean", "Min", "Max", "P95", "P99", "Req/s"));
+            samplerStatistics.values().forEach(statistics -> report.append(String.format(
+                    "%-40s %10d %8d %10.2f %10.2f %10.2f %10.0f %10.0f %10.2f\n",
+                    statistics.getLabel(), statistics.getCount(), statistics.getErrorCount(),
+                    statistics.getMeanResponseTime(), statistics.getMinResponseTime(), statistics.getMaxResponseTime(),
+                    statistics.getPercentile(95), statistics.getPercentile(99), statistics.getThroughput())));
+        }
+        
         report.append(String.format("\nPerformance Grade: %s\n", getPerformanceGrade()));
         return report.toString();
     }
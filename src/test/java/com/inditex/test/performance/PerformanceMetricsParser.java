@@ -2,19 +2,29 @@ package com.inditex.test.performance;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.io.FileInputStream;
+import java.io.InputStream;
 
 public class PerformanceMetricsParser {
     private static final Logger logger = LoggerFactory.getLogger(PerformanceMetricsParser.class);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final long timeSeriesWindowMillis;
+
+    public PerformanceMetricsParser() {
+        this(MetricsTimeSeries.DEFAULT_WINDOW_MILLIS);
+    }
+
+    public PerformanceMetricsParser(long timeSeriesWindowMillis) {
+        this.timeSeriesWindowMillis = timeSeriesWindowMillis;
+    }
 
     public PerformanceMetrics parseJTLFile(String filePath) throws Exception {
         logger.info("Parsing JTL file: {}", filePath);
@@ -31,154 +41,132 @@ public class PerformanceMetricsParser {
             return metrics;
         }
 
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(file);
-
-            NodeList samples = document.getElementsByTagName("httpSample");
-            if (samples.getLength() == 0) {
-                // Try alternative tag name
-                samples = document.getElementsByTagName("sample");
-            }
-
-            if (samples.getLength() == 0) {
-                logger.warn("No samples found in JTL file: {}", filePath);
-                return metrics;
-            }
-
-            List<Double> responseTimes = new ArrayList<>();
-            long totalSamples = samples.getLength();
-            long successfulSamples = 0;
-            long failedSamples = 0;
-            long totalBytes = 0;
-            double totalResponseTime = 0;
-            double minResponseTime = Double.MAX_VALUE;
-            double maxResponseTime = 0;
-            long testStartTime = Long.MAX_VALUE;
-            long testEndTime = 0;
-
-            for (int i = 0; i < samples.getLength(); i++) {
-                Element sample = (Element) samples.item(i);
-                
-                // Parse sample attributes
-                long timestamp = Long.parseLong(sample.getAttribute("ts"));
-                double responseTime = Double.parseDouble(sample.getAttribute("t"));
-                boolean success = Boolean.parseBoolean(sample.getAttribute("s"));
-                String responseCode = sample.getAttribute("rc");
-                long bytes = sample.hasAttribute("by") ? Long.parseLong(sample.getAttribute("by")) : 0;
-                
-                // Update metrics
-                responseTimes.add(responseTime);
-                totalResponseTime += responseTime;
-                totalBytes += bytes;
-                
-                if (success) {
-                    successfulSamples++;
-                } else {
-                    failedSamples++;
-                }
-                
-                // Track response codes
-                if (!responseCode.isEmpty()) {
-                    metrics.addHttpResponseCode(responseCode);
-                }
-                
-                // Update min/max response times
-                if (responseTime < minResponseTime) {
-                    minResponseTime = responseTime;
-                }
-                if (responseTime > maxResponseTime) {
-                    maxResponseTime = responseTime;
-                }
-                
-                // Track test duration
-                if (timestamp < testStartTime) {
-                    testStartTime = timestamp;
-                }
-                if (timestamp > testEndTime) {
-                    testEndTime = timestamp;
-                }
-            }
+        SampleAggregator httpSamples = new SampleAggregator(timeSeriesWindowMillis);
+        SampleAggregator genericSamples = new SampleAggregator(timeSeriesWindowMillis);
 
-            // Set basic metrics
-            metrics.setTotalSamples(totalSamples);
-            metrics.setSuccessfulSamples(successfulSamples);
-            metrics.setFailedSamples(failedSamples);
-            metrics.calculateErrorRate();
-            
-            // Set response time metrics
-            metrics.setAverageResponseTime(totalResponseTime / totalSamples);
-            metrics.setMinResponseTime(minResponseTime == Double.MAX_VALUE ? 0 : minResponseTime);
-            metrics.setMaxResponseTime(maxResponseTime);
-            
-            // Calculate percentiles
-            Collections.sort(responseTimes);
-            metrics.setP50ResponseTime(calculatePercentile(responseTimes, 50));
-            metrics.setP90ResponseTime(calculatePercentile(responseTimes, 90));
-            metrics.setP95ResponseTime(calculatePercentile(responseTimes, 95));
-            metrics.setP99ResponseTime(calculatePercentile(responseTimes, 99));
-            
-            // Calculate throughput (requests per second)
-            long testDuration = testEndTime - testStartTime;
-            if (testDuration > 0) {
-                double throughput = (double) totalSamples / (testDuration / 1000.0);
-                metrics.setThroughput(throughput);
-            }
-            
-            // Set bytes metrics
-            metrics.setTotalBytes(totalBytes);
-            metrics.calculateAverageBytes();
-            
-            logger.info("Parsed {} samples from JTL file", totalSamples);
-            
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file), READ_BUFFER_SIZE)) {
+            scanXml(input, httpSamples, genericSamples);
         } catch (Exception e) {
             logger.error("Failed to parse JTL file: {}", filePath, e);
             throw new RuntimeException("JTL parsing failed", e);
         }
 
+        SampleAggregator samples = httpSamples.getTotalSamples() > 0 ? httpSamples : genericSamples;
+        if (samples.getTotalSamples() == 0) {
+            logger.warn("No samples found in JTL file: {}", filePath);
+            return metrics;
+        }
+
+        metrics = samples.toMetrics();
+        logger.info("Parsed {} samples from JTL file", samples.getTotalSamples());
+
         return metrics;
     }
 
-    private double calculatePercentile(List<Double> sortedValues, int percentile) {
-        if (sortedValues.isEmpty()) {
-            return 0.0;
+    /**
+     * Folds every httpSample and sample element of an XML JTL stream into the given aggregators.
+     * Callers use the generic samples only when the file has no httpSample elements at all.
+     */
+    static void scanXml(InputStream input, SampleAggregator httpSamples, SampleAggregator genericSamples) throws XMLStreamException {
+        XMLStreamReader reader = createXmlInputFactory().createXMLStreamReader(input);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+
+                String elementName = reader.getLocalName();
+                if ("httpSample".equals(elementName)) {
+                    recordSample(reader, httpSamples);
+                } else if ("sample".equals(elementName)) {
+                    recordSample(reader, genericSamples);
+                }
+            }
+        } finally {
+            reader.close();
         }
+    }
+
+    private static void recordSample(XMLStreamReader reader, SampleAggregator aggregator) {
+        long timestamp = Long.parseLong(reader.getAttributeValue(null, "ts"));
+        double responseTime = Double.parseDouble(reader.getAttributeValue(null, "t"));
+        boolean success = Boolean.parseBoolean(reader.getAttributeValue(null, "s"));
+        String responseCode = reader.getAttributeValue(null, "rc");
+        String bytesValue = reader.getAttributeValue(null, "by");
+        long bytes = bytesValue != null ? Long.parseLong(bytesValue) : 0;
+
+        String label = reader.getAttributeValue(null, "lb");
+
+        aggregator.record(timestamp, responseTime, success, responseCode, bytes, label);
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    public PerformanceMetrics parseCSVFile(String filePath) throws Exception {
+        logger.info("Parsing CSV JTL file: {}", filePath);
         
-        if (percentile < 0 || percentile > 100) {
-            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        File file = new File(filePath);
+        if (!file.exists()) {
+            throw new RuntimeException("JTL file not found: " + filePath);
         }
-        
-        if (percentile == 0) {
-            return sortedValues.get(0);
+
+        SampleAggregator samples = new SampleAggregator(timeSeriesWindowMillis);
+        try {
+            new CsvJtlReader().read(file.toPath(), samples);
+        } catch (Exception e) {
+            logger.error("Failed to parse CSV JTL file: {}", filePath, e);
+            throw new RuntimeException("CSV JTL parsing failed", e);
         }
-        
-        if (percentile == 100) {
-            return sortedValues.get(sortedValues.size() - 1);
+
+        if (samples.getTotalSamples() == 0) {
+            logger.warn("No samples found in CSV JTL file: {}", filePath);
+            return new PerformanceMetrics();
         }
-        
-        double index = (percentile / 100.0) * (sortedValues.size() - 1);
-        int lowerIndex = (int) Math.floor(index);
-        int upperIndex = (int) Math.ceil(index);
-        
-        if (lowerIndex == upperIndex) {
-            return sortedValues.get(lowerIndex);
+
+        logger.info("Parsed {} samples from CSV JTL file", samples.getTotalSamples());
+        return samples.toMetrics();
+    }
+
+    public PerformanceMetrics parseColumnarFile(String filePath) throws Exception {
+        logger.info("Parsing columnar results file: {}", filePath);
+
+        ColumnarResultReader reader = new ColumnarResultReader(new File(filePath).toPath());
+        if (reader.getSampleCount() == 0) {
+            logger.warn("No samples found in columnar results file: {}", filePath);
         }
-        
-        double lowerValue = sortedValues.get(lowerIndex);
-        double upperValue = sortedValues.get(upperIndex);
-        double weight = index - lowerIndex;
-        
-        return lowerValue + (weight * (upperValue - lowerValue));
+        return reader.toMetrics(timeSeriesWindowMillis);
     }
 
-    public PerformanceMetrics parseCSVFile(String filePath) throws Exception {
-        logger.info("Parsing CSV JTL file: {}", filePath);
-        
-        // Implementation for CSV format JTL files
-        // This would parse comma-separated values format
-        // For now, we'll delegate to XML parser or implement CSV parsing if needed
-        
-        throw new UnsupportedOperationException("CSV JTL parsing not yet implemented. Use XML format.");
+    /**
+     * Parses a results file in XML, CSV or columnar format, detected from its first bytes
+     */
+    public PerformanceMetrics parse(String filePath) throws Exception {
+        File file = new File(filePath);
+        if (isXmlFile(file)) {
+            return parseJTLFile(filePath);
+        }
+        return ColumnarResultReader.isColumnarFile(file.toPath()) ? parseColumnarFile(filePath) : parseCSVFile(filePath);
+    }
+
+    private boolean isXmlFile(File file) throws Exception {
+        if (!file.exists()) {
+            throw new RuntimeException("JTL file not found: " + file.getPath());
+        }
+
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            int b;
+            while ((b = input.read()) != -1) {
+                if (!Character.isWhitespace(b) && b != 0xEF && b != 0xBB && b != 0xBF) {
+                    return b == '<';
+                }
+            }
+        }
+        return false;
     }
 }
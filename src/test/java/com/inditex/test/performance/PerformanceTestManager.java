@@ -9,10 +9,12 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Function;
 
 /**
  * Comprehensive performance testing manager for the InditexPromotionsTest framework.
@@ -25,9 +27,26 @@ public class PerformanceTestManager {
     private static final String JMETER_HOME = ConfigManager.getProperty("jmeter.home", "/opt/jmeter");
     private static final String JMETER_PLANS_DIR = "src/test/resources/jmeter";
     private static final String RESULTS_DIR = "target/performance-results";
+    private static final boolean PARALLEL_AGGREGATION = ConfigManager.getBooleanProperty("performance.aggregation.parallel", true);
+    private static final LoadModel LOAD_MODEL = ConfigManager.getEnumProperty("performance.load.model", LoadModel.CLOSED);
+    private static final long TIME_SERIES_WINDOW_MS = ConfigManager.getIntProperty("performance.timeseries.window.ms", 1000);
+    private static final boolean TELEMETRY_ENABLED = GeneratorTelemetry.isEnabled();
+    private static final long EXPECTED_INTERVAL_MS = ConfigManager.getIntProperty("performance.latency.expected.interval.ms", 0);
+    private static final double SPIKE_RECOVERY_TOLERANCE = 1.5; // p99 within 1.5x of the pre-spike median
+    private static final int COOL_DOWN_SECONDS = ConfigManager.getIntProperty("performance.scenarios.cooldown.seconds", 60);
+    private static final boolean COLUMNAR_RESULTS = ConfigManager.getBooleanProperty("performance.results.columnar", false);
+    private static final boolean DELETE_CONVERTED_JTL = ConfigManager.getBooleanProperty("performance.results.columnar.delete.jtl", false);
     
     private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final ParallelJtlAggregator parallelAggregator =
+        new ParallelJtlAggregator(ForkJoinPool.commonPool(), TIME_SERIES_WINDOW_MS);
+    private final BaselineStore baselineStore = BaselineStore.fromConfig();
+    // Isolated runs cost a cool-down each and only pay off as solo baselines, so they are the
+    // default only when baselines are recorded
+    private final ScenarioExecutionMode executionMode = ConfigManager.getEnumProperty("performance.scenarios.mode",
+        baselineStore != null ? ScenarioExecutionMode.ISOLATED : ScenarioExecutionMode.CONCURRENT);
     private final Map<String, PerformanceTestResult> testResults = new ConcurrentHashMap<>();
+    private ScenarioInterferenceReport interferenceReport;
     
     /**
      * Executes all performance test scenarios
@@ -42,22 +61,12 @@ public class PerformanceTestManager {
             // Generate JMeter test plans
             generateTestPlans();
             
-            // Execute different types of performance tests
-            List<Future<PerformanceTestResult>> futures = new ArrayList<>();
+            // Execute different types of performance tests, scheduled so they cannot skew each other
+            executeScenarios(createScenarios());
             
-            futures.add(executorService.submit(this::executeLoadTest));
-            futures.add(executorService.submit(this::executeStressTest));
-            futures.add(executorService.submit(this::executeEnduranceTest));
-            futures.add(executorService.submit(this::executeSpikeTest));
-            
-            // Wait for all tests to complete
-            for (Future<PerformanceTestResult> future : futures) {
-                try {
-                    PerformanceTestResult result = future.get(30, TimeUnit.MINUTES);
-                    testResults.put(result.testName, result);
-                } catch (Exception e) {
-                    logger.error("Performance test execution failed", e);
-                }
+            // Combined view of every scenario's results
+            if (PARALLEL_AGGREGATION) {
+                logAggregatedResults();
             }
             
             // Generate comprehensive report
@@ -74,16 +83,120 @@ public class PerformanceTestManager {
     }
     
     /**
-     * Executes load testing with 1000+ concurrent users
+     * The performance scenarios by name; the name also keys their results directory and partition target
+     */
+    private Map<String, Function<ScenarioRun, PerformanceTestResult>> createScenarios() {
+        Map<String, Function<ScenarioRun, PerformanceTestResult>> scenarios = new LinkedHashMap<>();
+        scenarios.put("load", this::executeLoadTest);
+        scenarios.put("stress", this::executeStressTest);
+        scenarios.put("endurance", this::executeEnduranceTest);
+        scenarios.put("spike", this::executeSpikeTest);
+        return scenarios;
+    }
+    
+    /**
+     * Runs the scenarios according to the execution mode. Every scenario writes to its own
+     * results directory, and the scenarios that ran alongside others are compared with their
+     * solo baselines in the interference report.
      */
-    private PerformanceTestResult executeLoadTest() {
-        logger.info("Executing load test with 1000+ concurrent users");
+    private void executeScenarios(Map<String, Function<ScenarioRun, PerformanceTestResult>> scenarios) throws InterruptedException {
+        ScenarioExecutionMode mode = executionMode;
+        Map<String, String> partitionTargets = new HashMap<>();
+        if (mode == ScenarioExecutionMode.PARTITIONED) {
+            for (String scenario : scenarios.keySet()) {
+                String target = ConfigManager.getProperty("performance.scenarios.partition." + scenario + ".base.url");
+                if (target != null) {
+                    partitionTargets.put(scenario, target);
+                }
+            }
+            if (partitionTargets.size() < scenarios.size() || new HashSet<>(partitionTargets.values()).size() < scenarios.size()) {
+                logger.warn("Partitioned mode needs a distinct performance.scenarios.partition.<scenario>.base.url for each of {}, "
+                    + "running scenarios isolated instead", scenarios.keySet());
+                mode = ScenarioExecutionMode.ISOLATED;
+            }
+        }
+        logger.info("Executing performance scenarios {} in {} mode", scenarios.keySet(), mode);
+        
+        Map<String, Function<ScenarioRun, PerformanceTestResult>> concurrent = new LinkedHashMap<>();
+        Map<String, Function<ScenarioRun, PerformanceTestResult>> serial = new LinkedHashMap<>();
+        if (mode == ScenarioExecutionMode.PARTITIONED || mode == ScenarioExecutionMode.CONCURRENT) {
+            concurrent.putAll(scenarios);
+        } else if (mode == ScenarioExecutionMode.MIXED) {
+            List<String> mix = Arrays.asList(ConfigManager.getProperty("performance.scenarios.mixed", "load,spike").split("\\s*,\\s*"));
+            scenarios.forEach((name, scenario) -> (mix.contains(name) ? concurrent : serial).put(name, scenario));
+        } else {
+            serial.putAll(scenarios);
+        }
         
+        ScenarioInterferenceReport interference = new ScenarioInterferenceReport(mode);
+        
+        // Concurrent scenarios, each on its own partition target when partitioned
+        List<Future<PerformanceTestResult>> futures = new ArrayList<>();
+        for (Map.Entry<String, Function<ScenarioRun, PerformanceTestResult>> scenario : concurrent.entrySet()) {
+            ScenarioRun run = new ScenarioRun(scenario.getKey(), partitionTargets.get(scenario.getKey()), true);
+            futures.add(executorService.submit(() -> scenario.getValue().apply(run)));
+        }
+        for (Future<PerformanceTestResult> future : futures) {
+            try {
+                recordResult(future.get(30, TimeUnit.MINUTES), true, interference);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Performance test execution failed", e);
+            }
+        }
+        
+        // Isolated scenarios, one at a time with a cool-down so the system settles in between
+        boolean first = concurrent.isEmpty();
+        for (Map.Entry<String, Function<ScenarioRun, PerformanceTestResult>> scenario : serial.entrySet()) {
+            if (!first && COOL_DOWN_SECONDS > 0) {
+                logger.info("Cooling down for {}s before {} scenario", COOL_DOWN_SECONDS, scenario.getKey());
+                Thread.sleep(COOL_DOWN_SECONDS * 1000L);
+            }
+            first = false;
+            recordResult(scenario.getValue().apply(new ScenarioRun(scenario.getKey(), null, false)), false, interference);
+        }
+        
+        // Interference is judged against solo baselines, which are only recorded with baselines enabled
+        if (baselineStore == null) {
+            if (!concurrent.isEmpty()) {
+                logger.info("No scenario interference report: enable performance.baseline.enabled to record solo baselines");
+            }
+            return;
+        }
+        interferenceReport = interference;
+        logger.info("{}", interferenceReport);
+        interferenceReport.getFindings().forEach(logger::warn);
+    }
+    
+    private void recordResult(PerformanceTestResult result, boolean concurrent, ScenarioInterferenceReport interference) {
+        testResults.put(result.testName, result);
+        if (result.metrics != null && result.metrics.totalSamples > 0) {
+            List<BaselineRecord> soloBaselines = concurrent && baselineStore != null
+                ? baselineStore.loadSolo(result.testName) : Collections.emptyList();
+            interference.addScenario(result.testName, concurrent, result.metrics.p95ResponseTime, soloBaselines);
+        }
+    }
+    
+    /**
+     * Executes load testing with 1000+ concurrent users
+     */
+    private PerformanceTestResult executeLoadTest(ScenarioRun run) {
         try {
-            String testPlan = "promotional_load_test.jmx";
-            String resultFile = "load_test_results.jtl";
+            String testPlan;
+            String resultFile;
+            if (LOAD_MODEL == LoadModel.OPEN) {
+                // Constant arrival rate keeps latency honest when the system slows down
+                logger.info("Executing open model load test at a constant arrival rate");
+                testPlan = "promotional_arrival_rate_test.jmx";
+                resultFile = "arrival_rate_test_results.jtl";
+            } else {
+                logger.info("Executing load test with 1000+ concurrent users");
+                testPlan = "promotional_load_test.jmx";
+                resultFile = "load_test_results.jtl";
+            }
             
-            PerformanceTestResult result = executeJMeterTest(testPlan, resultFile, "Load Test");
+            PerformanceTestResult result = executeJMeterTest(testPlan, resultFile, "Load Test", run);
             
             // Validate load test thresholds
             validateLoadTestResults(result);
@@ -99,14 +212,14 @@ public class PerformanceTestManager {
     /**
      * Executes stress testing to find failure points
      */
-    private PerformanceTestResult executeStressTest() {
+    private PerformanceTestResult executeStressTest(ScenarioRun run) {
         logger.info("Executing stress test to find failure points");
         
         try {
             String testPlan = "promotional_stress_test.jmx";
             String resultFile = "stress_test_results.jtl";
             
-            PerformanceTestResult result = executeJMeterTest(testPlan, resultFile, "Stress Test");
+            PerformanceTestResult result = executeJMeterTest(testPlan, resultFile, "Stress Test", run);
             
             // Analyze stress test results for failure points
             analyzeStressTestResults(result);
@@ -122,14 +235,14 @@ public class PerformanceTestManager {
     /**
      * Executes endurance testing for extended periods
      */
-    private PerformanceTestResult executeEnduranceTest() {
+    private PerformanceTestResult executeEnduranceTest(ScenarioRun run) {
         logger.info("Executing endurance test for extended periods");
         
         try {
             String testPlan = "promotional_endurance_test.jmx";
             String resultFile = "endurance_test_results.jtl";
             
-            PerformanceTestResult result = executeJMeterTest(testPlan, resultFile, "Endurance Test");
+            PerformanceTestResult result = executeJMeterTest(testPlan, resultFile, "Endurance Test", run);
             
             // Check for memory leaks and performance degradation
             analyzeEnduranceTestResults(result);
@@ -145,14 +258,14 @@ public class PerformanceTestManager {
     /**
      * Executes spike testing for traffic bursts
      */
-    private PerformanceTestResult executeSpikeTest() {
+    private PerformanceTestResult executeSpikeTest(ScenarioRun run) {
         logger.info("Executing spike test for traffic bursts");
         
         try {
             String testPlan = "promotional_spike_test.jmx";
             String resultFile = "spike_test_results.jtl";
             
-            PerformanceTestResult result = executeJMeterTest(testPlan, resultFile, "Spike Test");
+            PerformanceTestResult result = executeJMeterTest(testPlan, resultFile, "Spike Test", run);
             
             // Analyze spike recovery and system stability
             analyzeSpikeTestResults(result);
@@ -168,54 +281,75 @@ public class PerformanceTestManager {
     /**
      * Executes JMeter test plan and returns results
      */
-    private PerformanceTestResult executeJMeterTest(String testPlan, String resultFile, String testName) throws Exception {
+    private PerformanceTestResult executeJMeterTest(String testPlan, String resultFile, String testName, ScenarioRun run) throws Exception {
         logger.info("Executing JMeter test: {}", testPlan);
         
         File testPlanFile = new File(JMETER_PLANS_DIR, testPlan);
-        File resultFileObj = new File(RESULTS_DIR, resultFile);
+        File resultFileObj = new File(run.resultsDir, resultFile);
         
         if (!testPlanFile.exists()) {
             throw new RuntimeException("Test plan not found: " + testPlanFile.getAbsolutePath());
         }
         
-        // Ensure results directory exists
+        // Ensure results directory exists; plan listeners write relative files into the working directory
         resultFileObj.getParentFile().mkdirs();
+        run.workDir.mkdirs();
         
         // Build JMeter command
-        List<String> command = Arrays.asList(
+        List<String> command = new ArrayList<>(Arrays.asList(
             JMETER_HOME + "/bin/jmeter",
             "-n", // non-GUI mode
             "-t", testPlanFile.getAbsolutePath(), // test plan
             "-l", resultFileObj.getAbsolutePath(), // results log
-            "-j", new File(RESULTS_DIR, testName.toLowerCase().replace(" ", "_") + ".log").getAbsolutePath(), // JMeter log
+            "-j", new File(run.resultsDir, testName.toLowerCase().replace(" ", "_") + ".log").getAbsolutePath(), // JMeter log
             "-Jjmeter.reportgenerator.overall_granularity=60000", // report granularity
             "-e", // generate report
-            "-o", new File(RESULTS_DIR, testName.toLowerCase().replace(" ", "_") + "_report").getAbsolutePath() // report output
-        );
+            "-o", new File(run.resultsDir, testName.toLowerCase().replace(" ", "_") + "_report").getAbsolutePath() // report output
+        ));
+        if (run.baseUrl != null) {
+            command.add("-Jbase.url=" + run.baseUrl); // partition target
+        }
         
         long startTime = System.currentTimeMillis();
         
         // Execute JMeter
         ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.directory(run.workDir);
         processBuilder.redirectErrorStream(true);
+        String reportName = testName.toLowerCase().replace(" ", "_");
+        Path gcLog = new File(run.resultsDir, reportName + "_gc.log").toPath();
+        if (TELEMETRY_ENABLED) {
+            // The JMeter launcher passes JVM_ARGS on to its JVM
+            processBuilder.environment().merge("JVM_ARGS", GeneratorTelemetry.gcLogOption(gcLog), (set, gc) -> set + " " + gc);
+        }
         
         Process process = processBuilder.start();
+        GeneratorTelemetry telemetry = TELEMETRY_ENABLED ? GeneratorTelemetry.forProcess(process, gcLog) : null;
+        if (telemetry != null) {
+            telemetry.start();
+        }
         
-        // Capture output
         StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-                logger.debug("JMeter: {}", line);
+        try {
+            // Capture output
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.append(line).append("\n");
+                    logger.debug("JMeter: {}", line);
+                }
+            }
+            
+            // Wait for completion
+            boolean finished = process.waitFor(30, TimeUnit.MINUTES);
+            if (!finished) {
+                process.destroyForcibly();
+                throw new RuntimeException("JMeter test timed out after 30 minutes");
+            }
+        } finally {
+            if (telemetry != null) {
+                telemetry.stop();
             }
-        }
-        
-        // Wait for completion
-        boolean finished = process.waitFor(30, TimeUnit.MINUTES);
-        if (!finished) {
-            process.destroyForcibly();
-            throw new RuntimeException("JMeter test timed out after 30 minutes");
         }
         
         long duration = System.currentTimeMillis() - startTime;
@@ -226,96 +360,133 @@ public class PerformanceTestManager {
         }
         
         // Parse results
-        PerformanceMetrics metrics = parseJMeterResults(resultFileObj);
+        com.inditex.test.performance.PerformanceMetrics parsed = parseJMeterResults(resultFileObj);
+        if (!"promotional_arrival_rate_test.jmx".equals(testPlan)) {
+            // Closed model threads wait for each response, so stalls hide the requests they held back
+            parsed.applyCoordinatedOmissionCorrection(EXPECTED_INTERVAL_MS);
+        }
+        PerformanceMetrics metrics = parsed.getTotalSamples() > 0
+            ? PerformanceMetrics.from(parsed) : new PerformanceMetrics(0, 0, 0, 0, 0, 0, 0, 0, 0);
         
         logger.info("JMeter test completed: {} in {} ms", testPlan, duration);
         
+        // A saturated generator measured its own queueing, the run is rejected and kept out of the baselines
+        if (telemetry != null) {
+            File telemetryFile = new File(run.resultsDir, reportName + "_telemetry.csv");
+            try {
+                telemetry.writeCsv(telemetryFile.toPath());
+            } catch (IOException e) {
+                logger.warn("Failed to write generator telemetry to {}", telemetryFile.getAbsolutePath(), e);
+            }
+            if (telemetry.isSaturated()) {
+                return new PerformanceTestResult(testName, false, "Load generator saturated: " + telemetry.getSaturationReason(), metrics);
+            }
+        }
+        
+        BaselineComparison comparison = compareWithBaseline(testName, parsed, startTime, run.concurrent);
+        if (comparison != null && comparison.isRegression()) {
+            return new PerformanceTestResult(testName, false,
+                "Performance regression against baseline: " + comparison.getSummary(), metrics);
+        }
         return new PerformanceTestResult(testName, true, "Test completed successfully", metrics);
     }
     
+    /**
+     * Compares the run with the recorded baselines of the scenario and records it; null when
+     * baselines are disabled or there is nothing to compare with yet
+     */
+    private BaselineComparison compareWithBaseline(String testName, com.inditex.test.performance.PerformanceMetrics parsed,
+                                                   long startTime, boolean concurrent) {
+        if (baselineStore == null) {
+            return null;
+        }
+        com.inditex.test.performance.PerformanceTestResult run = new com.inditex.test.performance.PerformanceTestResult();
+        run.setTestName(testName);
+        run.setStartTime(startTime);
+        run.setMetrics(parsed);
+        return baselineStore.evaluate(run, concurrent);
+    }
+    
     /**
      * Parses JMeter results file and extracts performance metrics
      */
-    private PerformanceMetrics parseJMeterResults(File resultFile) throws IOException {
+    private com.inditex.test.performance.PerformanceMetrics parseJMeterResults(File resultFile) throws Exception {
         logger.debug("Parsing JMeter results from: {}", resultFile.getAbsolutePath());
         
-        int totalSamples = 0;
-        int errorSamples = 0;
-        long totalResponseTime = 0;
-        long minResponseTime = Long.MAX_VALUE;
-        long maxResponseTime = Long.MIN_VALUE;
-        List<Long> responseTimes = new ArrayList<>();
-        
-        try (Scanner scanner = new Scanner(resultFile)) {
-            // Skip header line if present
-            if (scanner.hasNextLine()) {
-                String header = scanner.nextLine();
-                if (!header.startsWith("timestamp")) {
-                    // First line is data, process it
-                    processJMeterResultLine(header, responseTimes);
-                    totalSamples++;
-                }
-            }
-            
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (line.trim().isEmpty()) continue;
-                
-                String[] parts = line.split(",");
-                if (parts.length >= 3) {
-                    try {
-                        long responseTime = Long.parseLong(parts[1]); // elapsed time
-                        boolean success = "true".equals(parts[7]); // success flag
-                        
-                        totalSamples++;
-                        totalResponseTime += responseTime;
-                        responseTimes.add(responseTime);
-                        
-                        if (!success) {
-                            errorSamples++;
-                        }
-                        
-                        minResponseTime = Math.min(minResponseTime, responseTime);
-                        maxResponseTime = Math.max(maxResponseTime, responseTime);
-                        
-                    } catch (NumberFormatException e) {
-                        logger.warn("Invalid response time in results: {}", line);
-                    }
-                }
-            }
-        }
+        com.inditex.test.performance.PerformanceMetrics parsed = PARALLEL_AGGREGATION
+            ? parallelAggregator.aggregateFile(resultFile.toPath())
+            : new PerformanceMetricsParser(TIME_SERIES_WINDOW_MS).parse(resultFile.getAbsolutePath());
         
-        if (totalSamples == 0) {
+        if (parsed.getTotalSamples() == 0) {
             logger.warn("No valid samples found in results file");
-            return new PerformanceMetrics(0, 0, 0, 0, 0, 0, 0, 0, 0);
+            return parsed;
         }
         
-        // Calculate metrics
-        double averageResponseTime = (double) totalResponseTime / totalSamples;
-        double errorPercentage = (double) errorSamples / totalSamples * 100;
+        exportTimeSeries(parsed.getTimeSeries(), resultFile);
+        if (COLUMNAR_RESULTS) {
+            convertToColumnar(resultFile);
+        }
         
-        // Calculate percentiles
-        Collections.sort(responseTimes);
-        long p90ResponseTime = responseTimes.get((int) (responseTimes.size() * 0.9));
-        long p95ResponseTime = responseTimes.get((int) (responseTimes.size() * 0.95));
-        long p99ResponseTime = responseTimes.get((int) (responseTimes.size() * 0.99));
+        return parsed;
+    }
+    
+    /**
+     * Rewrites a CSV results file as a columnar .prfc file next to it for compact archiving
+     * and fast time-range reads, dropping the JTL afterwards when configured to
+     */
+    private void convertToColumnar(File resultFile) {
+        String baseName = resultFile.getName().replaceFirst("\\.[^.]+$", "");
+        File columnarFile = new File(resultFile.getParentFile(), baseName + ".prfc");
+        try (ColumnarResultWriter writer = new ColumnarResultWriter(columnarFile.toPath())) {
+            new CsvJtlReader().read(resultFile.toPath(), writer);
+        } catch (Exception e) {
+            logger.warn("Failed to convert results to columnar format, keeping only: {}", resultFile.getAbsolutePath(), e);
+            columnarFile.delete();
+            return;
+        }
         
-        return new PerformanceMetrics(
-            totalSamples, errorSamples, errorPercentage, averageResponseTime,
-            minResponseTime, maxResponseTime, p90ResponseTime, p95ResponseTime, p99ResponseTime
-        );
+        logger.info("Columnar results written to: {} ({} bytes, JTL {} bytes)",
+            columnarFile.getAbsolutePath(), columnarFile.length(), resultFile.length());
+        if (DELETE_CONVERTED_JTL && !resultFile.delete()) {
+            logger.warn("Failed to delete converted results file: {}", resultFile.getAbsolutePath());
+        }
     }
     
-    private void processJMeterResultLine(String line, List<Long> responseTimes) {
-        // Process first line if it contains data
-        String[] parts = line.split(",");
-        if (parts.length >= 3) {
-            try {
-                long responseTime = Long.parseLong(parts[1]);
-                responseTimes.add(responseTime);
-            } catch (NumberFormatException e) {
-                // This was actually a header line, ignore
+    /**
+     * Writes the windowed time series next to the results file as CSV and JSON
+     */
+    private void exportTimeSeries(MetricsTimeSeries timeSeries, File resultFile) {
+        if (timeSeries == null || timeSeries.getWindowCount() == 0) {
+            return;
+        }
+        
+        String baseName = resultFile.getName().replaceFirst("\\.[^.]+$", "");
+        File csvFile = new File(resultFile.getParentFile(), baseName + "_timeseries.csv");
+        File jsonFile = new File(resultFile.getParentFile(), baseName + "_timeseries.json");
+        try {
+            timeSeries.writeCsv(csvFile.toPath());
+            timeSeries.writeJson(jsonFile.toPath());
+            logger.debug("Time series with {} windows written to: {}", timeSeries.getWindowCount(), csvFile.getAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Failed to write time series for: {}", resultFile.getAbsolutePath(), e);
+        }
+    }
+    
+    /**
+     * Merges the result files of all scenarios with fork/join aggregation and logs the combined metrics
+     */
+    private void logAggregatedResults() {
+        try {
+            com.inditex.test.performance.PerformanceMetrics combined = new com.inditex.test.performance.PerformanceMetrics();
+            File[] scenarioDirs = new File(RESULTS_DIR).listFiles(File::isDirectory);
+            if (scenarioDirs != null) {
+                for (File scenarioDir : scenarioDirs) {
+                    combined.merge(parallelAggregator.aggregateDirectory(scenarioDir.toPath()));
+                }
             }
+            logger.info("Combined results of all performance scenarios: {}", combined);
+        } catch (Exception e) {
+            logger.warn("Failed to aggregate combined performance results", e);
         }
     }
     
@@ -429,6 +600,17 @@ public class PerformanceTestManager {
             findings.add("Spike test shows slow recovery from traffic bursts");
         }
         
+        MetricsTimeSeries timeSeries = result.metrics.timeSeries;
+        if (timeSeries != null && timeSeries.getWindowCount() > 1) {
+            long recoveryTime = timeSeries.getRecoveryTimeMillis(99, SPIKE_RECOVERY_TOLERANCE);
+            if (recoveryTime < 0) {
+                findings.add("Spike test p99 response time did not return to its pre-spike level");
+            } else {
+                findings.add(String.format("Spike test p99 response time recovered to its pre-spike level in %.1f s",
+                    recoveryTime / 1000.0));
+            }
+        }
+        
         logger.info("Spike test analysis findings:");
         findings.forEach(logger::info);
         result.addFindings(findings);
@@ -527,7 +709,7 @@ public class PerformanceTestManager {
         
         for (PerformanceTestResult result : testResults.values()) {
             html.append("<tr>\n");
-            html.append("<td>").append(result.testName).append("</td>\n");
+            html.append("<td>").append(escapeHtml(result.testName)).append("</td>\n");
             html.append("<td class=\"").append(result.success ? "success" : "failure").append("\">")
                 .append(result.success ? "PASS" : "FAIL").append("</td>\n");
             
@@ -545,13 +727,37 @@ public class PerformanceTestManager {
         
         html.append("</table>\n");
         
+        // Scenario Interference
+        if (interferenceReport != null) {
+            html.append("<h2>Scenario Interference (").append(interferenceReport.getMode()).append(" mode)</h2>\n");
+            html.append("<table>\n");
+            html.append("<tr><th>Scenario</th><th>Ran With Others</th><th>p95</th><th>p95 Solo Baseline</th><th>Ratio</th></tr>\n");
+            for (ScenarioInterferenceReport.Entry entry : interferenceReport.getEntries()) {
+                html.append("<tr>");
+                html.append("<td>").append(escapeHtml(entry.getScenario())).append("</td>");
+                html.append("<td>").append(entry.isConcurrent() ? "yes" : "no").append("</td>");
+                html.append("<td>").append(entry.getP95()).append(" ms</td>");
+                if (!entry.isConcurrent()) {
+                    html.append("<td>-</td><td>-</td>");
+                } else if (!entry.hasSoloBaseline()) {
+                    html.append("<td colspan=\"2\" class=\"warning\">No solo baseline</td>");
+                } else {
+                    html.append("<td>").append(entry.getSoloP95()).append(" ms (").append(entry.getSoloRuns()).append(" runs)</td>");
+                    html.append("<td class=\"").append(entry.isInterfered() ? "warning" : "success").append("\">")
+                        .append(String.format("%.2f", entry.getInterferenceRatio())).append("</td>");
+                }
+                html.append("</tr>\n");
+            }
+            html.append("</table>\n");
+        }
+        
         // Detailed Results
         html.append("<h2>Detailed Results</h2>\n");
         
         for (PerformanceTestResult result : testResults.values()) {
-            html.append("<h3>").append(result.testName).append("</h3>\n");
+            html.append("<h3>").append(escapeHtml(result.testName)).append("</h3>\n");
             html.append("<p><strong>Status:</strong> ").append(result.success ? "PASS" : "FAIL").append("</p>\n");
-            html.append("<p><strong>Message:</strong> ").append(result.message).append("</p>\n");
+            html.append("<p><strong>Message:</strong> ").append(escapeHtml(result.message)).append("</p>\n");
             
             if (result.metrics != null) {
                 html.append("<table>\n");
@@ -565,13 +771,36 @@ public class PerformanceTestManager {
                 html.append("<tr><td>90th Percentile</td><td>").append(result.metrics.p90ResponseTime).append(" ms</td></tr>\n");
                 html.append("<tr><td>95th Percentile</td><td>").append(result.metrics.p95ResponseTime).append(" ms</td></tr>\n");
                 html.append("<tr><td>99th Percentile</td><td>").append(result.metrics.p99ResponseTime).append(" ms</td></tr>\n");
+                if (result.metrics.correctedP99ResponseTime > 0) {
+                    html.append("<tr><td>99th Percentile (corrected)</td><td>").append(result.metrics.correctedP99ResponseTime).append(" ms</td></tr>\n");
+                }
                 html.append("</table>\n");
+                
+                if (!result.metrics.samplerStatistics.isEmpty()) {
+                    html.append("<h4>Per-Sampler Breakdown</h4>\n");
+                    html.append("<table>\n");
+                    html.append("<tr><th>Sampler</th><th>Count</th><th>Errors</th><th>Mean</th><th>Min</th><th>Max</th><th>95th Percentile</th><th>99th Percentile</th><th>Throughput</th></tr>\n");
+                    for (SamplerStatistics statistics : result.metrics.samplerStatistics.values()) {
+                        html.append("<tr>");
+                        html.append("<td>").append(escapeHtml(statistics.getLabel())).append("</td>");
+                        html.append("<td>").append(statistics.getCount()).append("</td>");
+                        html.append("<td>").append(statistics.getErrorCount()).append("</td>");
+                        html.append("<td>").append(String.format("%.2f ms", statistics.getMeanResponseTime())).append("</td>");
+                        html.append("<td>").append(String.format("%.0f ms", statistics.getMinResponseTime())).append("</td>");
+                        html.append("<td>").append(String.format("%.0f ms", statistics.getMaxResponseTime())).append("</td>");
+                        html.append("<td>").append(String.format("%.0f ms", statistics.getPercentile(95))).append("</td>");
+                        html.append("<td>").append(String.format("%.0f ms", statistics.getPercentile(99))).append("</td>");
+                        html.append("<td>").append(String.format("%.2f req/s", statistics.getThroughput())).append("</td>");
+                        html.append("</tr>\n");
+                    }
+                    html.append("</table>\n");
+                }
             }
             
             if (result.warnings != null && !result.warnings.isEmpty()) {
                 html.append("<h4>Warnings</h4>\n<ul>\n");
                 for (String warning : result.warnings) {
-                    html.append("<li class=\"warning\">").append(warning).append("</li>\n");
+                    html.append("<li class=\"warning\">").append(escapeHtml(warning)).append("</li>\n");
                 }
                 html.append("</ul>\n");
             }
@@ -579,7 +808,7 @@ public class PerformanceTestManager {
             if (result.findings != null && !result.findings.isEmpty()) {
                 html.append("<h4>Analysis Findings</h4>\n<ul>\n");
                 for (String finding : result.findings) {
-                    html.append("<li>").append(finding).append("</li>\n");
+                    html.append("<li>").append(escapeHtml(finding)).append("</li>\n");
                 }
                 html.append("</ul>\n");
             }
@@ -590,8 +819,32 @@ public class PerformanceTestManager {
         return html.toString();
     }
     
+    private static String escapeHtml(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+    
     // Data classes
     
+    /**
+     * Where one scenario run writes its results and which target it uses
+     */
+    private static class ScenarioRun {
+        final File resultsDir;
+        final File workDir;
+        final String baseUrl; // partition target, null for the configured base URL
+        final boolean concurrent; // other scenarios run at the same time
+        
+        ScenarioRun(String scenario, String baseUrl, boolean concurrent) {
+            this.resultsDir = new File(RESULTS_DIR, scenario);
+            this.workDir = new File(resultsDir, "work");
+            this.baseUrl = baseUrl;
+            this.concurrent = concurrent;
+        }
+    }
+    
     public static class PerformanceTestResult {
         final String testName;
         final boolean success;
@@ -626,6 +879,9 @@ public class PerformanceTestManager {
         final long p90ResponseTime;
         final long p95ResponseTime;
         final long p99ResponseTime;
+        long correctedP99ResponseTime; // coordinated omission corrected, 0 when not corrected
+        Map<String, SamplerStatistics> samplerStatistics = Collections.emptyMap();
+        MetricsTimeSeries timeSeries;
         
         public PerformanceMetrics(int totalSamples, int errorSamples, double errorPercentage,
                                 double averageResponseTime, long minResponseTime, long maxResponseTime,
@@ -640,5 +896,18 @@ public class PerformanceTestManager {
             this.p95ResponseTime = p95ResponseTime;
             this.p99ResponseTime = p99ResponseTime;
         }
+        
+        static PerformanceMetrics from(com.inditex.test.performance.PerformanceMetrics parsed) {
+            PerformanceMetrics metrics = new PerformanceMetrics(
+                (int) parsed.getTotalSamples(), (int) parsed.getFailedSamples(), parsed.getErrorRate() * 100,
+                parsed.getAverageResponseTime(), Math.round(parsed.getMinResponseTime()),
+                Math.round(parsed.getMaxResponseTime()), Math.round(parsed.getP90ResponseTime()),
+                Math.round(parsed.getP95ResponseTime()), Math.round(parsed.getP99ResponseTime())
+            );
+            metrics.correctedP99ResponseTime = Math.round(parsed.getCorrectedP99ResponseTime());
+            metrics.samplerStatistics = parsed.getSamplerStatistics();
+            metrics.timeSeries = parsed.getTimeSeries();
+            return metrics;
+        }
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.inditex.test.performance;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PerformanceTestResult {
     private String testName;
     private long startTime;
@@ -9,6 +12,12 @@ public class PerformanceTestResult {
     private PerformanceMetrics metrics;
     private boolean passed;
     private String failureReason;
+    private String abortReason;
+    private List<StressStepResult> stepResults = new ArrayList<>();
+    private int kneePointUsers; // users at the first step breaking the thresholds, 0 if none did
+    private int maxSustainableUsers;
+    private BaselineComparison baselineComparison;
+    private String generatorSaturation; // what saturated the load generator, null when it kept up
 
     public PerformanceTestResult() {
         this.passed = true;
@@ -79,40 +88,92 @@ public class PerformanceTestResult {
         this.passed = false;
     }
 
-    public void validateThresholds(StressTestConfig.PerformanceThresholds thresholds) {
-        if (metrics == null) {
-            setFailureReason("No performance metrics available for validation");
-            return;
-        }
+    public String getAbortReason() {
+        return abortReason;
+    }
 
-        StringBuilder failures = new StringBuilder();
+    /**
+     * Records that the test was stopped early; an aborted test always fails
+     */
+    public void setAbortReason(String abortReason) {
+        this.abortReason = abortReason;
+        setFailureReason("Test aborted: " + abortReason);
+    }
 
-        // Check response time threshold
-        if (metrics.getAverageResponseTime() > thresholds.getMaxResponseTime()) {
-            failures.append(String.format("Average response time (%.2fms) exceeds threshold (%dms). ",
-                    metrics.getAverageResponseTime(), thresholds.getMaxResponseTime()));
-        }
+    public boolean isAborted() {
+        return abortReason != null;
+    }
 
-        // Check error rate threshold
-        if (metrics.getErrorRate() > thresholds.getMaxErrorRate()) {
-            failures.append(String.format("Error rate (%.2f%%) exceeds threshold (%.2f%%). ",
-                    metrics.getErrorRate() * 100, thresholds.getMaxErrorRate() * 100));
-        }
+    public List<StressStepResult> getStepResults() {
+        return stepResults;
+    }
 
-        // Check throughput threshold
-        if (metrics.getThroughput() < thresholds.getMinThroughput()) {
-            failures.append(String.format("Throughput (%.2f req/s) below threshold (%.2f req/s). ",
-                    metrics.getThroughput(), thresholds.getMinThroughput()));
+    public void setStepResults(List<StressStepResult> stepResults) {
+        this.stepResults = stepResults;
+    }
+
+    public int getKneePointUsers() {
+        return kneePointUsers;
+    }
+
+    public void setKneePointUsers(int kneePointUsers) {
+        this.kneePointUsers = kneePointUsers;
+    }
+
+    public boolean hasKneePoint() {
+        return kneePointUsers > 0;
+    }
+
+    public int getMaxSustainableUsers() {
+        return maxSustainableUsers;
+    }
+
+    public void setMaxSustainableUsers(int maxSustainableUsers) {
+        this.maxSustainableUsers = maxSustainableUsers;
+    }
+
+    public BaselineComparison getBaselineComparison() {
+        return baselineComparison;
+    }
+
+    /**
+     * Attaches the comparison with the recorded baselines; a significant regression fails the test
+     */
+    public void setBaselineComparison(BaselineComparison baselineComparison) {
+        this.baselineComparison = baselineComparison;
+        if (baselineComparison != null && baselineComparison.isRegression()) {
+            String regression = "Performance regression against baseline: " + baselineComparison.getSummary();
+            setFailureReason(failureReason != null ? failureReason + " " + regression : regression);
         }
+    }
+
+    public boolean hasRegression() {
+        return baselineComparison != null && baselineComparison.isRegression();
+    }
 
-        if (failures.length() > 0) {
-            setFailureReason(failures.toString().trim());
+    public String getGeneratorSaturation() {
+        return generatorSaturation;
+    }
+
+    /**
+     * Records that the load generator itself was saturated; its latencies include its own
+     * queueing, so the run is invalid and fails
+     */
+    public void setGeneratorSaturation(String generatorSaturation) {
+        this.generatorSaturation = generatorSaturation;
+        if (generatorSaturation != null) {
+            String saturation = "Load generator saturated: " + generatorSaturation;
+            setFailureReason(failureReason != null ? failureReason + " " + saturation : saturation);
         }
     }
 
+    public boolean isGeneratorSaturated() {
+        return generatorSaturation != null;
+    }
+
     @Override
     public String toString() {
-        return String.format("PerformanceTestResult{testName='%s', duration=%dms, passed=%s, metrics=%s}",
-                testName, duration, passed, metrics != null ? metrics.toString() : "null");
+        return String.format("PerformanceTestResult{testName='%s', duration=%dms, passed=%s, aborted=%s, generatorSaturated=%s, metrics=%s}",
+                testName, duration, passed, isAborted(), isGeneratorSaturated(), metrics != null ? metrics.toString() : "null");
     }
 }
@@ -0,0 +1,180 @@
+package com.inditex.test.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Decides whether a run is a significant regression against the last baseline runs of
+ * its scenario. Latency is compared on the pooled response time histograms: the median
+ * with a one-sided Mann-Whitney U test (values sharing a histogram bucket count as ties),
+ * p95 and p99 with distribution-free order-statistic confidence intervals, which must not
+ * overlap. Throughput is compared per time series window with the same U test. On top of
+ * being significant, a change must exceed the minimum relevant change and, when there are
+ * several baselines, be worse than the worst of them, so normal run-to-run noise of the
+ * environment does not fail builds.
+ */
+public class RegressionDetector {
+    static final double SIGNIFICANCE = 0.01;
+    private static final double CONFIDENCE_Z = 2.576; // 99% two-sided
+    private static final int MIN_WINDOWS = 5;
+
+    private final double minRelativeChange;
+
+    public RegressionDetector(double minRelativeChange) {
+        this.minRelativeChange = minRelativeChange;
+    }
+
+    public BaselineComparison compare(BaselineRecord run, List<BaselineRecord> baselines) {
+        if (baselines.isEmpty()) {
+            throw new IllegalArgumentException("At least one baseline run is required");
+        }
+
+        LatencyHistogram runTimes = run.toHistogram();
+        LatencyHistogram baselineTimes = new LatencyHistogram(runTimes.getHighestTrackableValue(), runTimes.getSignificantDigits());
+        baselines.forEach(baseline -> baselineTimes.merge(baseline.toHistogram()));
+
+        List<BaselineComparison.MetricComparison> metrics = new ArrayList<>();
+        if (runTimes.getTotalCount() > 0 && baselineTimes.getTotalCount() > 0) {
+            double p = mannWhitneyGreater(runTimes, baselineTimes);
+            metrics.add(latency("p50", run.getP50ResponseTime(), baselineTimes.getValueAtPercentile(50),
+                    worstOf(baselines, BaselineRecord::getP50ResponseTime, true), baselines.size(),
+                    p < SIGNIFICANCE, String.format("Mann-Whitney p=%.4f", p)));
+
+            for (double percentile : new double[] {95, 99}) {
+                long[] runInterval = percentileInterval(runTimes, percentile);
+                long[] baselineInterval = percentileInterval(baselineTimes, percentile);
+                ToDoubleFunction<BaselineRecord> value = percentile == 95
+                        ? BaselineRecord::getP95ResponseTime : BaselineRecord::getP99ResponseTime;
+                metrics.add(latency(String.format("p%.0f", percentile), value.applyAsDouble(run),
+                        baselineTimes.getValueAtPercentile(percentile), worstOf(baselines, value, true), baselines.size(),
+                        runInterval[0] > baselineInterval[1],
+                        String.format("99%% CI %d-%dms vs %d-%dms", runInterval[0], runInterval[1],
+                                baselineInterval[0], baselineInterval[1])));
+            }
+        }
+
+        double[] runWindows = run.getWindowThroughput() != null ? run.getWindowThroughput() : new double[0];
+        double[] baselineWindows = baselines.stream()
+                .filter(baseline -> baseline.getWindowThroughput() != null)
+                .flatMapToDouble(baseline -> Arrays.stream(baseline.getWindowThroughput()))
+                .toArray();
+        if (runWindows.length >= MIN_WINDOWS && baselineWindows.length >= MIN_WINDOWS) {
+            double p = mannWhitneyGreater(baselineWindows, runWindows);
+            double worst = worstOf(baselines, BaselineRecord::getThroughput, false);
+            metrics.add(new BaselineComparison.MetricComparison("throughput", " req/s", false,
+                    baselines.stream().mapToDouble(BaselineRecord::getThroughput).average().orElse(0), run.getThroughput(),
+                    p < SIGNIFICANCE, baselines.size() < 2 || run.getThroughput() < worst, minRelativeChange,
+                    String.format("Mann-Whitney p=%.4f over %d vs %d windows", p, runWindows.length, baselineWindows.length)));
+        }
+
+        List<String> commits = baselines.stream().map(BaselineRecord::getCommit).collect(Collectors.toList());
+        return new BaselineComparison(run.getScenario(), commits, metrics);
+    }
+
+    private BaselineComparison.MetricComparison latency(String name, double value, double baselineValue, double worstBaseline,
+                                                        int baselineRuns, boolean significant, String evidence) {
+        return new BaselineComparison.MetricComparison(name, "ms", true, baselineValue, value, significant,
+                baselineRuns < 2 || value > worstBaseline, minRelativeChange, evidence);
+    }
+
+    private static double worstOf(List<BaselineRecord> baselines, ToDoubleFunction<BaselineRecord> metric, boolean higherIsWorse) {
+        return higherIsWorse
+                ? baselines.stream().mapToDouble(metric).max().orElse(0)
+                : baselines.stream().mapToDouble(metric).min().orElse(0);
+    }
+
+    /**
+     * One-sided p-value of the Mann-Whitney U test that values of the first histogram tend
+     * to be larger than those of the second. Both must share a layout.
+     */
+    static double mannWhitneyGreater(LatencyHistogram first, LatencyHistogram second) {
+        double n1 = first.getTotalCount();
+        double n2 = second.getTotalCount();
+        double rankSum = 0;
+        double ranked = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < first.countsArrayLength(); i++) {
+            double ties = first.countAtIndex(i) + second.countAtIndex(i);
+            if (ties == 0) {
+                continue;
+            }
+            rankSum += first.countAtIndex(i) * (ranked + (ties + 1) / 2);
+            ranked += ties;
+            tieTerm += ties * ties * ties - ties;
+        }
+        return upperTail(rankSum - n1 * (n1 + 1) / 2, n1, n2, tieTerm);
+    }
+
+    /**
+     * Same test on plain samples
+     */
+    static double mannWhitneyGreater(double[] first, double[] second) {
+        double[][] values = new double[first.length + second.length][];
+        for (int i = 0; i < first.length; i++) {
+            values[i] = new double[] {first[i], 1};
+        }
+        for (int i = 0; i < second.length; i++) {
+            values[first.length + i] = new double[] {second[i], 0};
+        }
+        Arrays.sort(values, (a, b) -> Double.compare(a[0], b[0]));
+
+        double rankSum = 0;
+        double tieTerm = 0;
+        for (int start = 0; start < values.length; ) {
+            int end = start;
+            double fromFirst = 0;
+            while (end < values.length && values[end][0] == values[start][0]) {
+                fromFirst += values[end][1];
+                end++;
+            }
+            double ties = end - start;
+            rankSum += fromFirst * (start + (ties + 1) / 2);
+            tieTerm += ties * ties * ties - ties;
+            start = end;
+        }
+        double n1 = first.length;
+        return upperTail(rankSum - n1 * (n1 + 1) / 2, n1, second.length, tieTerm);
+    }
+
+    private static double upperTail(double u, double n1, double n2, double tieTerm) {
+        if (n1 == 0 || n2 == 0) {
+            return 1.0;
+        }
+        double n = n1 + n2;
+        double variance = n1 * n2 / 12 * ((n + 1) - tieTerm / (n * (n - 1)));
+        if (variance <= 0) {
+            return 1.0; // every value tied
+        }
+        double z = (u - n1 * n2 / 2 - 0.5) / Math.sqrt(variance); // with continuity correction
+        return 1 - normalCdf(z);
+    }
+
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        // Complementary error function, Chebyshev fit with fractional error below 1.2e-7
+        double t = 1 / (1 + 0.5 * x);
+        double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return z >= 0 ? 1 - erfc / 2 : erfc / 2;
+    }
+
+    /**
+     * 99% confidence interval of a percentile: the rank of the sample percentile is binomial,
+     * so the interval spans the values at the ranks n*q -/+ z*sqrt(n*q*(1-q))
+     */
+    static long[] percentileInterval(LatencyHistogram histogram, double percentile) {
+        long n = histogram.getTotalCount();
+        double q = percentile / 100;
+        double halfWidth = CONFIDENCE_Z * Math.sqrt(n * q * (1 - q));
+        long lowRank = Math.max(1, (long) Math.floor(n * q - halfWidth));
+        long highRank = Math.min(n, (long) Math.ceil(n * q + halfWidth));
+        return new long[] {
+                histogram.getValueAtPercentile(Math.min(100, 100.0 * lowRank / n)),
+                histogram.getValueAtPercentile(Math.min(100, 100.0 * highRank / n))
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.inditex.test.performance;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class RegressionDetectorTest {
+    private static final double[] STEADY_THROUGHPUT = {50, 52, 48, 51, 49, 50, 53, 47, 50, 50};
+
+    @Test(groups = "unit")
+    public void computesTheMannWhitneyTailOfSeparatedSamples() {
+        // U = 9 of 9, mean 4.5, variance 9 / 12 * 7 = 5.25; z = (9 - 4.5 - 0.5) / sqrt(5.25)
+        double p = RegressionDetector.mannWhitneyGreater(new double[] {4, 5, 6}, new double[] {1, 2, 3});
+
+        Assert.assertEquals(p, 1 - RegressionDetector.normalCdf(4 / Math.sqrt(5.25)), 1e-9);
+        Assert.assertEquals(p, 0.0404, 1e-3);
+        Assert.assertTrue(RegressionDetector.mannWhitneyGreater(new double[] {1, 2, 3}, new double[] {4, 5, 6}) > 0.95);
+    }
+
+    @Test(groups = "unit")
+    public void findsNoDifferenceBetweenIdenticalSamples() {
+        double[] samples = {10, 20, 30, 40, 50, 60, 70, 80};
+
+        Assert.assertTrue(RegressionDetector.mannWhitneyGreater(samples, samples) > 0.5);
+        Assert.assertEquals(RegressionDetector.mannWhitneyGreater(new double[] {7, 7, 7}, new double[] {7, 7}), 1.0);
+    }
+
+    @Test(groups = "unit")
+    public void countsTiesWithTheirAverageRank() {
+        double[] first = {1, 2, 2, 3, 3, 3, 4};
+        double[] second = {1, 1, 2, 2, 3, 3};
+        // Ranks of the first sample: 2, 5.5, 5.5, 10, 10, 10, 13 -> U = 56 - 28 = 28
+        // Tie term over the groups of 3, 4, 5 and 1: 24 + 60 + 120 = 204
+        double variance = 7.0 * 6 / 12 * (14 - 204.0 / (13 * 12));
+        double expected = 1 - RegressionDetector.normalCdf((28 - 21 - 0.5) / Math.sqrt(variance));
+
+        Assert.assertEquals(RegressionDetector.mannWhitneyGreater(first, second), expected, 1e-9);
+        Assert.assertEquals(RegressionDetector.mannWhitneyGreater(histogram(first), histogram(second)), expected, 1e-9);
+    }
+
+    @Test(groups = "unit")
+    public void approximatesTheNormalDistribution() {
+        Assert.assertEquals(RegressionDetector.normalCdf(0), 0.5, 1e-7);
+        Assert.assertEquals(RegressionDetector.normalCdf(1.96), 0.975, 1e-4);
+        Assert.assertEquals(RegressionDetector.normalCdf(-2.576), 0.005, 1e-4);
+    }
+
+    @Test(groups = "unit")
+    public void boundsPercentilesByTheirOrderStatistics() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        // Ranks 950 -/+ 2.576 * sqrt(1000 * 0.95 * 0.05), i.e. 932 to 968
+        long[] interval = RegressionDetector.percentileInterval(histogram, 95);
+
+        Assert.assertEquals(interval[0], 932);
+        Assert.assertEquals(interval[1], 968);
+    }
+
+    @Test(groups = "unit")
+    public void reportsNoRegressionForAnIdenticalRun() {
+        BaselineComparison comparison = new RegressionDetector(0.10)
+                .compare(record(1.0, STEADY_THROUGHPUT), Arrays.asList(record(1.0, STEADY_THROUGHPUT), record(1.0, STEADY_THROUGHPUT)));
+
+        Assert.assertFalse(comparison.isRegression(), comparison.toString());
+        Assert.assertEquals(comparison.getMetrics().size(), 4);
+        comparison.getMetrics().forEach(metric -> Assert.assertFalse(metric.isSignificant(), metric.toString()));
+    }
+
+    @Test(groups = "unit")
+    public void reportsAClearLatencyShiftAsRegression() {
+        BaselineComparison comparison = new RegressionDetector(0.10)
+                .compare(record(1.5, STEADY_THROUGHPUT), Arrays.asList(record(1.0, STEADY_THROUGHPUT), record(1.0, STEADY_THROUGHPUT)));
+
+        Assert.assertTrue(comparison.isRegression(), comparison.toString());
+        Assert.assertEquals(names(comparison.getRegressions()), Arrays.asList("p50", "p95", "p99"));
+    }
+
+    @Test(groups = "unit")
+    public void reportsAThroughputDropAsRegression() {
+        double[] halved = Arrays.stream(STEADY_THROUGHPUT).map(value -> value / 2).toArray();
+        BaselineRecord run = record(1.0, halved);
+        run.setThroughput(25);
+
+        BaselineComparison comparison = new RegressionDetector(0.10)
+                .compare(run, Collections.singletonList(record(1.0, STEADY_THROUGHPUT)));
+
+        Assert.assertEquals(names(comparison.getRegressions()), Collections.singletonList("throughput"));
+    }
+
+    @Test(groups = "unit")
+    public void ignoresSignificantChangesBelowTheMinimumChange() {
+        BaselineComparison comparison = new RegressionDetector(0.10)
+                .compare(record(1.05, STEADY_THROUGHPUT), Collections.singletonList(record(1.0, STEADY_THROUGHPUT)));
+
+        BaselineComparison.MetricComparison median = comparison.getMetrics().get(0);
+        Assert.assertEquals(median.getName(), "p50");
+        Assert.assertTrue(median.isSignificant(), median.toString());
+        Assert.assertTrue(median.getRelativeChange() < 0.10, median.toString());
+        Assert.assertFalse(comparison.isRegression(), comparison.toString());
+
+        Assert.assertTrue(new RegressionDetector(0.01)
+                .compare(record(1.05, STEADY_THROUGHPUT), Collections.singletonList(record(1.0, STEADY_THROUGHPUT)))
+                .isRegression());
+    }
+
+    @Test(groups = "unit", expectedExceptions = IllegalArgumentException.class)
+    public void requiresABaseline() {
+        new RegressionDetector(0.10).compare(record(1.0, STEADY_THROUGHPUT), Collections.emptyList());
+    }
+
+    /**
+     * A run of 10,000 samples spread evenly over 100-199ms, scaled by the given factor
+     */
+    private static BaselineRecord record(double scale, double[] windowThroughput) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 10_000; i++) {
+            histogram.record(Math.round((100 + i % 100) * scale));
+        }
+        BaselineRecord record = new BaselineRecord();
+        record.setScenario("Load Test");
+        record.setCommit("abc123");
+        record.setPassed(true);
+        record.setTotalSamples(histogram.getTotalCount());
+        record.setP50ResponseTime(histogram.getValueAtPercentile(50));
+        record.setP95ResponseTime(histogram.getValueAtPercentile(95));
+        record.setP99ResponseTime(histogram.getValueAtPercentile(99));
+        record.setResponseTimes(histogram.encode());
+        record.setThroughput(Arrays.stream(windowThroughput).average().orElse(0));
+        record.setWindowThroughput(windowThroughput);
+        return record;
+    }
+
+    private static LatencyHistogram histogram(double[] values) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (double value : values) {
+            histogram.record((long) value);
+        }
+        return histogram;
+    }
+
+    private static List<String> names(List<BaselineComparison.MetricComparison> metrics) {
+        return metrics.stream().map(BaselineComparison.MetricComparison::getName).collect(Collectors.toList());
+    }
+}
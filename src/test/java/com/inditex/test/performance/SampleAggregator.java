@@ -0,0 +1,149 @@
+package com.inditex.test.performance;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Streaming fold of JMeter samples into running aggregates.
+ * Memory is bounded by the number of distinct response codes and labels, the
+ * fixed size of the response time histogram and the run duration (one slot
+ * per time series window), never by the number of samples, so multi-GB JTL
+ * files can be aggregated in a fixed heap budget.
+ */
+public class SampleAggregator implements SampleSink {
+    private long totalSamples;
+    private long successfulSamples;
+    private long failedSamples;
+    private long totalBytes;
+    private double totalResponseTime;
+    private double minResponseTime = Double.MAX_VALUE;
+    private double maxResponseTime;
+    private long firstTimestamp = Long.MAX_VALUE;
+    private long lastTimestamp;
+    private final Map<String, Integer> httpResponseCodes = new HashMap<>();
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
+    private final Map<String, SamplerStatistics> samplerStatistics = new HashMap<>();
+    private final MetricsTimeSeries timeSeries;
+
+    public SampleAggregator() {
+        this(MetricsTimeSeries.DEFAULT_WINDOW_MILLIS);
+    }
+
+    public SampleAggregator(long timeSeriesWindowMillis) {
+        this.timeSeries = new MetricsTimeSeries(timeSeriesWindowMillis);
+    }
+
+    public void record(long timestamp, double responseTime, boolean success, String responseCode, long bytes) {
+        record(timestamp, responseTime, success, responseCode, bytes, null);
+    }
+
+    @Override
+    public void record(long timestamp, double responseTime, boolean success, String responseCode, long bytes, String label) {
+        totalSamples++;
+        totalResponseTime += responseTime;
+        totalBytes += bytes;
+
+        if (success) {
+            successfulSamples++;
+        } else {
+            failedSamples++;
+        }
+
+        if (responseCode != null && !responseCode.isEmpty()) {
+            httpResponseCodes.merge(responseCode, 1, Integer::sum);
+        }
+
+        if (responseTime < minResponseTime) {
+            minResponseTime = responseTime;
+        }
+        if (responseTime > maxResponseTime) {
+            maxResponseTime = responseTime;
+        }
+
+        if (timestamp < firstTimestamp) {
+            firstTimestamp = timestamp;
+        }
+        if (timestamp > lastTimestamp) {
+            lastTimestamp = timestamp;
+        }
+
+        responseTimes.record(Math.round(responseTime));
+        timeSeries.record(timestamp, Math.round(responseTime), success);
+
+        if (label != null) {
+            SamplerStatistics statistics = samplerStatistics.get(label);
+            if (statistics == null) {
+                statistics = new SamplerStatistics(label);
+                samplerStatistics.put(label, statistics);
+            }
+            statistics.record(timestamp, responseTime, success);
+        }
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    /**
+     * Folds the aggregates of another (e.g. per-chunk) aggregator into this one
+     */
+    public void merge(SampleAggregator other) {
+        totalSamples += other.totalSamples;
+        successfulSamples += other.successfulSamples;
+        failedSamples += other.failedSamples;
+        totalBytes += other.totalBytes;
+        totalResponseTime += other.totalResponseTime;
+        minResponseTime = Math.min(minResponseTime, other.minResponseTime);
+        maxResponseTime = Math.max(maxResponseTime, other.maxResponseTime);
+        firstTimestamp = Math.min(firstTimestamp, other.firstTimestamp);
+        lastTimestamp = Math.max(lastTimestamp, other.lastTimestamp);
+        other.httpResponseCodes.forEach((code, count) -> httpResponseCodes.merge(code, count, Integer::sum));
+        responseTimes.merge(other.responseTimes);
+        timeSeries.merge(other.timeSeries);
+        other.samplerStatistics.forEach((label, statistics) -> {
+            SamplerStatistics existing = samplerStatistics.get(label);
+            if (existing == null) {
+                samplerStatistics.put(label, statistics.copy());
+            } else {
+                existing.merge(statistics);
+            }
+        });
+    }
+
+    /**
+     * Builds the metrics report from the aggregates collected so far
+     */
+    public PerformanceMetrics toMetrics() {
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        if (totalSamples == 0) {
+            return metrics;
+        }
+
+        metrics.setTotalSamples(totalSamples);
+        metrics.setSuccessfulSamples(successfulSamples);
+        metrics.setFailedSamples(failedSamples);
+        metrics.calculateErrorRate();
+
+        metrics.setAverageResponseTime(totalResponseTime / totalSamples);
+        metrics.setMinResponseTime(minResponseTime == Double.MAX_VALUE ? 0 : minResponseTime);
+        metrics.setMaxResponseTime(maxResponseTime);
+
+        metrics.setResponseTimeHistogram(responseTimes.copy());
+
+        metrics.setFirstSampleTimestamp(firstTimestamp);
+        metrics.setLastSampleTimestamp(lastTimestamp);
+        metrics.calculateThroughput();
+
+        metrics.setTotalBytes(totalBytes);
+        metrics.calculateAverageBytes();
+        metrics.setHttpResponseCodes(new HashMap<>(httpResponseCodes));
+
+        Map<String, SamplerStatistics> statisticsCopy = new TreeMap<>();
+        samplerStatistics.forEach((label, statistics) -> statisticsCopy.put(label, statistics.copy()));
+        metrics.setSamplerStatistics(statisticsCopy);
+        metrics.setTimeSeries(timeSeries.copy());
+
+        return metrics;
+    }
+}
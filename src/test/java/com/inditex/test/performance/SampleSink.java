@@ -0,0 +1,9 @@
+package com.inditex.test.performance;
+
+/**
+ * Receives samples one at a time, as they are read from a results file or recorded by a listener.
+ */
+public interface SampleSink {
+
+    void record(long timestamp, double responseTime, boolean success, String responseCode, long bytes, String label);
+}
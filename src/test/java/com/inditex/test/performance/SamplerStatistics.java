@@ -0,0 +1,160 @@
+package com.inditex.test.performance;
+
+/**
+ * Running statistics for a single sampler label: counts, errors, mean, min/max,
+ * percentiles and throughput. Built in the same streaming pass as the overall
+ * metrics and mergeable across chunks, files and runs.
+ */
+public class SamplerStatistics {
+    // Two significant digits keep each label's histogram at a few KB
+    static final int HISTOGRAM_SIGNIFICANT_DIGITS = 2;
+
+    private final String label;
+    private long count;
+    private long errorCount;
+    private double totalResponseTime;
+    private double minResponseTime = Double.MAX_VALUE;
+    private double maxResponseTime;
+    private long firstTimestamp = Long.MAX_VALUE;
+    private long lastTimestamp;
+    private final LatencyHistogram responseTimes;
+
+    public SamplerStatistics(String label) {
+        this.label = label;
+        this.responseTimes = new LatencyHistogram(LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, HISTOGRAM_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Builds statistics from aggregates collected elsewhere, e.g. by a live listener
+     */
+    SamplerStatistics(String label, long count, long errorCount, double totalResponseTime, double minResponseTime,
+                      double maxResponseTime, long firstTimestamp, long lastTimestamp, LatencyHistogram responseTimes) {
+        this.label = label;
+        this.count = count;
+        this.errorCount = errorCount;
+        this.totalResponseTime = totalResponseTime;
+        this.minResponseTime = minResponseTime;
+        this.maxResponseTime = maxResponseTime;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+        this.responseTimes = responseTimes;
+    }
+
+    public void record(long timestamp, double responseTime, boolean success) {
+        count++;
+        if (!success) {
+            errorCount++;
+        }
+        totalResponseTime += responseTime;
+        minResponseTime = Math.min(minResponseTime, responseTime);
+        maxResponseTime = Math.max(maxResponseTime, responseTime);
+        if (timestamp > 0) {
+            firstTimestamp = Math.min(firstTimestamp, timestamp);
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+        }
+        responseTimes.record(Math.round(responseTime));
+    }
+
+    public void merge(SamplerStatistics other) {
+        count += other.count;
+        errorCount += other.errorCount;
+        totalResponseTime += other.totalResponseTime;
+        minResponseTime = Math.min(minResponseTime, other.minResponseTime);
+        maxResponseTime = Math.max(maxResponseTime, other.maxResponseTime);
+        firstTimestamp = Math.min(firstTimestamp, other.firstTimestamp);
+        lastTimestamp = Math.max(lastTimestamp, other.lastTimestamp);
+        responseTimes.merge(other.responseTimes);
+    }
+
+    /**
+     * Statistics of the samples recorded after an earlier copy of these statistics was taken.
+     * Min and max come from the histogram buckets as the exact values of the interval are unknown.
+     */
+    public SamplerStatistics since(SamplerStatistics earlier) {
+        LatencyHistogram interval = responseTimes.copy();
+        interval.subtract(earlier.responseTimes);
+        long intervalCount = count - earlier.count;
+        double intervalMin = intervalCount > 0 ? interval.getMinValue() : Double.MAX_VALUE;
+        // The interval starts where the earlier copy ended, or with the first sample when it had none
+        long intervalFirst = earlier.count > 0 ? earlier.lastTimestamp : firstTimestamp;
+        long intervalLast = lastTimestamp;
+        if (intervalCount == 0) {
+            intervalFirst = Long.MAX_VALUE;
+            intervalLast = 0;
+        }
+        return new SamplerStatistics(label, intervalCount, errorCount - earlier.errorCount,
+                totalResponseTime - earlier.totalResponseTime,
+                intervalMin, interval.getMaxValue(),
+                intervalFirst, intervalLast,
+                interval);
+    }
+
+    public SamplerStatistics copy() {
+        SamplerStatistics copy = new SamplerStatistics(label);
+        copy.merge(this);
+        return copy;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public double getErrorRate() {
+        return count > 0 ? (double) errorCount / count : 0.0;
+    }
+
+    public double getMeanResponseTime() {
+        return count > 0 ? totalResponseTime / count : 0.0;
+    }
+
+    public double getMinResponseTime() {
+        return count > 0 ? minResponseTime : 0.0;
+    }
+
+    public double getMaxResponseTime() {
+        return maxResponseTime;
+    }
+
+    double getTotalResponseTime() {
+        return totalResponseTime;
+    }
+
+    long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public double getPercentile(double percentile) {
+        return responseTimes.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Requests per second between the first and last sample of this label
+     */
+    public double getThroughput() {
+        long duration = lastTimestamp - firstTimestamp;
+        return duration > 0 ? count / (duration / 1000.0) : 0.0;
+    }
+
+    public LatencyHistogram getResponseTimeHistogram() {
+        return responseTimes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d, errors=%d (%.2f%%), mean=%.2fms, min=%.2fms, max=%.2fms, p50=%.0fms, p95=%.0fms, p99=%.0fms, throughput=%.2f req/s",
+                label, count, errorCount, getErrorRate() * 100, getMeanResponseTime(), getMinResponseTime(),
+                maxResponseTime, getPercentile(50), getPercentile(95), getPercentile(99), getThroughput());
+    }
+}
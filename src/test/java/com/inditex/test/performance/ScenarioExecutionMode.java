@@ -0,0 +1,30 @@
+package com.inditex.test.performance;
+
+/**
+ * How the performance scenarios (load, stress, endurance, spike) are scheduled relative to each other.
+ */
+public enum ScenarioExecutionMode {
+    /**
+     * All scenarios at once against the same target, as the suite always ran them; fastest,
+     * but the scenarios load the system together and can skew each other's numbers
+     */
+    CONCURRENT,
+
+    /**
+     * One scenario at a time with a cool-down in between; slowest, but no scenario can
+     * affect another's numbers
+     */
+    ISOLATED,
+
+    /**
+     * All scenarios at once, each against its own target endpoint, so they finish together
+     * without sharing the system under test
+     */
+    PARTITIONED,
+
+    /**
+     * The declared scenarios run at once against the same target on purpose, to measure
+     * them under a realistic mixed workload; the others run isolated afterwards
+     */
+    MIXED
+}
@@ -0,0 +1,153 @@
+package com.inditex.test.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shows how much scenarios running at the same time distorted each other's numbers.
+ * The p95 of every scenario that ran alongside others is compared with the median p95 of
+ * its recent passing solo runs from the {@link BaselineStore}; a scenario that has never
+ * run alone has no solo baseline and is reported as such rather than as undisturbed.
+ * Partitioned runs should stay close to 1, mixed runs quantify the contention they were
+ * declared to include.
+ */
+public class ScenarioInterferenceReport {
+    private static final double INTERFERENCE_THRESHOLD = 1.2; // 20% slower p95 than solo
+
+    private final ScenarioExecutionMode mode;
+    private final List<Entry> entries = new ArrayList<>();
+
+    public ScenarioInterferenceReport(ScenarioExecutionMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Adds a scenario of this run; the solo baselines are its earlier passing runs without
+     * other scenarios, ignored when it ran alone this time
+     */
+    public void addScenario(String scenario, boolean concurrent, long p95, List<BaselineRecord> soloBaselines) {
+        List<Long> soloP95 = new ArrayList<>();
+        if (concurrent && soloBaselines != null) {
+            for (BaselineRecord record : soloBaselines) {
+                soloP95.add(Math.round(record.getP95ResponseTime()));
+            }
+        }
+        entries.add(new Entry(scenario, concurrent, p95, soloP95.size(), median(soloP95)));
+    }
+
+    private static long median(List<Long> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        Long[] sorted = values.toArray(new Long[0]);
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    public ScenarioExecutionMode getMode() {
+        return mode;
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Scenarios whose p95 was noticeably worse than when they run alone, which in any mode
+     * but mixed means their numbers are not trustworthy
+     */
+    public List<String> getFindings() {
+        List<String> findings = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.isInterfered()) {
+                findings.add(String.format("%s p95 was %.2fx higher alongside other scenarios (%dms vs %dms solo)%s",
+                        entry.scenario, entry.getInterferenceRatio(), entry.p95, entry.soloP95,
+                        mode == ScenarioExecutionMode.MIXED ? ", expected in a mixed workload" : ", results may be contaminated"));
+            }
+        }
+        return findings;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("Scenario interference (").append(mode).append(")");
+        for (Entry entry : entries) {
+            report.append("\n  ").append(entry);
+        }
+        return report.toString();
+    }
+
+    /**
+     * Interference figures of one scenario
+     */
+    public static class Entry {
+        private final String scenario;
+        private final boolean concurrent;
+        private final long p95;
+        private final int soloRuns;
+        private final long soloP95;
+
+        Entry(String scenario, boolean concurrent, long p95, int soloRuns, long soloP95) {
+            this.scenario = scenario;
+            this.concurrent = concurrent;
+            this.p95 = p95;
+            this.soloRuns = soloRuns;
+            this.soloP95 = soloP95;
+        }
+
+        public String getScenario() {
+            return scenario;
+        }
+
+        /**
+         * Whether other scenarios generated load during this run
+         */
+        public boolean isConcurrent() {
+            return concurrent;
+        }
+
+        public long getP95() {
+            return p95;
+        }
+
+        /**
+         * Number of solo runs the baseline p95 is the median of, 0 when there is no solo baseline
+         */
+        public int getSoloRuns() {
+            return soloRuns;
+        }
+
+        public long getSoloP95() {
+            return soloP95;
+        }
+
+        public boolean hasSoloBaseline() {
+            return soloRuns > 0 && soloP95 > 0;
+        }
+
+        /**
+         * p95 of this run divided by the solo baseline p95; 0 when it ran alone or has no solo baseline
+         */
+        public double getInterferenceRatio() {
+            return concurrent && hasSoloBaseline() ? (double) p95 / soloP95 : 0.0;
+        }
+
+        public boolean isInterfered() {
+            return getInterferenceRatio() > INTERFERENCE_THRESHOLD;
+        }
+
+        @Override
+        public String toString() {
+            if (!concurrent) {
+                return String.format("%s: ran alone, p95 %dms", scenario, p95);
+            }
+            if (!hasSoloBaseline()) {
+                return String.format("%s: p95 %dms alongside other scenarios, no solo baseline to compare with", scenario, p95);
+            }
+            return String.format("%s: p95 %dms alongside other scenarios vs %dms solo (median of %d runs), ratio %.2f",
+                    scenario, p95, soloP95, soloRuns, getInterferenceRatio());
+        }
+    }
+}
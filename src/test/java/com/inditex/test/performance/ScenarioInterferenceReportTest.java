@@ -0,0 +1,82 @@
+package com.inditex.test.performance;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ScenarioInterferenceReportTest {
+
+    @Test(groups = "unit")
+    public void comparesConcurrentScenariosWithTheMedianSoloP95() {
+        ScenarioInterferenceReport report = new ScenarioInterferenceReport(ScenarioExecutionMode.PARTITIONED);
+        report.addScenario("Load Test", true, 300, Arrays.asList(solo(90), solo(100), solo(500)));
+
+        ScenarioInterferenceReport.Entry entry = report.getEntries().get(0);
+        Assert.assertTrue(entry.hasSoloBaseline());
+        Assert.assertEquals(entry.getSoloRuns(), 3);
+        Assert.assertEquals(entry.getSoloP95(), 100);
+        Assert.assertEquals(entry.getInterferenceRatio(), 3.0, 1e-9);
+        Assert.assertTrue(entry.isInterfered());
+        Assert.assertEquals(report.getFindings().size(), 1);
+        Assert.assertTrue(report.getFindings().get(0).contains("results may be contaminated"), report.getFindings().get(0));
+    }
+
+    @Test(groups = "unit")
+    public void reportsConcurrentScenariosWithoutSoloBaseline() {
+        ScenarioInterferenceReport report = new ScenarioInterferenceReport(ScenarioExecutionMode.MIXED);
+        report.addScenario("Spike Test", true, 800, Collections.emptyList());
+
+        ScenarioInterferenceReport.Entry entry = report.getEntries().get(0);
+        Assert.assertFalse(entry.hasSoloBaseline());
+        Assert.assertEquals(entry.getInterferenceRatio(), 0.0);
+        Assert.assertTrue(report.getFindings().isEmpty());
+        Assert.assertTrue(report.toString().contains("no solo baseline"), report.toString());
+    }
+
+    @Test(groups = "unit")
+    public void ignoresBaselinesOfScenariosThatRanAlone() {
+        ScenarioInterferenceReport report = new ScenarioInterferenceReport(ScenarioExecutionMode.ISOLATED);
+        report.addScenario("Endurance Test", false, 400, Collections.singletonList(solo(100)));
+
+        ScenarioInterferenceReport.Entry entry = report.getEntries().get(0);
+        Assert.assertFalse(entry.isConcurrent());
+        Assert.assertEquals(entry.getInterferenceRatio(), 0.0);
+        Assert.assertFalse(entry.isInterfered());
+        Assert.assertTrue(entry.toString().contains("ran alone"), entry.toString());
+    }
+
+    @Test(groups = "unit")
+    public void keepsConcurrentRunsOutOfTheSoloBaselines() throws Exception {
+        Path directory = Files.createTempDirectory("baselines");
+        BaselineStore store = new BaselineStore(directory, 5, new RegressionDetector(0.10), "test");
+        store.append(record(100, true, false));
+        store.append(record(300, true, true));
+        store.append(record(120, false, false));
+        store.append(record(110, true, false));
+
+        List<BaselineRecord> solo = store.loadSolo("Load Test");
+
+        Assert.assertEquals(solo.size(), 2);
+        Assert.assertEquals(solo.get(0).getP95ResponseTime(), 100.0);
+        Assert.assertEquals(solo.get(1).getP95ResponseTime(), 110.0);
+        Assert.assertEquals(store.load("Load Test").size(), 3, "Regression baselines still include concurrent runs");
+    }
+
+    private static BaselineRecord solo(double p95) {
+        return record(p95, true, false);
+    }
+
+    private static BaselineRecord record(double p95, boolean passed, boolean concurrent) {
+        BaselineRecord record = new BaselineRecord();
+        record.setScenario("Load Test");
+        record.setPassed(passed);
+        record.setConcurrent(concurrent);
+        record.setP95ResponseTime(p95);
+        return record;
+    }
+}
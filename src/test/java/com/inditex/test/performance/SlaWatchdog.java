@@ -0,0 +1,151 @@
+package com.inditex.test.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates performance thresholds against rolling-window live metrics while a
+ * test runs and aborts it once a breach has lasted for the configured time.
+ * Error rate, p95 and throughput are checked over the last evaluation window
+ * (not the whole run), so a regression shows up within seconds instead of
+ * being diluted by the healthy part of the run.
+ */
+public class SlaWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(SlaWatchdog.class);
+
+    private static final long EVALUATION_INTERVAL_MS = 1000;
+    private static final long MIN_WINDOW_SAMPLES = 20; // fewer samples say nothing about rates or percentiles
+
+    private final Supplier<MetricsSnapshot> metrics;
+    private final StressTestConfig.PerformanceThresholds thresholds;
+    private final long gracePeriodMillis;
+    private final Runnable abortAction;
+    private final Deque<MetricsSnapshot> history = new ArrayDeque<>();
+
+    private ScheduledExecutorService scheduler;
+    private long startedAt;
+    private long breachStartedAt = -1;
+    private volatile String abortReason;
+
+    /**
+     * @param metrics source of live snapshots, polled once per second
+     * @param thresholds thresholds and rolling window settings to enforce
+     * @param gracePeriodSeconds seconds after start without evaluation, e.g. the ramp-up time
+     * @param abortAction stops the running test; called at most once
+     */
+    public SlaWatchdog(Supplier<MetricsSnapshot> metrics, StressTestConfig.PerformanceThresholds thresholds,
+                       int gracePeriodSeconds, Runnable abortAction) {
+        this.metrics = metrics;
+        this.thresholds = thresholds;
+        this.gracePeriodMillis = Math.max(gracePeriodSeconds, thresholds.getGracePeriodSeconds()) * 1000L;
+        this.abortAction = abortAction;
+    }
+
+    public synchronized void start() {
+        startedAt = System.currentTimeMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sla-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::evaluateSafely, EVALUATION_INTERVAL_MS, EVALUATION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        logger.info("SLA watchdog started (window={}s, sustained breach={}s, grace period={}s)",
+                thresholds.getEvaluationWindowSeconds(), thresholds.getSustainedBreachSeconds(), gracePeriodMillis / 1000);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public boolean isAborted() {
+        return abortReason != null;
+    }
+
+    public String getAbortReason() {
+        return abortReason;
+    }
+
+    private void evaluateSafely() {
+        try {
+            evaluate(metrics.get());
+        } catch (Exception e) {
+            logger.warn("SLA watchdog evaluation failed", e);
+        }
+    }
+
+    /**
+     * Evaluates the latest live snapshot against the thresholds over the rolling window
+     */
+    synchronized void evaluate(MetricsSnapshot current) {
+        if (current == null || abortReason != null) {
+            return;
+        }
+
+        long windowMillis = thresholds.getEvaluationWindowSeconds() * 1000L;
+        history.addLast(current);
+        while (history.size() > 1 && current.getCapturedAt() - history.peekFirst().getCapturedAt() > windowMillis) {
+            history.removeFirst();
+        }
+
+        if (current.getCapturedAt() - startedAt < gracePeriodMillis) {
+            return;
+        }
+        MetricsSnapshot windowStart = history.peekFirst();
+        if (current.getCapturedAt() - windowStart.getCapturedAt() < windowMillis * 0.9) {
+            return; // Window not filled yet
+        }
+
+        String breach = findBreach(current.since(windowStart));
+        if (breach == null) {
+            if (breachStartedAt >= 0) {
+                logger.info("SLA breach cleared after {}ms", current.getCapturedAt() - breachStartedAt);
+            }
+            breachStartedAt = -1;
+            return;
+        }
+
+        if (breachStartedAt < 0) {
+            breachStartedAt = current.getCapturedAt();
+            logger.warn("SLA breach detected: {}", breach);
+        }
+
+        long breachDuration = current.getCapturedAt() - breachStartedAt;
+        if (breachDuration >= thresholds.getSustainedBreachSeconds() * 1000L) {
+            abortReason = String.format("%s (sustained for %ds)", breach, breachDuration / 1000);
+            logger.error("Aborting test, SLA breached: {}", abortReason);
+            abortAction.run();
+        }
+    }
+
+    private String findBreach(MetricsSnapshot window) {
+        StringBuilder breaches = new StringBuilder();
+
+        if (window.getTotalSamples() >= MIN_WINDOW_SAMPLES) {
+            if (window.getErrorRate() > thresholds.getMaxErrorRate()) {
+                breaches.append(String.format("Error rate %.2f%% exceeds %.2f%%. ",
+                        window.getErrorRate() * 100, thresholds.getMaxErrorRate() * 100));
+            }
+            if (window.getPercentile(95) > thresholds.getMaxP95ResponseTime()) {
+                breaches.append(String.format("95th percentile response time %dms exceeds %dms. ",
+                        window.getPercentile(95), thresholds.getMaxP95ResponseTime()));
+            }
+        }
+
+        if (window.getThroughput() < thresholds.getMinThroughput()) {
+            breaches.append(String.format("Throughput %.2f req/s below %.2f req/s. ",
+                    window.getThroughput(), thresholds.getMinThroughput()));
+        }
+
+        return breaches.length() > 0 ? breaches.toString().trim() : null;
+    }
+}
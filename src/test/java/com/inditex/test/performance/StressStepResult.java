@@ -0,0 +1,95 @@
+package com.inditex.test.performance;
+
+/**
+ * Metrics of one load step of a stepped stress test, measured over the step's
+ * hold period once its users have ramped up.
+ */
+public class StressStepResult {
+    private final int step;
+    private final int users;
+    private final long totalSamples;
+    private final double errorRate;
+    private final double averageResponseTime;
+    private final long p95ResponseTime;
+    private final long p99ResponseTime;
+    private final double throughput;
+    private String breachReason;
+
+    public StressStepResult(int step, int users, MetricsSnapshot metrics) {
+        this.step = step;
+        this.users = users;
+        this.totalSamples = metrics.getTotalSamples();
+        this.errorRate = metrics.getErrorRate();
+        this.averageResponseTime = metrics.getAverageResponseTime();
+        this.p95ResponseTime = metrics.getPercentile(95);
+        this.p99ResponseTime = metrics.getPercentile(99);
+        this.throughput = metrics.getThroughput();
+    }
+
+    /**
+     * Checks the step against the p95 and error rate thresholds and returns whether it held
+     */
+    public boolean evaluate(StressTestConfig.PerformanceThresholds thresholds) {
+        StringBuilder breaches = new StringBuilder();
+        if (totalSamples == 0) {
+            breaches.append("No samples completed. ");
+        }
+        if (p95ResponseTime > thresholds.getMaxP95ResponseTime()) {
+            breaches.append(String.format("95th percentile response time %dms exceeds %dms. ",
+                    p95ResponseTime, thresholds.getMaxP95ResponseTime()));
+        }
+        if (errorRate > thresholds.getMaxErrorRate()) {
+            breaches.append(String.format("Error rate %.2f%% exceeds %.2f%%. ",
+                    errorRate * 100, thresholds.getMaxErrorRate() * 100));
+        }
+        breachReason = breaches.length() > 0 ? breaches.toString().trim() : null;
+        return breachReason == null;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public double getAverageResponseTime() {
+        return averageResponseTime;
+    }
+
+    public long getP95ResponseTime() {
+        return p95ResponseTime;
+    }
+
+    public long getP99ResponseTime() {
+        return p99ResponseTime;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public boolean isWithinThresholds() {
+        return breachReason == null;
+    }
+
+    public String getBreachReason() {
+        return breachReason;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Step %d (%d users): samples=%d, errors=%.2f%%, avg=%.2fms, p95=%dms, p99=%dms, throughput=%.2f req/s%s",
+                step, users, totalSamples, errorRate * 100, averageResponseTime, p95ResponseTime, p99ResponseTime,
+                throughput, breachReason != null ? " - " + breachReason : "");
+    }
+}
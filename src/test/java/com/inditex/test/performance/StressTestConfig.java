@@ -12,6 +12,8 @@ public class StressTestConfig {
     private int rampUpTime;
     private int duration; // in seconds
     private int thinkTime; // in milliseconds
+    private int stepUsers; // users added per step, 0 for five equal steps
+    private int stepHoldTime; // in seconds, 0 to split the duration evenly across steps
     private List<HTTPRequestConfig> httpRequests;
     private Map<String, String> userVariables;
     private PerformanceThresholds thresholds;
@@ -80,6 +82,44 @@ public class StressTestConfig {
         this.thinkTime = thinkTime;
     }
 
+    public int getStepUsers() {
+        return stepUsers;
+    }
+
+    public void setStepUsers(int stepUsers) {
+        this.stepUsers = stepUsers;
+    }
+
+    public int getStepHoldTime() {
+        return stepHoldTime;
+    }
+
+    public void setStepHoldTime(int stepHoldTime) {
+        this.stepHoldTime = stepHoldTime;
+    }
+
+    /**
+     * Concurrent users of each step, from the initial users up to and including the max users
+     */
+    public List<Integer> getStepUserCounts() {
+        int increment = stepUsers > 0 ? stepUsers : Math.max(1, (int) Math.ceil((maxUsers - initialUsers) / 4.0));
+        List<Integer> steps = new ArrayList<>();
+        int users = initialUsers > 0 ? initialUsers : Math.min(increment, maxUsers);
+        while (users < maxUsers) {
+            steps.add(users);
+            users += increment;
+        }
+        steps.add(maxUsers);
+        return steps;
+    }
+
+    /**
+     * Seconds each step is held, derived from the total duration unless set explicitly
+     */
+    public int getEffectiveStepHoldTime() {
+        return stepHoldTime > 0 ? stepHoldTime : Math.max(1, duration / getStepUserCounts().size());
+    }
+
     public List<HTTPRequestConfig> getHttpRequests() {
         return httpRequests;
     }
@@ -114,8 +154,8 @@ public class StressTestConfig {
 
     @Override
     public String toString() {
-        return String.format("StressTestConfig{testName='%s', initialUsers=%d, maxUsers=%d, rampUpTime=%d, duration=%d}",
-                testName, initialUsers, maxUsers, rampUpTime, duration);
+        return String.format("StressTestConfig{testName='%s', initialUsers=%d, maxUsers=%d, rampUpTime=%d, duration=%d, stepUsers=%d, stepHoldTime=%d}",
+                testName, initialUsers, maxUsers, rampUpTime, duration, stepUsers, stepHoldTime);
     }
 
     public static class PerformanceThresholds {
@@ -124,6 +164,10 @@ public class StressTestConfig {
         private double minThroughput = 10.0; // requests per second
         private long maxMemoryUsage = 1000; // MB
         private double maxCpuUsage = 80.0; // percentage
+        private long maxP95ResponseTime = 5000; // 5 seconds
+        private int evaluationWindowSeconds = 10; // rolling window evaluated during the run
+        private int sustainedBreachSeconds = 30; // how long a breach must last before aborting
+        private int gracePeriodSeconds = 0; // no evaluation before this (at least the ramp-up time)
 
         public long getMaxResponseTime() {
             return maxResponseTime;
@@ -164,5 +208,37 @@ public class StressTestConfig {
         public void setMaxCpuUsage(double maxCpuUsage) {
             this.maxCpuUsage = maxCpuUsage;
         }
+
+        public long getMaxP95ResponseTime() {
+            return maxP95ResponseTime;
+        }
+
+        public void setMaxP95ResponseTime(long maxP95ResponseTime) {
+            this.maxP95ResponseTime = maxP95ResponseTime;
+        }
+
+        public int getEvaluationWindowSeconds() {
+            return evaluationWindowSeconds;
+        }
+
+        public void setEvaluationWindowSeconds(int evaluationWindowSeconds) {
+            this.evaluationWindowSeconds = evaluationWindowSeconds;
+        }
+
+        public int getSustainedBreachSeconds() {
+            return sustainedBreachSeconds;
+        }
+
+        public void setSustainedBreachSeconds(int sustainedBreachSeconds) {
+            this.sustainedBreachSeconds = sustainedBreachSeconds;
+        }
+
+        public int getGracePeriodSeconds() {
+            return gracePeriodSeconds;
+        }
+
+        public void setGracePeriodSeconds(int gracePeriodSeconds) {
+            this.gracePeriodSeconds = gracePeriodSeconds;
+        }
     }
 }
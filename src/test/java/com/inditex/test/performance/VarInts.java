@@ -0,0 +1,44 @@
+package com.inditex.test.performance;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * LEB128 variable-length integers shared by the binary formats of the performance
+ * results: 7 bits per byte, high bit set while more bytes follow. Signed values are
+ * zigzag encoded first so small negative numbers stay short too.
+ */
+final class VarInts {
+
+    private VarInts() {
+    }
+
+    static void writeUnsigned(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    static long readUnsigned(ByteBuffer input) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = input.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length number at offset " + input.position());
+    }
+
+    static void writeSigned(ByteArrayOutputStream output, long value) {
+        writeUnsigned(output, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSigned(ByteBuffer input) {
+        long value = readUnsigned(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
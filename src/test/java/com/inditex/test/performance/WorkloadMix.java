@@ -0,0 +1,539 @@
+package com.inditex.test.performance;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import com.inditex.test.config.ConfigManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Declarative workload mix: personas with relative weights, each browsing its actions as a
+ * Markov chain. A session starts at the persona's entry action; after every action the
+ * next one is drawn from the transition probabilities of the current action, and whatever
+ * probability is left over ends the session. Think times between actions follow a constant,
+ * exponential or lognormal distribution.
+ * <p>
+ * Mixes are loaded from YAML or JSON and run both by the generated JMeter plans and by the
+ * {@link HttpClientLoadEngine}; in both, users are split between personas by weight.
+ */
+public class WorkloadMix {
+    private static final double PROBABILITY_TOLERANCE = 1e-9;
+
+    private String name;
+    private List<Persona> personas = new ArrayList<>();
+
+    public WorkloadMix() {
+    }
+
+    /**
+     * Loads and validates a mix from a .yaml/.yml or .json file
+     */
+    public static WorkloadMix load(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return read(input, file.toString());
+        }
+    }
+
+    /**
+     * The mix named by performance.workload.mix, a file path or else a classpath resource
+     */
+    public static WorkloadMix fromConfig() throws IOException {
+        String location = ConfigManager.getProperty("performance.workload.mix", "workload/black_friday.yaml");
+        Path file = Paths.get(location);
+        if (Files.isRegularFile(file)) {
+            return load(file);
+        }
+        try (InputStream input = WorkloadMix.class.getClassLoader().getResourceAsStream(location)) {
+            if (input == null) {
+                throw new IOException("Workload mix not found: " + location);
+            }
+            return read(input, location);
+        }
+    }
+
+    private static WorkloadMix read(InputStream input, String location) throws IOException {
+        String lowerCase = location.toLowerCase();
+        ObjectMapper mapper = lowerCase.endsWith(".yaml") || lowerCase.endsWith(".yml")
+                ? YAMLMapper.builder().enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+                        .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build()
+                : JsonMapper.builder().enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+                        .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+        WorkloadMix mix = mapper.readValue(input, WorkloadMix.class);
+        try {
+            mix.validate();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid workload mix " + location + ": " + e.getMessage(), e);
+        }
+        return mix;
+    }
+
+    /**
+     * Checks weights, transitions and think times, and that every session can end
+     */
+    public void validate() {
+        if (personas == null || personas.isEmpty()) {
+            throw new IllegalArgumentException("no personas");
+        }
+        Set<String> names = new HashSet<>();
+        for (Persona persona : personas) {
+            if (!names.add(persona.getName())) {
+                throw new IllegalArgumentException("duplicate persona " + persona.getName());
+            }
+            persona.validate();
+        }
+    }
+
+    /**
+     * Splits users between the personas by weight, largest remainder first, so the counts
+     * add up to the total
+     */
+    public int[] allocateUsers(int totalUsers) {
+        double totalWeight = getTotalWeight();
+        int[] users = new int[personas.size()];
+        double[] remainders = new double[personas.size()];
+        int allocated = 0;
+        for (int i = 0; i < users.length; i++) {
+            double share = totalUsers * personas.get(i).getWeight() / totalWeight;
+            users[i] = (int) share;
+            remainders[i] = share - users[i];
+            allocated += users[i];
+        }
+        for (; allocated < totalUsers; allocated++) {
+            int largest = 0;
+            for (int i = 1; i < remainders.length; i++) {
+                if (remainders[i] > remainders[largest]) {
+                    largest = i;
+                }
+            }
+            users[largest]++;
+            remainders[largest] = -1;
+        }
+        return users;
+    }
+
+    /**
+     * Draws a persona by weight, e.g. for each arrival of an open model test
+     */
+    public Persona choosePersona(Random random) {
+        double draw = random.nextDouble() * getTotalWeight();
+        for (Persona persona : personas) {
+            draw -= persona.getWeight();
+            if (draw < 0) {
+                return persona;
+            }
+        }
+        return personas.get(personas.size() - 1);
+    }
+
+    private double getTotalWeight() {
+        return personas.stream().mapToDouble(Persona::getWeight).sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Persona> getPersonas() {
+        return personas;
+    }
+
+    public void setPersonas(List<Persona> personas) {
+        this.personas = personas;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WorkloadMix{name='%s', personas=%d}", name, personas.size());
+    }
+
+    /**
+     * One kind of user: its share of the load, its actions and how it moves between them
+     */
+    public static class Persona {
+        private String name;
+        private double weight;
+        private String entry;
+        private ThinkTime thinkTime = new ThinkTime();
+        private List<Action> actions = new ArrayList<>();
+        // from action -> to action -> probability, the rest ends the session
+        private Map<String, Map<String, Double>> transitions = new LinkedHashMap<>();
+
+        public Persona() {
+        }
+
+        /**
+         * The action after the given one, or null when the session ends
+         */
+        public Action next(String current, Random random) {
+            Map<String, Double> targets = transitions.get(current);
+            if (targets == null) {
+                return null;
+            }
+            double draw = random.nextDouble();
+            for (Map.Entry<String, Double> target : targets.entrySet()) {
+                draw -= target.getValue();
+                if (draw < 0) {
+                    return getAction(target.getKey());
+                }
+            }
+            return null;
+        }
+
+        public Action getAction(String actionName) {
+            for (Action action : actions) {
+                if (action.getName().equals(actionName)) {
+                    return action;
+                }
+            }
+            throw new IllegalArgumentException("Persona " + name + " has no action " + actionName);
+        }
+
+        /**
+         * Think time after the given action: its own distribution, else the persona's
+         */
+        public ThinkTime thinkTimeAfter(Action action) {
+            return action.getThinkTime() != null ? action.getThinkTime() : thinkTime;
+        }
+
+        void validate() {
+            if (name == null || name.trim().isEmpty()) {
+                throw new IllegalArgumentException("persona without a name");
+            }
+            if (!(weight > 0)) {
+                throw new IllegalArgumentException("persona " + name + " needs a positive weight");
+            }
+            if (actions == null || actions.isEmpty()) {
+                throw new IllegalArgumentException("persona " + name + " has no actions");
+            }
+            Set<String> actionNames = new HashSet<>();
+            for (Action action : actions) {
+                action.validate(name);
+                if (!actionNames.add(action.getName())) {
+                    throw new IllegalArgumentException("persona " + name + " has duplicate action " + action.getName());
+                }
+            }
+            if (entry == null) {
+                entry = actions.get(0).getName();
+            } else if (!actionNames.contains(entry)) {
+                throw new IllegalArgumentException("persona " + name + " enters at unknown action " + entry);
+            }
+            thinkTime.validate(name);
+
+            for (Map.Entry<String, Map<String, Double>> from : transitions.entrySet()) {
+                if (!actionNames.contains(from.getKey())) {
+                    throw new IllegalArgumentException("persona " + name + " has transitions from unknown action " + from.getKey());
+                }
+                double total = 0;
+                for (Map.Entry<String, Double> to : from.getValue().entrySet()) {
+                    if (!actionNames.contains(to.getKey())) {
+                        throw new IllegalArgumentException("persona " + name + " has a transition to unknown action " + to.getKey());
+                    }
+                    if (to.getValue() == null || to.getValue() < 0) {
+                        throw new IllegalArgumentException("persona " + name + " has a negative transition probability "
+                                + from.getKey() + " -> " + to.getKey());
+                    }
+                    total += to.getValue();
+                }
+                if (total > 1 + PROBABILITY_TOLERANCE) {
+                    throw new IllegalArgumentException(String.format("persona %s: transitions from %s add up to %.3f",
+                            name, from.getKey(), total));
+                }
+            }
+            validateSessionsEnd();
+        }
+
+        /**
+         * Every action reachable from the entry must have a path to the end of the session,
+         * otherwise a session could run forever
+         */
+        private void validateSessionsEnd() {
+            Map<String, List<String>> predecessors = new HashMap<>();
+            Deque<String> pending = new ArrayDeque<>();
+            Set<String> canEnd = new HashSet<>();
+            for (Action action : actions) {
+                Map<String, Double> targets = transitions.getOrDefault(action.getName(), Map.of());
+                double total = 0;
+                for (Map.Entry<String, Double> to : targets.entrySet()) {
+                    total += to.getValue();
+                    if (to.getValue() > 0) {
+                        predecessors.computeIfAbsent(to.getKey(), key -> new ArrayList<>()).add(action.getName());
+                    }
+                }
+                if (total < 1 - PROBABILITY_TOLERANCE && canEnd.add(action.getName())) {
+                    pending.add(action.getName());
+                }
+            }
+            while (!pending.isEmpty()) {
+                for (String predecessor : predecessors.getOrDefault(pending.poll(), List.of())) {
+                    if (canEnd.add(predecessor)) {
+                        pending.add(predecessor);
+                    }
+                }
+            }
+
+            Deque<String> reachable = new ArrayDeque<>(List.of(entry));
+            Set<String> visited = new HashSet<>(reachable);
+            while (!reachable.isEmpty()) {
+                String action = reachable.poll();
+                if (!canEnd.contains(action)) {
+                    throw new IllegalArgumentException("persona " + name + " can never leave action " + action);
+                }
+                for (Map.Entry<String, Double> to : transitions.getOrDefault(action, Map.of()).entrySet()) {
+                    if (to.getValue() > 0 && visited.add(to.getKey())) {
+                        reachable.add(to.getKey());
+                    }
+                }
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+
+        public String getEntry() {
+            return entry;
+        }
+
+        public void setEntry(String entry) {
+            this.entry = entry;
+        }
+
+        public ThinkTime getThinkTime() {
+            return thinkTime;
+        }
+
+        public void setThinkTime(ThinkTime thinkTime) {
+            this.thinkTime = thinkTime;
+        }
+
+        public List<Action> getActions() {
+            return actions;
+        }
+
+        public void setActions(List<Action> actions) {
+            this.actions = actions;
+        }
+
+        public Map<String, Map<String, Double>> getTransitions() {
+            return transitions;
+        }
+
+        public void setTransitions(Map<String, Map<String, Double>> transitions) {
+            this.transitions = transitions;
+        }
+    }
+
+    /**
+     * One request a persona makes; the path is relative to the base URL of the run
+     */
+    public static class Action {
+        private String name;
+        private String path;
+        private String method = "GET";
+        private String body;
+        private ThinkTime thinkTime;
+
+        public Action() {
+        }
+
+        /**
+         * The request of this action against the given base URL, for the load engines
+         */
+        public HTTPRequestConfig toRequest(URI baseUrl) {
+            HTTPRequestConfig request = new HTTPRequestConfig(name, baseUrl.getHost(), path, method);
+            request.setPort(baseUrl.getPort() > 0 ? baseUrl.getPort() : "https".equals(baseUrl.getScheme()) ? 443 : 80);
+            if (body != null) {
+                request.setBodyData(body);
+                request.getHeaders().put("Content-Type", "application/json");
+            }
+            return request;
+        }
+
+        void validate(String persona) {
+            if (name == null || name.trim().isEmpty() || path == null) {
+                throw new IllegalArgumentException("persona " + persona + " has an action without name or path");
+            }
+            if (thinkTime != null) {
+                thinkTime.validate(persona + "/" + name);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public void setBody(String body) {
+            this.body = body;
+        }
+
+        public ThinkTime getThinkTime() {
+            return thinkTime;
+        }
+
+        public void setThinkTime(ThinkTime thinkTime) {
+            this.thinkTime = thinkTime;
+        }
+    }
+
+    /**
+     * Think time distribution in milliseconds, clamped to [min, max]. Lognormal think times
+     * are given by their mean and standard deviation rather than by mu and sigma.
+     */
+    public static class ThinkTime {
+        public enum Distribution { CONSTANT, EXPONENTIAL, LOGNORMAL }
+
+        private Distribution distribution = Distribution.CONSTANT;
+        private double mean = 1000;
+        private double stdDev;
+        private long min;
+        private long max = Long.MAX_VALUE;
+
+        public ThinkTime() {
+        }
+
+        public long sample(Random random) {
+            double value;
+            switch (distribution) {
+                case EXPONENTIAL:
+                    value = -mean * Math.log(1 - random.nextDouble());
+                    break;
+                case LOGNORMAL:
+                    value = Math.exp(lognormalMu() + lognormalSigma() * random.nextGaussian());
+                    break;
+                default:
+                    value = mean;
+            }
+            return Math.max(min, Math.min(max, Math.round(value)));
+        }
+
+        /**
+         * Mean of the underlying normal distribution of a lognormal think time
+         */
+        public double lognormalMu() {
+            return Math.log(mean) - lognormalSigma() * lognormalSigma() / 2;
+        }
+
+        /**
+         * Standard deviation of the underlying normal distribution of a lognormal think time
+         */
+        public double lognormalSigma() {
+            return Math.sqrt(Math.log(1 + (stdDev * stdDev) / (mean * mean)));
+        }
+
+        void validate(String owner) {
+            if (distribution == null || mean < 0 || min < 0 || max < min) {
+                throw new IllegalArgumentException("invalid think time of " + owner + ": " + this);
+            }
+            if (distribution != Distribution.CONSTANT && !(mean > 0)) {
+                throw new IllegalArgumentException("think time of " + owner + " needs a positive mean");
+            }
+            if (distribution == Distribution.LOGNORMAL && !(stdDev > 0)) {
+                throw new IllegalArgumentException("lognormal think time of " + owner + " needs a positive stdDev");
+            }
+        }
+
+        public Distribution getDistribution() {
+            return distribution;
+        }
+
+        public void setDistribution(Distribution distribution) {
+            this.distribution = distribution;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public void setMean(double mean) {
+            this.mean = mean;
+        }
+
+        public double getStdDev() {
+            return stdDev;
+        }
+
+        public void setStdDev(double stdDev) {
+            this.stdDev = stdDev;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public void setMin(long min) {
+            this.min = min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public void setMax(long max) {
+            this.max = max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ThinkTime{distribution=%s, mean=%.0fms, stdDev=%.0fms, min=%d, max=%d}",
+                    distribution, mean, stdDev, min, max);
+        }
+    }
+}
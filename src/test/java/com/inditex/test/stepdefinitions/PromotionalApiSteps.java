@@ -1,5 +1,6 @@
 package com.inditex.test.stepdefinitions;
 
+import com.inditex.test.api.ConcurrentPriceResult;
 import com.inditex.test.api.PromotionalPricingApiClient;
 import com.inditex.test.model.PromotionalPriceRequest;
 import com.inditex.test.model.PromotionalPriceResponse;
@@ -20,7 +21,7 @@ public class PromotionalApiSteps {
     
     private PromotionalPricingApiClient apiClient;
     private Response lastResponse;
-    private Response[] concurrentResponses;
+    private ConcurrentPriceResult concurrentResult;
     private String currentAuthMethod;
     private String currentCredentials;
     private long requestStartTime;
@@ -175,14 +176,15 @@ public class PromotionalApiSteps {
         logger.info("Making {} concurrent API requests", numberOfProducts);
         
         requestStartTime = System.currentTimeMillis();
-        concurrentResponses = apiClient.getConcurrentPromotionalPrices("ZARA001ES", "Zara", "ES", numberOfProducts);
+        concurrentResult = apiClient.getConcurrentPromotionalPrices("ZARA001ES", "Zara", "ES", numberOfProducts);
         requestEndTime = System.currentTimeMillis();
         
-        Assert.assertNotNull(concurrentResponses, "Concurrent responses should not be null");
-        Assert.assertEquals(concurrentResponses.length, numberOfProducts, 
+        Assert.assertNotNull(concurrentResult, "Concurrent result should not be null");
+        Assert.assertEquals(concurrentResult.getCompletedCount(), numberOfProducts, 
             "Should receive responses for all requested products");
         
-        logger.info("Completed {} concurrent requests in {}ms", numberOfProducts, (requestEndTime - requestStartTime));
+        logger.info("Completed {} concurrent requests in {}ms, p99 latency {}ms", numberOfProducts,
+            (requestEndTime - requestStartTime), concurrentResult.getLatencies().getValueAtPercentile(99));
     }
 
     @Then("all API responses should be received within {int} seconds")
@@ -199,16 +201,17 @@ public class PromotionalApiSteps {
 
     @Then("all responses should have status code {int}")
     public void allResponsesShouldHaveStatusCode(int expectedStatusCode) {
-        Assert.assertNotNull(concurrentResponses, "Concurrent responses should not be null");
+        Assert.assertNotNull(concurrentResult, "Concurrent result should not be null");
         
-        for (int i = 0; i < concurrentResponses.length; i++) {
-            Response response = concurrentResponses[i];
+        List<Response> responses = concurrentResult.getResponses();
+        for (int i = 0; i < responses.size(); i++) {
+            Response response = responses.get(i);
             Assert.assertNotNull(response, "Response " + i + " should not be null");
             Assert.assertEquals(response.getStatusCode(), expectedStatusCode, 
                 "Response " + i + " should have status code " + expectedStatusCode);
         }
         
-        logger.info("All {} concurrent responses have status code {}", concurrentResponses.length, expectedStatusCode);
+        logger.info("All {} concurrent responses have status code {}", responses.size(), expectedStatusCode);
     }
 
     @Given("I use authentication method {string} with credentials {string}")
@@ -95,7 +95,6 @@ public class CsvDataReader {
     private static List<Map<String, String>> loadTestDataFromFile(String csvFileName) {
         logger.info("Loading test data from CSV file: {}", csvFileName);
         
-        List<Map<String, String>> testDataList = new ArrayList<>();
         String filePath = "/testdata/" + csvFileName;
         
         try (InputStream inputStream = CsvDataReader.class.getResourceAsStream(filePath)) {
@@ -105,18 +104,10 @@ public class CsvDataReader {
                 throw new TestDataException(errorMsg);
             }
             
-            try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-                 CSVParser csvParser = new CSVParser(reader, getCSVFormat())) {
-                
-                logger.debug("Parsing CSV file: {}", csvFileName);
-                
-                for (CSVRecord csvRecord : csvParser) {
-                    Map<String, String> recordMap = csvRecord.toMap();
-                    validateRecord(recordMap, csvRecord.getRecordNumber());
-                    testDataList.add(recordMap);
-                }
-                
+            try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                List<Map<String, String>> testDataList = parseTestData(reader, csvFileName);
                 logger.info("Successfully loaded {} records from {}", testDataList.size(), csvFileName);
+                return testDataList;
             }
             
         } catch (IOException e) {
@@ -124,7 +115,22 @@ public class CsvDataReader {
             logger.error(errorMsg, e);
             throw new TestDataException(errorMsg, e);
         }
-        
+    }
+    
+    /**
+     * Parses and validates CSV test data records; the loading path without the classpath lookup
+     */
+    static List<Map<String, String>> parseTestData(Reader reader, String csvFileName) throws IOException {
+        List<Map<String, String>> testDataList = new ArrayList<>();
+        try (CSVParser csvParser = new CSVParser(reader, getCSVFormat())) {
+            logger.debug("Parsing CSV file: {}", csvFileName);
+            
+            for (CSVRecord csvRecord : csvParser) {
+                Map<String, String> recordMap = csvRecord.toMap();
+                validateRecord(recordMap, csvRecord.getRecordNumber());
+                testDataList.add(recordMap);
+            }
+        }
         return testDataList;
     }
     